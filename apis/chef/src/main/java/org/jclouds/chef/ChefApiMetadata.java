@@ -21,6 +21,7 @@ import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 import static org.jclouds.Constants.PROPERTY_TIMEOUTS_PREFIX;
 import static org.jclouds.chef.config.ChefProperties.CHEF_BOOTSTRAP_DATABAG;
+import static org.jclouds.chef.config.ChefProperties.CHEF_MAX_CONCURRENT_REQUESTS;
 import static org.jclouds.chef.config.ChefProperties.CHEF_UPDATE_GEMS;
 import static org.jclouds.chef.config.ChefProperties.CHEF_UPDATE_GEM_SYSTEM;
 import static org.jclouds.chef.config.ChefProperties.CHEF_USE_OMNIBUS;
@@ -79,6 +80,7 @@ public class ChefApiMetadata extends BaseHttpApiMetadata<ChefApi> {
       properties.setProperty(CHEF_UPDATE_GEM_SYSTEM, "false");
       properties.setProperty(CHEF_UPDATE_GEMS, "false");
       properties.setProperty(CHEF_USE_OMNIBUS, "true");
+      properties.setProperty(CHEF_MAX_CONCURRENT_REQUESTS, "20");
       return properties;
    }
 
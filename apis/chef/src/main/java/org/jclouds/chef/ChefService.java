@@ -18,6 +18,7 @@ package org.jclouds.chef;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import org.jclouds.chef.config.ChefProperties;
@@ -160,6 +161,24 @@ public interface ChefService {
     */
    Iterable<? extends Node> listNodes(ExecutorService executorService);
 
+   /**
+    * Lists the details of all existing nodes, fetching them concurrently using the executorService as the result is
+    * iterated, so that they are never all held in memory. Each iteration fetches the nodes again.
+    *
+    * @return A lazy view of the details of all existing nodes.
+    */
+   Iterable<? extends Node> streamNodes(ExecutorService executorService);
+
+   /**
+    * Updates a snapshot of all existing nodes, only fetching nodes that were added or reported in since the
+    * snapshot was taken.
+    *
+    * @param snapshot The previous snapshot, keyed by node name.
+    * @param executorService The thread pool used in this operation
+    * @return The updated snapshot, keyed by node name.
+    */
+   Map<String, Node> syncNodes(Map<String, ? extends Node> snapshot, ExecutorService executorService);
+
    /**
     * Lists the details of all existing nodes in the given environment.
     *
@@ -193,6 +212,14 @@ public interface ChefService {
     */
    Iterable<? extends Client> listClients(ExecutorService executorService);
 
+   /**
+    * Lists the details of all existing clients, fetching them concurrently using the executorService as the result
+    * is iterated, so that they are never all held in memory. Each iteration fetches the clients again.
+    *
+    * @return A lazy view of the details of all existing clients.
+    */
+   Iterable<? extends Client> streamClients(ExecutorService executorService);
+
    /**
     * Lists the details of all existing cookbooks.
     *
@@ -107,6 +107,15 @@ public final class ChefProperties {
     */
    public static final String CHEF_USE_OMNIBUS = "chef.use-omnibus";
 
+   /**
+    * Integer property. Default (20).
+    * <p>
+    * The maximum number of node or client details fetched concurrently when
+    * listing them with an executor, so that large listings do not flood the
+    * executor or the Chef server.
+    */
+   public static final String CHEF_MAX_CONCURRENT_REQUESTS = "chef.max-concurrent-requests";
+
    private ChefProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
@@ -22,6 +22,7 @@ import static org.jclouds.chef.config.ChefProperties.CHEF_BOOTSTRAP_DATABAG;
 import java.io.IOException;
 import java.io.InputStream;
 import java.security.PrivateKey;
+import java.util.Map;
 import java.util.concurrent.ExecutorService;
 
 import jakarta.annotation.Resource;
@@ -50,6 +51,7 @@ import org.jclouds.chef.strategy.ListCookbookVersionsInEnvironment;
 import org.jclouds.chef.strategy.ListEnvironments;
 import org.jclouds.chef.strategy.ListNodes;
 import org.jclouds.chef.strategy.ListNodesInEnvironment;
+import org.jclouds.chef.strategy.SyncNodes;
 import org.jclouds.chef.strategy.UpdateAutomaticAttributesOnNode;
 import org.jclouds.crypto.Crypto;
 import org.jclouds.io.ByteStreams2;
@@ -84,6 +86,7 @@ public class BaseChefService implements ChefService {
    private final ListCookbookVersionsInEnvironment listCookbookVersionsInEnvironment;
    private final ListEnvironments listEnvironments;
    private final ListNodesInEnvironment listNodesInEnvironment;
+   private final SyncNodes syncNodes;
    private final Json json;
    private final Crypto crypto;
 
@@ -100,7 +103,8 @@ public class BaseChefService implements ChefService {
          @Named(CHEF_BOOTSTRAP_DATABAG) String databag, GroupToBootScript groupToBootScript,
          BootstrapConfigForGroup bootstrapConfigForGroup, ListEnvironments listEnvironments,
          ListNodesInEnvironment listNodesInEnvironment,
-         ListCookbookVersionsInEnvironment listCookbookVersionsInEnvironment, Json json, Crypto crypto) {
+         ListCookbookVersionsInEnvironment listCookbookVersionsInEnvironment, SyncNodes syncNodes, Json json,
+         Crypto crypto) {
       this.api = api;
       this.cleanupStaleNodesAndClients = cleanupStaleNodesAndClients;
       this.createNodeAndPopulateAutomaticAttributes = createNodeAndPopulateAutomaticAttributes;
@@ -117,6 +121,7 @@ public class BaseChefService implements ChefService {
       this.listEnvironments = listEnvironments;
       this.listNodesInEnvironment = listNodesInEnvironment;
       this.listCookbookVersionsInEnvironment = listCookbookVersionsInEnvironment;
+      this.syncNodes = syncNodes;
       this.json = json;
       this.crypto = crypto;
    }
@@ -209,6 +214,16 @@ public class BaseChefService implements ChefService {
       return listNodes.execute(executorService);
    }
 
+   @Override
+   public Iterable<? extends Node> streamNodes(ExecutorService executorService) {
+      return listNodes.stream(executorService);
+   }
+
+   @Override
+   public Map<String, Node> syncNodes(Map<String, ? extends Node> snapshot, ExecutorService executorService) {
+      return syncNodes.execute(executorService, snapshot);
+   }
+
    @Override
    public Iterable<? extends Client> listClients() {
       return listClients.execute();
@@ -219,6 +234,11 @@ public class BaseChefService implements ChefService {
       return listClients.execute(executorService);
    }
 
+   @Override
+   public Iterable<? extends Client> streamClients(ExecutorService executorService) {
+      return listClients.stream(executorService);
+   }
+
    @Override
    public Iterable<? extends CookbookVersion> listCookbookVersions() {
       return listCookbookVersions.execute();
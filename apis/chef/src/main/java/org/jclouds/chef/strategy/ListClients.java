@@ -29,4 +29,11 @@ public interface ListClients {
 
    Iterable<? extends Client> execute(ExecutorService executor);
 
+   /**
+    * Fetches the clients on the executor as the result is iterated, so that
+    * they are not all held in memory at once. Each iteration fetches them
+    * again.
+    */
+   Iterable<? extends Client> stream(ExecutorService executor);
+
 }
@@ -16,6 +16,7 @@
  */
 package org.jclouds.chef.strategy;
 
+import com.google.common.base.Predicate;
 import com.google.inject.ImplementedBy;
 import org.jclouds.chef.domain.Node;
 import org.jclouds.chef.strategy.internal.ListNodesImpl;
@@ -29,4 +30,17 @@ public interface ListNodes {
 
    Iterable<? extends Node> execute(ExecutorService executor);
 
+   /**
+    * Fetches the nodes on the executor as the result is iterated, so that
+    * they are not all held in memory at once. Each iteration fetches them
+    * again.
+    */
+   Iterable<? extends Node> stream(ExecutorService executor);
+
+   /**
+    * Like {@link #stream(ExecutorService)}, but only fetches the nodes whose
+    * names match the filter, so that unrelated nodes are never transferred.
+    */
+   Iterable<? extends Node> stream(ExecutorService executor, Predicate<String> nodeNameFilter);
+
 }
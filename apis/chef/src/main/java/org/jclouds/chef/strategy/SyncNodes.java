@@ -0,0 +1,46 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.strategy.internal.SyncNodesImpl;
+
+import com.google.inject.ImplementedBy;
+
+/**
+ * Brings a local snapshot of the nodes up to date without fetching every node
+ * again.
+ */
+@ImplementedBy(SyncNodesImpl.class)
+public interface SyncNodes {
+
+   /**
+    * Returns a new snapshot of all nodes. Nodes missing from the given snapshot
+    * are fetched, nodes that reported to the server since the most recent
+    * {@code ohai_time} in the snapshot are found by search, nodes that no
+    * longer exist are dropped and all other nodes are carried over unchanged.
+    * 
+    * @param snapshot
+    *           The previous snapshot, keyed by node name. May be empty.
+    * @return The updated snapshot, keyed by node name.
+    */
+   Map<String, Node> execute(ExecutorService executor, Map<String, ? extends Node> snapshot);
+
+}
@@ -18,60 +18,62 @@ package org.jclouds.chef.strategy.internal;
 
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
-import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import org.jclouds.chef.ChefApi;
 import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.util.CollectionUtils;
 import org.jclouds.logging.Logger;
 
-import java.util.List;
-import java.util.concurrent.Callable;
-
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.util.concurrent.Futures.allAsList;
-import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static org.jclouds.chef.util.CollectionUtils.transformConcurrently;
 
 public abstract class BaseListNodesImpl {
 
    protected final ChefApi api;
+   protected final int maxConcurrentRequests;
 
    protected Logger logger = Logger.NULL;
 
-   BaseListNodesImpl(ChefApi api) {
+   private final Function<String, Node> getNode = new Function<String, Node>() {
+      @Override
+      public Node apply(String input) {
+         return api.getNode(input);
+      }
+   };
+
+   BaseListNodesImpl(ChefApi api, int maxConcurrentRequests) {
       this.api = checkNotNull(api, "api");
+      this.maxConcurrentRequests = maxConcurrentRequests;
    }
 
    protected Iterable<? extends Node> execute(Iterable<String> toGet) {
-      Iterable<? extends Node> nodes = transform(toGet, new Function<String, Node>() {
-               @Override
-               public Node apply(final String input) {
-                  return api.getNode(input);
-               }
-            }
-      );
+      Iterable<? extends Node> nodes = transform(toGet, getNode);
 
-      logger.trace(String.format("getting nodes: %s", Joiner.on(',').join(toGet)));
+      if (logger.isTraceEnabled())
+         logger.trace(String.format("getting nodes: %s", Joiner.on(',').join(toGet)));
       return nodes;
 
    }
 
+   /**
+    * Fetches the nodes on the executor, with at most
+    * {@link #maxConcurrentRequests} requests in flight.
+    */
    protected Iterable<? extends Node> executeConcurrently(final ListeningExecutorService executor,
          Iterable<String> toGet) {
-      ListenableFuture<List<Node>> futures = allAsList(transform(toGet, new Function<String, ListenableFuture<Node>>() {
-         @Override
-         public ListenableFuture<Node> apply(final String input) {
-            return executor.submit(new Callable<Node>() {
-               @Override
-               public Node call() throws Exception {
-                  return api.getNode(input);
-               }
-            });
-         }
-      }));
+      if (logger.isTraceEnabled())
+         logger.trace(String.format("getting nodes: %s", Joiner.on(',').join(toGet)));
+      return transformConcurrently(toGet, getNode, executor, maxConcurrentRequests);
+   }
 
-      logger.trace(String.format("getting nodes: %s", Joiner.on(',').join(toGet)));
-      return getUnchecked(futures);
+   /**
+    * Fetches the nodes on the executor as the result is iterated, with at most
+    * {@link #maxConcurrentRequests} requests in flight ahead of the consumer.
+    */
+   protected Iterable<? extends Node> streamConcurrently(final ListeningExecutorService executor,
+         Iterable<String> toGet) {
+      return CollectionUtils.streamConcurrently(toGet, getNode, executor, maxConcurrentRequests);
    }
 
 }
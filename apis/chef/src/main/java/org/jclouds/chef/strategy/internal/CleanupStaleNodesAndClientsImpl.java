@@ -17,8 +17,6 @@
 package org.jclouds.chef.strategy.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
-import static com.google.common.base.Predicates.and;
-import static com.google.common.base.Predicates.notNull;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.transform;
 import static org.jclouds.chef.util.ChefUtils.fromOhaiTime;
@@ -31,6 +29,7 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 
+import org.jclouds.Constants;
 import org.jclouds.chef.config.ChefProperties;
 import org.jclouds.chef.domain.Node;
 import org.jclouds.chef.strategy.CleanupStaleNodesAndClients;
@@ -42,6 +41,8 @@ import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * 
@@ -56,13 +57,15 @@ public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClie
    private final ListNodes nodeLister;
    private final DeleteAllNodesInList nodeDeleter;
    private final DeleteAllClientsInList clientDeleter;
+   private final ListeningExecutorService userExecutor;
 
    @Inject
    public CleanupStaleNodesAndClientsImpl(DeleteAllNodesInList nodeDeleter, DeleteAllClientsInList clientDeleter,
-         ListNodes nodeLister) {
+         ListNodes nodeLister, @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
       this.nodeLister = checkNotNull(nodeLister, "nodeLister");
       this.nodeDeleter = checkNotNull(nodeDeleter, "nodeDeleter");
       this.clientDeleter = checkNotNull(clientDeleter, "clientDeleter");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
    }
 
    @Override
@@ -70,32 +73,34 @@ public class CleanupStaleNodesAndClientsImpl implements CleanupStaleNodesAndClie
       final Calendar expired = Calendar.getInstance();
       expired.setTime(new Date());
       expired.add(Calendar.SECOND, -secondsStale);
-      Iterable<? extends Node> staleNodes = filter(
-         nodeLister.execute(), and(notNull(), new Predicate<Node>() {
-               @Override
-               public boolean apply(Node input) {
-                  return input.getName().startsWith(prefix);
-               }
-         },
-         new Predicate<Node>() {
-             @Override
-             public boolean apply(Node input) {
-                JsonBall dateLong = input.getAutomaticAttributes().get("ohai_time");
-                if (dateLong == null)
-                   return true;
-                Calendar nodeUpdate = Calendar.getInstance();
-                nodeUpdate.setTime(fromOhaiTime(dateLong));
-                return expired.after(nodeUpdate);
-             }
-         }));
-      Iterable<String> nodeNames = transform(staleNodes, new Function<Node, String>() {
+      // filter on the name before fetching, so that only nodes with the prefix are transferred, and stream them, so
+      // that only the names of the stale ones are held in memory
+      Iterable<? extends Node> nodesWithPrefix = nodeLister.stream(userExecutor, new Predicate<String>() {
+         @Override
+         public boolean apply(String input) {
+            return input.startsWith(prefix);
+         }
+      });
+      Iterable<? extends Node> staleNodes = filter(nodesWithPrefix, new Predicate<Node>() {
+         @Override
+         public boolean apply(Node input) {
+            JsonBall dateLong = input.getAutomaticAttributes().get("ohai_time");
+            if (dateLong == null)
+               return true;
+            Calendar nodeUpdate = Calendar.getInstance();
+            nodeUpdate.setTime(fromOhaiTime(dateLong));
+            return expired.after(nodeUpdate);
+         }
+      });
+      // only keep the names, as both deleters iterate over them
+      Iterable<String> nodeNames = ImmutableSet.copyOf(transform(staleNodes, new Function<Node, String>() {
 
          @Override
          public String apply(Node from) {
             return from.getName();
          }
 
-      });
+      }));
       nodeDeleter.execute(nodeNames);
       clientDeleter.execute(nodeNames);
    }
@@ -18,11 +18,8 @@ package org.jclouds.chef.strategy.internal;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.collect.Iterables.transform;
-import static com.google.common.util.concurrent.Futures.allAsList;
-import static com.google.common.util.concurrent.Futures.getUnchecked;
-
-import java.util.List;
-import java.util.concurrent.Callable;
+import static org.jclouds.chef.util.CollectionUtils.streamConcurrently;
+import static org.jclouds.chef.util.CollectionUtils.transformConcurrently;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Named;
@@ -30,7 +27,6 @@ import jakarta.inject.Singleton;
 
 import com.google.common.base.Function;
 import com.google.common.base.Joiner;
-import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
@@ -47,31 +43,32 @@ import java.util.concurrent.ExecutorService;
 public class ListClientsImpl implements ListClients {
 
    protected final ChefApi api;
+   protected final int maxConcurrentRequests;
    @Resource
    @Named(ChefProperties.CHEF_LOGGER)
    protected Logger logger = Logger.NULL;
 
+   private final Function<String, Client> getClient = new Function<String, Client>() {
+      @Override
+      public Client apply(String input) {
+         return api.getClient(input);
+      }
+   };
+
    @Inject
-   ListClientsImpl(ChefApi api) {
+   ListClientsImpl(ChefApi api, @Named(ChefProperties.CHEF_MAX_CONCURRENT_REQUESTS) int maxConcurrentRequests) {
       this.api = checkNotNull(api, "api");
+      this.maxConcurrentRequests = maxConcurrentRequests;
    }
 
    @Override
    public Iterable<? extends Client> execute() {
 
       Iterable<String> toGet = api.listClients();
-      Iterable<? extends Client> clients = transform(toGet,
-            new Function<String, Client>() {
-               @Override
-               public Client apply(final String input) {
-
-                  return api.getClient(input);
-               }
-
-            }
-      );
+      Iterable<? extends Client> clients = transform(toGet, getClient);
 
-      logger.trace(String.format("getting clients: %s", Joiner.on(',').join(toGet)));
+      if (logger.isTraceEnabled())
+         logger.trace(String.format("getting clients: %s", Joiner.on(',').join(toGet)));
       return clients;
 
    }
@@ -82,28 +79,25 @@ public class ListClientsImpl implements ListClients {
    }
 
 
+   @Override
+   public Iterable<? extends Client> stream(ExecutorService executorService) {
+      return streamConcurrently(api.listClients(), getClient, MoreExecutors.listeningDecorator(executorService),
+            maxConcurrentRequests);
+   }
+
    private Iterable<? extends Client> execute(ListeningExecutorService listeningExecutor) {
       return executeConcurrently(listeningExecutor, api.listClients());
    }
 
+   /**
+    * Fetches the clients on the executor, with at most
+    * {@link #maxConcurrentRequests} requests in flight.
+    */
    private Iterable<? extends Client> executeConcurrently(final ListeningExecutorService executor,
          Iterable<String> toGet) {
-      ListenableFuture<List<Client>> futures = allAsList(transform(toGet,
-            new Function<String, ListenableFuture<Client>>() {
-               @Override
-               public ListenableFuture<Client> apply(final String input) {
-                  return executor.submit(new Callable<Client>() {
-                     @Override
-                     public Client call() throws Exception {
-                        return api.getClient(input);
-                     }
-                  });
-               }
-            }
-      ));
-
-      logger.trace(String.format("getting clients: %s", Joiner.on(',').join(toGet)));
-      return getUnchecked(futures);
+      if (logger.isTraceEnabled())
+         logger.trace(String.format("getting clients: %s", Joiner.on(',').join(toGet)));
+      return transformConcurrently(toGet, getClient, executor, maxConcurrentRequests);
    }
 
 }
@@ -20,6 +20,8 @@ import jakarta.annotation.Resource;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 
+import com.google.common.base.Predicate;
+import com.google.common.collect.Sets;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Inject;
@@ -40,8 +42,8 @@ public class ListNodesImpl extends BaseListNodesImpl implements ListNodes {
    protected Logger logger = Logger.NULL;
 
    @Inject
-   ListNodesImpl(ChefApi api) {
-      super(api);
+   ListNodesImpl(ChefApi api, @Named(ChefProperties.CHEF_MAX_CONCURRENT_REQUESTS) int maxConcurrentRequests) {
+      super(api, maxConcurrentRequests);
    }
 
    @Override
@@ -55,6 +57,17 @@ public class ListNodesImpl extends BaseListNodesImpl implements ListNodes {
    }
 
 
+   @Override
+   public Iterable<? extends Node> stream(ExecutorService executor) {
+      return super.streamConcurrently(MoreExecutors.listeningDecorator(executor), api.listNodes());
+   }
+
+   @Override
+   public Iterable<? extends Node> stream(ExecutorService executor, Predicate<String> nodeNameFilter) {
+      return super.streamConcurrently(MoreExecutors.listeningDecorator(executor),
+            Sets.filter(api.listNodes(), nodeNameFilter));
+   }
+
    private Iterable<? extends Node> executeConcurrently(ListeningExecutorService executor) {
       return super.executeConcurrently(executor, api.listNodes());
    }
@@ -39,8 +39,8 @@ public class ListNodesInEnvironmentImpl extends BaseListNodesImpl implements Lis
    protected Logger logger = Logger.NULL;
 
    @Inject
-   ListNodesInEnvironmentImpl(ChefApi api) {
-      super(api);
+   ListNodesInEnvironmentImpl(ChefApi api, @Named(ChefProperties.CHEF_MAX_CONCURRENT_REQUESTS) int maxConcurrentRequests) {
+      super(api, maxConcurrentRequests);
    }
 
    @Override
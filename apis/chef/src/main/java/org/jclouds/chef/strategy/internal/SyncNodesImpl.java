@@ -0,0 +1,120 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy.internal;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.chef.util.ChefUtils.fromOhaiTime;
+import static org.jclouds.chef.util.CollectionUtils.transformConcurrently;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.chef.ChefApi;
+import org.jclouds.chef.config.ChefProperties;
+import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
+import org.jclouds.chef.strategy.SyncNodes;
+import org.jclouds.domain.JsonBall;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Function;
+import com.google.common.base.Predicates;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.MoreExecutors;
+
+@Singleton
+public class SyncNodesImpl implements SyncNodes {
+
+   /**
+    * Number of nodes requested per search page.
+    */
+   static final int SEARCH_PAGE_SIZE = 1000;
+
+   @Resource
+   @Named(ChefProperties.CHEF_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final ChefApi api;
+   private final int maxConcurrentRequests;
+
+   @Inject
+   SyncNodesImpl(ChefApi api, @Named(ChefProperties.CHEF_MAX_CONCURRENT_REQUESTS) int maxConcurrentRequests) {
+      this.api = checkNotNull(api, "api");
+      this.maxConcurrentRequests = maxConcurrentRequests;
+   }
+
+   @Override
+   public Map<String, Node> execute(ExecutorService executor, Map<String, ? extends Node> snapshot) {
+      Set<String> names = api.listNodes();
+      Map<String, Node> updated = Maps.newHashMapWithExpectedSize(names.size());
+
+      JsonBall since = latestOhaiTime(snapshot.values());
+      if (since != null) {
+         // search returns the full nodes, so nodes that reported in need not be fetched one by one
+         String query = "ohai_time:[" + since + " TO *]";
+         for (int start = 0;; start += SEARCH_PAGE_SIZE) {
+            SearchResult<? extends Node> page = api.searchNodes(SearchOptions.Builder.query(query)
+                  .rows(SEARCH_PAGE_SIZE).start(start));
+            for (Node node : page) {
+               if (names.contains(node.getName()))
+                  updated.put(node.getName(), node);
+            }
+            if (page.size() < SEARCH_PAGE_SIZE)
+               break;
+         }
+      }
+
+      Set<String> added = ImmutableSet.copyOf(Sets.difference(Sets.difference(names, snapshot.keySet()),
+            updated.keySet()));
+      logger.debug(">> syncing nodes: %d reported in, %d added, %d removed", updated.size(), added.size(),
+            Sets.difference(snapshot.keySet(), names).size());
+      for (Node node : transformConcurrently(added, new Function<String, Node>() {
+         @Override
+         public Node apply(String input) {
+            return api.getNode(input);
+         }
+      }, MoreExecutors.listeningDecorator(executor), maxConcurrentRequests)) {
+         updated.put(node.getName(), node);
+      }
+
+      for (Map.Entry<String, ? extends Node> entry : Maps.filterKeys(snapshot, Predicates.in(names)).entrySet()) {
+         if (!updated.containsKey(entry.getKey()))
+            updated.put(entry.getKey(), entry.getValue());
+      }
+      return ImmutableMap.copyOf(updated);
+   }
+
+   private static JsonBall latestOhaiTime(Iterable<? extends Node> nodes) {
+      JsonBall latest = null;
+      for (Node node : nodes) {
+         JsonBall ohaiTime = node.getAutomaticAttributes().get("ohai_time");
+         if (ohaiTime != null && (latest == null || fromOhaiTime(ohaiTime).after(fromOhaiTime(latest))))
+            latest = ohaiTime;
+      }
+      return latest;
+   }
+}
@@ -16,15 +16,32 @@
  */
 package org.jclouds.chef.util;
 
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+
+import java.lang.ref.Reference;
+import java.util.Deque;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedDeque;
 
 import org.jclouds.javax.annotation.Nullable;
 
+import com.google.common.base.FinalizablePhantomReference;
+import com.google.common.base.FinalizableReferenceQueue;
+import com.google.common.base.Function;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.FluentIterable;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
 
 /**
  * Utility methods to work with collections.
@@ -66,4 +83,145 @@ public class CollectionUtils {
    public static <K, V> ImmutableMap<K, V> copyOfOrEmpty(@Nullable Map<K, V> input) {
       return input == null ? ImmutableMap.<K, V> of() : ImmutableMap.copyOf(input);
    }
+
+   /**
+    * Transforms the given elements on the executor, with at most
+    * {@code maxConcurrent} transformations in flight, and returns their
+    * results in input order, skipping <code>null</code> results. Each element
+    * is transformed exactly once.
+    * 
+    * @param input
+    *           The elements to transform.
+    * @param function
+    *           The transformation, usually a remote call.
+    * @param executor
+    *           The executor to run the transformations on.
+    * @param maxConcurrent
+    *           The maximum number of transformations in flight.
+    * @return An immutable list with the transformed elements.
+    */
+   public static <F, T> ImmutableList<T> transformConcurrently(Iterable<F> input,
+         Function<? super F, ? extends T> function, ListeningExecutorService executor, int maxConcurrent) {
+      return ImmutableList.copyOf(streamConcurrently(input, function, executor, maxConcurrent));
+   }
+
+   /**
+    * Lazily transforms the given elements on the executor. Each iterator keeps
+    * at most {@code maxConcurrent} transformations in flight ahead of the
+    * consumer and returns their results in input order, skipping
+    * <code>null</code> results. Every iteration transforms the input again,
+    * so use {@link #transformConcurrently} unless the result is iterated once.
+    * Transformations in flight are cancelled when one of them fails, or when
+    * an iterator abandoned before its end is garbage collected.
+    * 
+    * @param input
+    *           The elements to transform.
+    * @param function
+    *           The transformation, usually a remote call.
+    * @param executor
+    *           The executor to run the transformations on.
+    * @param maxConcurrent
+    *           The maximum number of transformations in flight per iterator.
+    * @return A lazy view of the transformed elements.
+    */
+   public static <F, T> FluentIterable<T> streamConcurrently(final Iterable<F> input,
+         final Function<? super F, ? extends T> function, final ListeningExecutorService executor,
+         final int maxConcurrent) {
+      checkNotNull(input, "input");
+      checkNotNull(function, "function");
+      checkNotNull(executor, "executor");
+      checkArgument(maxConcurrent > 0, "maxConcurrent must be positive");
+      return new FluentIterable<T>() {
+         @Override
+         public Iterator<T> iterator() {
+            return new ConcurrentTransformIterator<F, T>(input.iterator(), function, executor, maxConcurrent);
+         }
+      };
+   }
+
+   private static final class Abandoned {
+      private static final FinalizableReferenceQueue QUEUE = new FinalizableReferenceQueue();
+      // keeps the references themselves reachable until their iterator is collected
+      private static final Set<Reference<?>> REFERENCES = Sets.newConcurrentHashSet();
+
+      /**
+       * runs {@code cleanup} once {@code referent} is garbage collected. Static, so that the reference does not
+       * refer to the referent.
+       */
+      private static void register(Object referent, final Runnable cleanup) {
+         REFERENCES.add(new FinalizablePhantomReference<Object>(referent, QUEUE) {
+            @Override
+            public void finalizeReferent() {
+               REFERENCES.remove(this);
+               cleanup.run();
+            }
+         });
+      }
+   }
+
+   private static final class ConcurrentTransformIterator<F, T> extends AbstractIterator<T> {
+      private final Iterator<F> from;
+      private final Function<? super F, ? extends T> function;
+      private final ListeningExecutorService executor;
+      private final int maxConcurrent;
+      private final CancelAll<T> inFlight;
+
+      private ConcurrentTransformIterator(Iterator<F> from, Function<? super F, ? extends T> function,
+            ListeningExecutorService executor, int maxConcurrent) {
+         this.from = from;
+         this.function = function;
+         this.executor = executor;
+         this.maxConcurrent = maxConcurrent;
+         this.inFlight = new CancelAll<T>();
+         // an iterator abandoned before its end cancels its transformations once it is garbage collected
+         Abandoned.register(this, inFlight);
+      }
+
+      @Override
+      protected T computeNext() {
+         while (true) {
+            while (inFlight.futures.size() < maxConcurrent && from.hasNext()) {
+               inFlight.futures.add(executor.submit(transform(function, from.next())));
+            }
+            if (inFlight.futures.isEmpty())
+               return endOfData();
+            T result;
+            try {
+               result = getUnchecked(inFlight.futures.poll());
+            } catch (RuntimeException e) {
+               inFlight.run();
+               throw e;
+            }
+            if (result != null)
+               return result;
+         }
+      }
+   }
+
+   /**
+    * does not refer to the iterator, so that transformations in flight do not keep it from being garbage collected.
+    */
+   private static <F, T> Callable<T> transform(final Function<? super F, ? extends T> function, final F input) {
+      return new Callable<T>() {
+         @Override
+         public T call() {
+            return function.apply(input);
+         }
+      };
+   }
+
+   /**
+    * cancels the transformations in flight. Must not refer to the iterator, so that it can be garbage collected.
+    */
+   private static final class CancelAll<T> implements Runnable {
+      // polled by the consumer, and by the finalizer thread once the iterator is gone
+      private final Deque<ListenableFuture<T>> futures = new ConcurrentLinkedDeque<ListenableFuture<T>>();
+
+      @Override
+      public void run() {
+         ListenableFuture<T> future;
+         while ((future = futures.poll()) != null)
+            future.cancel(true);
+      }
+   }
 }
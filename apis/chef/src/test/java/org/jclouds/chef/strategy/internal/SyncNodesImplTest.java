@@ -0,0 +1,96 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.strategy.internal;
+
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.chef.util.ChefUtils.toOhaiTime;
+import static org.testng.Assert.assertEquals;
+
+import java.util.Map;
+
+import org.jclouds.chef.ChefApi;
+import org.jclouds.chef.domain.Node;
+import org.jclouds.chef.domain.SearchResult;
+import org.jclouds.chef.options.SearchOptions;
+import org.jclouds.domain.JsonBall;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+
+/**
+ * Tests behavior of {@code SyncNodesImpl}
+ */
+@Test(groups = { "unit" })
+public class SyncNodesImplTest {
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   @Test
+   public void testOnlyFetchesAddedAndReportedNodes() {
+      ChefApi chef = createMock(ChefApi.class);
+
+      Node a = node("a", 100);
+      Node b = node("b", 50);
+      Node c = node("c", 10);
+      Node updatedA = node("a", 200);
+      Node d = node("d", 300);
+
+      expect(chef.listNodes()).andReturn(ImmutableSet.of("a", "b", "d"));
+      SearchResult<Node> reportedIn = new SearchResult<Node>(0, ImmutableList.of(updatedA));
+      expect(chef.searchNodes(anyObject(SearchOptions.class))).andReturn((SearchResult) reportedIn);
+      expect(chef.getNode("d")).andReturn(d);
+
+      replay(chef);
+
+      SyncNodesImpl strategy = new SyncNodesImpl(chef, 2);
+      Map<String, Node> synced = strategy.execute(MoreExecutors.newDirectExecutorService(),
+            ImmutableMap.of("a", a, "b", b, "c", c));
+
+      assertEquals(synced, ImmutableMap.of("a", updatedA, "b", b, "d", d));
+      verify(chef);
+   }
+
+   @Test
+   public void testEmptySnapshotFetchesAllNodes() {
+      ChefApi chef = createMock(ChefApi.class);
+
+      Node a = node("a", 100);
+
+      expect(chef.listNodes()).andReturn(ImmutableSet.of("a"));
+      expect(chef.getNode("a")).andReturn(a);
+
+      replay(chef);
+
+      SyncNodesImpl strategy = new SyncNodesImpl(chef, 2);
+      Map<String, Node> synced = strategy.execute(MoreExecutors.newDirectExecutorService(),
+            ImmutableMap.<String, Node> of());
+
+      assertEquals(synced, ImmutableMap.of("a", a));
+      verify(chef);
+   }
+
+   private static Node node(String name, long ohaiTime) {
+      return Node.builder().name(name).environment("_default")
+            .automaticAttributes(ImmutableMap.<String, JsonBall> of("ohai_time", toOhaiTime(ohaiTime))).build();
+   }
+}
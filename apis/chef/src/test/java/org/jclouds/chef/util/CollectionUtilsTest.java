@@ -0,0 +1,142 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.chef.util;
+
+import static org.jclouds.chef.util.CollectionUtils.streamConcurrently;
+import static org.jclouds.chef.util.CollectionUtils.transformConcurrently;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Tests behavior of {@code CollectionUtils}
+ */
+@Test(groups = "unit", singleThreaded = true, testName = "CollectionUtilsTest")
+public class CollectionUtilsTest {
+
+   private final AtomicInteger calls = new AtomicInteger();
+
+   private final Function<Integer, String> toStringSkippingOdd = new Function<Integer, String>() {
+      @Override
+      public String apply(Integer input) {
+         calls.incrementAndGet();
+         return input % 2 == 0 ? input.toString() : null;
+      }
+   };
+
+   public void testTransformConcurrentlyTransformsEachElementOnce() {
+      calls.set(0);
+      List<String> result = transformConcurrently(ImmutableList.of(1, 2, 3, 4), toStringSkippingOdd,
+            MoreExecutors.newDirectExecutorService(), 2);
+      assertEquals(result, ImmutableList.of("2", "4"));
+      assertEquals(result, ImmutableList.of("2", "4"));
+      assertEquals(calls.get(), 4);
+   }
+
+   public void testStreamConcurrentlyTransformsOnEveryIteration() {
+      calls.set(0);
+      Iterable<String> result = streamConcurrently(ImmutableList.of(1, 2, 3, 4), toStringSkippingOdd,
+            MoreExecutors.newDirectExecutorService(), 2);
+      assertEquals(calls.get(), 0);
+      assertEquals(ImmutableList.copyOf(result), ImmutableList.of("2", "4"));
+      assertEquals(ImmutableList.copyOf(result), ImmutableList.of("2", "4"));
+      assertEquals(calls.get(), 8);
+   }
+
+   public void testStreamConcurrentlyCancelsInFlightOnFailure() throws InterruptedException {
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      try {
+         InterruptibleTransform transform = new InterruptibleTransform(2);
+         Iterator<String> iterator = streamConcurrently(ImmutableList.of(0, 1, 2), transform, executor, 3).iterator();
+         try {
+            iterator.next();
+            fail("expected the first transformation to fail");
+         } catch (UncheckedExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+         }
+         assertTrue(transform.interrupted.await(10, TimeUnit.SECONDS), "transformations in flight were not cancelled");
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testStreamConcurrentlyCancelsInFlightOfAbandonedIterator() throws InterruptedException {
+      ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+      try {
+         InterruptibleTransform transform = new InterruptibleTransform(2);
+         startAndAbandon(streamConcurrently(ImmutableList.of(-1, 1, 2), transform, executor, 3));
+         assertTrue(transform.started.await(10, TimeUnit.SECONDS));
+         for (int i = 0; i < 100 && transform.interrupted.getCount() > 0; i++) {
+            System.gc();
+            transform.interrupted.await(100, TimeUnit.MILLISECONDS);
+         }
+         assertEquals(transform.interrupted.getCount(), 0, "transformations in flight were not cancelled");
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   private static void startAndAbandon(Iterable<String> stream) {
+      assertEquals(stream.iterator().next(), "-1");
+   }
+
+   /**
+    * returns negative numbers, fails for 0 once the others started, and blocks on the others until interrupted.
+    */
+   private static final class InterruptibleTransform implements Function<Integer, String> {
+      private final CountDownLatch started;
+      private final CountDownLatch interrupted;
+
+      private InterruptibleTransform(int blocking) {
+         this.started = new CountDownLatch(blocking);
+         this.interrupted = new CountDownLatch(blocking);
+      }
+
+      @Override
+      public String apply(Integer input) {
+         if (input < 0)
+            return input.toString();
+         if (input == 0) {
+            Uninterruptibles.awaitUninterruptibly(started, 10, TimeUnit.SECONDS);
+            throw new IllegalStateException("failed");
+         }
+         started.countDown();
+         try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+         } catch (InterruptedException e) {
+            interrupted.countDown();
+         }
+         return input.toString();
+      }
+   }
+}
@@ -46,6 +46,12 @@ public final class CloudStackProperties {
     */
    public static final String AUTO_GENERATE_KEYPAIRS = "jclouds.cloudstack.auto-generate-keypairs";
 
+   /**
+    * How often, in milliseconds, the status of pending async jobs is polled. All jobs pending at a time are
+    * polled with a single {@code listAsyncJobs} request. Default 1000.
+    */
+   public static final String JOB_POLL_PERIOD = "jclouds.cloudstack.job-poll-period";
+
    private CloudStackProperties() {
       throw new AssertionError("intentionally unimplemented");
    }
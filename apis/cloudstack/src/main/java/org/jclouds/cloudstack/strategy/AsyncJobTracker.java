@@ -0,0 +1,263 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.strategy;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.cloudstack.config.CloudStackProperties.JOB_POLL_PERIOD;
+import static org.jclouds.cloudstack.options.ListAsyncJobsOptions.Builder.startDate;
+import static org.jclouds.util.Throwables2.getFirstThrowableOfType;
+
+import java.io.Closeable;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import jakarta.annotation.PreDestroy;
+import jakarta.annotation.Resource;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.cloudstack.AsyncJobException;
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.domain.AsyncJob;
+import org.jclouds.cloudstack.functions.ParseTypedAsyncJob;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Tracks the completion of async jobs, polling all jobs pending at a time with a single {@code listAsyncJobs}
+ * request instead of a {@code queryAsyncJobResult} request per job. Results are typed by
+ * {@link ParseTypedAsyncJob}, as for {@link org.jclouds.cloudstack.features.AsyncJobApi#getAsyncJob}.
+ * <p/>
+ * Jobs missing from the listing, for example jobs of projects or of other accounts, are queried individually, as
+ * is a job that is pending on its own. Queries failing with an {@link IllegalStateException}, a
+ * {@link TimeoutException} or an {@link ExecutionException} are considered transient: the job stays pending and is
+ * queried again on the next poll, until its waiter gives up.
+ */
+@Singleton
+public class AsyncJobTracker implements Closeable {
+
+   /**
+    * listAsyncJobs filters by start date on the clock of the management server, which may differ from ours.
+    */
+   private static final long CLOCK_SKEW_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final CloudStackApi client;
+   private final ListeningExecutorService userExecutor;
+   private final long periodMillis;
+
+   private final ConcurrentMap<String, PendingJob> pending = new ConcurrentHashMap<String, PendingJob>();
+   // true while jobs are being polled
+   private final AtomicBoolean polling = new AtomicBoolean();
+   private volatile boolean closed;
+
+   // runs while jobs are pending, on a user thread as it blocks on http
+   private final Runnable poll = new Runnable() {
+      @Override
+      public void run() {
+         boolean interrupted = false;
+         try {
+            while (!closed) {
+               try {
+                  pollPendingJobs();
+               } catch (RuntimeException e) {
+                  logger.warn(e, "error polling async jobs %s", pending.keySet());
+               }
+               if (pending.isEmpty())
+                  break;
+               Thread.sleep(periodMillis);
+            }
+         } catch (InterruptedException e) {
+            interrupted = true;
+            Thread.currentThread().interrupt();
+         } finally {
+            polling.set(false);
+            // a job may have been tracked after the last poll found none pending
+            if (!interrupted && !pending.isEmpty())
+               startPolling();
+         }
+      }
+   };
+
+   @Inject
+   public AsyncJobTracker(CloudStackApi client, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Named(JOB_POLL_PERIOD) long periodMillis) {
+      this.client = checkNotNull(client, "client");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.periodMillis = periodMillis;
+   }
+
+   /**
+    * returns a future that completes with the job once it succeeded or failed. Cancelling the future stops tracking
+    * the job.
+    */
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public <T> ListenableFuture<AsyncJob<T>> track(String jobId) {
+      checkNotNull(jobId, "jobId");
+      checkState(!closed, "tracker is closed");
+      PendingJob job = pending.get(jobId);
+      if (job == null) {
+         final PendingJob created = new PendingJob(jobId);
+         job = pending.putIfAbsent(jobId, created);
+         if (job == null) {
+            job = created;
+            created.future.addListener(new Runnable() {
+               @Override
+               public void run() {
+                  pending.remove(created.id, created);
+               }
+            }, directExecutor());
+            // poll right away unless jobs are already being polled, which the job then joins
+            startPolling();
+         }
+      }
+      return (ListenableFuture) job.future;
+   }
+
+   /**
+    * waits for the job to complete.
+    *
+    * @return true if the job succeeded, false if it did not complete in time
+    * @throws AsyncJobException
+    *            if the job failed
+    */
+   public boolean awaitCompletion(String jobId, long timeout, TimeUnit unit) {
+      ListenableFuture<AsyncJob<Object>> future = track(jobId);
+      try {
+         AsyncJob<?> job = future.get(timeout, unit);
+         if (job.hasFailed()) {
+            throw new AsyncJobException(String.format("job %s failed with exception %s", job.toString(),
+                  job.getError() != null ? job.getError().toString() : job.getResultCode()));
+         }
+         return true;
+      } catch (TimeoutException e) {
+         future.cancel(false);
+         return false;
+      } catch (InterruptedException e) {
+         future.cancel(false);
+         Thread.currentThread().interrupt();
+         return false;
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      }
+   }
+
+   /**
+    * stops polling; jobs still pending are cancelled.
+    */
+   @PreDestroy
+   @Override
+   public void close() {
+      closed = true;
+      for (PendingJob job : pending.values())
+         job.future.cancel(false);
+   }
+
+   private void startPolling() {
+      if (!closed && polling.compareAndSet(false, true)) {
+         try {
+            userExecutor.execute(poll);
+         } catch (RuntimeException e) {
+            polling.set(false);
+            throw e;
+         }
+      }
+   }
+
+   private void pollPendingJobs() {
+      Map<String, PendingJob> jobs = ImmutableMap.copyOf(pending);
+      if (jobs.isEmpty())
+         return;
+      Set<String> unlisted = Sets.newHashSet(jobs.keySet());
+      if (jobs.size() > 1) {
+         long oldest = Long.MAX_VALUE;
+         for (PendingJob job : jobs.values())
+            oldest = Math.min(oldest, job.registeredMillis);
+         try {
+            for (AsyncJob<?> listed : client.getAsyncJobApi().listAsyncJobs(
+                  startDate(new Date(oldest - CLOCK_SKEW_MILLIS)))) {
+               PendingJob job = jobs.get(listed.getId());
+               if (job != null) {
+                  unlisted.remove(listed.getId());
+                  complete(job, listed);
+               }
+            }
+         } catch (RuntimeException e) {
+            logger.debug("could not list async jobs, querying them one by one: %s", e.getMessage());
+         }
+      }
+      for (String jobId : unlisted) {
+         PendingJob job = jobs.get(jobId);
+         try {
+            AsyncJob<?> queried = client.getAsyncJobApi().getAsyncJob(jobId);
+            if (queried != null)
+               complete(job, queried);
+         } catch (RuntimeException e) {
+            if (isTransient(e)) {
+               logger.debug("could not query async job %s, retrying on the next poll: %s", jobId, e.getMessage());
+            } else {
+               job.future.setException(e);
+            }
+         }
+      }
+   }
+
+   /**
+    * whether querying a job may succeed when retried. These are the failures
+    * {@link org.jclouds.util.Predicates2#retry} tolerates.
+    */
+   private static boolean isTransient(RuntimeException e) {
+      return getFirstThrowableOfType(e, IllegalStateException.class) != null
+            || getFirstThrowableOfType(e, TimeoutException.class) != null
+            || getFirstThrowableOfType(e, ExecutionException.class) != null;
+   }
+
+   private void complete(PendingJob pendingJob, AsyncJob<?> job) {
+      logger.trace("%s: job status %s", job.getId(), job.getStatus());
+      if (job.hasSucceed() || job.hasFailed())
+         pendingJob.future.set(job);
+   }
+
+   private static final class PendingJob {
+      private final String id;
+      private final long registeredMillis = System.currentTimeMillis();
+      private final SettableFuture<AsyncJob<?>> future = SettableFuture.create();
+
+      private PendingJob(String id) {
+         this.id = id;
+      }
+   }
+}
@@ -0,0 +1,172 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.cloudstack.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static org.easymock.EasyMock.anyObject;
+import static org.easymock.EasyMock.capture;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.easymock.Capture;
+import org.jclouds.cloudstack.AsyncJobException;
+import org.jclouds.cloudstack.CloudStackApi;
+import org.jclouds.cloudstack.domain.AsyncJob;
+import org.jclouds.cloudstack.domain.AsyncJob.ResultCode;
+import org.jclouds.cloudstack.domain.AsyncJob.Status;
+import org.jclouds.cloudstack.domain.AsyncJobError;
+import org.jclouds.cloudstack.domain.AsyncJobError.ErrorCode;
+import org.jclouds.cloudstack.features.AsyncJobApi;
+import org.jclouds.cloudstack.options.ListAsyncJobsOptions;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+@Test(groups = "unit", singleThreaded = true, testName = "AsyncJobTrackerTest")
+public class AsyncJobTrackerTest {
+
+   AsyncJob<?> succeeded1 = AsyncJob.builder().id("1").status(Status.SUCCEEDED).resultCode(ResultCode.SUCCESS).build();
+   AsyncJob<?> inProgress2 = AsyncJob.builder().id("2").status(Status.IN_PROGRESS).build();
+   AsyncJob<?> succeeded2 = AsyncJob.builder().id("2").status(Status.SUCCEEDED).resultCode(ResultCode.SUCCESS).build();
+   AsyncJob<?> failed3 = AsyncJob.builder().id("3").status(Status.FAILED).resultCode(ResultCode.FAIL)
+         .error(AsyncJobError.builder().errorCode(ErrorCode.INTERNAL_ERROR).errorText("Dummy test error").build())
+         .build();
+
+   CloudStackApi client;
+   AsyncJobApi asyncJobClient;
+
+   @BeforeMethod
+   public void setUp() {
+      client = createMock(CloudStackApi.class);
+      asyncJobClient = createMock(AsyncJobApi.class);
+      expect(client.getAsyncJobApi()).andReturn(asyncJobClient).anyTimes();
+   }
+
+   public void testPendingJobsArePolledWithOneListing() throws Exception {
+      expect(asyncJobClient.listAsyncJobs(anyObject(ListAsyncJobsOptions.class)))
+            .andReturn(ImmutableSet.<AsyncJob<?>> of(succeeded1, inProgress2));
+      // once on its own, the job still in progress is queried directly
+      expect((Object) asyncJobClient.getAsyncJob("2")).andReturn(succeeded2);
+
+      ListeningExecutorService userExecutor = createMock(ListeningExecutorService.class);
+      Capture<Runnable> poll = Capture.newInstance();
+      userExecutor.execute(capture(poll));
+      replay(client, asyncJobClient, userExecutor);
+
+      AsyncJobTracker tracker = new AsyncJobTracker(client, userExecutor, 10);
+      ListenableFuture<AsyncJob<Object>> job1 = tracker.track("1");
+      ListenableFuture<AsyncJob<Object>> job2 = tracker.track("2");
+      assertSame(tracker.track("2"), job2, "a job is tracked once");
+
+      poll.getValue().run();
+      assertEquals(job1.get(), succeeded1);
+      assertEquals(job2.get(), succeeded2);
+      verify(client, asyncJobClient, userExecutor);
+   }
+
+   public void testJobsMissingFromListingAreQueried() throws Exception {
+      expect(asyncJobClient.listAsyncJobs(anyObject(ListAsyncJobsOptions.class)))
+            .andReturn(ImmutableSet.<AsyncJob<?>> of(succeeded1));
+      expect((Object) asyncJobClient.getAsyncJob("2")).andReturn(succeeded2);
+
+      ListeningExecutorService userExecutor = createMock(ListeningExecutorService.class);
+      Capture<Runnable> poll = Capture.newInstance();
+      userExecutor.execute(capture(poll));
+      replay(client, asyncJobClient, userExecutor);
+
+      AsyncJobTracker tracker = new AsyncJobTracker(client, userExecutor, 10);
+      ListenableFuture<AsyncJob<Object>> job1 = tracker.track("1");
+      ListenableFuture<AsyncJob<Object>> job2 = tracker.track("2");
+
+      poll.getValue().run();
+      assertEquals(job1.get(), succeeded1);
+      assertEquals(job2.get(), succeeded2);
+      verify(client, asyncJobClient, userExecutor);
+   }
+
+   public void testAwaitCompletionThrowsOnFailedJob() {
+      expect((Object) asyncJobClient.getAsyncJob("3")).andReturn(failed3);
+
+      ListeningExecutorService userExecutor = listeningDecorator(Executors.newCachedThreadPool());
+      try {
+         replay(client, asyncJobClient);
+         AsyncJobTracker tracker = new AsyncJobTracker(client, userExecutor, 10);
+         tracker.awaitCompletion("3", 10, TimeUnit.SECONDS);
+         fail("No exception thrown");
+      } catch (AsyncJobException e) {
+         assertTrue(e.toString().contains("Dummy test error"));
+      } finally {
+         userExecutor.shutdownNow();
+      }
+      verify(client, asyncJobClient);
+   }
+
+   public void testAwaitCompletionTimesOut() {
+      expect((Object) asyncJobClient.getAsyncJob("2")).andReturn(inProgress2).anyTimes();
+
+      ListeningExecutorService userExecutor = listeningDecorator(Executors.newCachedThreadPool());
+      try {
+         replay(client, asyncJobClient);
+         AsyncJobTracker tracker = new AsyncJobTracker(client, userExecutor, 10);
+         assertFalse(tracker.awaitCompletion("2", 100, TimeUnit.MILLISECONDS));
+         tracker.close();
+      } finally {
+         userExecutor.shutdownNow();
+      }
+   }
+
+   public void testTransientQueryFailuresKeepJobPending() throws Exception {
+      expect((Object) asyncJobClient.getAsyncJob("2")).andThrow(new IllegalStateException("connection reset"));
+      expect((Object) asyncJobClient.getAsyncJob("2")).andReturn(succeeded2);
+
+      ListeningExecutorService userExecutor = listeningDecorator(Executors.newCachedThreadPool());
+      try {
+         replay(client, asyncJobClient);
+         AsyncJobTracker tracker = new AsyncJobTracker(client, userExecutor, 10);
+         assertTrue(tracker.awaitCompletion("2", 10, TimeUnit.SECONDS));
+      } finally {
+         userExecutor.shutdownNow();
+      }
+      verify(client, asyncJobClient);
+   }
+
+   @Test(expectedExceptions = UnsupportedOperationException.class)
+   public void testOtherQueryFailuresReachWaiter() {
+      expect((Object) asyncJobClient.getAsyncJob("2")).andThrow(new UnsupportedOperationException());
+
+      ListeningExecutorService userExecutor = listeningDecorator(Executors.newCachedThreadPool());
+      try {
+         replay(client, asyncJobClient);
+         new AsyncJobTracker(client, userExecutor, 10).awaitCompletion("2", 10, TimeUnit.SECONDS);
+      } finally {
+         userExecutor.shutdownNow();
+      }
+   }
+}
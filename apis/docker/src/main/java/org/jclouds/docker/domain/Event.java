@@ -0,0 +1,57 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.domain;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * A single entry of the {@code /events} stream.
+ */
+@AutoValue
+public abstract class Event {
+
+   /**
+    * The event, such as {@code create}, {@code start}, {@code die} or {@code destroy}.
+    */
+   @Nullable public abstract String status();
+
+   /**
+    * The id of the container or image the event applies to.
+    */
+   @Nullable public abstract String id();
+
+   /**
+    * The image the container was created from.
+    */
+   @Nullable public abstract String from();
+
+   /**
+    * The time of the event in seconds since the epoch.
+    */
+   public abstract long time();
+
+   Event() {
+   }
+
+   @SerializedNames({ "status", "id", "from", "time" })
+   public static Event create(String status, String id, String from, long time) {
+      return new AutoValue_Event(status, id, from, time);
+   }
+}
@@ -0,0 +1,102 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.domain;
+
+import java.util.Date;
+
+import org.jclouds.javax.annotation.Nullable;
+import org.jclouds.json.SerializedNames;
+
+import com.google.auto.value.AutoValue;
+
+/**
+ * A resource usage sample of the {@code /containers/{id}/stats} stream.
+ */
+@AutoValue
+public abstract class Stats {
+
+   @AutoValue
+   public abstract static class CpuStats {
+
+      public abstract CpuUsage cpuUsage();
+
+      /**
+       * Total CPU time of the host in nanoseconds, to compare {@link CpuUsage#totalUsage()} against.
+       */
+      public abstract long systemCpuUsage();
+
+      CpuStats() {
+      }
+
+      @SerializedNames({ "cpu_usage", "system_cpu_usage" })
+      public static CpuStats create(CpuUsage cpuUsage, long systemCpuUsage) {
+         return new AutoValue_Stats_CpuStats(cpuUsage, systemCpuUsage);
+      }
+   }
+
+   @AutoValue
+   public abstract static class CpuUsage {
+
+      /**
+       * Total CPU time consumed by the container in nanoseconds.
+       */
+      public abstract long totalUsage();
+
+      CpuUsage() {
+      }
+
+      @SerializedNames({ "total_usage" })
+      public static CpuUsage create(long totalUsage) {
+         return new AutoValue_Stats_CpuUsage(totalUsage);
+      }
+   }
+
+   @AutoValue
+   public abstract static class MemoryStats {
+
+      public abstract long usage();
+
+      public abstract long maxUsage();
+
+      public abstract long limit();
+
+      MemoryStats() {
+      }
+
+      @SerializedNames({ "usage", "max_usage", "limit" })
+      public static MemoryStats create(long usage, long maxUsage, long limit) {
+         return new AutoValue_Stats_MemoryStats(usage, maxUsage, limit);
+      }
+   }
+
+   /**
+    * When the sample was taken.
+    */
+   public abstract Date read();
+
+   @Nullable public abstract CpuStats cpuStats();
+
+   @Nullable public abstract MemoryStats memoryStats();
+
+   Stats() {
+   }
+
+   @SerializedNames({ "read", "cpu_stats", "memory_stats" })
+   public static Stats create(Date read, CpuStats cpuStats, MemoryStats memoryStats) {
+      return new AutoValue_Stats(read, cpuStats, memoryStats);
+   }
+}
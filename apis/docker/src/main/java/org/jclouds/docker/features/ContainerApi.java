@@ -37,13 +37,19 @@ import org.jclouds.docker.domain.ContainerSummary;
 import org.jclouds.docker.domain.HostConfig;
 import org.jclouds.docker.domain.Image;
 import org.jclouds.docker.domain.Resource;
+import org.jclouds.docker.domain.Stats;
 import org.jclouds.docker.domain.StatusCode;
+import org.jclouds.docker.functions.ParseJsonStream;
 import org.jclouds.docker.options.AttachOptions;
 import org.jclouds.docker.options.CommitOptions;
 import org.jclouds.docker.options.ListContainerOptions;
+import org.jclouds.docker.options.LogsOptions;
 import org.jclouds.docker.options.RemoveContainerOptions;
+import org.jclouds.docker.util.DockerInputStream;
+import org.jclouds.docker.util.JsonStream;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Fallback;
+import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.binders.BindToJsonPayload;
 
 @Consumes(MediaType.APPLICATION_JSON)
@@ -249,4 +255,27 @@ public interface ContainerApi {
    @POST
    @Path("/containers/{id}/copy")
    InputStream copy(@PathParam("id") String containerId, @BinderParam(BindToJsonPayload.class) Resource resource);
+
+   /**
+    * Streams resource usage samples of a running container, about one per second, until the stream is closed.
+    * Samples are decoded one at a time as the stream is iterated.
+    *
+    * @param containerId The id of the container to sample.
+    */
+   @Named("container:stats")
+   @GET
+   @Path("/containers/{id}/stats")
+   @ResponseParser(ParseJsonStream.StatsSamples.class)
+   JsonStream<Stats> stats(@PathParam("id") String containerId);
+
+   /**
+    * @param containerId The id of the container to get the logs of.
+    * @param options the logs options @see org.jclouds.docker.options.LogsOptions
+    * @return raw docker stream which can be demultiplexed with {@link DockerInputStream}, unless the container
+    *         was created with a TTY
+    */
+   @Named("container:logs")
+   @GET
+   @Path("/containers/{id}/logs")
+   InputStream logs(@PathParam("id") String containerId, LogsOptions options);
 }
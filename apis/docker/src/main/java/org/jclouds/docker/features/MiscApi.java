@@ -26,17 +26,22 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.core.MediaType;
 
+import org.jclouds.docker.domain.Event;
 import org.jclouds.docker.domain.Exec;
 import org.jclouds.docker.domain.ExecCreateParams;
 import org.jclouds.docker.domain.ExecInspect;
 import org.jclouds.docker.domain.ExecStartParams;
 import org.jclouds.docker.domain.Info;
 import org.jclouds.docker.domain.Version;
+import org.jclouds.docker.functions.ParseJsonStream;
 import org.jclouds.docker.options.BuildOptions;
+import org.jclouds.docker.options.EventsOptions;
 import org.jclouds.docker.util.DockerInputStream;
+import org.jclouds.docker.util.JsonStream;
 import org.jclouds.io.Payload;
 import org.jclouds.rest.annotations.BinderParam;
 import org.jclouds.rest.annotations.Headers;
+import org.jclouds.rest.annotations.ResponseParser;
 import org.jclouds.rest.binders.BindToJsonPayload;
 
 @Consumes(MediaType.APPLICATION_JSON)
@@ -137,4 +142,28 @@ public interface MiscApi {
    @GET
    @Path("/exec/{id}/json")
    ExecInspect execInspect(@PathParam("id") String execId);
+
+   /**
+    * Streams container, image and network events as they happen, until the stream is closed. Events are decoded one
+    * at a time as the stream is iterated.
+    *
+    * @return a stream of events
+    */
+   @Named("events")
+   @GET
+   @Path("/events")
+   @ResponseParser(ParseJsonStream.Events.class)
+   JsonStream<Event> events();
+
+   /**
+    * Streams events, optionally bounded in time.
+    *
+    * @param options the events options @see org.jclouds.docker.options.EventsOptions
+    * @return a stream of events
+    */
+   @Named("events")
+   @GET
+   @Path("/events")
+   @ResponseParser(ParseJsonStream.Events.class)
+   JsonStream<Event> events(EventsOptions options);
 }
@@ -0,0 +1,72 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.functions;
+
+import java.io.IOException;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import org.jclouds.docker.domain.Event;
+import org.jclouds.docker.domain.Stats;
+import org.jclouds.docker.util.JsonStream;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpUtils;
+
+import com.google.common.base.Function;
+import com.google.common.base.Throwables;
+import com.google.gson.Gson;
+
+/**
+ * Parses streaming responses lazily into a {@link JsonStream} instead of reading the whole response.
+ */
+public abstract class ParseJsonStream<T> implements Function<HttpResponse, JsonStream<T>> {
+
+   private final Gson gson;
+   private final Class<T> type;
+
+   ParseJsonStream(Gson gson, Class<T> type) {
+      this.gson = gson;
+      this.type = type;
+   }
+
+   @Override
+   public JsonStream<T> apply(HttpResponse response) {
+      try {
+         return new JsonStream<T>(response.getPayload().openStream(), gson, type);
+      } catch (IOException e) {
+         HttpUtils.releasePayload(response);
+         throw Throwables.propagate(e);
+      }
+   }
+
+   @Singleton
+   public static final class Events extends ParseJsonStream<Event> {
+      @Inject
+      Events(Gson gson) {
+         super(gson, Event.class);
+      }
+   }
+
+   @Singleton
+   public static final class StatsSamples extends ParseJsonStream<Stats> {
+      @Inject
+      StatsSamples(Gson gson) {
+         super(gson, Stats.class);
+      }
+   }
+}
@@ -0,0 +1,60 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.options;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+/**
+ * Options for the {@code /events} stream. Without {@code until} the stream stays open until it is closed.
+ */
+public class EventsOptions extends BaseHttpRequestOptions {
+
+   /**
+    * @param since only return events after this time, in seconds since the epoch.
+    */
+   public EventsOptions since(long since) {
+      this.queryParameters.put("since", String.valueOf(since));
+      return this;
+   }
+
+   /**
+    * @param until stream events until this time, in seconds since the epoch, then end the stream.
+    */
+   public EventsOptions until(long until) {
+      this.queryParameters.put("until", String.valueOf(until));
+      return this;
+   }
+
+   public static class Builder {
+
+      /**
+       * @see EventsOptions#since(long)
+       */
+      public static EventsOptions since(long since) {
+         EventsOptions options = new EventsOptions();
+         return options.since(since);
+      }
+
+      /**
+       * @see EventsOptions#until(long)
+       */
+      public static EventsOptions until(long until) {
+         EventsOptions options = new EventsOptions();
+         return options.until(until);
+      }
+   }
+}
@@ -0,0 +1,124 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.options;
+
+import org.jclouds.http.options.BaseHttpRequestOptions;
+
+/**
+ * Options for the {@code /containers/{id}/logs} stream.
+ */
+public class LogsOptions extends BaseHttpRequestOptions {
+
+   /**
+    * @param follow keep the stream open and return new output as it is written. Default false.
+    */
+   public LogsOptions follow(boolean follow) {
+      this.queryParameters.put("follow", String.valueOf(follow));
+      return this;
+   }
+
+   /**
+    * @param stdout return stdout output. Default false.
+    */
+   public LogsOptions stdout(boolean stdout) {
+      this.queryParameters.put("stdout", String.valueOf(stdout));
+      return this;
+   }
+
+   /**
+    * @param stderr return stderr output. Default false.
+    */
+   public LogsOptions stderr(boolean stderr) {
+      this.queryParameters.put("stderr", String.valueOf(stderr));
+      return this;
+   }
+
+   /**
+    * @param since only return output after this time, in seconds since the epoch.
+    */
+   public LogsOptions since(long since) {
+      this.queryParameters.put("since", String.valueOf(since));
+      return this;
+   }
+
+   /**
+    * @param timestamps prefix every line with its timestamp. Default false.
+    */
+   public LogsOptions timestamps(boolean timestamps) {
+      this.queryParameters.put("timestamps", String.valueOf(timestamps));
+      return this;
+   }
+
+   /**
+    * @param tail only return this many lines from the end of the logs.
+    */
+   public LogsOptions tail(int tail) {
+      this.queryParameters.put("tail", String.valueOf(tail));
+      return this;
+   }
+
+   public static class Builder {
+
+      /**
+       * @see LogsOptions#follow(boolean)
+       */
+      public static LogsOptions follow(boolean follow) {
+         LogsOptions options = new LogsOptions();
+         return options.follow(follow);
+      }
+
+      /**
+       * @see LogsOptions#stdout(boolean)
+       */
+      public static LogsOptions stdout(boolean stdout) {
+         LogsOptions options = new LogsOptions();
+         return options.stdout(stdout);
+      }
+
+      /**
+       * @see LogsOptions#stderr(boolean)
+       */
+      public static LogsOptions stderr(boolean stderr) {
+         LogsOptions options = new LogsOptions();
+         return options.stderr(stderr);
+      }
+
+      /**
+       * @see LogsOptions#since(long)
+       */
+      public static LogsOptions since(long since) {
+         LogsOptions options = new LogsOptions();
+         return options.since(since);
+      }
+
+      /**
+       * @see LogsOptions#timestamps(boolean)
+       */
+      public static LogsOptions timestamps(boolean timestamps) {
+         LogsOptions options = new LogsOptions();
+         return options.timestamps(timestamps);
+      }
+
+      /**
+       * @see LogsOptions#tail(int)
+       */
+      public static LogsOptions tail(int tail) {
+         LogsOptions options = new LogsOptions();
+         return options.tail(tail);
+      }
+   }
+}
@@ -18,8 +18,12 @@
 package org.jclouds.docker.util;
 
 import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+
+import com.google.common.io.ByteStreams;
 
 /**
  * Extension to {@link DataInputStream} which adds method
@@ -44,17 +48,10 @@ public final class DockerInputStream extends DataInputStream {
     */
    public StdStreamData readStdStreamData() throws IOException {
       byte[] header = new byte[8];
-      // try to read first byte from the message header - just to check if we
-      // are at the end
-      // of stream
-      if (-1 == read(header, 0, 1)) {
+      if (!readHeader(header)) {
          return null;
       }
-      // read the rest of the header
-      readFully(header, 1, 7);
-      // decode size as an unsigned int
-      long size = (long) (header[4] & 0xFF) << 24 | (header[5] & 0xFF) << 16 | (header[6] & 0xFF) << 8
-            | (header[7] & 0xFF);
+      long size = frameSize(header);
 
       byte[] payload;
       // The size from the header is an unsigned int so it can happen the byte
@@ -65,9 +62,57 @@ public final class DockerInputStream extends DataInputStream {
       if (size > Integer.MAX_VALUE) {
          truncated = true;
          // skip the rest
-         readFully(new byte[(int) (size - Integer.MAX_VALUE)]);
+         skipFully(size - Integer.MAX_VALUE);
       }
       return new StdStreamData(header[0], payload, truncated);
    }
 
+   /**
+    * Demultiplexes the rest of the stream into the given standard streams as
+    * the frames arrive, without buffering whole frames. Frames of other
+    * stream types are skipped.
+    *
+    * @param stdout
+    *           receives the payload of stdout frames
+    * @param stderr
+    *           receives the payload of stderr frames
+    * @throws IOException
+    */
+   public void copyStdStreams(OutputStream stdout, OutputStream stderr) throws IOException {
+      byte[] header = new byte[8];
+      while (readHeader(header)) {
+         long size = frameSize(header);
+         OutputStream target = header[0] == 1 ? stdout : header[0] == 2 ? stderr : null;
+         if (target == null) {
+            skipFully(size);
+            continue;
+         }
+         if (ByteStreams.copy(ByteStreams.limit(this, size), target) < size) {
+            throw new EOFException();
+         }
+         target.flush();
+      }
+   }
+
+   private boolean readHeader(byte[] header) throws IOException {
+      // try to read first byte from the message header - just to check if we
+      // are at the end of stream
+      if (-1 == read(header, 0, 1)) {
+         return false;
+      }
+      // read the rest of the header
+      readFully(header, 1, 7);
+      return true;
+   }
+
+   private static long frameSize(byte[] header) {
+      // decode size as an unsigned int
+      return (long) (header[4] & 0xFF) << 24 | (header[5] & 0xFF) << 16 | (header[6] & 0xFF) << 8
+            | (header[7] & 0xFF);
+   }
+
+   private void skipFully(long n) throws IOException {
+      ByteStreams.skipFully(this, n);
+   }
+
 }
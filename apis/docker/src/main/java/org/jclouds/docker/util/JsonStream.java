@@ -0,0 +1,75 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.docker.util;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+
+import com.google.common.base.Throwables;
+import com.google.common.collect.AbstractIterator;
+import com.google.gson.Gson;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+/**
+ * Decodes a stream of consecutive JSON documents, such as the {@code /events} and {@code /containers/{id}/stats}
+ * streams, one document at a time as the caller iterates. Reading blocks until the next document arrives, so a slow
+ * consumer slows down the sender instead of the response being buffered.
+ * <p/>
+ * Use {@link #forEachRemaining} to consume the stream with a callback, and {@link #close()} to disconnect from
+ * endless streams.
+ */
+public final class JsonStream<T> extends AbstractIterator<T> implements Closeable {
+
+   private final InputStream input;
+   private final JsonReader reader;
+   private final Gson gson;
+   private final Type type;
+
+   public JsonStream(InputStream input, Gson gson, Type type) {
+      this.input = checkNotNull(input, "input");
+      this.gson = checkNotNull(gson, "gson");
+      this.type = checkNotNull(type, "type");
+      this.reader = new JsonReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+      // documents are concatenated rather than wrapped in an array
+      this.reader.setLenient(true);
+   }
+
+   @Override
+   protected T computeNext() {
+      try {
+         if (reader.peek() == JsonToken.END_DOCUMENT) {
+            close();
+            return endOfData();
+         }
+         return gson.fromJson(reader, type);
+      } catch (IOException e) {
+         throw Throwables.propagate(e);
+      }
+   }
+
+   @Override
+   public void close() throws IOException {
+      input.close();
+   }
+}
@@ -18,8 +18,12 @@ package org.jclouds.docker.features;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
 import static org.testng.Assert.assertNotNull;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
 
@@ -28,10 +32,14 @@ import org.jclouds.docker.config.DockerParserModule;
 import org.jclouds.docker.domain.Config;
 import org.jclouds.docker.domain.Container;
 import org.jclouds.docker.domain.Resource;
+import org.jclouds.docker.domain.Stats;
 import org.jclouds.docker.internal.BaseDockerMockTest;
 import org.jclouds.docker.options.ListContainerOptions;
+import org.jclouds.docker.options.LogsOptions;
 import org.jclouds.docker.parse.ContainerParseTest;
 import org.jclouds.docker.parse.ContainersParseTest;
+import org.jclouds.docker.util.DockerInputStream;
+import org.jclouds.docker.util.JsonStream;
 import org.testng.annotations.Test;
 
 import com.google.common.collect.ImmutableList;
@@ -235,4 +243,46 @@ public class ContainerApiMockTest extends BaseDockerMockTest {
       }
    }
 
+
+   public void testStatsContainer() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/stats.json")));
+      ContainerApi api = api(DockerApi.class, server.url("/").toString(), new DockerParserModule()).getContainerApi();
+      JsonStream<Stats> stats = null;
+      try {
+         stats = api.stats("1");
+         Stats first = stats.next();
+         assertEquals(first.cpuStats().cpuUsage().totalUsage(), 100215355L);
+         assertEquals(first.cpuStats().systemCpuUsage(), 739306590000000L);
+         assertEquals(first.memoryStats().usage(), 6537216L);
+         assertEquals(first.memoryStats().limit(), 67108864L);
+         assertEquals(stats.next().memoryStats().usage(), 6541312L);
+         assertFalse(stats.hasNext());
+         assertSent(server, "GET", "/containers/1/stats");
+      } finally {
+         if (stats != null) {
+            stats.close();
+         }
+         server.shutdown();
+      }
+   }
+
+   public void testLogsContainer() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/exec.start")));
+      ContainerApi api = api(DockerApi.class, server.url("/").toString()).getContainerApi();
+      DockerInputStream dis = null;
+      try {
+         dis = new DockerInputStream(api.logs("1", LogsOptions.Builder.stdout(true).stderr(true)));
+         ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+         ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+         dis.copyStdStreams(stdout, stderr);
+         assertEquals(new String(stdout.toByteArray(), StandardCharsets.UTF_8), "Standard");
+         assertEquals(new String(stderr.toByteArray(), StandardCharsets.UTF_8), "Error");
+         assertSent(server, "GET", "/containers/1/logs?stdout=true&stderr=true");
+      } finally {
+         if (dis != null) {
+            dis.close();
+         }
+         server.shutdown();
+      }
+   }
 }
@@ -39,12 +39,15 @@ import org.jclouds.docker.DockerApi;
 import org.jclouds.docker.config.DockerParserModule;
 import org.jclouds.docker.domain.Exec;
 import org.jclouds.docker.domain.ExecCreateParams;
+import org.jclouds.docker.domain.Event;
 import org.jclouds.docker.domain.ExecInspect;
 import org.jclouds.docker.domain.ExecStartParams;
 import org.jclouds.docker.internal.BaseDockerMockTest;
 import org.jclouds.docker.parse.InfoParseTest;
 import org.jclouds.docker.parse.VersionParseTest;
+import org.jclouds.docker.options.EventsOptions;
 import org.jclouds.docker.util.DockerInputStream;
+import org.jclouds.docker.util.JsonStream;
 import org.jclouds.docker.util.StdStreamData;
 import org.jclouds.docker.util.StdStreamData.StdStreamType;
 import org.jclouds.io.Payload;
@@ -179,4 +182,22 @@ public class MiscApiMockTest extends BaseDockerMockTest {
       assertThat(request.getHeader(HttpHeaders.CONTENT_TYPE)).isEqualTo("application/tar");
    }
 
+
+   public void testEvents() throws Exception {
+      MockWebServer server = mockWebServer(new MockResponse().setBody(payloadFromResource("/events.json")));
+      MiscApi api = api(DockerApi.class, server.url("/").toString(), new DockerParserModule()).getMiscApi();
+      JsonStream<Event> events = null;
+      try {
+         events = api.events(EventsOptions.Builder.since(1423339459).until(1423339460));
+         assertEquals(events.next(), Event.create("create", "dfdf82bd3881", "busybox:latest", 1423339459));
+         assertEquals(events.next(), Event.create("start", "dfdf82bd3881", "busybox:latest", 1423339459));
+         assertFalse(events.hasNext());
+         assertSent(server, "GET", "/events?since=1423339459&until=1423339460");
+      } finally {
+         if (events != null) {
+            events.close();
+         }
+         server.shutdown();
+      }
+   }
 }
@@ -28,6 +28,7 @@ import org.jclouds.ec2.compute.domain.RegionAndName;
 
 import com.google.common.base.Function;
 import com.google.common.base.Preconditions;
+import com.google.common.util.concurrent.FutureCallback;
 
 @Singleton
 public class ImagesToRegionAndIdMap implements Function<Iterable<? extends Image>, Map<RegionAndName, ? extends Image>> {
@@ -36,6 +37,24 @@ public class ImagesToRegionAndIdMap implements Function<Iterable<? extends Image
       return new ImagesToRegionAndIdMap().apply(input);
    }
 
+   /**
+    * returns a callback adding the images of a completed query to {@code cache}, so that they can be looked up before
+    * the images of all regions have been described.
+    */
+   public static FutureCallback<Iterable<? extends Image>> putInto(final Map<RegionAndName, Image> cache) {
+      return new FutureCallback<Iterable<? extends Image>>() {
+         @Override
+         public void onSuccess(Iterable<? extends Image> images) {
+            cache.putAll(imagesToMap(images));
+         }
+
+         @Override
+         public void onFailure(Throwable t) {
+            // reported to whoever waits for all regions
+         }
+      };
+   }
+
    @Override
    public Map<RegionAndName, ? extends Image> apply(Iterable<? extends Image> input) {
       return uniqueIndex(input, new Function<Image, RegionAndName>() {
@@ -16,7 +16,9 @@
  */
 package org.jclouds.ec2.compute.strategy;
 
+import static com.google.common.base.Predicates.notNull;
 import static com.google.common.collect.Iterables.concat;
+import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.transform;
 import static com.google.common.util.concurrent.Futures.allAsList;
 import static com.google.common.util.concurrent.Futures.getUnchecked;
@@ -38,6 +40,8 @@ import org.jclouds.ec2.options.DescribeImagesOptions;
 import org.jclouds.logging.Logger;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 
@@ -79,4 +83,32 @@ public class DescribeImagesParallel implements
 
       return concat(getUnchecked(futures));
    }
+
+   /**
+    * Describes the images of each query and converts them on the thread that described them, so that converting the
+    * images of one region overlaps with describing those of the others. Images the converter maps to null are dropped.
+    * 
+    * @return a future per query, in the order of {@code queries}, each completing as soon as its images are converted
+    */
+   public <T> List<ListenableFuture<Set<T>>> describeAndConvert(Iterable<Entry<String, DescribeImagesOptions>> queries,
+         final Function<? super org.jclouds.ec2.domain.Image, T> converter) {
+      ImmutableList.Builder<ListenableFuture<Set<T>>> futures = ImmutableList.builder();
+      for (final Entry<String, DescribeImagesOptions> query : queries) {
+         futures.add(userExecutor.submit(new Callable<Set<T>>() {
+            @Override
+            public Set<T> call() throws Exception {
+               Set<? extends org.jclouds.ec2.domain.Image> images = api.getAMIApi().get()
+                     .describeImagesInRegion(query.getKey(), query.getValue());
+               logger.trace("<< amis(%s, %d)", query.getKey(), images.size());
+               return ImmutableSet.copyOf(filter(transform(images, converter), notNull()));
+            }
+
+            @Override
+            public String toString() {
+               return "describeAndConvertImages(" + query.getKey() + ")";
+            }
+         }));
+      }
+      return futures.build();
+   }
 }
@@ -17,9 +17,12 @@
 package org.jclouds.ec2.compute.strategy;
 
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Throwables.propagate;
 import static com.google.common.base.Predicates.and;
+import static com.google.common.base.Predicates.containsPattern;
 import static com.google.common.base.Predicates.in;
 import static com.google.common.base.Predicates.notNull;
+import static com.google.common.collect.Iterables.all;
 import static com.google.common.collect.Iterables.concat;
 import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.toArray;
@@ -28,7 +31,11 @@ import static com.google.common.collect.Multimaps.filterKeys;
 import static com.google.common.collect.Multimaps.index;
 import static com.google.common.collect.Multimaps.transformValues;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Named;
@@ -38,7 +45,10 @@ import org.jclouds.Constants;
 import org.jclouds.aws.util.AWSUtils;
 import org.jclouds.compute.domain.ComputeMetadata;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.functions.GroupNamingConvention;
 import org.jclouds.compute.predicates.NodePredicates;
+import org.jclouds.compute.predicates.NodePredicates.InGroup;
+import org.jclouds.compute.predicates.NodePredicates.WithIds;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.ListNodesStrategy;
 import org.jclouds.ec2.EC2Api;
@@ -47,12 +57,20 @@ import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.location.Region;
 import org.jclouds.logging.Logger;
 
+import com.google.common.base.CharMatcher;
 import com.google.common.base.Function;
+import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMultimap;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.Inject;
 
 @Singleton
@@ -70,15 +88,18 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
    protected final Supplier<Set<String>> regions;
    protected final Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata;
    protected final ListeningExecutorService userExecutor;
+   protected final GroupNamingConvention.Factory namingConvention;
 
    @Inject
    protected EC2ListNodesStrategy(EC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
-            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+            @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+            GroupNamingConvention.Factory namingConvention) {
       this.client =  checkNotNull(client, "client");
       this.regions =  checkNotNull(regions, "regions");
       this.runningInstanceToNodeMetadata = checkNotNull(runningInstanceToNodeMetadata, "runningInstanceToNodeMetadata");
       this.userExecutor =  checkNotNull(userExecutor, "userExecutor");
+      this.namingConvention = checkNotNull(namingConvention, "namingConvention");
    }
 
    @Override
@@ -102,12 +123,112 @@ public class EC2ListNodesStrategy implements ListNodesStrategy {
       return ImmutableSet.copyOf(nodes);
    }
 
+   /**
+    * Regions are queried concurrently, and each region's instances are converted and matched against
+    * {@code filter} as soon as they arrive. {@link NodePredicates#withIds}, {@link NodePredicates#inGroup},
+    * {@link NodePredicates#runningInGroup} and {@link NodePredicates#RUNNING} are additionally translated into
+    * {@code DescribeInstances} filters, so that only candidate instances are returned by EC2.
+    */
    @Override
-   public Set<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<? super NodeMetadata> filter) {
-      Iterable<? extends RunningInstance> instances = pollRunningInstances();
-      Iterable<? extends NodeMetadata> nodes = filter(transform(filter(instances, notNull()),
-               runningInstanceToNodeMetadata), and(notNull(), filter));
-      return ImmutableSet.copyOf(nodes);
+   public Set<? extends NodeMetadata> listDetailsOnNodesMatching(final Predicate<? super NodeMetadata> filter) {
+      if (filter instanceof WithIds && all(WithIds.class.cast(filter).getIds(), containsPattern("/"))) {
+         Set<? extends NodeMetadata> nodes = listNodesByIds(WithIds.class.cast(filter).getIds());
+         return ImmutableSet.copyOf(filter(nodes, filter));
+      }
+      final List<Multimap<String, String>> filters = describeInstancesFilters(filter);
+      List<String> regionsToQuery = ImmutableList.copyOf(regions.get());
+      if (regionsToQuery.isEmpty()) {
+         return ImmutableSet.of();
+      }
+      List<ListenableFuture<Iterable<NodeMetadata>>> others = Lists.newArrayList();
+      for (final String region : regionsToQuery.subList(1, regionsToQuery.size())) {
+         others.add(userExecutor.submit(new Callable<Iterable<NodeMetadata>>() {
+            @Override
+            public Iterable<NodeMetadata> call() {
+               return nodesInRegionMatching(region, filters, filter);
+            }
+         }));
+      }
+      // query one region on the calling thread, so listing a single region never waits for an executor thread
+      ImmutableSet.Builder<NodeMetadata> nodes = ImmutableSet.builder();
+      try {
+         nodes.addAll(nodesInRegionMatching(regionsToQuery.get(0), filters, filter));
+         for (ListenableFuture<Iterable<NodeMetadata>> future : others) {
+            nodes.addAll(Uninterruptibles.getUninterruptibly(future));
+         }
+      } catch (ExecutionException e) {
+         throw propagate(e.getCause());
+      } finally {
+         for (ListenableFuture<Iterable<NodeMetadata>> future : others) {
+            future.cancel(true);
+         }
+      }
+      return nodes.build();
+   }
+
+   private Iterable<NodeMetadata> nodesInRegionMatching(String region, List<Multimap<String, String>> filters,
+         Predicate<? super NodeMetadata> filter) {
+      Iterable<? extends RunningInstance> instances = pollRunningInstancesInRegion(region, filters);
+      Iterable<NodeMetadata> nodes = filter(transform(filter(instances, notNull()), runningInstanceToNodeMetadata),
+            and(notNull(), filter));
+      return ImmutableList.copyOf(nodes);
+   }
+
+   /**
+    * Translates {@code filter} into the {@code DescribeInstances} filters that select candidate instances. Each
+    * filter is queried separately and the results are combined, as EC2 cannot express a disjunction between
+    * filter names. An empty filter queries all instances. The candidates are still matched against
+    * {@code filter}, so this may return more instances than needed, but never fewer.
+    */
+   protected List<Multimap<String, String>> describeInstancesFilters(Predicate<? super NodeMetadata> filter) {
+      boolean runningOnly = filter == NodePredicates.RUNNING
+            || (filter instanceof InGroup && InGroup.class.cast(filter).isRunningOnly());
+      Multimap<String, String> state = runningOnly ? ImmutableMultimap.of("instance-state-name", "running")
+            : ImmutableMultimap.<String, String> of();
+      if (filter instanceof InGroup) {
+         Optional<String> pattern = groupNamePattern(InGroup.class.cast(filter).getGroup());
+         if (pattern.isPresent()) {
+            // the group is parsed from the security group names, or from the key name when there is none;
+            // group-name only matches the groups of EC2-Classic instances, instance.group-name those of VPC instances
+            return ImmutableList.<Multimap<String, String>> of(
+                  ImmutableMultimap.<String, String> builder().putAll(state).put("group-name", pattern.get()).build(),
+                  ImmutableMultimap.<String, String> builder().putAll(state).put("instance.group-name", pattern.get())
+                        .build(),
+                  ImmutableMultimap.<String, String> builder().putAll(state).put("key-name", pattern.get()).build());
+         }
+      }
+      return ImmutableList.of(state);
+   }
+
+   private Optional<String> groupNamePattern(String group) {
+      if (CharMatcher.anyOf("*?\\").matchesAnyOf(group)) {
+         return Optional.absent();
+      }
+      try {
+         // both shared and unique names for the group start with the shared name
+         return Optional.of(namingConvention.create().sharedNameForGroup(group) + "*");
+      } catch (IllegalArgumentException e) {
+         // not a group we could have named
+         return Optional.absent();
+      }
+   }
+
+   /**
+    * returns the instances in {@code region} matching any of the {@code filters}, without duplicates.
+    */
+   protected Iterable<? extends RunningInstance> pollRunningInstancesInRegion(String region,
+         List<Multimap<String, String>> filters) {
+      if (filters.size() == 1 && filters.get(0).isEmpty()) {
+         return concat(allInstancesInRegion().apply(region));
+      }
+      Map<String, RunningInstance> instancesById = Maps.newLinkedHashMap();
+      for (Multimap<String, String> describeFilter : filters) {
+         for (RunningInstance instance : concat(client.getInstanceApi().get()
+               .describeInstancesInRegionWithFilter(region, describeFilter))) {
+            instancesById.put(instance.getId(), instance);
+         }
+      }
+      return instancesById.values();
    }
 
    protected Iterable<? extends RunningInstance> pollRunningInstances() {
@@ -16,11 +16,16 @@
  */
 package org.jclouds.ec2.compute.suppliers;
 
-import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Iterables.transform;
+import static com.google.common.collect.Iterables.concat;
+import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.jclouds.ec2.compute.functions.ImagesToRegionAndIdMap.putInto;
 import static org.jclouds.ec2.options.DescribeImagesOptions.Builder.ownedBy;
 import static org.jclouds.ec2.reference.EC2Constants.PROPERTY_EC2_AMI_OWNERS;
 
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -30,23 +35,25 @@ import jakarta.inject.Inject;
 import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 
+import org.jclouds.collect.Memoized;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.ec2.compute.domain.RegionAndName;
 import org.jclouds.ec2.compute.functions.EC2ImageParser;
 import org.jclouds.ec2.compute.functions.ImagesToRegionAndIdMap;
 import org.jclouds.ec2.compute.strategy.DescribeImagesParallel;
+import org.jclouds.domain.Location;
 import org.jclouds.ec2.options.DescribeImagesOptions;
 import org.jclouds.location.Region;
 import org.jclouds.logging.Logger;
 
-import com.google.common.base.Predicates;
 import com.google.common.base.Supplier;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMap.Builder;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
 
 @Singleton
 public class EC2ImageSupplier implements Supplier<Set<? extends Image>> {
@@ -55,6 +62,7 @@ public class EC2ImageSupplier implements Supplier<Set<? extends Image>> {
    protected Logger logger = Logger.NULL;
 
    private final Supplier<Set<String>> regions;
+   private final Supplier<Set<? extends Location>> locations;
    private final DescribeImagesParallel describer;
    private final String[] amiOwners;
    private final EC2ImageParser parser;
@@ -63,8 +71,9 @@ public class EC2ImageSupplier implements Supplier<Set<? extends Image>> {
    @Inject
    protected EC2ImageSupplier(@Region Supplier<Set<String>> regions, DescribeImagesParallel describer,
          @Named(PROPERTY_EC2_AMI_OWNERS) String[] amiOwners, Supplier<LoadingCache<RegionAndName, ? extends Image>> cache,
-         EC2ImageParser parser) {
+         EC2ImageParser parser, @Memoized Supplier<Set<? extends Location>> locations) {
       this.regions = regions;
+      this.locations = locations;
       this.describer = describer;
       this.amiOwners = amiOwners;
       this.cache = cache;
@@ -83,13 +92,21 @@ public class EC2ImageSupplier implements Supplier<Set<? extends Image>> {
 
          Iterable<Entry<String, DescribeImagesOptions>> queries = getDescribeQueriesForOwnersInRegions(regions.get(),
                   amiOwners);
+         // images are parsed as soon as their region is described, and parsing them needs the locations
+         locations.get();
 
-         Iterable<? extends Image> parsedImages = ImmutableSet.copyOf(filter(transform(describer.apply(queries), parser), Predicates
-                  .notNull()));
+         // images of each region become available for lookup as soon as that region is parsed
+         Map<RegionAndName, Image> cacheMap = (Map) cache.get().asMap();
+         List<ListenableFuture<Set<Image>>> regionImages = describer.describeAndConvert(queries, parser);
+         for (ListenableFuture<Set<Image>> images : regionImages)
+            addCallback(images, putInto(cacheMap), directExecutor());
+
+         Iterable<? extends Image> parsedImages = ImmutableSet.copyOf(concat(getUnchecked(allAsList(regionImages))));
 
          Map<RegionAndName, ? extends Image> imageMap = ImagesToRegionAndIdMap.imagesToMap(parsedImages);
-         cache.get().invalidateAll();
-         cache.get().asMap().putAll((Map)imageMap);
+         // rather than invalidating first, which would leave the cache empty until all images are put back
+         cacheMap.keySet().retainAll(imageMap.keySet());
+         cacheMap.putAll((Map) imageMap);
          logger.debug("<< images(%d)", imageMap.size());
          
          return Sets.newLinkedHashSet(imageMap.values());
@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.ec2.compute.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.domain.Hypervisor;
+import org.jclouds.ec2.domain.Image;
+import org.jclouds.ec2.domain.Image.Architecture;
+import org.jclouds.ec2.domain.Image.ImageState;
+import org.jclouds.ec2.domain.Image.ImageType;
+import org.jclouds.ec2.domain.RootDeviceType;
+import org.jclouds.ec2.domain.VirtualizationType;
+import org.jclouds.ec2.features.AMIApi;
+import org.jclouds.ec2.options.DescribeImagesOptions;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "DescribeImagesParallelTest")
+public class DescribeImagesParallelTest {
+
+   private final Image machine = image("us-east-1", "ami-1", ImageType.MACHINE);
+   private final Image kernel = image("us-east-1", "aki-1", ImageType.KERNEL);
+   private final Image other = image("eu-west-1", "ami-2", ImageType.MACHINE);
+
+   // drops non-machine images, like EC2ImageParser does
+   private final Function<Image, String> toId = new Function<Image, String>() {
+      @Override
+      public String apply(Image input) {
+         return input.getImageType() == ImageType.MACHINE ? input.getRegion() + "/" + input.getId() : null;
+      }
+   };
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testDescribeAndConvertReturnsConvertedImagesPerQuery() throws Exception {
+      EC2Api api = createMock(EC2Api.class);
+      AMIApi amiApi = createMock(AMIApi.class);
+      DescribeImagesOptions options = DescribeImagesOptions.Builder.ownedBy("self");
+      expect(api.getAMIApi()).andReturn((Optional) Optional.of(amiApi)).anyTimes();
+      expect(amiApi.describeImagesInRegion("us-east-1", options)).andReturn((Set) ImmutableSet.of(machine, kernel));
+      expect(amiApi.describeImagesInRegion("eu-west-1", options)).andReturn((Set) ImmutableSet.of(other));
+      replay(api, amiApi);
+
+      Set<Entry<String, DescribeImagesOptions>> queries = ImmutableMap.of("us-east-1", options, "eu-west-1", options)
+            .entrySet();
+      List<ListenableFuture<Set<String>>> futures = new DescribeImagesParallel(api, newDirectExecutorService())
+            .describeAndConvert(queries, toId);
+
+      assertEquals(futures.size(), 2);
+      assertTrue(futures.get(0).isDone());
+      assertEquals(futures.get(0).get(), ImmutableSet.of("us-east-1/ami-1"));
+      assertEquals(futures.get(1).get(), ImmutableSet.of("eu-west-1/ami-2"));
+      verify(api, amiApi);
+   }
+
+   private static Image image(String region, String id, ImageType type) {
+      return new Image(region, Architecture.X86_64, id, null, id, "location/" + id, "123456789012",
+            ImageState.AVAILABLE, "available", type, true, ImmutableSet.<String> of(), null, null, null,
+            RootDeviceType.EBS, "/dev/sda1", ImmutableMap.<String, Image.EbsBlockDevice> of(),
+            ImmutableMap.<String, String> of(), VirtualizationType.HVM, Hypervisor.XEN);
+   }
+}
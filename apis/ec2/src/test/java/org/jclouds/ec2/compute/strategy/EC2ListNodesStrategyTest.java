@@ -0,0 +1,182 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.ec2.compute.strategy;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.easymock.EasyMock.createMock;
+import static org.easymock.EasyMock.expect;
+import static org.easymock.EasyMock.replay;
+import static org.easymock.EasyMock.verify;
+import static org.jclouds.compute.predicates.NodePredicates.all;
+import static org.jclouds.compute.predicates.NodePredicates.inGroup;
+import static org.jclouds.compute.predicates.NodePredicates.runningInGroup;
+import static org.testng.Assert.assertEquals;
+
+import java.util.Set;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.functions.GroupNamingConvention;
+import org.jclouds.ec2.EC2Api;
+import org.jclouds.ec2.domain.InstanceState;
+import org.jclouds.ec2.domain.Reservation;
+import org.jclouds.ec2.domain.RunningInstance;
+import org.jclouds.ec2.features.InstanceApi;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Suppliers;
+import com.google.common.collect.ImmutableMultimap;
+import com.google.common.collect.ImmutableSet;
+
+@Test(groups = "unit", singleThreaded = true, testName = "EC2ListNodesStrategyTest")
+public class EC2ListNodesStrategyTest {
+
+   private EC2Api client;
+   private InstanceApi instanceApi;
+   private GroupNamingConvention.Factory namingConventionFactory;
+   private GroupNamingConvention namingConvention;
+
+   private final RunningInstance inGroup = instance("us-east-1", "i-1", "jclouds#group", InstanceState.RUNNING);
+   private final RunningInstance stopped = instance("eu-west-1", "i-2", "jclouds#group", InstanceState.STOPPED);
+   private final RunningInstance other = instance("eu-west-1", "i-3", "jclouds#other", InstanceState.RUNNING);
+
+   // a VPC instance whose key pair was supplied by the user
+   private final RunningInstance inVpc = RunningInstance.builder().region("us-east-1").instanceId("i-4")
+         .imageId("ami-1").instanceType("m1.small").instanceState(InstanceState.RUNNING).rawState("running")
+         .keyName("my-key").groupName("jclouds#group").build();
+
+   // parses the group from the security group names, or from the key name when there are none, like
+   // RunningInstanceToNodeMetadata does
+   private final Function<RunningInstance, NodeMetadata> toNode = new Function<RunningInstance, NodeMetadata>() {
+      @Override
+      public NodeMetadata apply(RunningInstance input) {
+         String name = input.getGroupNames().isEmpty() ? input.getKeyName()
+               : input.getGroupNames().iterator().next();
+         return new NodeMetadataBuilder().id(input.getRegion() + "/" + input.getId()).providerId(input.getId())
+               .group(name.startsWith("jclouds#") ? name.substring("jclouds#".length()) : null)
+               .status(input.getInstanceState() == InstanceState.RUNNING ? Status.RUNNING : Status.SUSPENDED)
+               .build();
+      }
+   };
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   @BeforeMethod
+   void createMocks() {
+      client = createMock(EC2Api.class);
+      instanceApi = createMock(InstanceApi.class);
+      namingConventionFactory = createMock(GroupNamingConvention.Factory.class);
+      namingConvention = createMock(GroupNamingConvention.class);
+      expect(client.getInstanceApi()).andReturn((Optional) Optional.of(instanceApi)).anyTimes();
+      expect(namingConventionFactory.create()).andReturn(namingConvention).anyTimes();
+      expect(namingConvention.sharedNameForGroup("group")).andReturn("jclouds#group").anyTimes();
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testListNodesQueriesEveryRegionWithoutFilters() {
+      expect(instanceApi.describeInstancesInRegion("us-east-1")).andReturn((Set) reservation("us-east-1", inGroup));
+      expect(instanceApi.describeInstancesInRegion("eu-west-1")).andReturn((Set) reservation("eu-west-1", stopped, other));
+      replay(client, instanceApi, namingConventionFactory, namingConvention);
+
+      assertEquals(ids(strategy().listDetailsOnNodesMatching(all())), ImmutableSet.of("us-east-1/i-1", "eu-west-1/i-2", "eu-west-1/i-3"));
+      verify(client, instanceApi, namingConventionFactory, namingConvention);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testInGroupIsTranslatedIntoFiltersAndMergedPerRegion() {
+      expect(instanceApi.describeInstancesInRegionWithFilter("us-east-1",
+            ImmutableMultimap.of("group-name", "jclouds#group*"))).andReturn((Set) reservation("us-east-1", inGroup));
+      expect(instanceApi.describeInstancesInRegionWithFilter("us-east-1",
+            ImmutableMultimap.of("instance.group-name", "jclouds#group*"))).andReturn((Set) ImmutableSet.of());
+      expect(instanceApi.describeInstancesInRegionWithFilter("us-east-1",
+            ImmutableMultimap.of("key-name", "jclouds#group*"))).andReturn((Set) reservation("us-east-1", inGroup));
+      expect(instanceApi.describeInstancesInRegionWithFilter("eu-west-1",
+            ImmutableMultimap.of("group-name", "jclouds#group*"))).andReturn((Set) ImmutableSet.of());
+      expect(instanceApi.describeInstancesInRegionWithFilter("eu-west-1",
+            ImmutableMultimap.of("instance.group-name", "jclouds#group*"))).andReturn((Set) ImmutableSet.of());
+      expect(instanceApi.describeInstancesInRegionWithFilter("eu-west-1",
+            ImmutableMultimap.of("key-name", "jclouds#group*"))).andReturn((Set) reservation("eu-west-1", stopped));
+      replay(client, instanceApi, namingConventionFactory, namingConvention);
+
+      Set<? extends NodeMetadata> nodes = strategy().listDetailsOnNodesMatching(inGroup("group"));
+      assertEquals(nodes.size(), 2);
+      assertEquals(ids(nodes), ImmutableSet.of("us-east-1/i-1", "eu-west-1/i-2"));
+      verify(client, instanceApi, namingConventionFactory, namingConvention);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testRunningInGroupAlsoFiltersByStateAndStillMatchesClientSide() {
+      for (String region : ImmutableSet.of("us-east-1", "eu-west-1")) {
+         for (String name : ImmutableSet.of("group-name", "instance.group-name", "key-name")) {
+            // pretend the server ignored the filters
+            expect(instanceApi.describeInstancesInRegionWithFilter(region, ImmutableMultimap.of(
+                  "instance-state-name", "running", name, "jclouds#group*"))).andReturn(
+                  region.equals("us-east-1") ? (Set) reservation(region, inGroup)
+                        : (Set) reservation(region, stopped, other));
+         }
+      }
+      replay(client, instanceApi, namingConventionFactory, namingConvention);
+
+      assertEquals(ids(strategy().listDetailsOnNodesMatching(runningInGroup("group"))),
+            ImmutableSet.of("us-east-1/i-1"));
+      verify(client, instanceApi, namingConventionFactory, namingConvention);
+   }
+
+   @SuppressWarnings({ "unchecked", "rawtypes" })
+   public void testInGroupFindsVpcInstancesWithUserKeys() {
+      expect(instanceApi.describeInstancesInRegionWithFilter("us-east-1",
+            ImmutableMultimap.of("group-name", "jclouds#group*"))).andReturn((Set) ImmutableSet.of());
+      expect(instanceApi.describeInstancesInRegionWithFilter("us-east-1",
+            ImmutableMultimap.of("instance.group-name", "jclouds#group*"))).andReturn((Set) reservation("us-east-1",
+            inVpc));
+      expect(instanceApi.describeInstancesInRegionWithFilter("us-east-1",
+            ImmutableMultimap.of("key-name", "jclouds#group*"))).andReturn((Set) ImmutableSet.of());
+      for (String name : ImmutableSet.of("group-name", "instance.group-name", "key-name")) {
+         expect(instanceApi.describeInstancesInRegionWithFilter("eu-west-1",
+               ImmutableMultimap.of(name, "jclouds#group*"))).andReturn((Set) ImmutableSet.of());
+      }
+      replay(client, instanceApi, namingConventionFactory, namingConvention);
+
+      assertEquals(ids(strategy().listDetailsOnNodesMatching(inGroup("group"))), ImmutableSet.of("us-east-1/i-4"));
+      verify(client, instanceApi, namingConventionFactory, namingConvention);
+   }
+
+   private EC2ListNodesStrategy strategy() {
+      return new EC2ListNodesStrategy(client, Suppliers.<Set<String>> ofInstance(ImmutableSet.of("us-east-1",
+            "eu-west-1")), toNode, newDirectExecutorService(), namingConventionFactory);
+   }
+
+   private static Set<Reservation<RunningInstance>> reservation(String region, RunningInstance... instances) {
+      return ImmutableSet.of(new Reservation<RunningInstance>(region, ImmutableSet.<String> of(),
+            ImmutableSet.copyOf(instances), null, null, "r-" + region));
+   }
+
+   private static RunningInstance instance(String region, String id, String keyName, InstanceState state) {
+      return RunningInstance.builder().region(region).instanceId(id).imageId("ami-1").instanceType("m1.small")
+            .instanceState(state).rawState(state.value()).keyName(keyName).build();
+   }
+
+   private static Set<String> ids(Iterable<? extends NodeMetadata> nodes) {
+      ImmutableSet.Builder<String> ids = ImmutableSet.builder();
+      for (NodeMetadata node : nodes)
+         ids.add(node.getId());
+      return ids.build();
+   }
+}
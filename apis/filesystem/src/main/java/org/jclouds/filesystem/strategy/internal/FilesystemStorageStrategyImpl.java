@@ -21,6 +21,7 @@ import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
 import static com.google.common.base.Strings.isNullOrEmpty;
 import static com.google.common.io.BaseEncoding.base16;
+import static java.nio.file.Files.copy;
 import static java.nio.file.Files.createDirectories;
 import static java.nio.file.Files.getFileAttributeView;
 import static java.nio.file.Files.getPosixFilePermissions;
@@ -41,17 +42,20 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.AccessDeniedException;
 import java.nio.file.DirectoryStream;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.nio.file.Path;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.nio.file.attribute.PosixFilePermission;
 import java.nio.file.attribute.UserDefinedFileAttributeView;
 import java.util.Collection;
 import java.util.Date;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
@@ -629,6 +633,124 @@ public class FilesystemStorageStrategyImpl implements LocalStorageStrategy {
       }
    }
 
+   @Override
+   public String concatenateBlobs(String containerName, Blob blob, List<String> sourceNames, BlobAccess access)
+         throws IOException {
+      String blobKey = blob.getMetadata().getName();
+      filesystemContainerNameValidator.validate(containerName);
+      filesystemBlobKeyValidator.validate(blobKey);
+      String eTag = blob.getMetadata().getETag();
+      if (getDirectoryBlobSuffix(blobKey) != null || eTag == null || !MPU_ETAG_FORMAT.matcher(eTag).matches()) {
+         return null;
+      }
+      ImmutableList.Builder<Path> sources = ImmutableList.builder();
+      for (String sourceName : sourceNames) {
+         filesystemBlobKeyValidator.validate(sourceName);
+         sources.add(getFileForBlobKey(containerName, sourceName).toPath());
+      }
+      writeBlobFromFiles(containerName, blob, sources.build(), eTag.getBytes(), access);
+      return eTag;
+   }
+
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, Blob blob, BlobAccess access)
+         throws IOException {
+      String blobKey = blob.getMetadata().getName();
+      filesystemContainerNameValidator.validate(fromContainer);
+      filesystemBlobKeyValidator.validate(fromName);
+      filesystemContainerNameValidator.validate(toContainer);
+      filesystemBlobKeyValidator.validate(blobKey);
+      if (getDirectoryBlobSuffix(fromName) != null || getDirectoryBlobSuffix(blobKey) != null) {
+         return null;
+      }
+      Path source = getFileForBlobKey(fromContainer, fromName).toPath();
+      // reuse the stored digest instead of hashing the content again; multipart ETags are not digests of the
+      // content, so those copies fall back to the generic path which computes one
+      byte[] eTag = null;
+      UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(source);
+      if (view != null) {
+         try {
+            if (view.list().contains(XATTR_CONTENT_MD5)) {
+               ByteBuffer buf = ByteBuffer.allocate(view.size(XATTR_CONTENT_MD5));
+               view.read(XATTR_CONTENT_MD5, buf);
+               eTag = buf.array();
+            }
+         } catch (IOException e) {
+            logger.debug("xattrs not supported on %s", source);
+         }
+      }
+      if (eTag == null || eTag.length != 16) {
+         return null;
+      }
+      writeBlobFromFiles(toContainer, blob, ImmutableList.of(source), eTag, access);
+      return base16().lowerCase().encode(eTag);
+   }
+
+   /**
+    * Writes the content of the source files to a new blob, leaving the data movement to the JDK and kernel.
+    * A single file is copied with {@link java.nio.file.Files#copy}, several are appended with
+    * {@link FileChannel#transferTo}; both avoid copying the content through the Java heap.
+    */
+   private void writeBlobFromFiles(String containerName, Blob blob, List<Path> sources, byte[] eTag,
+         BlobAccess access) throws IOException {
+      String blobKey = blob.getMetadata().getName();
+      File outputFile = getFileForBlobKey(containerName, blobKey);
+      String tmpBlobName = blobKey + "-" + UUID.randomUUID();
+      File tmpFile = getFileForBlobKey(containerName, tmpBlobName);
+      Path tmpPath = tmpFile.toPath();
+      try {
+         Files.createParentDirs(tmpFile);
+         if (sources.size() == 1) {
+            copy(sources.get(0), tmpPath);
+         } else {
+            FileChannel output = FileChannel.open(tmpPath, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            try {
+               for (Path source : sources) {
+                  FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+                  try {
+                     long size = input.size();
+                     long position = 0;
+                     while (position < size) {
+                        position += input.transferTo(position, size - position, output);
+                     }
+                  } finally {
+                     input.close();
+                  }
+               }
+            } finally {
+               output.close();
+            }
+         }
+
+         if (isWindows() && outputFile.exists()) {
+            delete(outputFile);
+         }
+
+         UserDefinedFileAttributeView view = getUserDefinedFileAttributeView(tmpPath);
+         if (view != null) {
+            try {
+               view.write(XATTR_CONTENT_MD5, ByteBuffer.wrap(eTag));
+               writeCommonMetadataAttr(view, blob);
+            } catch (IOException e) {
+               logger.debug("xattrs not supported on %s", tmpPath);
+            }
+         }
+
+         setBlobAccess(containerName, tmpBlobName, access);
+
+         move(tmpPath, outputFile.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+         tmpFile = null;
+      } finally {
+         if (tmpFile != null) {
+            try {
+               delete(tmpFile);
+            } catch (IOException e) {
+               logger.debug("Could not delete %s: %s", tmpFile, e);
+            }
+         }
+      }
+   }
+
    @Override
    public void removeBlob(final String container, final String blobKey) {
       filesystemContainerNameValidator.validate(container);
@@ -43,12 +43,16 @@ import org.jclouds.blobstore.BlobStoreContext;
 import org.jclouds.blobstore.ContainerNotFoundException;
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
 import org.jclouds.blobstore.domain.MutableBlobMetadata;
 import org.jclouds.blobstore.domain.PageSet;
 import org.jclouds.blobstore.domain.StorageMetadata;
 import org.jclouds.blobstore.domain.StorageType;
+import org.jclouds.blobstore.options.CopyOptions;
 import org.jclouds.blobstore.options.GetOptions;
 import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.filesystem.reference.FilesystemConstants;
 import org.jclouds.filesystem.util.Utils;
 import org.jclouds.filesystem.utils.TestUtils;
@@ -64,6 +68,8 @@ import org.testng.annotations.BeforeMethod;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Sets;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
@@ -772,6 +778,43 @@ public class FilesystemBlobStoreTest {
         }
     }
 
+    public void testCompleteMultipartUploadConcatenatesParts() throws IOException {
+        blobStore.createContainerInLocation(null, CONTAINER_NAME);
+        Blob blob = blobStore.blobBuilder("mpu").payload(new StringPayload("")).contentType("text/plain")
+                .userMetadata(ImmutableMap.of("key", "value")).build();
+        MultipartUpload mpu = blobStore.initiateMultipartUpload(CONTAINER_NAME, blob.getMetadata(), PutOptions.NONE);
+        MultipartPart part1 = blobStore.uploadMultipartPart(mpu, 1, new StringPayload("abc"));
+        MultipartPart part2 = blobStore.uploadMultipartPart(mpu, 2, new StringPayload("defgh"));
+
+        String eTag = blobStore.completeMultipartUpload(mpu, ImmutableList.of(part1, part2));
+
+        Blob result = blobStore.getBlob(CONTAINER_NAME, "mpu");
+        assertEquals(Strings2.toStringAndClose(result.getPayload().openStream()), "abcdefgh");
+        assertEquals(result.getMetadata().getContentMetadata().getContentLength(), Long.valueOf(8));
+        assertEquals(result.getMetadata().getContentMetadata().getContentType(), "text/plain");
+        assertEquals(result.getMetadata().getUserMetadata(), ImmutableMap.of("key", "value"));
+        assertTrue(eTag.endsWith("-2\""), eTag);
+        assertTrue(blobStore.listMultipartUpload(mpu).isEmpty());
+    }
+
+    public void testCopyBlobKeepsContentAndReplacesMetadata() throws IOException {
+        blobStore.createContainerInLocation(null, CONTAINER_NAME);
+        Blob blob = blobStore.blobBuilder("from").payload(new StringPayload("abcdefgh")).contentType("text/plain")
+                .userMetadata(ImmutableMap.of("key", "value")).build();
+        String eTag = blobStore.putBlob(CONTAINER_NAME, blob);
+
+        String copiedETag = blobStore.copyBlob(CONTAINER_NAME, "from", CONTAINER_NAME, "to",
+                CopyOptions.builder().userMetadata(ImmutableMap.of("other", "value")).build());
+
+        assertEquals(copiedETag, eTag);
+        Blob result = blobStore.getBlob(CONTAINER_NAME, "to");
+        assertEquals(Strings2.toStringAndClose(result.getPayload().openStream()), "abcdefgh");
+        assertEquals(result.getMetadata().getContentMetadata().getContentType(), "text/plain");
+        assertEquals(result.getMetadata().getUserMetadata(), ImmutableMap.of("other", "value"));
+        assertEquals(blobStore.getBlob(CONTAINER_NAME, "from").getMetadata().getUserMetadata(),
+                ImmutableMap.of("key", "value"));
+    }
+
     /** Test that BlobRequestSigner creates expected URIs.  */
     public void testBlobRequestSigner() throws Exception {
         String containerName = "container";
@@ -60,6 +60,7 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.Lists;
 import com.google.common.collect.Sets;
+import com.google.common.hash.Hashing;
 import com.google.common.io.ByteSource;
 import com.google.common.io.Files;
 import com.google.common.util.concurrent.Uninterruptibles;
@@ -465,7 +466,7 @@ public class FilesystemStorageStrategyImplTest {
       blob.setPayload(filePayload);
 
       // write files
-      storageStrategy.putBlob(CONTAINER_NAME, blob);
+      String eTag = storageStrategy.putBlob(CONTAINER_NAME, blob);
 
       // verify that the files is equal
       File blobFullPath = new File(TARGET_CONTAINER_NAME, blobKey);
@@ -473,6 +474,23 @@ public class FilesystemStorageStrategyImplTest {
       ByteSource actualInput = Files.asByteSource(blobFullPath);
       assertTrue(expectedInput.contentEquals(actualInput),
             "Files are not equal");
+      assertEquals(eTag, expectedInput.hash(Hashing.md5()).toString());
+   }
+
+   public void testWritePayloadOnFileVerifiesContentMD5() throws IOException {
+      String blobKey = TestUtils.createRandomBlobKey("writePayload-", ".img");
+      FilePayload filePayload = new FilePayload(TestUtils.getImageForBlobPayload());
+      filePayload.getContentMetadata().setContentMD5(Hashing.md5().hashInt(0));
+      Blob blob = storageStrategy.newBlob(blobKey);
+      blob.setPayload(filePayload);
+
+      try {
+         storageStrategy.putBlob(CONTAINER_NAME, blob);
+         Fail.failBecauseExceptionWasNotThrown(IOException.class);
+      } catch (IOException ioe) {
+         // expected
+      }
+      assertFalse(storageStrategy.blobExists(CONTAINER_NAME, blobKey));
    }
 
    public void testWritePayloadOnFileInputStream() throws IOException {
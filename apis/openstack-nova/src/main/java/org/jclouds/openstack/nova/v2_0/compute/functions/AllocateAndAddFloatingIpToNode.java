@@ -24,6 +24,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Named;
@@ -81,6 +83,8 @@ public class AllocateAndAddFloatingIpToNode
    private final NovaApi novaApi;
    private final LoadingCache<RegionAndId, Iterable<? extends FloatingIpForServer>> floatingIpCache;
    private final CleanupResources cleanupResources;
+   // serializes floating ip allocations
+   private final Lock allocationLock = new ReentrantLock();
 
    @Inject
    public AllocateAndAddFloatingIpToNode(
@@ -134,7 +138,13 @@ public class AllocateAndAddFloatingIpToNode
       } else { // try nova
          FloatingIPApi floatingIpApi = novaApi.getFloatingIPApi(regionId).get();
 
-         Optional<FloatingIP> ip = allocateFloatingIPForNodeOnNova(floatingIpApi, poolNames, node.getId());
+         Optional<FloatingIP> ip;
+         allocationLock.lock();
+         try {
+            ip = allocateFloatingIPForNodeOnNova(floatingIpApi, poolNames, node.getId());
+         } finally {
+            allocationLock.unlock();
+         }
          if (!ip.isPresent()) {
             cleanupResources.apply(node);
             throw new InsufficientResourcesException("Failed to allocate a FloatingIP for node(" + node.getId() + ")");
@@ -166,7 +176,7 @@ public class AllocateAndAddFloatingIpToNode
     *           Used here only for logging purposes
     * @return Optional<FloatingIP>
     */
-   private synchronized Optional<FloatingIP> allocateFloatingIPForNodeOnNova(FloatingIPApi floatingIpApi,
+   private Optional<FloatingIP> allocateFloatingIPForNodeOnNova(FloatingIPApi floatingIpApi,
          Optional<Set<String>> poolNames, String nodeID) {
 
       FloatingIP ip;
@@ -669,7 +669,12 @@ public class RegionScopedSwiftBlobStore implements BlobStore {
 
       @Override
       public MultipartPart call() {
-         return uploadMultipartPart(mpu, partNumber, payload);
+         try {
+            return uploadMultipartPart(mpu, partNumber, payload);
+         } finally {
+            // parts sliced from a stream borrow pooled buffers, which later parts can reuse once released
+            payload.release();
+         }
       }
    }
 
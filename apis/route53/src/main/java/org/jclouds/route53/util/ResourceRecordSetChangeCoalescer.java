@@ -0,0 +1,360 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.immediateFuture;
+
+import java.io.Closeable;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jclouds.route53.Route53Api;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.Change.Status;
+import org.jclouds.route53.domain.ChangeBatch;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset.Latency;
+import org.jclouds.route53.domain.ResourceRecordSet.RecordSubset.Weighted;
+import org.jclouds.route53.features.ResourceRecordSetApi;
+
+import com.google.common.base.Optional;
+import com.google.common.collect.HashMultiset;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Collects changes to the resource record sets of a hosted zone over a short window and submits them as few
+ * {@link ChangeBatch change batches} as possible, as Route53 throttles change requests per account.
+ * <p/>
+ * Operations on the same record set (same name, type and subset id) within a window are merged so that only the
+ * last requested state is sent. A locally cached view of the zone answers {@link #list()} and {@link #get} without
+ * listing the zone again, and is also used to turn {@link #upsert upserts} into a {@code DELETE} of the current
+ * record set followed by a {@code CREATE} in the same atomic batch.
+ * <p/>
+ * Futures returned by the mutating methods complete with the {@link Change} that carried the operation, or
+ * {@code null} when the zone was already in the requested state and nothing was sent. Use {@link #inSync} to wait
+ * for a change to propagate to all Route53 DNS servers.
+ */
+public final class ResourceRecordSetChangeCoalescer implements Closeable {
+
+   /**
+    * Route53 rejects change batches with more than 100 changes.
+    */
+   public static final int MAX_CHANGES_PER_BATCH = 100;
+
+   private final Route53Api api;
+   private final ResourceRecordSetApi rrsApi;
+   private final ScheduledFuture<?> flusher;
+
+   // serializes flushes
+   private final Lock flushLock = new ReentrantLock();
+   private final Object lock = new Object();
+   // guarded by lock
+   private Map<ResourceRecordSet, PendingChange> pending = new LinkedHashMap<ResourceRecordSet, PendingChange>();
+   // guarded by lock; null until the zone is listed or after a failed batch left it in an unknown state. Replaced
+   // rather than modified, so that readers can use it after leaving the monitor
+   private ImmutableMap<ResourceRecordSet, ResourceRecordSet> records;
+   // guarded by lock; changes whenever records is invalidated or updated, so that a listing that raced with either
+   // is not installed
+   private long recordsVersion;
+
+   private final ConcurrentMap<String, SettableFuture<Change>> awaitingSync = new ConcurrentHashMap<String, SettableFuture<Change>>();
+
+   /**
+    * @param api
+    *           the api to submit changes with
+    * @param zoneId
+    *           the hosted zone whose record sets are changed
+    * @param scheduler
+    *           executes the periodic flush and change status polling
+    * @param window
+    *           how long to collect changes before submitting them
+    */
+   public ResourceRecordSetChangeCoalescer(Route53Api api, String zoneId, ScheduledExecutorService scheduler,
+         long window, TimeUnit unit) {
+      this.api = checkNotNull(api, "api");
+      this.rrsApi = api.getResourceRecordSetApiForHostedZone(checkNotNull(zoneId, "zoneId"));
+      checkArgument(window > 0, "window must be positive");
+      this.flusher = checkNotNull(scheduler, "scheduler").scheduleWithFixedDelay(new Runnable() {
+         @Override
+         public void run() {
+            flush();
+            pollPendingChanges();
+         }
+      }, window, window, unit);
+   }
+
+   /**
+    * schedules creation of the resource record set, replacing any pending change to it. The returned future fails
+    * with {@link IllegalStateException} if a different record set with the same name, type and subset id exists.
+    */
+   public ListenableFuture<Change> create(ResourceRecordSet rrs) {
+      return enqueue(checkNotNull(rrs, "rrs"), Optional.of(rrs), false);
+   }
+
+   /**
+    * schedules the resource record set to be created, or replaced if it already exists.
+    */
+   public ListenableFuture<Change> upsert(ResourceRecordSet rrs) {
+      return enqueue(checkNotNull(rrs, "rrs"), Optional.of(rrs), true);
+   }
+
+   /**
+    * schedules deletion of the resource record set with the same name, type and subset id, replacing any pending
+    * change to it.
+    */
+   public ListenableFuture<Change> delete(ResourceRecordSet rrs) {
+      return enqueue(checkNotNull(rrs, "rrs"), Optional.<ResourceRecordSet> absent(), true);
+   }
+
+   /**
+    * returns the cached resource record sets of the zone, listing the zone only if it was not listed before.
+    * Pending changes are not reflected until they have been submitted.
+    */
+   public List<ResourceRecordSet> list() {
+      return records().values().asList();
+   }
+
+   /**
+    * returns the cached resource record set with the same name, type and subset id as {@code rrs}.
+    */
+   public Optional<ResourceRecordSet> get(ResourceRecordSet rrs) {
+      return Optional.fromNullable(records().get(rrs));
+   }
+
+   /**
+    * discards the cached view of the zone, so that the next read lists it again.
+    */
+   public void invalidate() {
+      synchronized (lock) {
+         records = null;
+         recordsVersion++;
+      }
+   }
+
+   /**
+    * returns a future that completes once {@code change} has replicated to all Route53 DNS servers.
+    */
+   public ListenableFuture<Change> inSync(Change change) {
+      if (change.getStatus() == Status.INSYNC)
+         return immediateFuture(change);
+      SettableFuture<Change> future = SettableFuture.create();
+      SettableFuture<Change> existing = awaitingSync.putIfAbsent(change.getId(), future);
+      return existing != null ? existing : future;
+   }
+
+   /**
+    * submits all pending changes immediately.
+    */
+   public void flush() {
+      flushLock.lock();
+      try {
+         flushPending();
+      } finally {
+         flushLock.unlock();
+      }
+   }
+
+   private void flushPending() {
+      Map<ResourceRecordSet, PendingChange> toSubmit;
+      Map<ResourceRecordSet, ResourceRecordSet> current;
+      synchronized (lock) {
+         if (pending.isEmpty())
+            return;
+         toSubmit = pending;
+         pending = new LinkedHashMap<ResourceRecordSet, PendingChange>();
+      }
+      try {
+         current = records();
+      } catch (RuntimeException e) {
+         for (PendingChange change : toSubmit.values())
+            change.future.setException(e);
+         return;
+      }
+
+      ChangeBatch.Builder batch = ChangeBatch.builder();
+      int batchSize = 0;
+      List<PendingChange> inBatch = Lists.newArrayList();
+      for (PendingChange change : toSubmit.values()) {
+         ResourceRecordSet existing = current.get(change.key);
+         if (!change.replace && existing != null && !sameRecords(existing, change.desired.get())) {
+            change.future.setException(new IllegalStateException(String.format(
+                  "Tried to create resource record set %s, but it already exists", existing)));
+            continue;
+         }
+         boolean unchanged = existing != null && change.desired.isPresent()
+               && sameRecords(existing, change.desired.get());
+         // a replacement deletes the current record set and creates the new one atomically within the batch
+         boolean deleteExisting = existing != null && !unchanged;
+         boolean createDesired = change.desired.isPresent() && !unchanged;
+         int size = (deleteExisting ? 1 : 0) + (createDesired ? 1 : 0);
+         if (size == 0) {
+            change.future.set(null);
+            continue;
+         }
+         if (batchSize + size > MAX_CHANGES_PER_BATCH) {
+            submit(batch.build(), inBatch);
+            batch = ChangeBatch.builder();
+            batchSize = 0;
+            inBatch = Lists.newArrayList();
+         }
+         if (deleteExisting)
+            batch.delete(existing);
+         if (createDesired)
+            batch.create(change.desired.get());
+         batchSize += size;
+         inBatch.add(change);
+      }
+      if (batchSize > 0)
+         submit(batch.build(), inBatch);
+   }
+
+   /**
+    * submits pending changes and stops collecting new ones.
+    */
+   @Override
+   public void close() {
+      flusher.cancel(false);
+      flush();
+   }
+
+   private ListenableFuture<Change> enqueue(ResourceRecordSet key, Optional<ResourceRecordSet> desired, boolean replace) {
+      PendingChange change;
+      synchronized (lock) {
+         PendingChange replaced = pending.remove(key);
+         // a create after a delete or an upsert replaces whatever record set the earlier operation was meant for
+         change = new PendingChange(key, desired, replace || (replaced != null && replaced.replace));
+         if (replaced != null) {
+            // the earlier operation is subsumed by this one; both callers observe the same outcome
+            replaced.future.setFuture(change.future);
+         }
+         pending.put(key, change);
+      }
+      return change.future;
+   }
+
+   private void submit(ChangeBatch batch, List<PendingChange> changes) {
+      Change result;
+      try {
+         result = rrsApi.apply(batch);
+      } catch (RuntimeException e) {
+         // we cannot tell which parts of the zone are stale, so list it again on next use
+         invalidate();
+         for (PendingChange change : changes)
+            change.future.setException(e);
+         return;
+      }
+      synchronized (lock) {
+         if (records != null) {
+            Map<ResourceRecordSet, ResourceRecordSet> updated = new LinkedHashMap<ResourceRecordSet, ResourceRecordSet>(
+                  records);
+            for (PendingChange change : changes) {
+               if (change.desired.isPresent())
+                  updated.put(change.key, change.desired.get());
+               else
+                  updated.remove(change.key);
+            }
+            records = ImmutableMap.copyOf(updated);
+         }
+         recordsVersion++;
+      }
+      for (PendingChange change : changes)
+         change.future.set(result);
+   }
+
+   private void pollPendingChanges() {
+      for (Map.Entry<String, SettableFuture<Change>> entry : awaitingSync.entrySet()) {
+         try {
+            Change change = api.getChange(entry.getKey());
+            if (change == null) {
+               awaitingSync.remove(entry.getKey());
+               entry.getValue().setException(new IllegalStateException("change " + entry.getKey() + " not found"));
+            } else if (change.getStatus() == Status.INSYNC) {
+               awaitingSync.remove(entry.getKey());
+               entry.getValue().set(change);
+            }
+         } catch (RuntimeException e) {
+            // retry on the next tick
+         }
+      }
+   }
+
+   /**
+    * returns the cached view of the zone, listing it if needed. The listing blocks on http, so it runs outside the
+    * monitor, and is only installed if the view was neither invalidated nor updated meanwhile.
+    */
+   private ImmutableMap<ResourceRecordSet, ResourceRecordSet> records() {
+      long version;
+      synchronized (lock) {
+         if (records != null)
+            return records;
+         version = recordsVersion;
+      }
+      Map<ResourceRecordSet, ResourceRecordSet> builder = new LinkedHashMap<ResourceRecordSet, ResourceRecordSet>();
+      for (ResourceRecordSet rrs : rrsApi.list().concat())
+         builder.put(rrs, rrs);
+      ImmutableMap<ResourceRecordSet, ResourceRecordSet> listed = ImmutableMap.copyOf(builder);
+      synchronized (lock) {
+         if (records != null)
+            return records;
+         if (version == recordsVersion)
+            records = listed;
+      }
+      return listed;
+   }
+
+   /**
+    * {@link ResourceRecordSet#equals} only considers the identity of the record set, not its contents. The order of
+    * values is not significant, as Route53 does not preserve it.
+    */
+   private static boolean sameRecords(ResourceRecordSet a, ResourceRecordSet b) {
+      if (a.getClass() != b.getClass() || !a.equals(b) || !a.getType().equals(b.getType())
+            || !a.getTTL().equals(b.getTTL()) || !a.getAliasTarget().equals(b.getAliasTarget())
+            || !HashMultiset.create(a.getValues()).equals(HashMultiset.create(b.getValues())))
+         return false;
+      if (a instanceof Weighted)
+         return Weighted.class.cast(a).getWeight() == Weighted.class.cast(b).getWeight();
+      if (a instanceof Latency)
+         return Latency.class.cast(a).getRegion().equals(Latency.class.cast(b).getRegion());
+      return true;
+   }
+
+   private static final class PendingChange {
+      private final ResourceRecordSet key;
+      private final Optional<ResourceRecordSet> desired;
+      private final boolean replace;
+      private final SettableFuture<Change> future = SettableFuture.create();
+
+      private PendingChange(ResourceRecordSet key, Optional<ResourceRecordSet> desired, boolean replace) {
+         this.key = key;
+         this.desired = desired;
+         this.replace = replace;
+      }
+   }
+}
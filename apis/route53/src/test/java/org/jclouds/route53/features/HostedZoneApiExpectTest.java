@@ -20,9 +20,12 @@ import static com.google.common.net.HttpHeaders.HOST;
 import static jakarta.ws.rs.HttpMethod.GET;
 import static jakarta.ws.rs.HttpMethod.POST;
 import static jakarta.ws.rs.core.Response.Status.OK;
+import static org.jclouds.Constants.PROPERTY_PREFETCH_PAGES;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNull;
 
+import java.util.Properties;
+
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.rest.ResourceNotFoundException;
@@ -34,6 +37,7 @@ import org.jclouds.route53.parse.GetHostedZoneResponseTest;
 import org.jclouds.route53.parse.ListHostedZonesResponseTest;
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 
 @Test(groups = "unit", testName = "HostedZoneApiExpectTest")
@@ -139,6 +143,18 @@ public class HostedZoneApiExpectTest extends BaseRoute53ApiExpectTest {
             .toString());
    }
 
+   public void testList2PagesPrefetchedWhenResponseIs2xx() {
+      HttpResponse noMore = HttpResponse.builder().statusCode(OK.getStatusCode())
+            .payload(payloadFromStringWithContentType("<ListHostedZonesResponse />", "text/xml")).build();
+      Properties overrides = setupProperties();
+      overrides.setProperty(PROPERTY_PREFETCH_PAGES, "2");
+
+      Route53Api success = requestsSendResponses(ImmutableMap.of(list, listResponse, listAt, noMore), createModule(),
+            overrides);
+      assertEquals(success.getHostedZoneApi().list().concat().toString(), new ListHostedZonesResponseTest().expected()
+            .toString());
+   }
+
    HttpRequest delete = HttpRequest.builder().method("DELETE")
          .endpoint("https://route53.amazonaws.com/2012-02-29/hostedzone/Z1XTHCPEFRWV1X")
          .addHeader(HOST, "route53.amazonaws.com")
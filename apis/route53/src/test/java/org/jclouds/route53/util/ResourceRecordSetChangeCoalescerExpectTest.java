@@ -0,0 +1,183 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.route53.util;
+
+import static com.google.common.net.HttpHeaders.DATE;
+import static com.google.common.net.HttpHeaders.HOST;
+import static jakarta.ws.rs.HttpMethod.GET;
+import static jakarta.ws.rs.HttpMethod.POST;
+import static jakarta.ws.rs.core.Response.Status.OK;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.route53.Route53Api;
+import org.jclouds.route53.domain.Change;
+import org.jclouds.route53.domain.ResourceRecordSet;
+import org.jclouds.route53.internal.BaseRoute53ApiExpectTest;
+import org.jclouds.route53.parse.GetChangeResponseTest;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "ResourceRecordSetChangeCoalescerExpectTest")
+public class ResourceRecordSetChangeCoalescerExpectTest extends BaseRoute53ApiExpectTest {
+
+   private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+   HttpRequest list = HttpRequest.builder().method(GET)
+         .endpoint("https://route53.amazonaws.com/2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset")
+         .addHeader(HOST, "route53.amazonaws.com")
+         .addHeader(DATE, "Mon, 21 Jan 02013 19:29:03 -0800")
+         .addHeader("X-Amzn-Authorization", authForDate).build();
+
+   HttpResponse listResponse = HttpResponse.builder().statusCode(OK.getStatusCode())
+         .payload(payloadFromStringWithContentType("<ListResourceRecordSetsResponse xmlns=\"https://route53.amazonaws.com/doc/2012-02-29/\">"
+               + "<ResourceRecordSets><ResourceRecordSet><Name>jclouds.org.</Name><Type>TXT</Type><TTL>300</TTL>"
+               + "<ResourceRecords><ResourceRecord><Value>my texts</Value></ResourceRecord></ResourceRecords>"
+               + "</ResourceRecordSet></ResourceRecordSets><IsTruncated>false</IsTruncated><MaxItems>100</MaxItems>"
+               + "</ListResourceRecordSetsResponse>", "text/xml")).build();
+
+   HttpRequest apply = HttpRequest.builder().method(POST)
+         .endpoint("https://route53.amazonaws.com/2012-02-29/hostedzone/Z1PA6795UKMFR9/rrset")
+         .addHeader(HOST, "route53.amazonaws.com")
+         .addHeader(DATE, "Mon, 21 Jan 02013 19:29:03 -0800")
+         .addHeader("X-Amzn-Authorization", authForDate)
+         .payload(payloadFromResourceWithContentType("/batch_rrs_request.xml", "application/xml")).build();
+
+   HttpResponse jobResponse = HttpResponse.builder().statusCode(OK.getStatusCode())
+         .payload(payloadFromResourceWithContentType("/change.xml", "text/xml")).build();
+
+   ResourceRecordSet existing = ResourceRecordSet.builder().name("jclouds.org.").type("TXT").add("my texts").build();
+   ResourceRecordSet replacement = ResourceRecordSet.builder().name("jclouds.org.").type("TXT").add("my better texts").build();
+
+   public void testUpsertReplacesExistingRecordSetInOneBatch() throws Exception {
+      Route53Api api = requestsSendResponses(list, listResponse, apply, jobResponse);
+      ResourceRecordSetChangeCoalescer coalescer = coalescer(api);
+      try {
+         ListenableFuture<Change> first = coalescer.delete(existing);
+         ListenableFuture<Change> second = coalescer.upsert(replacement);
+         coalescer.flush();
+
+         assertEquals(second.get().toString(), new GetChangeResponseTest().expected().toString());
+         assertEquals(first.get(), second.get());
+         assertEquals(coalescer.get(existing).get().getValues().get(0), "my better texts");
+      } finally {
+         coalescer.close();
+      }
+   }
+
+   public void testDeleteThenCreateReplacesExistingRecordSet() throws Exception {
+      Route53Api api = requestsSendResponses(list, listResponse, apply, jobResponse);
+      ResourceRecordSetChangeCoalescer coalescer = coalescer(api);
+      try {
+         ListenableFuture<Change> delete = coalescer.delete(existing);
+         ListenableFuture<Change> create = coalescer.create(replacement);
+         coalescer.flush();
+
+         assertEquals(create.get().toString(), new GetChangeResponseTest().expected().toString());
+         assertEquals(delete.get(), create.get());
+         assertEquals(coalescer.get(existing).get().getValues().get(0), "my better texts");
+      } finally {
+         coalescer.close();
+      }
+   }
+
+   public void testCreateThenDeleteSendsNothing() throws Exception {
+      Route53Api api = requestsSendResponses(ImmutableMap.of(list, listResponse));
+      ResourceRecordSetChangeCoalescer coalescer = coalescer(api);
+      try {
+         ResourceRecordSet rrs = ResourceRecordSet.builder().name("www.jclouds.org.").type("A").add("1.1.1.1").build();
+         ListenableFuture<Change> create = coalescer.create(rrs);
+         ListenableFuture<Change> delete = coalescer.delete(rrs);
+         coalescer.flush();
+
+         assertNull(create.get());
+         assertNull(delete.get());
+         assertEquals(coalescer.list().size(), 1);
+      } finally {
+         coalescer.close();
+      }
+   }
+
+   public void testCreateFailsWhenDifferentRecordSetExists() throws Exception {
+      Route53Api api = requestsSendResponses(ImmutableMap.of(list, listResponse));
+      ResourceRecordSetChangeCoalescer coalescer = coalescer(api);
+      try {
+         ListenableFuture<Change> create = coalescer.create(replacement);
+         coalescer.flush();
+         try {
+            create.get();
+            fail("expected the create to fail");
+         } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+         }
+      } finally {
+         coalescer.close();
+      }
+   }
+
+   public void testUpsertWithReorderedValuesSendsNothing() throws Exception {
+      HttpResponse listTwoValuesResponse = HttpResponse.builder().statusCode(OK.getStatusCode())
+            .payload(payloadFromStringWithContentType("<ListResourceRecordSetsResponse xmlns=\"https://route53.amazonaws.com/doc/2012-02-29/\">"
+                  + "<ResourceRecordSets><ResourceRecordSet><Name>jclouds.org.</Name><Type>TXT</Type><TTL>300</TTL>"
+                  + "<ResourceRecords><ResourceRecord><Value>my texts</Value></ResourceRecord>"
+                  + "<ResourceRecord><Value>more texts</Value></ResourceRecord></ResourceRecords>"
+                  + "</ResourceRecordSet></ResourceRecordSets><IsTruncated>false</IsTruncated><MaxItems>100</MaxItems>"
+                  + "</ListResourceRecordSetsResponse>", "text/xml")).build();
+      Route53Api api = requestsSendResponses(ImmutableMap.of(list, listTwoValuesResponse));
+      ResourceRecordSetChangeCoalescer coalescer = coalescer(api);
+      try {
+         ListenableFuture<Change> reordered = coalescer.upsert(ResourceRecordSet.builder().name("jclouds.org.")
+               .type("TXT").ttl(300).add("more texts").add("my texts").build());
+         coalescer.flush();
+         assertNull(reordered.get());
+
+         // differs from the listed record set only in its ttl
+         ListenableFuture<Change> otherTtl = coalescer.create(ResourceRecordSet.builder().name("jclouds.org.")
+               .type("TXT").ttl(60).add("my texts").add("more texts").build());
+         coalescer.flush();
+         try {
+            otherTtl.get();
+            fail("expected the create to fail");
+         } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException, e.getCause().toString());
+         }
+      } finally {
+         coalescer.close();
+      }
+   }
+
+   private ResourceRecordSetChangeCoalescer coalescer(Route53Api api) {
+      return new ResourceRecordSetChangeCoalescer(api, "Z1PA6795UKMFR9", scheduler, 1, TimeUnit.HOURS);
+   }
+
+   @AfterClass(alwaysRun = true)
+   public void shutdownScheduler() {
+      scheduler.shutdownNow();
+   }
+}
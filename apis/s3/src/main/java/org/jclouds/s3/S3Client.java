@@ -56,6 +56,7 @@ import org.jclouds.rest.annotations.ParamValidators;
 import org.jclouds.rest.annotations.QueryParams;
 import org.jclouds.rest.annotations.RequestFilters;
 import org.jclouds.rest.annotations.ResponseParser;
+import org.jclouds.rest.annotations.SingleFlight;
 import org.jclouds.rest.annotations.VirtualHost;
 import org.jclouds.rest.annotations.XMLResponseParser;
 import org.jclouds.s3.S3Fallbacks.TrueOn404OrNotFoundFalseOnIllegalState;
@@ -538,6 +539,7 @@ public interface S3Client extends Closeable {
     * @return location of the bucket
     */
    @Named("GetBucketLocation")
+   @SingleFlight
    @GET
    @QueryParams(keys = "location")
    @Path("/{bucket}")
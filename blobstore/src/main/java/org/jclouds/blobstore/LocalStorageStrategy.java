@@ -18,6 +18,7 @@ package org.jclouds.blobstore;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.List;
 
 import org.jclouds.blobstore.domain.Blob;
 import org.jclouds.blobstore.domain.BlobAccess;
@@ -127,6 +128,41 @@ public interface LocalStorageStrategy {
      */
     String putBlob(String containerName, Blob blob, BlobAccess access) throws IOException;
 
+    /**
+     * Write a {@link Blob} whose content is the concatenation of existing blobs in the same container, without
+     * streaming that content through the caller.  The payload of the blob is ignored.  The default implementation
+     * returns null, which makes {@link org.jclouds.blobstore.config.LocalBlobStore} read the parts and write the
+     * blob with {@link #putBlob} instead.
+     * @param containerName
+     * @param blob metadata and ETag of the new blob
+     * @param sourceNames blobs to concatenate, in order
+     * @param access
+     * @return etag of blob, or null if the strategy cannot concatenate natively and nothing was written
+     * @throws IOException
+     */
+    default String concatenateBlobs(String containerName, Blob blob, List<String> sourceNames, BlobAccess access)
+          throws IOException {
+       return null;
+    }
+
+    /**
+     * Write a {@link Blob} with the content of an existing blob, without streaming that content through the
+     * caller.  The payload of the blob is ignored; its metadata replaces that of the source.  The default
+     * implementation returns null, which makes {@link org.jclouds.blobstore.config.LocalBlobStore} read the source
+     * and write the copy with {@link #putBlob} instead.
+     * @param fromContainer
+     * @param fromName
+     * @param toContainer
+     * @param blob name and metadata of the new blob
+     * @param access
+     * @return etag of blob, or null if the strategy cannot copy natively and nothing was written
+     * @throws IOException
+     */
+    default String copyBlob(String fromContainer, String fromName, String toContainer, Blob blob, BlobAccess access)
+          throws IOException {
+       return null;
+    }
+
     /**
      * Remove blob named by the given key
      * @param container
@@ -601,7 +601,17 @@ public final class LocalBlobStore implements BlobStore {
          } else {
             builder.userMetadata(blob.getMetadata().getUserMetadata());
          }
-         return putBlob(toContainer, builder.build());
+         Blob toBlob = builder.build();
+         if (!storageStrategy.containerExists(toContainer)) {
+            throw cnfe(toContainer);
+         }
+         // strategies that cannot copy natively return null, and the source is streamed through putBlob as before
+         String copiedETag = storageStrategy.copyBlob(fromContainer, fromName, toContainer, toBlob,
+               BlobAccess.PRIVATE);
+         if (copiedETag != null) {
+            return copiedETag;
+         }
+         return putBlob(toContainer, toBlob);
       } catch (IOException ioe) {
          throw Throwables.propagate(ioe);
       } finally {
@@ -882,7 +892,22 @@ public final class LocalBlobStore implements BlobStore {
           blobBuilder.tier(tier);
       }
 
-      putBlob(mpu.containerName(), blobBuilder.build());
+      Blob blob = blobBuilder.build();
+      ImmutableList.Builder<String> partNames = ImmutableList.builder();
+      for (MultipartPart part : parts) {
+         partNames.add(MULTIPART_PREFIX + mpu.id() + "-" + mpu.blobName() + "-" + part.partNumber());
+      }
+      // strategies that cannot concatenate natively return null, and the parts are streamed through putBlob as before
+      String concatenatedETag;
+      try {
+         concatenatedETag = storageStrategy.concatenateBlobs(mpu.containerName(), blob, partNames.build(),
+               BlobAccess.PRIVATE);
+      } catch (IOException ioe) {
+         throw propagate(ioe);
+      }
+      if (concatenatedETag == null) {
+         putBlob(mpu.containerName(), blob);
+      }
 
       for (MultipartPart part : parts) {
          removeBlob(mpu.containerName(), MULTIPART_PREFIX + mpu.id() + "-" + mpu.blobName() + "-" + part.partNumber());
@@ -0,0 +1,523 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.internal.BlobImpl;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.blobstore.options.CopyOptions;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.ListContainerOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.InputStreamPayload;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Throwables;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.LinkedHashMultimap;
+import com.google.common.collect.Multimap;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Closeables;
+import com.google.common.io.Files;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Keeps the contents of blobs read through {@link #getBlob} in a local directory, so that repeated reads of the same
+ * blob do not download it again.
+ * <p/>
+ * Cached blobs are revalidated against the {@link BlobMetadata#getETag() ETag} reported by
+ * {@link BlobStore#blobMetadata} once they are older than the configured validity, and the least recently used
+ * blobs are evicted when the cache grows beyond its size. Ranged reads of a cached blob are served from the local
+ * copy, while ranged reads of a blob that is not cached are passed through without populating the cache. Concurrent
+ * reads of the same uncached blob share a single download.
+ * <p/>
+ * Only blobs with an ETag and a known length no larger than the cache are cached, and conditional reads are always
+ * passed through. Writes and deletes made through this blob store invalidate the affected entries; changes made by
+ * other clients are noticed on revalidation. The directory should be dedicated to the cache, as files left over by
+ * a previous cache in it are removed.
+ */
+@Beta
+public final class CachingBlobStore extends ForwardingBlobStore {
+   private static final String PREFIX = "jclouds-";
+   private static final String SUFFIX = ".cache";
+
+   /**
+    * @param directory
+    *           where to keep the cached blobs; created if it does not exist
+    * @param maxBytes
+    *           the total size of the cached blobs
+    * @param validity
+    *           how long a cached blob is served before its ETag is checked again
+    */
+   public static BlobStore newCachingBlobStore(BlobStore blobStore, File directory, long maxBytes, long validity,
+         TimeUnit unit) {
+      return new CachingBlobStore(blobStore, directory, maxBytes, unit.toNanos(validity), Ticker.systemTicker());
+   }
+
+   private final File directory;
+   private final long maxBytes;
+   private final long validityNanos;
+   private final Ticker ticker;
+
+   private final Object lock = new Object();
+   // guarded by lock; in access order, so that iteration starts at the least recently used blob
+   private final Map<String, CachedBlob> entries = new LinkedHashMap<String, CachedBlob>(16, 0.75f, true);
+   // guarded by lock
+   private long cachedBytes;
+   // guarded by lock; generation of each blob being downloaded, bumped when the blob is invalidated meanwhile
+   private final Map<String, Long> generations = new HashMap<String, Long>();
+
+   private final ConcurrentMap<String, SettableFuture<CachedBlob>> loading = new ConcurrentHashMap<String, SettableFuture<CachedBlob>>();
+
+   @VisibleForTesting
+   CachingBlobStore(BlobStore blobStore, File directory, long maxBytes, long validityNanos, Ticker ticker) {
+      super(blobStore);
+      this.directory = checkNotNull(directory, "directory");
+      checkArgument(maxBytes > 0, "maxBytes must be positive");
+      checkArgument(validityNanos >= 0, "validity must not be negative");
+      this.maxBytes = maxBytes;
+      this.validityNanos = validityNanos;
+      this.ticker = checkNotNull(ticker, "ticker");
+      checkArgument(directory.isDirectory() || directory.mkdirs(), "could not create %s", directory);
+      File[] leftovers = directory.listFiles();
+      if (leftovers != null) {
+         for (File file : leftovers) {
+            if (file.getName().startsWith(PREFIX) && file.getName().endsWith(SUFFIX))
+               file.delete();
+         }
+      }
+   }
+
+   @Override
+   public Blob getBlob(String container, String name) {
+      return getBlob(container, name, GetOptions.NONE);
+   }
+
+   @Override
+   public Blob getBlob(String container, String name, GetOptions options) {
+      if (options == null)
+         options = GetOptions.NONE;
+      if (options.getIfMatch() != null || options.getIfNoneMatch() != null || options.getIfModifiedSince() != null
+            || options.getIfUnmodifiedSince() != null)
+         return delegate().getBlob(container, name, options);
+      List<String> ranges = options.getRanges();
+      String key = key(container, name);
+
+      CachedBlob cached;
+      synchronized (lock) {
+         cached = entries.get(key);
+      }
+      if (cached != null && ticker.read() - cached.validatedAt > validityNanos) {
+         BlobMetadata current = delegate().blobMetadata(container, name);
+         if (current == null) {
+            invalidate(key, cached);
+            return null;
+         }
+         if (cached.eTag.equals(current.getETag())) {
+            cached.validatedAt = ticker.read();
+         } else {
+            invalidate(key, cached);
+            cached = null;
+         }
+      }
+      if (cached != null) {
+         Blob blob = open(key, cached, ranges);
+         if (blob != null)
+            return blob;
+      }
+
+      if (!ranges.isEmpty()) {
+         // join a download already in progress, but do not start one for a part of the blob
+         SettableFuture<CachedBlob> inFlight = loading.get(key);
+         CachedBlob loaded = inFlight != null ? await(inFlight) : null;
+         Blob blob = loaded != null ? open(key, loaded, ranges) : null;
+         return blob != null ? blob : delegate().getBlob(container, name, options);
+      }
+      return load(container, name, key);
+   }
+
+   private Blob load(String container, String name, String key) {
+      SettableFuture<CachedBlob> future = SettableFuture.create();
+      SettableFuture<CachedBlob> inFlight = loading.putIfAbsent(key, future);
+      if (inFlight != null) {
+         CachedBlob loaded = await(inFlight);
+         Blob blob = loaded != null ? open(key, loaded, ImmutableList.<String> of()) : null;
+         // the blob is missing, could not be cached or was evicted already
+         return blob != null ? blob : delegate().getBlob(container, name);
+      }
+      long generation;
+      synchronized (lock) {
+         generation = 0;
+         generations.put(key, generation);
+      }
+      try {
+         Blob blob = delegate().getBlob(container, name);
+         Long length = blob == null ? null : blob.getMetadata().getContentMetadata().getContentLength();
+         if (blob == null || blob.getMetadata().getETag() == null || length == null || length > maxBytes) {
+            future.set(null);
+            return blob;
+         }
+         CachedBlob cached = store(key, blob, generation);
+         future.set(cached);
+         Blob opened = cached != null ? open(key, cached, ImmutableList.<String> of()) : null;
+         // the blob was written or removed during the download, or evicted already
+         return opened != null ? opened : delegate().getBlob(container, name);
+      } catch (IOException e) {
+         future.setException(e);
+         throw new RuntimeException(e);
+      } catch (RuntimeException e) {
+         future.setException(e);
+         throw e;
+      } finally {
+         synchronized (lock) {
+            generations.remove(key);
+         }
+         loading.remove(key, future);
+      }
+   }
+
+   private static CachedBlob await(SettableFuture<CachedBlob> future) {
+      try {
+         return Uninterruptibles.getUninterruptibly(future);
+      } catch (ExecutionException e) {
+         Throwables.throwIfUnchecked(e.getCause());
+         throw new RuntimeException(e.getCause());
+      }
+   }
+
+   /**
+    * writes {@code blob} to disk and caches it, unless {@code key} was invalidated since {@code generation}, in
+    * which case the download may predate a write or delete, and null is returned.
+    */
+   private CachedBlob store(String key, Blob blob, long generation) throws IOException {
+      File file = File.createTempFile(PREFIX, SUFFIX, directory);
+      try {
+         InputStream in = blob.getPayload().openStream();
+         try {
+            Files.asByteSink(file).writeFrom(in);
+         } finally {
+            Closeables.closeQuietly(in);
+         }
+      } catch (IOException e) {
+         file.delete();
+         throw e;
+      } finally {
+         blob.getPayload().release();
+      }
+      CachedBlob cached = new CachedBlob(new MutableBlobMetadataImpl(blob.getMetadata()),
+            LinkedHashMultimap.create(blob.getAllHeaders()), file, ticker.read());
+      synchronized (lock) {
+         Long current = generations.get(key);
+         if (current == null || current != generation) {
+            file.delete();
+            return null;
+         }
+         CachedBlob replaced = entries.put(key, cached);
+         if (replaced != null)
+            discard(replaced);
+         cachedBytes += cached.length;
+         for (Iterator<CachedBlob> lru = entries.values().iterator(); cachedBytes > maxBytes && lru.hasNext();) {
+            CachedBlob eldest = lru.next();
+            if (eldest == cached)
+               continue;
+            lru.remove();
+            discard(eldest);
+         }
+      }
+      return cached;
+   }
+
+   // guarded by lock
+   private void discard(CachedBlob cached) {
+      cachedBytes -= cached.length;
+      // streams opened already keep reading the unlinked file
+      cached.file.delete();
+   }
+
+   /**
+    * returns a blob reading {@code ranges} of the cached copy, or null if it was evicted.
+    */
+   private Blob open(String key, CachedBlob cached, List<String> ranges) {
+      List<long[]> slices = ranges.isEmpty() ? Collections.singletonList(new long[] { 0, cached.length - 1 })
+            : slices(ranges, cached.length);
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl(cached.metadata);
+      Blob blob = new BlobImpl(metadata);
+      blob.getAllHeaders().putAll(cached.headers);
+      ImmutableList.Builder<InputStream> streams = ImmutableList.builder();
+      long size = 0;
+      // the files are opened while holding the lock, so that they cannot be evicted in between
+      synchronized (lock) {
+         if (entries.get(key) != cached)
+            return null;
+         try {
+            for (long[] slice : slices) {
+               InputStream in = new FileInputStream(cached.file);
+               ByteStreams.skipFully(in, slice[0]);
+               streams.add(ByteStreams.limit(in, slice[1] - slice[0] + 1));
+               size += slice[1] - slice[0] + 1;
+            }
+         } catch (IOException e) {
+            for (InputStream in : streams.build())
+               Closeables.closeQuietly(in);
+            throw new RuntimeException(e);
+         }
+      }
+      if (!ranges.isEmpty()) {
+         blob.getAllHeaders().removeAll(HttpHeaders.CONTENT_RANGE);
+         for (long[] slice : slices)
+            blob.getAllHeaders().put(HttpHeaders.CONTENT_RANGE,
+                  "bytes " + slice[0] + "-" + slice[1] + "/" + cached.length);
+      }
+      List<InputStream> opened = streams.build();
+      Payload payload = new InputStreamPayload(opened.size() == 1 ? opened.get(0)
+            : new SequenceInputStream(Collections.enumeration(opened)));
+      payload.setContentMetadata(metadata.getContentMetadata());
+      payload.getContentMetadata().setContentLength(size);
+      blob.setPayload(payload);
+      metadata.setSize(size);
+      return blob;
+   }
+
+   /**
+    * converts {@link GetOptions#getRanges() ranges} to closed intervals, the same way {@code LocalBlobStore} does.
+    */
+   static List<long[]> slices(List<String> ranges, long length) {
+      ImmutableList.Builder<long[]> slices = ImmutableList.builder();
+      for (String s : ranges) {
+         long offset = 0;
+         long last = length - 1;
+         if (s.startsWith("-")) {
+            offset = Math.max(0, last - Long.parseLong(s.substring(1)) + 1);
+         } else if (s.endsWith("-")) {
+            offset = Long.parseLong(s.substring(0, s.length() - 1));
+         } else if (s.contains("-")) {
+            String[] firstLast = s.split("\\-");
+            offset = Long.parseLong(firstLast[0]);
+            last = Math.min(last, Long.parseLong(firstLast[1]));
+         } else {
+            throw new HttpResponseException("illegal range: " + s, null, HttpResponse.builder().statusCode(416).build());
+         }
+         if (offset >= length) {
+            throw new HttpResponseException("illegal range: " + s, null, HttpResponse.builder().statusCode(416).build());
+         }
+         slices.add(new long[] { offset, last });
+      }
+      return slices.build();
+   }
+
+   private void invalidate(String key) {
+      synchronized (lock) {
+         bumpGeneration(key);
+         CachedBlob cached = entries.remove(key);
+         if (cached != null)
+            discard(cached);
+      }
+   }
+
+   private void invalidate(String key, CachedBlob stale) {
+      synchronized (lock) {
+         if (entries.remove(key, stale))
+            discard(stale);
+      }
+   }
+
+   private void invalidateContainer(String container) {
+      String prefix = key(container, "");
+      synchronized (lock) {
+         for (Map.Entry<String, Long> generation : generations.entrySet()) {
+            if (generation.getKey().startsWith(prefix))
+               generation.setValue(generation.getValue() + 1);
+         }
+         for (Iterator<Map.Entry<String, CachedBlob>> it = entries.entrySet().iterator(); it.hasNext();) {
+            Map.Entry<String, CachedBlob> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+               it.remove();
+               discard(entry.getValue());
+            }
+         }
+      }
+   }
+
+   // guarded by lock
+   private void bumpGeneration(String key) {
+      Long generation = generations.get(key);
+      if (generation != null)
+         generations.put(key, generation + 1);
+   }
+
+   @VisibleForTesting
+   long cachedBytes() {
+      synchronized (lock) {
+         return cachedBytes;
+      }
+   }
+
+   private static String key(String container, String name) {
+      return container + "/" + name;
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob) {
+      try {
+         return delegate().putBlob(container, blob);
+      } finally {
+         invalidate(key(container, blob.getMetadata().getName()));
+      }
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob, PutOptions options) {
+      try {
+         return delegate().putBlob(container, blob, options);
+      } finally {
+         invalidate(key(container, blob.getMetadata().getName()));
+      }
+   }
+
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
+         CopyOptions options) {
+      try {
+         return delegate().copyBlob(fromContainer, fromName, toContainer, toName, options);
+      } finally {
+         invalidate(key(toContainer, toName));
+      }
+   }
+
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      try {
+         return delegate().completeMultipartUpload(mpu, parts);
+      } finally {
+         invalidate(key(mpu.containerName(), mpu.blobName()));
+      }
+   }
+
+   @Override
+   public void removeBlob(String container, String name) {
+      try {
+         delegate().removeBlob(container, name);
+      } finally {
+         invalidate(key(container, name));
+      }
+   }
+
+   @Override
+   public void removeBlobs(String container, Iterable<String> names) {
+      try {
+         delegate().removeBlobs(container, names);
+      } finally {
+         for (String name : names)
+            invalidate(key(container, name));
+      }
+   }
+
+   @Override
+   public void clearContainer(String container) {
+      try {
+         delegate().clearContainer(container);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public void clearContainer(String container, ListContainerOptions options) {
+      try {
+         delegate().clearContainer(container, options);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public void deleteDirectory(String container, String directory) {
+      try {
+         delegate().deleteDirectory(container, directory);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public void deleteContainer(String container) {
+      try {
+         delegate().deleteContainer(container);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   @Override
+   public boolean deleteContainerIfEmpty(String container) {
+      try {
+         return delegate().deleteContainerIfEmpty(container);
+      } finally {
+         invalidateContainer(container);
+      }
+   }
+
+   private static final class CachedBlob {
+      private final MutableBlobMetadata metadata;
+      private final Multimap<String, String> headers;
+      private final String eTag;
+      private final File file;
+      private final long length;
+      private volatile long validatedAt;
+
+      private CachedBlob(MutableBlobMetadata metadata, Multimap<String, String> headers, File file,
+            long validatedAt) {
+         this.metadata = metadata;
+         this.headers = headers;
+         this.eTag = metadata.getETag();
+         this.file = file;
+         this.length = file.length();
+         this.validatedAt = validatedAt;
+      }
+   }
+}
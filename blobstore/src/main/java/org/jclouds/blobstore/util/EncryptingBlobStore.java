@@ -0,0 +1,563 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.domain.MutableBlobMetadata;
+import org.jclouds.blobstore.domain.internal.BlobImpl;
+import org.jclouds.blobstore.domain.internal.MutableBlobMetadataImpl;
+import org.jclouds.blobstore.options.CopyOptions;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.crypto.Crypto;
+import org.jclouds.io.Payload;
+import org.jclouds.io.payloads.ByteSourcePayload;
+import org.jclouds.io.payloads.InputStreamPayload;
+
+import com.google.common.annotations.Beta;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.io.BaseEncoding;
+import com.google.common.io.ByteSource;
+import com.google.common.io.ByteStreams;
+import com.google.common.io.Files;
+import com.google.common.net.HttpHeaders;
+
+/**
+ * Encrypts the contents of blobs on the client with AES-GCM before they are stored, and decrypts them when they are
+ * read.
+ * <p/>
+ * Content is split into chunks of a fixed size, each encrypted and authenticated on its own with a nonce derived
+ * from a random per-blob nonce and the index of the chunk. The index and whether the chunk is the last one are
+ * authenticated as well, so that chunks cannot be reordered, dropped or truncated without failing decryption. The
+ * per-blob nonce and the chunk size are stored in the {@link BlobMetadata#getUserMetadata() user metadata} of the
+ * blob.
+ * <p/>
+ * As chunks are independent, a slice of the encrypted payload only encrypts the chunks it covers. Multipart uploads
+ * therefore encrypt their parts in parallel on the upload executor, and ranged reads only fetch and decrypt the
+ * chunks covering the range, at the cost of a {@link #blobMetadata} request to look up the layout of the blob.
+ * <p/>
+ * Payloads must have a known content length. Only a single range per read is supported, and blobs that were not
+ * stored through this blob store cannot be read. Listings report the encrypted size of blobs, and the low level
+ * multipart upload methods are not supported.
+ */
+@Beta
+public final class EncryptingBlobStore extends ForwardingBlobStore {
+   /**
+    * the default size of the encrypted chunks, before the authentication tag is added.
+    */
+   public static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+
+   static final String NONCE = "jclouds_gcm_nonce";
+   static final String CHUNK_SIZE = "jclouds_gcm_chunk_size";
+
+   private static final int NONCE_LENGTH = 12;
+   private static final int TAG_LENGTH = 16;
+
+   public static BlobStore newEncryptingBlobStore(BlobStore blobStore, SecretKey key) {
+      return newEncryptingBlobStore(blobStore, key, DEFAULT_CHUNK_SIZE);
+   }
+
+   /**
+    * @param key
+    *           an AES key
+    * @param chunkSize
+    *           the number of plaintext bytes encrypted together; only used for new blobs
+    */
+   public static BlobStore newEncryptingBlobStore(BlobStore blobStore, SecretKey key, int chunkSize) {
+      return new EncryptingBlobStore(blobStore, key, chunkSize);
+   }
+
+   private final Crypto crypto;
+   private final SecretKey key;
+   private final int chunkSize;
+   private final SecureRandom random = new SecureRandom();
+
+   private EncryptingBlobStore(BlobStore blobStore, SecretKey key, int chunkSize) {
+      super(blobStore);
+      this.crypto = blobStore.getContext().utils().crypto();
+      this.key = checkNotNull(key, "key");
+      checkArgument("AES".equals(key.getAlgorithm()), "key must be an AES key, not %s", key.getAlgorithm());
+      checkArgument(chunkSize > 0, "chunkSize must be positive");
+      this.chunkSize = chunkSize;
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob) {
+      return putBlob(container, blob, PutOptions.NONE);
+   }
+
+   @Override
+   public String putBlob(String container, Blob blob, PutOptions options) {
+      Payload payload = checkNotNull(blob.getPayload(), "payload");
+      Long length = payload.getContentMetadata().getContentLength();
+      checkArgument(length != null, "content length of %s must be known to encrypt it", blob.getMetadata().getName());
+      byte[] nonce = new byte[NONCE_LENGTH];
+      random.nextBytes(nonce);
+      Layout layout = new Layout(nonce, chunkSize, length);
+
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl(blob.getMetadata());
+      Map<String, String> userMetadata = new LinkedHashMap<String, String>(metadata.getUserMetadata());
+      userMetadata.put(NONCE, BaseEncoding.base16().lowerCase().encode(nonce));
+      userMetadata.put(CHUNK_SIZE, Integer.toString(chunkSize));
+      metadata.setUserMetadata(userMetadata);
+
+      Payload encrypted;
+      if (payload.isRepeatable()) {
+         encrypted = new ByteSourcePayload(new EncryptedByteSource(asByteSource(payload), layout));
+      } else {
+         // the plaintext can only be read once, so the payload cannot be sliced into independently encrypted parts
+         InputStream in;
+         try {
+            in = payload.openStream();
+         } catch (IOException e) {
+            throw new RuntimeException(e);
+         }
+         encrypted = new InputStreamPayload(new EncryptingInputStream(in, layout, 0));
+      }
+      encrypted.getContentMetadata().setContentType(payload.getContentMetadata().getContentType());
+      encrypted.getContentMetadata().setContentDisposition(payload.getContentMetadata().getContentDisposition());
+      encrypted.getContentMetadata().setContentEncoding(payload.getContentMetadata().getContentEncoding());
+      encrypted.getContentMetadata().setContentLanguage(payload.getContentMetadata().getContentLanguage());
+      encrypted.getContentMetadata().setCacheControl(payload.getContentMetadata().getCacheControl());
+      encrypted.getContentMetadata().setExpires(payload.getContentMetadata().getExpires());
+      encrypted.getContentMetadata().setContentLength(layout.encryptedLength());
+      Blob encryptedBlob = new BlobImpl(metadata);
+      encryptedBlob.setPayload(encrypted);
+      return delegate().putBlob(container, encryptedBlob, options);
+   }
+
+   private static ByteSource asByteSource(final Payload payload) {
+      Object raw = payload.getRawContent();
+      if (raw instanceof ByteSource)
+         return (ByteSource) raw;
+      if (raw instanceof byte[])
+         return ByteSource.wrap((byte[]) raw);
+      if (raw instanceof File)
+         return Files.asByteSource((File) raw);
+      return new ByteSource() {
+         @Override
+         public InputStream openStream() throws IOException {
+            return payload.openStream();
+         }
+      };
+   }
+
+   @Override
+   public BlobMetadata blobMetadata(String container, String name) {
+      BlobMetadata metadata = delegate().blobMetadata(container, name);
+      if (metadata == null)
+         return null;
+      MutableBlobMetadata decrypted = new MutableBlobMetadataImpl(metadata);
+      decrypted.getContentMetadata().setContentLength(layout(metadata).length);
+      decrypted.getContentMetadata().setContentMD5((byte[]) null);
+      decrypted.setSize(layout(metadata).length);
+      return decrypted;
+   }
+
+   @Override
+   public Blob getBlob(String container, String name) {
+      return getBlob(container, name, GetOptions.NONE);
+   }
+
+   @Override
+   public Blob getBlob(String container, String name, GetOptions options) {
+      if (options == null || options.getRanges().isEmpty()) {
+         Blob blob = delegate().getBlob(container, name, options);
+         if (blob == null)
+            return null;
+         Layout layout = layout(blob.getMetadata());
+         return decrypt(blob, layout, 0, layout.length - 1);
+      }
+      checkArgument(options.getRanges().size() == 1, "only a single range is supported, not %s", options.getRanges());
+      BlobMetadata metadata = delegate().blobMetadata(container, name);
+      if (metadata == null)
+         return null;
+      Layout layout = layout(metadata);
+      long[] range = CachingBlobStore.slices(options.getRanges(), layout.length).get(0);
+      long firstChunk = range[0] / layout.chunkSize;
+      long lastChunk = range[1] / layout.chunkSize;
+      GetOptions encryptedRange = new GetOptions().range(firstChunk * layout.encryptedChunkSize(),
+            Math.min(layout.encryptedLength(), (lastChunk + 1) * layout.encryptedChunkSize()) - 1);
+      if (options.getIfMatch() != null)
+         encryptedRange.ifETagMatches(options.getIfMatch());
+      if (options.getIfNoneMatch() != null)
+         encryptedRange.ifETagDoesntMatch(options.getIfNoneMatch());
+      if (options.getIfModifiedSince() != null)
+         encryptedRange.ifModifiedSince(options.getIfModifiedSince());
+      if (options.getIfUnmodifiedSince() != null)
+         encryptedRange.ifUnmodifiedSince(options.getIfUnmodifiedSince());
+      if (options.getIfMatch() == null && options.getIfNoneMatch() == null && options.getIfModifiedSince() == null
+            && metadata.getETag() != null) {
+         // fail rather than decrypt a blob that was replaced after its layout was looked up
+         encryptedRange.ifETagMatches(metadata.getETag());
+      }
+      Blob blob = delegate().getBlob(container, name, encryptedRange);
+      if (blob == null)
+         return null;
+      Blob decrypted = decrypt(blob, layout, range[0], range[1]);
+      decrypted.getAllHeaders().put(HttpHeaders.CONTENT_RANGE,
+            "bytes " + range[0] + "-" + range[1] + "/" + layout.length);
+      return decrypted;
+   }
+
+   /**
+    * decrypts the chunks of {@code blob} covering the plaintext bytes {@code first} to {@code last}.
+    */
+   private Blob decrypt(Blob blob, Layout layout, long first, long last) {
+      MutableBlobMetadata metadata = new MutableBlobMetadataImpl(blob.getMetadata());
+      Blob decrypted = new BlobImpl(metadata);
+      decrypted.getAllHeaders().putAll(blob.getAllHeaders());
+      decrypted.getAllHeaders().removeAll(HttpHeaders.CONTENT_RANGE);
+      long firstChunk = first / layout.chunkSize;
+      InputStream in;
+      try {
+         in = new DecryptingInputStream(blob.getPayload().openStream(), layout, firstChunk);
+         ByteStreams.skipFully(in, first - firstChunk * layout.chunkSize);
+      } catch (IOException e) {
+         blob.getPayload().release();
+         throw new RuntimeException(e);
+      }
+      long size = Math.max(0, last - first + 1);
+      Payload payload = new InputStreamPayload(ByteStreams.limit(in, size));
+      payload.setContentMetadata(metadata.getContentMetadata());
+      payload.getContentMetadata().setContentLength(size);
+      payload.getContentMetadata().setContentMD5((byte[]) null);
+      decrypted.setPayload(payload);
+      metadata.setSize(size);
+      return decrypted;
+   }
+
+   private static Layout layout(BlobMetadata metadata) {
+      String nonce = metadata.getUserMetadata().get(NONCE);
+      String chunkSize = metadata.getUserMetadata().get(CHUNK_SIZE);
+      checkState(nonce != null && chunkSize != null, "%s/%s was not encrypted by this blob store",
+            metadata.getContainer(), metadata.getName());
+      Long encryptedLength = metadata.getContentMetadata().getContentLength();
+      if (encryptedLength == null)
+         encryptedLength = metadata.getSize();
+      checkState(encryptedLength != null, "length of %s is unknown", metadata.getName());
+      return Layout.ofEncrypted(BaseEncoding.base16().lowerCase().decode(nonce), Integer.parseInt(chunkSize),
+            encryptedLength);
+   }
+
+   @Override
+   public String copyBlob(String fromContainer, String fromName, String toContainer, String toName,
+         CopyOptions options) {
+      if (options.userMetadata() != null) {
+         // replacing the user metadata would lose the layout of the copied blob
+         BlobMetadata source = delegate().blobMetadata(fromContainer, fromName);
+         if (source != null) {
+            Map<String, String> userMetadata = new LinkedHashMap<String, String>(options.userMetadata());
+            userMetadata.put(NONCE, source.getUserMetadata().get(NONCE));
+            userMetadata.put(CHUNK_SIZE, source.getUserMetadata().get(CHUNK_SIZE));
+            options = CopyOptions.builder().contentMetadata(options.contentMetadata())
+                  .userMetadata(ImmutableMap.copyOf(userMetadata)).ifModifiedSince(options.ifModifiedSince())
+                  .ifUnmodifiedSince(options.ifUnmodifiedSince()).ifMatch(options.ifMatch())
+                  .ifNoneMatch(options.ifNoneMatch()).build();
+         }
+      }
+      return delegate().copyBlob(fromContainer, fromName, toContainer, toName, options);
+   }
+
+   @Override
+   public void downloadBlob(String container, String name, File destination) {
+      Blob blob = getBlob(container, name);
+      checkState(blob != null, "%s/%s not found", container, name);
+      try {
+         InputStream in = blob.getPayload().openStream();
+         try {
+            Files.asByteSink(destination).writeFrom(in);
+         } finally {
+            in.close();
+         }
+      } catch (IOException e) {
+         throw new RuntimeException(e);
+      }
+   }
+
+   @Override
+   public void downloadBlob(String container, String name, File destination, ExecutorService executor) {
+      downloadBlob(container, name, destination);
+   }
+
+   @Override
+   public InputStream streamBlob(String container, String name) {
+      Blob blob = getBlob(container, name);
+      checkState(blob != null, "%s/%s not found", container, name);
+      try {
+         return blob.getPayload().openStream();
+      } catch (IOException e) {
+         throw new RuntimeException(e);
+      }
+   }
+
+   @Override
+   public InputStream streamBlob(String container, String name, ExecutorService executor) {
+      return streamBlob(container, name);
+   }
+
+   @Override
+   public MultipartUpload initiateMultipartUpload(String container, BlobMetadata blobMetadata, PutOptions options) {
+      throw new UnsupportedOperationException("parts cannot be encrypted independently; use putBlob with multipart()");
+   }
+
+   @Override
+   public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
+      throw new UnsupportedOperationException("parts cannot be encrypted independently; use putBlob with multipart()");
+   }
+
+   @Override
+   public String completeMultipartUpload(MultipartUpload mpu, List<MultipartPart> parts) {
+      throw new UnsupportedOperationException("parts cannot be encrypted independently; use putBlob with multipart()");
+   }
+
+   /**
+    * how a plaintext of {@code length} bytes maps to encrypted chunks. There is always at least one chunk, so that
+    * an empty blob is authenticated as well.
+    */
+   private static final class Layout {
+      private final byte[] nonce;
+      private final int chunkSize;
+      private final long length;
+
+      Layout(byte[] nonce, int chunkSize, long length) {
+         checkArgument(nonce.length == NONCE_LENGTH, "invalid nonce");
+         checkArgument(chunkSize > 0, "invalid chunk size");
+         this.nonce = nonce;
+         this.chunkSize = chunkSize;
+         this.length = length;
+      }
+
+      static Layout ofEncrypted(byte[] nonce, int chunkSize, long encryptedLength) {
+         long encryptedChunkSize = (long) chunkSize + TAG_LENGTH;
+         long chunks = (encryptedLength + encryptedChunkSize - 1) / encryptedChunkSize;
+         checkState(chunks > 0 && encryptedLength - chunks * TAG_LENGTH >= 0, "invalid encrypted length %s",
+               encryptedLength);
+         return new Layout(nonce, chunkSize, encryptedLength - chunks * TAG_LENGTH);
+      }
+
+      long chunks() {
+         return length == 0 ? 1 : (length + chunkSize - 1) / chunkSize;
+      }
+
+      long encryptedChunkSize() {
+         return (long) chunkSize + TAG_LENGTH;
+      }
+
+      long encryptedLength() {
+         return length + chunks() * TAG_LENGTH;
+      }
+
+      /**
+       * the number of plaintext bytes in chunk {@code index}.
+       */
+      int chunkLength(long index) {
+         return (int) Math.min(chunkSize, length - index * chunkSize);
+      }
+
+      GCMParameterSpec parameters(long index) {
+         byte[] iv = nonce.clone();
+         for (int i = 0; i < 8; i++)
+            iv[NONCE_LENGTH - 1 - i] ^= (byte) (index >>> (8 * i));
+         return new GCMParameterSpec(TAG_LENGTH * 8, iv);
+      }
+
+      byte[] associatedData(long index) {
+         return ByteBuffer.allocate(9).putLong(index).put((byte) (index == chunks() - 1 ? 1 : 0)).array();
+      }
+   }
+
+   /**
+    * the encrypted form of a plaintext, which only encrypts the chunks covered by a {@link #slice}.
+    */
+   private final class EncryptedByteSource extends ByteSource {
+      private final ByteSource plaintext;
+      private final Layout layout;
+      private final long offset;
+      private final long length;
+
+      EncryptedByteSource(ByteSource plaintext, Layout layout) {
+         this(plaintext, layout, 0, layout.encryptedLength());
+      }
+
+      private EncryptedByteSource(ByteSource plaintext, Layout layout, long offset, long length) {
+         this.plaintext = plaintext;
+         this.layout = layout;
+         this.offset = offset;
+         this.length = length;
+      }
+
+      @Override
+      public InputStream openStream() throws IOException {
+         long firstChunk = offset / layout.encryptedChunkSize();
+         InputStream in = new EncryptingInputStream(plaintext.slice(firstChunk * layout.chunkSize, Long.MAX_VALUE)
+               .openStream(), layout, firstChunk);
+         try {
+            ByteStreams.skipFully(in, offset - firstChunk * layout.encryptedChunkSize());
+         } catch (IOException e) {
+            in.close();
+            throw e;
+         }
+         return ByteStreams.limit(in, length);
+      }
+
+      @Override
+      public ByteSource slice(long sliceOffset, long sliceLength) {
+         checkArgument(sliceOffset >= 0 && sliceLength >= 0, "offset and length must not be negative");
+         long start = Math.min(length, sliceOffset);
+         return new EncryptedByteSource(plaintext, layout, offset + start, Math.min(sliceLength, length - start));
+      }
+
+      @Override
+      public long size() {
+         return length;
+      }
+   }
+
+   /**
+    * a stream that transforms one chunk at a time, starting at chunk {@code index}.
+    */
+   private abstract class ChunkInputStream extends InputStream {
+      private final InputStream in;
+      final Layout layout;
+      long index;
+      private final Cipher cipher;
+      private byte[] chunk = new byte[0];
+      private int position;
+
+      ChunkInputStream(InputStream in, Layout layout, long index) {
+         this.in = in;
+         this.layout = layout;
+         this.index = index;
+         try {
+            this.cipher = crypto.cipher("AES/GCM/NoPadding");
+         } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+         }
+      }
+
+      /**
+       * the number of bytes of {@code in} forming chunk {@link #index}.
+       */
+      abstract int inputLength();
+
+      abstract int mode();
+
+      private boolean fill() throws IOException {
+         while (position == chunk.length) {
+            if (index >= layout.chunks())
+               return false;
+            byte[] input = new byte[inputLength()];
+            int read = ByteStreams.read(in, input, 0, input.length);
+            if (read != input.length)
+               throw new IOException("unexpected end of stream in chunk " + index);
+            try {
+               cipher.init(mode(), key, layout.parameters(index));
+               cipher.updateAAD(layout.associatedData(index));
+               chunk = cipher.doFinal(input);
+            } catch (GeneralSecurityException e) {
+               throw new IOException("could not process chunk " + index, e);
+            }
+            position = 0;
+            index++;
+         }
+         return true;
+      }
+
+      @Override
+      public int read() throws IOException {
+         return fill() ? chunk[position++] & 0xff : -1;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         if (len == 0)
+            return 0;
+         if (!fill())
+            return -1;
+         int n = Math.min(len, chunk.length - position);
+         System.arraycopy(chunk, position, b, off, n);
+         position += n;
+         return n;
+      }
+
+      @Override
+      public int available() {
+         return chunk.length - position;
+      }
+
+      @Override
+      public void close() throws IOException {
+         in.close();
+      }
+   }
+
+   private final class EncryptingInputStream extends ChunkInputStream {
+      EncryptingInputStream(InputStream plaintext, Layout layout, long index) {
+         super(plaintext, layout, index);
+      }
+
+      @Override
+      int inputLength() {
+         return layout.chunkLength(index);
+      }
+
+      @Override
+      int mode() {
+         return Cipher.ENCRYPT_MODE;
+      }
+   }
+
+   private final class DecryptingInputStream extends ChunkInputStream {
+      DecryptingInputStream(InputStream encrypted, Layout layout, long index) {
+         super(encrypted, layout, index);
+      }
+
+      @Override
+      int inputLength() {
+         return layout.chunkLength(index) + TAG_LENGTH;
+      }
+
+      @Override
+      int mode() {
+         return Cipher.DECRYPT_MODE;
+      }
+   }
+}
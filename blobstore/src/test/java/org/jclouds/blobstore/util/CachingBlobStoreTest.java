@@ -0,0 +1,286 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import com.google.common.net.HttpHeaders;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+@Test(groups = "unit", singleThreaded = true, testName = "CachingBlobStoreTest")
+public class CachingBlobStoreTest {
+   private static final String CONTAINER = "container";
+
+   private BlobStoreContext context;
+   private BlobStore backend;
+   private CountingBlobStore counting;
+   private File directory;
+   private FakeTicker ticker;
+
+   @BeforeMethod
+   public void setUp() throws IOException {
+      context = ContextBuilder.newBuilder("transient").build(BlobStoreContext.class);
+      backend = context.getBlobStore();
+      backend.createContainerInLocation(null, CONTAINER);
+      counting = new CountingBlobStore(backend);
+      directory = Files.createTempDirectory("blobcache").toFile();
+      ticker = new FakeTicker();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() throws IOException {
+      context.close();
+      MoreFiles.deleteRecursively(directory.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+   }
+
+   public void testRepeatedReadsAreServedFromDisk() throws IOException {
+      put(backend, "blob", "hello world");
+      CachingBlobStore cache = cache(1024, 60);
+
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "hello world");
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "hello world");
+      assertEquals(counting.gets.get(), 1);
+      assertEquals(cache.cachedBytes(), 11);
+   }
+
+   public void testMissingBlobIsNotCached() {
+      CachingBlobStore cache = cache(1024, 60);
+      assertNull(cache.getBlob(CONTAINER, "missing"));
+      assertEquals(cache.cachedBytes(), 0);
+   }
+
+   public void testRangesAreServedFromCachedBlob() throws IOException {
+      put(backend, "blob", "hello world");
+      CachingBlobStore cache = cache(1024, 60);
+
+      // ranged reads of an uncached blob pass through
+      assertEquals(read(cache.getBlob(CONTAINER, "blob", new GetOptions().range(0, 4))), "hello");
+      assertEquals(cache.cachedBytes(), 0);
+
+      cache.getBlob(CONTAINER, "blob");
+      Blob ranged = cache.getBlob(CONTAINER, "blob", new GetOptions().range(6, 100));
+      assertEquals(ranged.getAllHeaders().get(HttpHeaders.CONTENT_RANGE).iterator().next(), "bytes 6-10/11");
+      assertEquals(ranged.getPayload().getContentMetadata().getContentLength(), Long.valueOf(5));
+      assertEquals(read(ranged), "world");
+      assertEquals(read(cache.getBlob(CONTAINER, "blob", new GetOptions().tail(3))), "rld");
+      assertEquals(counting.gets.get(), 2);
+   }
+
+   public void testLeastRecentlyUsedBlobsAreEvicted() throws IOException {
+      put(backend, "a", "aaaa");
+      put(backend, "b", "bbbb");
+      put(backend, "c", "cccc");
+      CachingBlobStore cache = cache(10, 60);
+
+      read(cache.getBlob(CONTAINER, "a"));
+      read(cache.getBlob(CONTAINER, "b"));
+      read(cache.getBlob(CONTAINER, "a"));
+      read(cache.getBlob(CONTAINER, "c"));
+      assertEquals(counting.gets.get(), 3);
+      assertEquals(cache.cachedBytes(), 8);
+
+      read(cache.getBlob(CONTAINER, "a"));
+      assertEquals(counting.gets.get(), 3);
+      read(cache.getBlob(CONTAINER, "b"));
+      assertEquals(counting.gets.get(), 4);
+      assertEquals(directory.list().length, 2);
+   }
+
+   public void testStaleBlobIsRevalidated() throws IOException {
+      put(backend, "blob", "old");
+      CachingBlobStore cache = cache(1024, 60);
+      read(cache.getBlob(CONTAINER, "blob"));
+
+      put(backend, "blob", "new");
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "old");
+
+      ticker.advance(61);
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "new");
+      assertEquals(counting.gets.get(), 2);
+
+      ticker.advance(61);
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "new");
+      assertEquals(counting.gets.get(), 2);
+
+      backend.removeBlob(CONTAINER, "blob");
+      ticker.advance(61);
+      assertNull(cache.getBlob(CONTAINER, "blob"));
+      assertEquals(cache.cachedBytes(), 0);
+   }
+
+   public void testWritesInvalidate() throws IOException {
+      put(backend, "blob", "old");
+      CachingBlobStore cache = cache(1024, 60);
+      read(cache.getBlob(CONTAINER, "blob"));
+
+      put(cache, "blob", "new");
+      assertEquals(read(cache.getBlob(CONTAINER, "blob")), "new");
+
+      cache.removeBlob(CONTAINER, "blob");
+      assertNull(cache.getBlob(CONTAINER, "blob"));
+      assertEquals(cache.cachedBytes(), 0);
+   }
+
+   public void testConcurrentMissesDownloadOnce() throws Exception {
+      put(backend, "blob", "hello world");
+      final CountDownLatch release = new CountDownLatch(1);
+      counting = new CountingBlobStore(backend) {
+         @Override
+         public Blob getBlob(String container, String name) {
+            Uninterruptibles.awaitUninterruptibly(release);
+            return super.getBlob(container, name);
+         }
+      };
+      final CachingBlobStore cache = cache(1024, 60);
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      try {
+         Callable<String> read = new Callable<String>() {
+            @Override
+            public String call() throws IOException {
+               return read(cache.getBlob(CONTAINER, "blob"));
+            }
+         };
+         Future<String> first = executor.submit(read);
+         Future<String> second = executor.submit(read);
+         // give both readers time to miss before the download completes
+         Thread.sleep(200);
+         release.countDown();
+         assertEquals(first.get(10, TimeUnit.SECONDS), "hello world");
+         assertEquals(second.get(10, TimeUnit.SECONDS), "hello world");
+         assertEquals(counting.gets.get(), 1);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testWriteDuringMissDiscardsDownload() throws Exception {
+      put(backend, "blob", "old");
+      final CountDownLatch downloaded = new CountDownLatch(1);
+      final CountDownLatch release = new CountDownLatch(1);
+      counting = new CountingBlobStore(backend) {
+         @Override
+         public Blob getBlob(String container, String name) {
+            Blob blob = super.getBlob(container, name);
+            if (downloaded.getCount() > 0) {
+               downloaded.countDown();
+               Uninterruptibles.awaitUninterruptibly(release);
+            }
+            return blob;
+         }
+      };
+      final CachingBlobStore cache = cache(1024, 60);
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      try {
+         Future<String> miss = executor.submit(new Callable<String>() {
+            @Override
+            public String call() throws IOException {
+               return read(cache.getBlob(CONTAINER, "blob"));
+            }
+         });
+         assertTrue(downloaded.await(10, TimeUnit.SECONDS));
+         // the old content was downloaded before this write, and must not be cached after it
+         put(cache, "blob", "new");
+         release.countDown();
+
+         assertEquals(miss.get(10, TimeUnit.SECONDS), "new");
+         assertEquals(read(cache.getBlob(CONTAINER, "blob")), "new");
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testLeftoverFilesAreRemoved() throws IOException {
+      put(backend, "blob", "hello world");
+      read(cache(1024, 60).getBlob(CONTAINER, "blob"));
+      assertEquals(directory.list().length, 1);
+
+      cache(1024, 60);
+      assertEquals(directory.list().length, 0);
+   }
+
+   private CachingBlobStore cache(long maxBytes, long validitySeconds) {
+      return new CachingBlobStore(counting, directory, maxBytes, TimeUnit.SECONDS.toNanos(validitySeconds), ticker);
+   }
+
+   private static void put(BlobStore blobStore, String name, String content) {
+      blobStore.putBlob(CONTAINER, blobStore.blobBuilder(name).payload(content).build());
+   }
+
+   private static String read(Blob blob) throws IOException {
+      assertTrue(blob != null, "blob not found");
+      return Strings2.toStringAndClose(blob.getPayload().openStream());
+   }
+
+   private static class CountingBlobStore extends ForwardingBlobStore {
+      private final AtomicInteger gets = new AtomicInteger();
+
+      CountingBlobStore(BlobStore blobStore) {
+         super(blobStore);
+      }
+
+      @Override
+      public Blob getBlob(String container, String name) {
+         gets.incrementAndGet();
+         return super.getBlob(container, name);
+      }
+
+      @Override
+      public Blob getBlob(String container, String name, GetOptions options) {
+         gets.incrementAndGet();
+         return super.getBlob(container, name, options);
+      }
+   }
+
+   private static class FakeTicker extends Ticker {
+      private long nanos;
+
+      void advance(long seconds) {
+         nanos += TimeUnit.SECONDS.toNanos(seconds);
+      }
+
+      @Override
+      public long read() {
+         return nanos;
+      }
+   }
+}
@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.blobstore.util;
+
+import static org.jclouds.blobstore.options.PutOptions.Builder.multipart;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.fail;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.BlobMetadata;
+import org.jclouds.blobstore.options.GetOptions;
+import org.jclouds.io.ByteStreams2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteSource;
+import com.google.common.net.HttpHeaders;
+
+@Test(groups = "unit", singleThreaded = true, testName = "EncryptingBlobStoreTest")
+public class EncryptingBlobStoreTest {
+   private static final String CONTAINER = "container";
+   private static final int CHUNK_SIZE = 1024;
+
+   private BlobStoreContext context;
+   private BlobStore backend;
+   private BlobStore encrypting;
+
+   @BeforeMethod
+   public void setUp() {
+      context = ContextBuilder.newBuilder("transient").build(BlobStoreContext.class);
+      backend = context.getBlobStore();
+      backend.createContainerInLocation(null, CONTAINER);
+      encrypting = EncryptingBlobStore.newEncryptingBlobStore(backend, key((byte) 1), CHUNK_SIZE);
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void tearDown() {
+      context.close();
+   }
+
+   public void testRoundTrip() throws IOException {
+      for (int length : new int[] { 0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, 3 * CHUNK_SIZE + 17 }) {
+         byte[] content = random(length);
+         put(encrypting, "blob", content);
+
+         Blob stored = backend.getBlob(CONTAINER, "blob");
+         long chunks = Math.max(1, (length + CHUNK_SIZE - 1) / CHUNK_SIZE);
+         assertEquals(stored.getMetadata().getContentMetadata().getContentLength(), Long.valueOf(length + 16 * chunks));
+         if (length > 0)
+            assertFalse(Arrays.equals(Arrays.copyOf(read(stored), length), content), "content was not encrypted");
+
+         Blob blob = encrypting.getBlob(CONTAINER, "blob");
+         assertEquals(blob.getPayload().getContentMetadata().getContentLength(), Long.valueOf(length));
+         assertEquals(read(blob), content, "length " + length);
+         assertEquals(encrypting.blobMetadata(CONTAINER, "blob").getSize(), Long.valueOf(length));
+      }
+   }
+
+   public void testRangesOnlyDecryptCoveringChunks() throws IOException {
+      byte[] content = random(5 * CHUNK_SIZE + 100);
+      put(encrypting, "blob", content);
+
+      assertRange(new GetOptions().range(0, 0), content, 0, 0);
+      assertRange(new GetOptions().range(CHUNK_SIZE - 10, 2 * CHUNK_SIZE + 10), content, CHUNK_SIZE - 10,
+            2 * CHUNK_SIZE + 10);
+      assertRange(new GetOptions().startAt(4 * CHUNK_SIZE), content, 4 * CHUNK_SIZE, content.length - 1);
+      assertRange(new GetOptions().tail(150), content, content.length - 150, content.length - 1);
+      assertRange(new GetOptions().range(5 * CHUNK_SIZE, 10 * CHUNK_SIZE), content, 5 * CHUNK_SIZE,
+            content.length - 1);
+   }
+
+   public void testMultipartUploadEncryptsPartsIndependently() throws IOException {
+      // larger than the 5MB maximum part size of the transient blobstore, and not aligned to chunks
+      byte[] content = random(11 * 1024 * 1024 + 123);
+      encrypting.putBlob(CONTAINER, encrypting.blobBuilder("blob").payload(ByteSource.wrap(content))
+            .contentLength(content.length).build(), multipart());
+
+      assertEquals(read(encrypting.getBlob(CONTAINER, "blob")), content);
+      assertRange(new GetOptions().range(5 * 1024 * 1024 - 10, 5 * 1024 * 1024 + 10), content,
+            5 * 1024 * 1024 - 10, 5 * 1024 * 1024 + 10);
+   }
+
+   public void testNonRepeatablePayload() throws IOException {
+      byte[] content = random(2 * CHUNK_SIZE + 1);
+      encrypting.putBlob(CONTAINER, encrypting.blobBuilder("blob")
+            .payload(ByteSource.wrap(content).openStream()).contentLength(content.length).build());
+      assertEquals(read(encrypting.getBlob(CONTAINER, "blob")), content);
+   }
+
+   public void testTamperedBlobFailsToDecrypt() throws IOException {
+      byte[] content = random(3 * CHUNK_SIZE);
+      put(encrypting, "blob", content);
+      Blob stored = backend.getBlob(CONTAINER, "blob");
+      BlobMetadata metadata = stored.getMetadata();
+      byte[] encrypted = read(stored);
+
+      // swapping two chunks is detected, as is flipping a bit or dropping the last chunk
+      byte[] swapped = encrypted.clone();
+      System.arraycopy(encrypted, 0, swapped, CHUNK_SIZE + 16, CHUNK_SIZE + 16);
+      System.arraycopy(encrypted, CHUNK_SIZE + 16, swapped, 0, CHUNK_SIZE + 16);
+      byte[] flipped = encrypted.clone();
+      flipped[10] ^= 1;
+      byte[] truncated = Arrays.copyOf(encrypted, 2 * (CHUNK_SIZE + 16));
+      for (byte[] tampered : new byte[][] { swapped, flipped, truncated }) {
+         backend.putBlob(CONTAINER, backend.blobBuilder("blob").payload(tampered)
+               .userMetadata(metadata.getUserMetadata()).build());
+         try {
+            read(encrypting.getBlob(CONTAINER, "blob"));
+            fail("expected decryption to fail");
+         } catch (IOException expected) {
+         }
+      }
+   }
+
+   public void testWrongKeyFailsToDecrypt() throws IOException {
+      put(encrypting, "blob", random(10));
+      BlobStore otherKey = EncryptingBlobStore.newEncryptingBlobStore(backend, key((byte) 2), CHUNK_SIZE);
+      try {
+         read(otherKey.getBlob(CONTAINER, "blob"));
+         fail("expected decryption to fail");
+      } catch (IOException expected) {
+      }
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testUnencryptedBlobIsRejected() {
+      backend.putBlob(CONTAINER, backend.blobBuilder("plain").payload("plain").build());
+      encrypting.getBlob(CONTAINER, "plain");
+   }
+
+   public void testMissingBlob() {
+      assertNull(encrypting.getBlob(CONTAINER, "missing"));
+      assertNull(encrypting.getBlob(CONTAINER, "missing", new GetOptions().range(0, 1)));
+      assertNull(encrypting.blobMetadata(CONTAINER, "missing"));
+   }
+
+   private void assertRange(GetOptions options, byte[] content, int first, int last) throws IOException {
+      Blob blob = encrypting.getBlob(CONTAINER, "blob", options);
+      assertEquals(blob.getAllHeaders().get(HttpHeaders.CONTENT_RANGE).iterator().next(),
+            "bytes " + first + "-" + last + "/" + content.length);
+      assertEquals(read(blob), Arrays.copyOfRange(content, first, last + 1));
+   }
+
+   private static void put(BlobStore blobStore, String name, byte[] content) {
+      blobStore.putBlob(CONTAINER, blobStore.blobBuilder(name).payload(content).build());
+   }
+
+   private static byte[] read(Blob blob) throws IOException {
+      InputStream in = blob.getPayload().openStream();
+      return ByteStreams2.toByteArrayAndClose(in);
+   }
+
+   private static byte[] random(int length) {
+      byte[] bytes = new byte[length];
+      new Random(length).nextBytes(bytes);
+      return bytes;
+   }
+
+   private static SecretKeySpec key(byte seed) {
+      byte[] key = new byte[32];
+      Arrays.fill(key, seed);
+      return new SecretKeySpec(key, "AES");
+   }
+}
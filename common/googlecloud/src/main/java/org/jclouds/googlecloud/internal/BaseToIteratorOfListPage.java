@@ -16,8 +16,14 @@
  */
 package org.jclouds.googlecloud.internal;
 
+import static org.jclouds.Constants.PROPERTY_PREFETCH_PAGES;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
 import java.util.Iterator;
 
+import jakarta.inject.Named;
+
+import org.jclouds.collect.PagedIterables;
 import org.jclouds.googlecloud.domain.ListPage;
 import org.jclouds.googlecloud.options.ListOptions;
 import org.jclouds.http.HttpRequest;
@@ -25,18 +31,30 @@ import org.jclouds.rest.InvocationContext;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
 
 import com.google.common.base.Function;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.inject.Inject;
 
 public abstract class BaseToIteratorOfListPage<T, O extends ListOptions, I extends BaseToIteratorOfListPage<T, O, I>>
       implements Function<ListPage<T>, Iterator<ListPage<T>>>, InvocationContext<I> {
 
    private GeneratedHttpRequest request;
 
+   @Inject(optional = true)
+   @Named(PROPERTY_PREFETCH_PAGES)
+   private int prefetchPages = 0;
+
+   @Inject(optional = true)
+   @Named(PROPERTY_USER_THREADS)
+   private ListeningExecutorService userExecutor;
+
    @Override public Iterator<ListPage<T>> apply(ListPage<T> input) {
       if (input.nextPageToken() == null) {
          return ListPages.singletonOrEmptyIterator(input);
       }
-      return new AdvancingIterator<T>(input,
+      Iterator<ListPage<T>> pages = new AdvancingIterator<T>(input,
             fetchNextPage(ListPages.<O>listOptions(request.getInvocation().getArgs())));
+      return prefetchPages > 0 && userExecutor != null ? PagedIterables.prefetching(pages, userExecutor, prefetchPages)
+            : pages;
    }
 
    protected abstract Function<String, ListPage<T>> fetchNextPage(O options);
@@ -100,8 +100,9 @@ public class RunScriptOnNodeAsInitScriptUsingSsh extends SudoAwareInitManager im
    protected ExecResponse doCall() {
       eventBus.post(new InitScriptOnNodeSubmission(init, node));
       try {
+         String rendered = init.render(OsFamily.UNIX);
          try {
-            ssh.put(initFile, init.render(OsFamily.UNIX));
+            ssh.put(initFile, rendered);
          } catch (SshException e) {
             // If there's a problem with the sftp configuration, we can try via
             // ssh exec
@@ -112,7 +113,7 @@ public class RunScriptOnNodeAsInitScriptUsingSsh extends SudoAwareInitManager im
             ssh.disconnect();
             ssh.connect();
             ssh.exec("rm " + initFile);
-            ssh.exec(Statements.appendFile(initFile, Splitter.on('\n').split(init.render(OsFamily.UNIX)),
+            ssh.exec(Statements.appendFile(initFile, Splitter.on('\n').split(rendered),
                   AppendFile.DELIMITER + "_" + init.getInstanceName()).render(OsFamily.UNIX));
          }
 
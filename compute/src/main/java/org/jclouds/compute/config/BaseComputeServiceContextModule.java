@@ -61,6 +61,7 @@ import org.jclouds.json.Json;
 import org.jclouds.location.Provider;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
+import org.jclouds.rest.suppliers.SnapshotStore;
 import org.jclouds.scriptbuilder.domain.Statement;
 import org.jclouds.scriptbuilder.statements.login.AdminAccess;
 import org.jclouds.ssh.SshClient;
@@ -244,10 +245,11 @@ public abstract class BaseComputeServiceContextModule extends AbstractModule {
    @Memoized
    protected final Supplier<Set<? extends Image>> supplyImageCache(
          AtomicReference<AuthorizationException> authException, @Named(PROPERTY_SESSION_INTERVAL) long seconds,
-         final Supplier<Set<? extends Image>> imageSupplier, com.google.inject.Provider<GetImageStrategy> imageLoader, Injector injector) {
+         final Supplier<Set<? extends Image>> imageSupplier, com.google.inject.Provider<GetImageStrategy> imageLoader,
+         SnapshotStore snapshots, Injector injector) {
       Supplier<Set<? extends Image>> parsingImageSupplier = shouldEagerlyParseImages(injector) ? imageSupplier
             : supplyNonParsingImages(imageSupplier, injector);
-      return new ImageCacheSupplier(parsingImageSupplier, seconds, authException, imageLoader);
+      return new ImageCacheSupplier(parsingImageSupplier, seconds, authException, imageLoader, snapshots);
    }
 
    protected boolean shouldEagerlyParseImages(Injector injector) {
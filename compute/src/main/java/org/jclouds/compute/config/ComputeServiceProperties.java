@@ -44,6 +44,13 @@ public final class ComputeServiceProperties {
     */
    public static final String POLL_MAX_PERIOD = "jclouds.compute.poll-status.max-period";
 
+   /**
+    * When true, waits for nodes to be running, suspended or terminated share their polls, so that each poll
+    * queries the status of all awaited nodes at once through {@link org.jclouds.compute.strategy.ListNodesStrategy#listNodesByIds}. Useful
+    * when creating or destroying many nodes concurrently. Defaults to false.
+    */
+   public static final String POLL_BATCHED = "jclouds.compute.poll-status.batched";
+
    /**
     * time in milliseconds to wait for an image to finish creating.
     * 
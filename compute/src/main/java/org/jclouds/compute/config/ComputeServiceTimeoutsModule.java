@@ -31,6 +31,7 @@ import jakarta.inject.Singleton;
 
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
 import org.jclouds.compute.functions.PollNodeRunning;
 import org.jclouds.compute.predicates.AtomicImageAvailable;
 import org.jclouds.compute.predicates.AtomicImageDeleted;
@@ -39,11 +40,13 @@ import org.jclouds.compute.predicates.AtomicNodeSuspended;
 import org.jclouds.compute.predicates.AtomicNodeTerminated;
 import org.jclouds.compute.predicates.ScriptStatusReturnsZero;
 import org.jclouds.compute.predicates.ScriptStatusReturnsZero.CommandUsingClient;
+import org.jclouds.compute.predicates.internal.BatchingNodeStatusPoller;
 import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
 import org.jclouds.compute.reference.ComputeServiceConstants.Timeouts;
 
 import com.google.common.base.Function;
 import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
@@ -55,7 +58,10 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
    @Singleton
    @Named(TIMEOUT_NODE_RUNNING)
    protected final Predicate<AtomicReference<NodeMetadata>> provideNodeRunning(AtomicNodeRunning statusRunning, Timeouts timeouts,
-           PollPeriod period) {
+           PollPeriod period, BatchingNodeStatusPoller poller) {
+      if (period.pollBatched && timeouts.nodeRunning != 0)
+         return poller.create(Status.RUNNING, ImmutableSet.of(Status.ERROR, Status.TERMINATED), false,
+               timeouts.nodeRunning);
       return nodeRunning(statusRunning, timeouts, period);
    }
 
@@ -69,7 +75,9 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
    @Singleton
    @Named(TIMEOUT_NODE_TERMINATED)
    protected final Predicate<AtomicReference<NodeMetadata>> provideServerTerminated(AtomicNodeTerminated statusTerminated,
-           Timeouts timeouts, PollPeriod period) {
+           Timeouts timeouts, PollPeriod period, BatchingNodeStatusPoller poller) {
+      if (period.pollBatched && timeouts.nodeTerminated != 0)
+         return poller.create(Status.TERMINATED, ImmutableSet.<Status> of(), true, timeouts.nodeTerminated);
       return serverTerminated(statusTerminated, timeouts, period);
    }
 
@@ -83,7 +91,10 @@ public class ComputeServiceTimeoutsModule extends AbstractModule {
    @Singleton
    @Named(TIMEOUT_NODE_SUSPENDED)
    protected final Predicate<AtomicReference<NodeMetadata>> provideserverSuspended(AtomicNodeSuspended statusSuspended,
-           Timeouts timeouts, PollPeriod period) {
+           Timeouts timeouts, PollPeriod period, BatchingNodeStatusPoller poller) {
+      if (period.pollBatched && timeouts.nodeSuspended != 0)
+         return poller.create(Status.SUSPENDED, ImmutableSet.of(Status.ERROR, Status.TERMINATED), false,
+               timeouts.nodeSuspended);
       return serverSuspended(statusSuspended, timeouts, period);
    }
 
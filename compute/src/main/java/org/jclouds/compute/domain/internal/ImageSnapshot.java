@@ -0,0 +1,146 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.domain.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.ImageBuilder;
+import org.jclouds.compute.domain.OperatingSystem;
+import org.jclouds.domain.LoginCredentials;
+import org.jclouds.domain.internal.LocationSnapshot;
+
+import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * The persisted form of an {@link Image}, as it has no concrete type json can be parsed into.
+ * <p>
+ * Images are restored as {@link ImageImpl}, so listings containing provider specific subclasses, which may carry
+ * extra state, are not persisted at all. Neither are listings with images whose default credentials hold a password
+ * or private key, as snapshots must never contain secrets. Only the login user is kept.
+ */
+public final class ImageSnapshot {
+
+   public static final Function<Set<? extends Image>, List<ImageSnapshot>> FROM_IMAGES = new Function<Set<? extends Image>, List<ImageSnapshot>>() {
+      @Override
+      public List<ImageSnapshot> apply(Set<? extends Image> images) {
+         ImmutableList.Builder<ImageSnapshot> snapshots = ImmutableList.builder();
+         for (Image image : images) {
+            if (!canPersist(image)) {
+               return null;
+            }
+            snapshots.add(from(image));
+         }
+         return snapshots.build();
+      }
+   };
+
+   public static final Function<List<ImageSnapshot>, Set<? extends Image>> TO_IMAGES = new Function<List<ImageSnapshot>, Set<? extends Image>>() {
+      @Override
+      public Set<? extends Image> apply(List<ImageSnapshot> snapshots) {
+         ImmutableSet.Builder<Image> images = ImmutableSet.builder();
+         for (ImageSnapshot snapshot : snapshots) {
+            images.add(snapshot.toImage());
+         }
+         return images.build();
+      }
+   };
+
+   private String id;
+   private String providerId;
+   private String name;
+   private LocationSnapshot location;
+   private URI uri;
+   private Map<String, String> userMetadata;
+   private Set<String> tags;
+   private OperatingSystem operatingSystem;
+   private Image.Status status;
+   private String backendStatus;
+   private String version;
+   private String description;
+   private String loginUser;
+   private boolean authenticateSudo;
+
+   // for deserialization
+   ImageSnapshot() {
+   }
+
+   /**
+    * whether {@link #toImage()} will restore an equivalent image without the snapshot holding any secret.
+    */
+   public static boolean canPersist(Image image) {
+      if (image.getClass() != ImageImpl.class) {
+         return false;
+      }
+      LoginCredentials credentials = image.getDefaultCredentials();
+      return credentials == null
+            || (!credentials.getOptionalPassword().isPresent() && !credentials.getOptionalPrivateKey().isPresent());
+   }
+
+   public static ImageSnapshot from(Image image) {
+      checkArgument(canPersist(image), "image %s cannot be persisted", image.getId());
+      ImageSnapshot snapshot = new ImageSnapshot();
+      snapshot.id = image.getId();
+      snapshot.providerId = image.getProviderId();
+      snapshot.name = image.getName();
+      snapshot.location = LocationSnapshot.from(image.getLocation());
+      snapshot.uri = image.getUri();
+      snapshot.userMetadata = image.getUserMetadata();
+      snapshot.tags = image.getTags();
+      snapshot.operatingSystem = image.getOperatingSystem();
+      snapshot.status = image.getStatus();
+      snapshot.backendStatus = image.getBackendStatus();
+      snapshot.version = image.getVersion();
+      snapshot.description = image.getDescription();
+      LoginCredentials credentials = image.getDefaultCredentials();
+      if (credentials != null) {
+         snapshot.loginUser = credentials.getUser();
+         snapshot.authenticateSudo = credentials.shouldAuthenticateSudo();
+      }
+      return snapshot;
+   }
+
+   public Image toImage() {
+      LoginCredentials credentials = null;
+      if (loginUser != null) {
+         credentials = LoginCredentials.builder().user(loginUser).authenticateSudo(authenticateSudo).build();
+      }
+      return new ImageBuilder()
+            .id(id)
+            .providerId(providerId)
+            .name(name)
+            .location(location != null ? location.toLocation() : null)
+            .uri(uri)
+            .userMetadata(userMetadata != null ? userMetadata : ImmutableMap.<String, String> of())
+            .tags(tags != null ? tags : ImmutableSet.<String> of())
+            .operatingSystem(operatingSystem)
+            .status(status)
+            .backendStatus(backendStatus)
+            .version(version)
+            .description(description)
+            .defaultCredentials(credentials)
+            .build();
+   }
+}
@@ -158,18 +158,32 @@ public class NodePredicates {
     */
    public static <T extends ComputeMetadata> Predicate<T> withIds(String... ids) {
       checkNotNull(ids, "ids must be defined");
-      final Set<String> search = ImmutableSet.copyOf(ids);
-      return new Predicate<T>() {
-         @Override
-         public boolean apply(T nodeMetadata) {
-            return search.contains(nodeMetadata.getId());
-         }
+      return new WithIds<T>(ImmutableSet.copyOf(ids));
+   }
 
-         @Override
-         public String toString() {
-            return "withIds(" + search + ")";
-         }
-      };
+   /**
+    * Matches nodes by id. Exposed so that providers can look the ids up directly instead of listing all nodes.
+    */
+   public static final class WithIds<T extends ComputeMetadata> implements Predicate<T> {
+      private final Set<String> ids;
+
+      private WithIds(Set<String> ids) {
+         this.ids = ids;
+      }
+
+      public Set<String> getIds() {
+         return ids;
+      }
+
+      @Override
+      public boolean apply(T nodeMetadata) {
+         return ids.contains(nodeMetadata.getId());
+      }
+
+      @Override
+      public String toString() {
+         return "withIds(" + ids + ")";
+      }
    }
 
    /**
@@ -188,17 +202,39 @@ public class NodePredicates {
     */
    public static Predicate<NodeMetadata> inGroup(final String group) {
       checkNotNull(emptyToNull(group), "group must be defined");
-      return new Predicate<NodeMetadata>() {
-         @Override
-         public boolean apply(NodeMetadata nodeMetadata) {
-            return group.equals(nodeMetadata.getGroup());
-         }
+      return new InGroup(group, false);
+   }
 
-         @Override
-         public String toString() {
-            return "inGroup(" + group + ")";
-         }
-      };
+   /**
+    * Matches nodes in a group, optionally only those that are running. Exposed so that providers can filter by
+    * group on the server side.
+    */
+   public static final class InGroup implements Predicate<NodeMetadata> {
+      private final String group;
+      private final boolean runningOnly;
+
+      private InGroup(String group, boolean runningOnly) {
+         this.group = group;
+         this.runningOnly = runningOnly;
+      }
+
+      public String getGroup() {
+         return group;
+      }
+
+      public boolean isRunningOnly() {
+         return runningOnly;
+      }
+
+      @Override
+      public boolean apply(NodeMetadata nodeMetadata) {
+         return group.equals(nodeMetadata.getGroup()) && (!runningOnly || nodeMetadata.getStatus() == Status.RUNNING);
+      }
+
+      @Override
+      public String toString() {
+         return (runningOnly ? "runningInGroup(" : "inGroup(") + group + ")";
+      }
    }
    
    /**
@@ -228,17 +264,7 @@ public class NodePredicates {
     */
    public static Predicate<NodeMetadata> runningInGroup(final String group) {
       checkNotNull(emptyToNull(group), "group must be defined");
-      return new Predicate<NodeMetadata>() {
-         @Override
-         public boolean apply(NodeMetadata nodeMetadata) {
-            return group.equals(nodeMetadata.getGroup()) && nodeMetadata.getStatus() == Status.RUNNING;
-         }
-
-         @Override
-         public String toString() {
-            return "runningInGroup(" + group + ")";
-         }
-      };
+      return new InGroup(group, true);
    }
 
    /**
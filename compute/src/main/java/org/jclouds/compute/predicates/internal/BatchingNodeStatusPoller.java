@@ -0,0 +1,261 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.predicates.internal;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.compute.util.ComputeServiceUtils.formatStatus;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Provider;
+import jakarta.inject.Singleton;
+
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.jclouds.logging.Logger;
+
+import com.google.common.base.Predicate;
+import com.google.common.base.Throwables;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+
+/**
+ * Waits for many nodes to reach a status with a single {@link ListNodesStrategy#listNodesByIds} call per poll,
+ * instead of one {@link org.jclouds.compute.strategy.GetNodeMetadataStrategy#getNode} call per node and poll.
+ * Providers are expected to group the ids into as few requests as possible, for example one per region.
+ * <p/>
+ * Polls run on the scheduler while any node is awaited, and complete the future of each node that reached its
+ * status. Use {@link #watch} to wait without holding a thread, or {@link #create} for a predicate that blocks its
+ * caller until then. The period between polls grows from {@link PollPeriod#pollInitialPeriod} to
+ * {@link PollPeriod#pollMaxPeriod}, and starts over when a node is awaited while no other node is.
+ */
+@Singleton
+public class BatchingNodeStatusPoller {
+
+   @Resource
+   @Named(ComputeServiceConstants.COMPUTE_LOGGER)
+   protected Logger logger = Logger.NULL;
+
+   private final Provider<ListNodesStrategy> listNodes;
+   private final ScheduledExecutorService scheduler;
+   private final long initialPeriod;
+   private final long maxPeriod;
+
+   private final Set<Waiter> waiters = Sets.newConcurrentHashSet();
+   // guards scheduled and period
+   private final ReentrantLock lock = new ReentrantLock();
+   private boolean scheduled;
+   private long period;
+
+   private final Runnable poll = new Runnable() {
+      @Override
+      public void run() {
+         try {
+            pollOnce();
+         } finally {
+            scheduleNext();
+         }
+      }
+   };
+
+   @Inject
+   BatchingNodeStatusPoller(Provider<ListNodesStrategy> listNodes, PollPeriod period,
+         @Named(PROPERTY_SCHEDULER_THREADS) ScheduledExecutorService scheduler) {
+      this.listNodes = checkNotNull(listNodes, "listNodes");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.initialPeriod = period.pollInitialPeriod;
+      this.maxPeriod = Math.max(period.pollInitialPeriod, period.pollMaxPeriod);
+      this.period = initialPeriod;
+   }
+
+   /**
+    * returns a future of the node once it reaches {@code intended}. Cancel the future to stop waiting.
+    * 
+    * @param invalids
+    *           statuses that fail the future with an {@link IllegalStateException}, as the node will never reach
+    *           {@code intended}
+    * @param absentMeansIntended
+    *           whether a node that no longer exists is considered to have reached {@code intended}, in which case the
+    *           future completes with null
+    */
+   public ListenableFuture<NodeMetadata> watch(NodeMetadata node, Status intended, Set<Status> invalids,
+         boolean absentMeansIntended) {
+      checkNotNull(node, "node");
+      checkNotNull(intended, "intended");
+      return watch(node, new Waiter(node.getId(), intended, ImmutableSet.copyOf(checkNotNull(invalids, "invalids")),
+            absentMeansIntended)).result;
+   }
+
+   /**
+    * returns a predicate that waits up to {@code timeoutMillis} for the node in the reference to reach
+    * {@code intended}, updating the reference with the latest known state of the node.
+    * 
+    * @see #watch
+    */
+   public Predicate<AtomicReference<NodeMetadata>> create(final Status intended, Set<Status> invalids,
+         final boolean absentMeansIntended, final long timeoutMillis) {
+      checkNotNull(intended, "intended");
+      checkArgument(timeoutMillis > 0, "timeoutMillis must be positive");
+      final Set<Status> invalidStatuses = ImmutableSet.copyOf(checkNotNull(invalids, "invalids"));
+      return new Predicate<AtomicReference<NodeMetadata>>() {
+         @Override
+         public boolean apply(AtomicReference<NodeMetadata> node) {
+            if (node.get() == null)
+               return absentMeansIntended;
+            Waiter waiter = watch(node.get(), new Waiter(node.get().getId(), intended, invalidStatuses,
+                  absentMeansIntended));
+            return await(node, waiter, timeoutMillis);
+         }
+
+         @Override
+         public String toString() {
+            return "batchedNodeStatus(" + intended + ")";
+         }
+      };
+   }
+
+   private Waiter watch(NodeMetadata node, final Waiter waiter) {
+      if (waiter.offer(node, true))
+         return waiter;
+      waiters.add(waiter);
+      waiter.result.addListener(new Runnable() {
+         @Override
+         public void run() {
+            waiters.remove(waiter);
+         }
+      }, directExecutor());
+      lock.lock();
+      try {
+         if (!scheduled) {
+            // nobody else was waiting, so start over with the shortest period
+            scheduled = true;
+            period = initialPeriod;
+            scheduler.execute(poll);
+         }
+      } finally {
+         lock.unlock();
+      }
+      return waiter;
+   }
+
+   private boolean await(AtomicReference<NodeMetadata> node, Waiter waiter, long timeoutMillis) {
+      try {
+         node.set(waiter.result.get(timeoutMillis, MILLISECONDS));
+         return true;
+      } catch (ExecutionException e) {
+         throw Throwables.propagate(e.getCause());
+      } catch (TimeoutException e) {
+         waiter.result.cancel(false);
+      } catch (InterruptedException e) {
+         waiter.result.cancel(false);
+         Thread.currentThread().interrupt();
+      }
+      if (waiter.last != null)
+         node.set(waiter.last);
+      return false;
+   }
+
+   private void scheduleNext() {
+      lock.lock();
+      try {
+         if (waiters.isEmpty()) {
+            scheduled = false;
+         } else {
+            scheduler.schedule(poll, period, MILLISECONDS);
+            period = Math.min(period * 3 / 2 + 1, maxPeriod);
+         }
+      } finally {
+         lock.unlock();
+      }
+   }
+
+   // runs on the scheduler, one poll at a time
+   private void pollOnce() {
+      Set<Waiter> pending = ImmutableSet.copyOf(waiters);
+      if (pending.isEmpty())
+         return;
+      Set<String> ids = Sets.newLinkedHashSet();
+      for (Waiter waiter : pending)
+         ids.add(waiter.id);
+      try {
+         logger.trace(">> polling status of %s nodes", ids.size());
+         Map<String, NodeMetadata> nodes = Maps.newHashMap();
+         for (NodeMetadata node : listNodes.get().listNodesByIds(ids))
+            nodes.put(node.getId(), node);
+         for (Waiter waiter : pending)
+            waiter.offer(nodes.get(waiter.id), false);
+      } catch (RuntimeException e) {
+         logger.warn(e, "error polling status of nodes %s; retrying", ids);
+      }
+   }
+
+   private final class Waiter {
+      private final String id;
+      private final Status intended;
+      private final Set<Status> invalids;
+      private final boolean absentMeansIntended;
+      private final SettableFuture<NodeMetadata> result = SettableFuture.create();
+      private volatile NodeMetadata last;
+
+      private Waiter(String id, Status intended, Set<Status> invalids, boolean absentMeansIntended) {
+         this.id = checkNotNull(id, "id");
+         this.intended = intended;
+         this.invalids = invalids;
+         this.absentMeansIntended = absentMeansIntended;
+      }
+
+      /**
+       * returns true if the node is known to have reached its intended status or cannot reach it anymore.
+       */
+      private boolean offer(NodeMetadata node, boolean initial) {
+         if (node == null) {
+            // the initial state is only checked for being done already, not for being gone
+            if (!initial && absentMeansIntended)
+               result.set(null);
+            return result.isDone();
+         }
+         last = node;
+         logger.trace("%s: looking for node status %s: currently: %s", id, intended, formatStatus(node));
+         if (node.getStatus() == intended) {
+            result.set(node);
+         } else if (invalids.contains(node.getStatus())) {
+            result.setException(new IllegalStateException("node " + id + " in location " + node.getLocation()
+                  + " is in invalid status " + formatStatus(node)));
+         }
+         return result.isDone();
+      }
+   }
+}
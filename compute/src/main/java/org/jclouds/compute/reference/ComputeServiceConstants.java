@@ -18,6 +18,7 @@ package org.jclouds.compute.reference;
 import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_INITIAL_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.INIT_STATUS_MAX_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.OS_VERSION_MAP_JSON;
+import static org.jclouds.compute.config.ComputeServiceProperties.POLL_BATCHED;
 import static org.jclouds.compute.config.ComputeServiceProperties.POLL_INITIAL_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.POLL_MAX_PERIOD;
 import static org.jclouds.compute.config.ComputeServiceProperties.TIMEOUT_CLEANUP_INCIDENTAL_RESOURCES;
@@ -79,6 +80,10 @@ public final class ComputeServiceConstants {
       @Inject(optional = true)
       @Named(POLL_MAX_PERIOD)
       public long pollMaxPeriod = Predicates2.DEFAULT_MAX_PERIOD;
+
+      @Inject(optional = true)
+      @Named(POLL_BATCHED)
+      public boolean pollBatched = false;
    }
 
    @Singleton
@@ -18,30 +18,41 @@ package org.jclouds.compute.suppliers;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 
+import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
 
 import jakarta.annotation.Resource;
 import jakarta.inject.Named;
 
 import org.jclouds.compute.domain.Image;
+import org.jclouds.compute.domain.internal.ImageSnapshot;
 import org.jclouds.compute.reference.ComputeServiceConstants;
 import org.jclouds.compute.strategy.GetImageStrategy;
+import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.logging.Logger;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
+import org.jclouds.rest.suppliers.SnapshotStore;
 import org.jclouds.rest.suppliers.ValueLoadedCallback;
+import org.jclouds.rest.suppliers.WarmStartSupplier;
 
 import com.google.common.annotations.Beta;
-import com.google.common.base.Function;
+import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Supplier;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableSet;
-import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.inject.Provider;
 
 /**
@@ -72,19 +83,63 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
    /**
     * The actual image cache. It acts as a view over the memoized image supplier
     * and allows to add and remove images at runtime.
+    * <p>
+    * Entries do not expire: each reload of the memoized supplier applies the
+    * differences to the listed images, and drops images that are no longer
+    * listed, including those loaded or registered individually.
     */
    private final LoadingCache<String, Image> imageCache;
+
+   /**
+    * Incremented on every change to the {@link #imageCache}, so that
+    * {@link #get()} only copies the cache when it has changed.
+    */
+   private final AtomicLong version = new AtomicLong();
+
+   private volatile ImagesAtVersion lastCopy = new ImagesAtVersion(-1, ImmutableSet.<Image> of());
    
    @Resource
    @Named(ComputeServiceConstants.COMPUTE_LOGGER)
    protected Logger logger = Logger.NULL;
 
+   /**
+    * Serves images persisted by a previous run until the first listing completes, when snapshots are enabled.
+    */
+   private final WarmStartSupplier<Set<? extends Image>> warmStart;
+
+   private volatile boolean refreshedInBackground;
+
    public ImageCacheSupplier(Supplier<Set<? extends Image>> imageSupplier, long sessionIntervalSeconds,
          AtomicReference<AuthorizationException> authException, final Provider<GetImageStrategy> imageLoader) {
+      this(imageSupplier, sessionIntervalSeconds, authException, imageLoader, null);
+   }
+
+   public ImageCacheSupplier(Supplier<Set<? extends Image>> imageSupplier, long sessionIntervalSeconds,
+         AtomicReference<AuthorizationException> authException, final Provider<GetImageStrategy> imageLoader,
+         @Nullable SnapshotStore snapshots) {
       liveImageSupplier = imageSupplier;
+      if (snapshots != null && snapshots.isEnabled()) {
+         warmStart = snapshots.warmStart("images", authException, imageSupplier,
+               new TypeToken<List<ImageSnapshot>>() {
+               }.getType(), ImageSnapshot.FROM_IMAGES, ImageSnapshot.TO_IMAGES);
+         Futures.addCallback(warmStart.backgroundRefresh(), new FutureCallback<Set<? extends Image>>() {
+            @Override
+            public void onSuccess(Set<? extends Image> images) {
+               refreshedInBackground = true;
+               reset(images);
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+               logger.warn(t, "could not refresh images restored from snapshot");
+            }
+         }, MoreExecutors.directExecutor());
+      } else {
+         warmStart = null;
+      }
       memoizedImageSupplier = MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException,
-            imageSupplier, sessionIntervalSeconds, TimeUnit.SECONDS, this);
-      imageCache = CacheBuilder.newBuilder().expireAfterWrite(sessionIntervalSeconds, TimeUnit.SECONDS)
+            warmStart != null ? warmStart : imageSupplier, sessionIntervalSeconds, TimeUnit.SECONDS, this);
+      imageCache = CacheBuilder.newBuilder()
             .build(new CacheLoader<String, Image>() {
                @Override
                public Image load(String key) throws Exception {
@@ -104,7 +159,14 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
       // individual image additions and deletions (introduced, for example, by
       // the usage of the ImageExtension).
       memoizedImageSupplier.get();
-      return ImmutableSet.copyOf(imageCache.asMap().values());
+      long current = version.get();
+      ImagesAtVersion copy = lastCopy;
+      if (copy.version != current) {
+         // changes made while copying bump the version again, so they are picked up by the next call
+         copy = new ImagesAtVersion(current, ImmutableSet.copyOf(imageCache.asMap().values()));
+         lastCopy = copy;
+      }
+      return copy.images;
    }
 
    /**
@@ -118,6 +180,10 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
    @Override
    public void valueLoaded(Optional<Set<? extends Image>> value) {
       if (value.isPresent()) {
+         // the background refresh may finish before the snapshot it replaces is reported here
+         if (refreshedInBackground && value.get() == warmStart.getSnapshot().orNull()) {
+            return;
+         }
          reset(value.get());
       }
    }
@@ -128,17 +194,55 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     * This method is called when the memoized image supplier is reloaded, or
     * when the cache needs to be refreshed (for example when the TempalteBuilder
     * is invoked forcing a fresh image lookup.
+    * <p>
+    * Only the differences are applied, in place: images that were added or
+    * whose contents changed are put, and images no longer listed are removed.
+    * Concurrent readers never observe an empty cache, and unchanged images keep
+    * their cached instance.
     */
    public void reset(Set<? extends Image> images) {
-      imageCache.invalidateAll();
-      imageCache.putAll(Maps.uniqueIndex(images, new Function<Image, String>() {
-         @Override
-         public String apply(Image input) {
-            return input.getId();
+      Set<String> ids = Sets.newHashSetWithExpectedSize(images.size());
+      int changed = 0;
+      for (Image image : images) {
+         ids.add(image.getId());
+         Image cached = imageCache.getIfPresent(image.getId());
+         if (cached == null || !sameContents(cached, image)) {
+            imageCache.put(image.getId(), image);
+            changed++;
+         }
+      }
+      int removed = 0;
+      for (Iterator<String> cachedIds = imageCache.asMap().keySet().iterator(); cachedIds.hasNext();) {
+         if (!ids.contains(cachedIds.next())) {
+            cachedIds.remove();
+            removed++;
          }
-      }));
+      }
+      if (changed > 0 || removed > 0)
+         version.incrementAndGet();
+      logger.debug("<< images(%d): %d added or changed, %d removed", ids.size(), changed, removed);
    }
-   
+
+   /**
+    * Images are equal when their ids are, so this compares what a template
+    * can select on.
+    */
+   private static boolean sameContents(Image a, Image b) {
+      return a.getClass() == b.getClass()
+            && Objects.equal(a.getProviderId(), b.getProviderId())
+            && Objects.equal(a.getName(), b.getName())
+            && Objects.equal(a.getDescription(), b.getDescription())
+            && Objects.equal(a.getVersion(), b.getVersion())
+            && Objects.equal(a.getStatus(), b.getStatus())
+            && Objects.equal(a.getBackendStatus(), b.getBackendStatus())
+            && Objects.equal(a.getOperatingSystem(), b.getOperatingSystem())
+            && Objects.equal(a.getLocation(), b.getLocation())
+            && Objects.equal(a.getDefaultCredentials(), b.getDefaultCredentials())
+            && Objects.equal(a.getUri(), b.getUri())
+            && Objects.equal(a.getUserMetadata(), b.getUserMetadata())
+            && Objects.equal(a.getTags(), b.getTags());
+   }
+
    /**
     * Calls the {@link #liveImageSupplier} to get the current images and
     * rebuilds the cache with them.
@@ -157,7 +261,12 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     */
    public Optional<? extends Image> get(String id) {
       try {
-         return Optional.fromNullable(imageCache.getUnchecked(id));
+         Image cached = imageCache.getIfPresent(id);
+         if (cached != null)
+            return Optional.of(cached);
+         Image loaded = imageCache.getUnchecked(id);
+         version.incrementAndGet();
+         return Optional.fromNullable(loaded);
       } catch (Exception ex) {
          logger.error(ex, "Unexpected error loading image %s", id);
          return Optional.absent();
@@ -180,6 +289,7 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
    public void registerImage(Image image) {
       checkNotNull(image, "image");
       imageCache.put(image.getId(), image);
+      version.incrementAndGet();
    }
 
    /**
@@ -192,6 +302,17 @@ public class ImageCacheSupplier implements Supplier<Set<? extends Image>>, Value
     */
    public void removeImage(String imageId) {
       imageCache.invalidate(checkNotNull(imageId, "imageId"));
+      version.incrementAndGet();
+   }
+
+   private static final class ImagesAtVersion {
+      private final long version;
+      private final Set<? extends Image> images;
+
+      private ImagesAtVersion(long version, Set<? extends Image> images) {
+         this.version = version;
+         this.images = images;
+      }
    }
 
 }
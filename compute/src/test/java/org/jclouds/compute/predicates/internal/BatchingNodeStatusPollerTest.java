@@ -0,0 +1,228 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.compute.predicates.internal;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.inject.Provider;
+
+import org.jclouds.compute.domain.ComputeMetadata;
+import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.domain.NodeMetadata.Status;
+import org.jclouds.compute.domain.NodeMetadataBuilder;
+import org.jclouds.compute.reference.ComputeServiceConstants.PollPeriod;
+import org.jclouds.compute.strategy.ListNodesStrategy;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Predicate;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Atomics;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "BatchingNodeStatusPollerTest")
+public class BatchingNodeStatusPollerTest {
+
+   /**
+    * Answers with the statuses in {@link #statuses}, counting the calls.
+    */
+   private static class FakeListNodes implements ListNodesStrategy, Provider<ListNodesStrategy> {
+      private final Map<String, Status> statuses = new ConcurrentHashMap<String, Status>();
+      private final AtomicInteger calls = new AtomicInteger();
+
+      @Override
+      public Iterable<? extends NodeMetadata> listNodesByIds(Iterable<String> ids) {
+         calls.incrementAndGet();
+         List<NodeMetadata> nodes = Lists.newArrayList();
+         for (String id : ids) {
+            if (statuses.containsKey(id))
+               nodes.add(node(id, statuses.get(id)));
+         }
+         return nodes;
+      }
+
+      @Override
+      public Iterable<? extends ComputeMetadata> listNodes() {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public Iterable<? extends NodeMetadata> listDetailsOnNodesMatching(Predicate<? super NodeMetadata> filter) {
+         throw new UnsupportedOperationException();
+      }
+
+      @Override
+      public ListNodesStrategy get() {
+         return this;
+      }
+   }
+
+   private static NodeMetadata node(String id, Status status) {
+      return new NodeMetadataBuilder().id(id).status(status).build();
+   }
+
+   private BatchingNodeStatusPoller poller(FakeListNodes listNodes) {
+      PollPeriod period = new PollPeriod();
+      period.pollInitialPeriod = 10;
+      period.pollMaxPeriod = 20;
+      return new BatchingNodeStatusPoller(listNodes, period, scheduler);
+   }
+
+   private ScheduledExecutorService scheduler;
+
+   @BeforeClass
+   void createScheduler() {
+      scheduler = Executors.newScheduledThreadPool(1);
+   }
+
+   @AfterClass(alwaysRun = true)
+   void shutdownScheduler() {
+      scheduler.shutdownNow();
+   }
+
+   public void testWatchedNodesCompleteWithoutWaitingThreads() throws Exception {
+      FakeListNodes listNodes = new FakeListNodes();
+      BatchingNodeStatusPoller poller = poller(listNodes);
+      int nodeCount = 50;
+      List<ListenableFuture<NodeMetadata>> results = Lists.newArrayList();
+      for (int i = 0; i < nodeCount; i++) {
+         listNodes.statuses.put("node-" + i, Status.PENDING);
+         results.add(poller.watch(node("node-" + i, Status.PENDING), Status.RUNNING, ImmutableSet.of(Status.ERROR),
+               false));
+      }
+      Thread.sleep(100);
+      for (ListenableFuture<NodeMetadata> result : results)
+         assertFalse(result.isDone());
+      for (String id : listNodes.statuses.keySet())
+         listNodes.statuses.put(id, Status.RUNNING);
+      for (ListenableFuture<NodeMetadata> result : results)
+         assertEquals(result.get(10, SECONDS).getStatus(), Status.RUNNING);
+      assertTrue(listNodes.calls.get() < nodeCount, "calls: " + listNodes.calls.get());
+   }
+
+   public void testCancelledWatchStopsPolling() throws Exception {
+      FakeListNodes listNodes = new FakeListNodes();
+      listNodes.statuses.put("id", Status.PENDING);
+      ListenableFuture<NodeMetadata> result = poller(listNodes).watch(node("id", Status.PENDING), Status.RUNNING,
+            ImmutableSet.<Status> of(), false);
+      for (long deadline = System.currentTimeMillis() + 10000; listNodes.calls.get() < 2
+            && System.currentTimeMillis() < deadline; )
+         Thread.sleep(10);
+      result.cancel(false);
+      // lets a poll that already started finish
+      Thread.sleep(50);
+      int calls = listNodes.calls.get();
+      assertTrue(calls >= 2, "calls: " + calls);
+      Thread.sleep(100);
+      assertEquals(listNodes.calls.get(), calls);
+   }
+
+   public void testConcurrentWaitsShareTheirPolls() throws Exception {
+      final FakeListNodes listNodes = new FakeListNodes();
+      final Predicate<AtomicReference<NodeMetadata>> running = poller(listNodes).create(Status.RUNNING,
+            ImmutableSet.of(Status.ERROR), false, 10000);
+      int nodeCount = 50;
+      ExecutorService executor = Executors.newFixedThreadPool(nodeCount);
+      try {
+         List<Future<Boolean>> results = Lists.newArrayList();
+         for (int i = 0; i < nodeCount; i++) {
+            final String id = "node-" + i;
+            listNodes.statuses.put(id, Status.PENDING);
+            results.add(executor.submit(new Callable<Boolean>() {
+               @Override
+               public Boolean call() {
+                  AtomicReference<NodeMetadata> node = Atomics.newReference(node(id, Status.PENDING));
+                  return running.apply(node) && node.get().getStatus() == Status.RUNNING;
+               }
+            }));
+         }
+         Thread.sleep(200);
+         for (String id : listNodes.statuses.keySet())
+            listNodes.statuses.put(id, Status.RUNNING);
+         for (Future<Boolean> result : results)
+            assertTrue(result.get());
+      } finally {
+         executor.shutdownNow();
+      }
+      // a poll every 20ms at most, instead of one per node
+      assertTrue(listNodes.calls.get() < nodeCount, "calls: " + listNodes.calls.get());
+   }
+
+   public void testNodeAlreadyInIntendedStatusIsNotPolled() {
+      FakeListNodes listNodes = new FakeListNodes();
+      Predicate<AtomicReference<NodeMetadata>> running = poller(listNodes).create(Status.RUNNING,
+            ImmutableSet.<Status> of(), false, 1000);
+      assertTrue(running.apply(Atomics.newReference(node("id", Status.RUNNING))));
+      assertEquals(listNodes.calls.get(), 0);
+   }
+
+   public void testTimesOutWithLatestNode() {
+      FakeListNodes listNodes = new FakeListNodes();
+      listNodes.statuses.put("id", Status.PENDING);
+      Predicate<AtomicReference<NodeMetadata>> running = poller(listNodes).create(Status.RUNNING,
+            ImmutableSet.<Status> of(), false, 100);
+      NodeMetadata original = new NodeMetadataBuilder().id("id").status(Status.PENDING).hostname("original").build();
+      AtomicReference<NodeMetadata> node = Atomics.newReference(original);
+      assertFalse(running.apply(node));
+      assertNull(node.get().getHostname());
+      assertTrue(listNodes.calls.get() > 0);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testInvalidStatusFails() {
+      FakeListNodes listNodes = new FakeListNodes();
+      listNodes.statuses.put("id", Status.ERROR);
+      poller(listNodes).create(Status.RUNNING, ImmutableSet.of(Status.ERROR), false, 1000)
+            .apply(Atomics.newReference(node("id", Status.PENDING)));
+   }
+
+   public void testAbsentNodeIsTerminated() {
+      FakeListNodes listNodes = new FakeListNodes();
+      Predicate<AtomicReference<NodeMetadata>> terminated = poller(listNodes).create(Status.TERMINATED,
+            ImmutableSet.<Status> of(), true, 1000);
+      AtomicReference<NodeMetadata> node = Atomics.newReference(node("id", Status.RUNNING));
+      assertTrue(terminated.apply(node));
+      assertNull(node.get());
+   }
+
+   public void testAbsentNodeIsNotRunning() {
+      FakeListNodes listNodes = new FakeListNodes();
+      Set<Status> invalids = ImmutableSet.of(Status.ERROR);
+      NodeMetadata pending = node("id", Status.PENDING);
+      AtomicReference<NodeMetadata> node = Atomics.newReference(pending);
+      assertFalse(poller(listNodes).create(Status.RUNNING, invalids, false, 100).apply(node));
+      assertEquals(node.get(), pending);
+   }
+}
@@ -17,27 +17,41 @@
 package org.jclouds.compute.suppliers;
 
 import static com.google.common.collect.Iterables.any;
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
 import static org.jclouds.compute.predicates.ImagePredicates.idEquals;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
 import static org.testng.Assert.assertTrue;
 
+import java.io.File;
+import java.nio.file.Files;
+import java.util.Properties;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
+import org.jclouds.Constants;
+import org.jclouds.ContextBuilder;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.domain.ImageBuilder;
 import org.jclouds.compute.domain.OperatingSystem;
 import org.jclouds.compute.strategy.GetImageStrategy;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
 import org.jclouds.domain.Location;
 import org.jclouds.domain.LocationBuilder;
 import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.LoginCredentials;
 import org.jclouds.rest.AuthorizationException;
+import org.jclouds.rest.suppliers.SnapshotStore;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Iterables;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
 import com.google.common.util.concurrent.Atomics;
 import com.google.common.util.concurrent.Uninterruptibles;
 import com.google.inject.util.Providers;
@@ -147,4 +161,98 @@ public class ImageCacheSupplierTest {
       assertEquals(imageCache.get().size(), 1);
       assertFalse(any(imageCache.get(), idEquals("foo")));
    }
+
+   @Test
+   public void testResetAppliesOnlyChangedImages() {
+      ImageCacheSupplier imageCache = new ImageCacheSupplier(Suppliers.<Set<? extends Image>> ofInstance(images), 60,
+            Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy));
+      Set<? extends Image> first = imageCache.get();
+      assertSame(imageCache.get(), first, "unchanged cache should not be copied again");
+
+      // an equal image with the same contents keeps the cached instance
+      Image sameContents = ImageBuilder.fromImage(image).build();
+      imageCache.reset(ImmutableSet.of(sameContents));
+      assertSame(imageCache.get(), first);
+      assertSame(imageCache.get("imageId").get(), image);
+
+      Image changed = ImageBuilder.fromImage(image).description("newDescription").build();
+      Image added = ImageBuilder.fromImage(image).id("newimage").build();
+      imageCache.reset(ImmutableSet.of(changed, added));
+      assertEquals(imageCache.get().size(), 2);
+      assertEquals(imageCache.get("imageId").get().getDescription(), "newDescription");
+
+      imageCache.reset(ImmutableSet.of(added));
+      assertEquals(imageCache.get(), ImmutableSet.of(added));
+   }
+
+   @Test
+   public void testServesSnapshotWhenRefreshFails() throws Exception {
+      Image withCredentials = ImageBuilder.fromImage(image)
+            .defaultCredentials(LoginCredentials.builder().user("root").authenticateSudo(true).build()).build();
+      File directory = Files.createTempDirectory("snapshots").toFile();
+      try {
+         ImageCacheSupplier firstRun = new ImageCacheSupplier(
+               Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.of(withCredentials)), 60,
+               Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy), snapshots(directory));
+         assertEquals(firstRun.get().size(), 1);
+
+         ImageCacheSupplier secondRun = new ImageCacheSupplier(new Supplier<Set<? extends Image>>() {
+            @Override
+            public Set<? extends Image> get() {
+               throw new IllegalStateException("provider unavailable");
+            }
+         }, 60, Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy),
+               snapshots(directory));
+         Image restored = Iterables.getOnlyElement(secondRun.get());
+         assertEquals(restored, withCredentials);
+         assertEquals(restored.getOperatingSystem(), os);
+         assertEquals(restored.getLocation(), location);
+         assertEquals(restored.getDescription(), "imageDescription");
+         assertEquals(restored.getDefaultCredentials(), withCredentials.getDefaultCredentials());
+      } finally {
+         MoreFiles.deleteRecursively(directory.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+      }
+   }
+
+   @Test
+   public void testDoesNotPersistSecrets() throws Exception {
+      Image withPassword = ImageBuilder.fromImage(image)
+            .defaultCredentials(LoginCredentials.builder().user("root").password("secret").build()).build();
+      File directory = Files.createTempDirectory("snapshots").toFile();
+      try {
+         new ImageCacheSupplier(Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.of(withPassword)), 60,
+               Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy), snapshots(directory))
+               .get();
+         assertEquals(directory.list().length, 0);
+      } finally {
+         MoreFiles.deleteRecursively(directory.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+      }
+   }
+
+   @Test
+   public void testRefreshReplacesSnapshot() throws Exception {
+      File directory = Files.createTempDirectory("snapshots").toFile();
+      try {
+         new ImageCacheSupplier(Suppliers.<Set<? extends Image>> ofInstance(images), 60,
+               Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy), snapshots(directory))
+               .get();
+
+         Image newImage = ImageBuilder.fromImage(image).id("newimage").build();
+         ImageCacheSupplier secondRun = new ImageCacheSupplier(
+               Suppliers.<Set<? extends Image>> ofInstance(ImmutableSet.of(newImage)), 60,
+               Atomics.<AuthorizationException> newReference(), Providers.of(getImageStrategy), snapshots(directory));
+         // the refresh runs on the calling thread, so it completes before the snapshot is even reported
+         assertEquals(secondRun.get(), ImmutableSet.of(newImage));
+      } finally {
+         MoreFiles.deleteRecursively(directory.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+      }
+   }
+
+   private static SnapshotStore snapshots(File directory) {
+      Properties overrides = new Properties();
+      overrides.setProperty(Constants.PROPERTY_CACHE_SNAPSHOT_DIR, directory.getAbsolutePath());
+      return ContextBuilder.newBuilder("stub").overrides(overrides)
+            .modules(ImmutableSet.of(new ExecutorServiceModule(newDirectExecutorService())))
+            .buildInjector().getInstance(SnapshotStore.class);
+   }
 }
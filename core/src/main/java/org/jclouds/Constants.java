@@ -30,6 +30,15 @@ public final class Constants {
     */
    public static final String PROPERTY_USER_THREADS = "jclouds.user-threads";
 
+   /**
+    * Boolean property. Default (false).
+    * <p/>
+    * Runs each user task on its own virtual thread instead of on a pool of platform threads, so that blocking http,
+    * ssh and retry calls no longer tie up a thread each. {@link #PROPERTY_USER_THREADS} then limits how many tasks
+    * run at once instead of how many threads exist. Requires Java 21; older runtimes fall back to the thread pool.
+    */
+   public static final String PROPERTY_VIRTUAL_THREADS = "jclouds.virtual-threads";
+
    /**
     * Integer property. default (20)
     * <p/>
@@ -62,6 +71,24 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_CONNECTIONS_PER_HOST = "jclouds.max-connections-per-host";
 
+   /**
+    * Integer property. default (0)
+    * <p/>
+    * Number of keep-alive connections to the provider endpoint to open while the context is built, so that the first
+    * requests do not pay for DNS lookups, connects and TLS handshakes. Use {@link org.jclouds.http.ConnectionWarmer}
+    * to warm other hosts, such as those of virtual host style buckets.
+    */
+   public static final String PROPERTY_WARM_CONNECTIONS = "jclouds.warm-connections";
+
+   /**
+    * Integer property. default (0)
+    * <p/>
+    * Number of pages of a {@link org.jclouds.collect.PagedIterable} returned by an api to fetch ahead of the consumer
+    * on the {@link #PROPERTY_USER_THREADS user executor}. 0 fetches each page only when the previous one has been
+    * consumed.
+    */
+   public static final String PROPERTY_PREFETCH_PAGES = "jclouds.prefetch-pages";
+
    /**
     * Integer property. default (2)
     * <p/>
@@ -230,6 +257,13 @@ public final class Constants {
     * default value is false
     */
    public static final String PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO = "jclouds.wire.log.sensitive";
+   /**
+    * Integer property.
+    * <p/>
+    * The most bytes of each request or response body to log in the wire log: the first half as they are sent or
+    * read, and the last half once the body ends. Default value is 0, which logs whole bodies.
+    */
+   public static final String PROPERTY_LOGGER_WIRE_LOG_MAX_BYTES = "jclouds.wire.log.max-bytes";
    /**
     * Name of the logger that records all http headers from the client and the server.
     */
@@ -376,6 +410,43 @@ public final class Constants {
     */
    public static final String PROPERTY_MAX_RATE_LIMIT_WAIT = "jclouds.max-ratelimit-wait";
    
+   /**
+    * String property. Default (false).
+    * <p/>
+    * Coalesces identical concurrent {@code GET} and {@code HEAD} invocations into a single http request whose
+    * result is shared by all callers. When {@code true}, this applies to methods annotated with
+    * {@link org.jclouds.rest.annotations.SingleFlight}. Otherwise, a comma-separated list of command names, such as
+    * {@code GetBucketLocation}, enables it for those methods only. All callers receive the same result instance, so
+    * only list methods whose results are immutable.
+    */
+   public static final String PROPERTY_SINGLE_FLIGHT = "jclouds.single-flight";
+
+   /**
+    * Boolean property. Default (false).
+    * <p/>
+    * Creates singletons such as apis, delegate apis and memoized suppliers on first use instead of when the context
+    * is built. This makes building contexts cheaper, notably when building many of them in one process, but
+    * configuration errors then surface on first use rather than at startup.
+    */
+   public static final String PROPERTY_LAZY_STARTUP = "jclouds.lazy-startup";
+
+   /**
+    * Boolean property. Default (false).
+    * <p/>
+    * Records how long building the context takes, and which modules the time was spent instantiating, in a
+    * {@link org.jclouds.config.StartupReport} bound in the injector and logged at debug level.
+    */
+   public static final String PROPERTY_STARTUP_REPORT = "jclouds.startup-report";
+
+   /**
+    * String property. Not set by default.
+    * <p/>
+    * Directory in which slow-to-list, rarely changing data such as locations and compute images is persisted, keyed
+    * by provider, endpoint and identity. A new context serves the persisted data immediately and refreshes it in the
+    * background, instead of waiting for the provider on first use.
+    */
+   public static final String PROPERTY_CACHE_SNAPSHOT_DIR = "jclouds.cache-snapshot-dir";
+
    /**
     * Boolean property.
     * <p/>
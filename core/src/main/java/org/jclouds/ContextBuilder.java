@@ -39,7 +39,10 @@ import static org.jclouds.Constants.PROPERTY_CREDENTIAL;
 import static org.jclouds.Constants.PROPERTY_ENDPOINT;
 import static org.jclouds.Constants.PROPERTY_IDENTITY;
 import static org.jclouds.Constants.PROPERTY_ISO3166_CODES;
+import static org.jclouds.Constants.PROPERTY_LAZY_STARTUP;
 import static org.jclouds.Constants.PROPERTY_PROVIDER;
+import static org.jclouds.Constants.PROPERTY_STARTUP_REPORT;
+import static org.jclouds.Constants.PROPERTY_WARM_CONNECTIONS;
 import static org.jclouds.reflect.Reflection2.typeToken;
 import static org.jclouds.rest.config.BinderUtils.bindHttpApi;
 import static org.jclouds.util.Throwables2.propagateAuthorizationOrOriginalException;
@@ -51,6 +54,7 @@ import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 import org.jclouds.apis.ApiMetadata;
 import org.jclouds.apis.Apis;
@@ -59,12 +63,15 @@ import org.jclouds.concurrent.config.ConfiguresExecutorService;
 import org.jclouds.concurrent.config.ExecutorServiceModule;
 import org.jclouds.config.BindApiContextWithWildcardExtendsExplicitAndRawType;
 import org.jclouds.config.BindNameToContext;
+import org.jclouds.config.BindStartupReport;
+import org.jclouds.config.StartupReport;
 import org.jclouds.domain.Credentials;
 import org.jclouds.events.config.ConfiguresEventBus;
 import org.jclouds.events.config.EventBusModule;
 import org.jclouds.functions.ExpandProperties;
 import org.jclouds.http.config.ConfiguresHttpCommandExecutorService;
 import org.jclouds.http.config.JavaUrlHttpCommandExecutorServiceModule;
+import org.jclouds.http.config.WarmConnectionsModule;
 import org.jclouds.javax.annotation.Nullable;
 import org.jclouds.lifecycle.config.LifeCycleModule;
 import org.jclouds.logging.config.LoggingModule;
@@ -92,6 +99,7 @@ import com.google.common.base.Objects;
 import com.google.common.base.Optional;
 import com.google.common.base.Predicate;
 import com.google.common.base.Splitter;
+import com.google.common.base.Stopwatch;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.ImmutableMultimap;
@@ -409,8 +417,28 @@ public class ContextBuilder {
       modules.add(new LifeCycleModule());
       modules.add(new BindProviderMetadataContextAndCredentials(providerMetadata, creds));
       modules.add(new BindNameToContext(name));
-      Injector returnVal = Guice.createInjector(GUICE_STAGE, modules);
+      Properties properties = providerMetadata.getDefaultProperties();
+      // singletons are only created eagerly in the production stage
+      Stage stage = Boolean.parseBoolean(properties.getProperty(PROPERTY_LAZY_STARTUP)) ? Stage.DEVELOPMENT
+            : GUICE_STAGE;
+      StartupReport report = null;
+      if (Boolean.parseBoolean(properties.getProperty(PROPERTY_STARTUP_REPORT))) {
+         report = new StartupReport(name, stage);
+         modules.add(new BindStartupReport(report));
+      }
+      if (Integer.parseInt(properties.getProperty(PROPERTY_WARM_CONNECTIONS, "0")) > 0) {
+         modules.add(new WarmConnectionsModule());
+      }
+      Stopwatch watch = Stopwatch.createStarted();
+      Injector returnVal = Guice.createInjector(stage, modules);
+      if (report != null) {
+         report.injectorCreated(watch.elapsed(TimeUnit.NANOSECONDS));
+         watch.reset().start();
+      }
       returnVal.getInstance(ExecutionList.class).execute();
+      if (report != null) {
+         report.postConstructExecuted(watch.elapsed(TimeUnit.NANOSECONDS));
+      }
       return returnVal;
    }
 
@@ -22,19 +22,25 @@ import static org.jclouds.Constants.PROPERTY_CONNECTION_CLOSE_HEADER;
 import static org.jclouds.Constants.PROPERTY_CONNECTION_TIMEOUT;
 import static org.jclouds.Constants.PROPERTY_IDEMPOTENT_METHODS;
 import static org.jclouds.Constants.PROPERTY_ISO3166_CODES;
+import static org.jclouds.Constants.PROPERTY_LAZY_STARTUP;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_CONTEXT;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTIONS_PER_HOST;
 import static org.jclouds.Constants.PROPERTY_MAX_CONNECTION_REUSE;
 import static org.jclouds.Constants.PROPERTY_MAX_PARALLEL_DELETES;
 import static org.jclouds.Constants.PROPERTY_MAX_SESSION_FAILURES;
 import static org.jclouds.Constants.PROPERTY_OUTPUT_SOCKET_BUFFER_SIZE;
+import static org.jclouds.Constants.PROPERTY_PREFETCH_PAGES;
 import static org.jclouds.Constants.PROPERTY_PRETTY_PRINT_PAYLOADS;
 import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
+import static org.jclouds.Constants.PROPERTY_SINGLE_FLIGHT;
+import static org.jclouds.Constants.PROPERTY_STARTUP_REPORT;
 import static org.jclouds.Constants.PROPERTY_SO_TIMEOUT;
 import static org.jclouds.Constants.PROPERTY_STRIP_EXPECT_HEADER;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static org.jclouds.Constants.PROPERTY_USER_AGENT;
+import static org.jclouds.Constants.PROPERTY_VIRTUAL_THREADS;
+import static org.jclouds.Constants.PROPERTY_WARM_CONNECTIONS;
 import static org.jclouds.reflect.Reflection2.typeToken;
 
 import java.net.URI;
@@ -91,6 +97,12 @@ public abstract class BaseApiMetadata implements ApiMetadata {
 
       props.setProperty(PROPERTY_IDEMPOTENT_METHODS, "DELETE,GET,HEAD,OPTIONS,PUT");
       props.setProperty(PROPERTY_OUTPUT_SOCKET_BUFFER_SIZE, 32768 + "");
+      props.setProperty(PROPERTY_SINGLE_FLIGHT, "false");
+      props.setProperty(PROPERTY_LAZY_STARTUP, "false");
+      props.setProperty(PROPERTY_STARTUP_REPORT, "false");
+      props.setProperty(PROPERTY_VIRTUAL_THREADS, "false");
+      props.setProperty(PROPERTY_WARM_CONNECTIONS, "0");
+      props.setProperty(PROPERTY_PREFETCH_PAGES, "0");
       return props;
    }
 
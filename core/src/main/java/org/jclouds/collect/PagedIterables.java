@@ -16,16 +16,29 @@
  */
 package org.jclouds.collect;
 
+import static com.google.common.base.Preconditions.checkArgument;
 import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 
+import java.util.ArrayDeque;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import com.google.common.annotations.Beta;
 import com.google.common.base.Function;
 import com.google.common.base.MoreObjects;
 import com.google.common.base.Objects;
+import com.google.common.base.Optional;
+import com.google.common.base.Throwables;
 import com.google.common.collect.AbstractIterator;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.AsyncFunction;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 /**
  * Utilities for using {@link PagedIterable}s.
@@ -74,6 +87,122 @@ public class PagedIterables {
       };
    }
 
+   /**
+    * Returns a view of {@code pages} which fetches up to {@code depth} pages ahead of the consumer, so that the
+    * latency of fetching the next page overlaps with processing the current one.
+    * <p/>
+    * Pages are still fetched one after the other, in order, as each page holds the marker of the next. Prefetching
+    * starts when the consumer asks for the second page, so that callers reading only the first page send no extra
+    * requests. From then on, at most {@code depth} pages are held in memory besides the one being consumed. Errors
+    * fetching a page are thrown when the consumer reaches that page.
+    * <p/>
+    * An iterator cannot tell that its consumer stopped before the last page, so an abandoned iterator may leave up to
+    * {@code depth} fetches running; their pages are discarded.
+    * 
+    * @param executor
+    *           fetches the pages
+    * @param depth
+    *           how many pages to fetch ahead of the consumer
+    */
+   public static <T> PagedIterable<T> prefetch(final PagedIterable<T> pages, final ListeningExecutorService executor,
+         final int depth) {
+      checkNotNull(pages, "pages");
+      checkNotNull(executor, "executor");
+      checkArgument(depth > 0, "depth must be positive");
+      return new PagedIterable<T>() {
+         public Iterator<IterableWithMarker<T>> iterator() {
+            return prefetching(pages.iterator(), executor, depth);
+         }
+      };
+   }
+
+   /**
+    * @see #prefetch(PagedIterable, ListeningExecutorService, int)
+    */
+   public static <P> Iterator<P> prefetching(Iterator<P> pages, ListeningExecutorService executor, int depth) {
+      checkArgument(depth > 0, "depth must be positive");
+      return new PrefetchingIterator<P>(checkNotNull(pages, "pages"), checkNotNull(executor, "executor"), depth);
+   }
+
+   private static final class PrefetchingIterator<P> extends AbstractIterator<P> {
+      private final Iterator<P> pages;
+      private final ListeningExecutorService executor;
+      private final int depth;
+      // pages requested ahead of the consumer, in order; each is fetched once the previous one was, so that only
+      // one thread at a time advances the underlying iterator
+      private final Deque<ListenableFuture<Optional<P>>> ahead = new ArrayDeque<ListenableFuture<Optional<P>>>();
+      private boolean started;
+
+      private final Callable<Optional<P>> fetch = new Callable<Optional<P>>() {
+         @Override
+         public Optional<P> call() {
+            return fetchNow();
+         }
+      };
+
+      private final AsyncFunction<Optional<P>, Optional<P>> fetchAfter = new AsyncFunction<Optional<P>, Optional<P>>() {
+         @Override
+         public ListenableFuture<Optional<P>> apply(Optional<P> previous) {
+            return previous.isPresent() ? executor.submit(fetch) : Futures.immediateFuture(Optional.<P> absent());
+         }
+      };
+
+      private PrefetchingIterator(Iterator<P> pages, ListeningExecutorService executor, int depth) {
+         this.pages = pages;
+         this.executor = executor;
+         this.depth = depth;
+      }
+
+      @Override
+      protected P computeNext() {
+         Optional<P> page;
+         boolean first = !started;
+         started = true;
+         if (ahead.isEmpty()) {
+            // the first page is usually at hand already, and the second is only fetched once asked for
+            page = fetchNow();
+         } else {
+            page = await(ahead.remove());
+         }
+         if (!page.isPresent()) {
+            cancelAhead();
+            return endOfData();
+         }
+         // callers that only read the first page must not pay for fetching more
+         while (!first && ahead.size() < depth) {
+            ListenableFuture<Optional<P>> last = ahead.peekLast();
+            ahead.add(last == null ? executor.submit(fetch) : Futures.transformAsync(last, fetchAfter,
+                  directExecutor()));
+         }
+         return page.get();
+      }
+
+      private Optional<P> fetchNow() {
+         return pages.hasNext() ? Optional.of(pages.next()) : Optional.<P> absent();
+      }
+
+      private Optional<P> await(ListenableFuture<Optional<P>> future) {
+         try {
+            return Uninterruptibles.getUninterruptibly(future);
+         } catch (ExecutionException e) {
+            cancelAhead();
+            Throwables.throwIfUnchecked(e.getCause());
+            throw new RuntimeException(e.getCause());
+         }
+      }
+
+      private void cancelAhead() {
+         for (ListenableFuture<Optional<P>> future : ahead)
+            future.cancel(false);
+         ahead.clear();
+      }
+
+      @Override
+      public String toString() {
+         return MoreObjects.toStringHelper("").add("pages", pages).add("depth", depth).toString();
+      }
+   }
+
    private static class AdvancingIterator<T> extends AbstractIterator<IterableWithMarker<T>> {
 
       private final Function<Object, IterableWithMarker<T>> markerToNext;
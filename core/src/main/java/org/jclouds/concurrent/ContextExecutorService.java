@@ -0,0 +1,186 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.util.concurrent.AbstractListeningExecutorService;
+
+/**
+ * Runs the tasks of one context on an executor shared with other contexts, at most {@code maxConcurrentTasks} at a
+ * time. Further tasks wait in a queue private to the context and are handed to the shared executor one by one as
+ * earlier tasks finish, so they line up behind the tasks of other contexts rather than ahead of them.
+ * <p>
+ * Shutting down the view never shuts down the shared executor, and {@link #shutdownNow()} does not interrupt tasks
+ * that are already running.
+ */
+final class ContextExecutorService extends AbstractListeningExecutorService {
+
+   private final Executor delegate;
+   private final int maxConcurrentTasks;
+
+   private final Object lock = new Object();
+   // guarded by lock
+   private final Queue<Runnable> queue = new ArrayDeque<Runnable>();
+   // guarded by lock; tasks handed to the delegate that have not finished
+   private int running;
+   // guarded by lock
+   private boolean shutdown;
+
+   /**
+    * @param maxConcurrentTasks
+    *           0 for no limit
+    */
+   ContextExecutorService(Executor delegate, int maxConcurrentTasks) {
+      this.delegate = checkNotNull(delegate, "delegate");
+      this.maxConcurrentTasks = maxConcurrentTasks;
+   }
+
+   @Override
+   public void execute(Runnable command) {
+      checkNotNull(command, "command");
+      synchronized (lock) {
+         if (shutdown)
+            throw new RejectedExecutionException(this + " has been shut down");
+         if (maxConcurrentTasks > 0 && running >= maxConcurrentTasks) {
+            queue.add(command);
+            return;
+         }
+         running++;
+      }
+      try {
+         dispatch(command);
+      } catch (RejectedExecutionException e) {
+         finished();
+         throw e;
+      }
+   }
+
+   private void dispatch(final Runnable command) {
+      delegate.execute(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               command.run();
+            } finally {
+               dispatchNext();
+            }
+         }
+
+         @Override
+         public String toString() {
+            return command.toString();
+         }
+      });
+   }
+
+   private void dispatchNext() {
+      Runnable next;
+      synchronized (lock) {
+         next = queue.poll();
+         if (next == null) {
+            finished();
+            return;
+         }
+      }
+      try {
+         dispatch(next);
+      } catch (RejectedExecutionException e) {
+         // the shared executor is gone, so nothing queued can run anymore
+         cancel(ImmutableList.<Runnable> builder().add(next).addAll(drain()).build());
+         finished();
+      }
+   }
+
+   private void finished() {
+      synchronized (lock) {
+         running--;
+         if (running == 0)
+            lock.notifyAll();
+      }
+   }
+
+   private List<Runnable> drain() {
+      synchronized (lock) {
+         List<Runnable> drained = ImmutableList.copyOf(queue);
+         queue.clear();
+         return drained;
+      }
+   }
+
+   private static void cancel(List<Runnable> tasks) {
+      for (Runnable task : tasks) {
+         if (task instanceof Future)
+            Future.class.cast(task).cancel(false);
+      }
+   }
+
+   @Override
+   public void shutdown() {
+      synchronized (lock) {
+         shutdown = true;
+      }
+   }
+
+   @Override
+   public List<Runnable> shutdownNow() {
+      shutdown();
+      return drain();
+   }
+
+   @Override
+   public boolean isShutdown() {
+      synchronized (lock) {
+         return shutdown;
+      }
+   }
+
+   @Override
+   public boolean isTerminated() {
+      synchronized (lock) {
+         return shutdown && running == 0 && queue.isEmpty();
+      }
+   }
+
+   @Override
+   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      long deadline = System.nanoTime() + unit.toNanos(timeout);
+      synchronized (lock) {
+         while (!(shutdown && running == 0 && queue.isEmpty())) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0)
+               return false;
+            TimeUnit.NANOSECONDS.timedWait(lock, remaining);
+         }
+         return true;
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "ContextExecutorService(" + delegate + ", maxConcurrentTasks=" + maxConcurrentTasks + ")";
+   }
+}
@@ -0,0 +1,136 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Sets;
+import com.google.common.util.concurrent.AbstractListeningExecutorService;
+import com.google.common.util.concurrent.ListenableScheduledFuture;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+
+/**
+ * The view of one context on a scheduler shared with other contexts. Shutting down the view cancels the tasks the
+ * context scheduled, but leaves the shared scheduler running.
+ */
+final class ContextScheduledExecutorService extends AbstractListeningExecutorService implements
+      ListeningScheduledExecutorService {
+
+   private final ListeningScheduledExecutorService delegate;
+   private final Set<Future<?>> scheduled = Sets.newConcurrentHashSet();
+   private volatile boolean shutdown;
+
+   ContextScheduledExecutorService(ListeningScheduledExecutorService delegate) {
+      this.delegate = checkNotNull(delegate, "delegate");
+   }
+
+   @Override
+   public void execute(Runnable command) {
+      checkNotShutdown();
+      delegate.execute(command);
+   }
+
+   @Override
+   public ListenableScheduledFuture<?> schedule(Runnable command, long delay, TimeUnit unit) {
+      checkNotShutdown();
+      return track(delegate.schedule(command, delay, unit));
+   }
+
+   @Override
+   public <V> ListenableScheduledFuture<V> schedule(Callable<V> callable, long delay, TimeUnit unit) {
+      checkNotShutdown();
+      return track(delegate.schedule(callable, delay, unit));
+   }
+
+   @Override
+   public ListenableScheduledFuture<?> scheduleAtFixedRate(Runnable command, long initialDelay, long period,
+         TimeUnit unit) {
+      checkNotShutdown();
+      return track(delegate.scheduleAtFixedRate(command, initialDelay, period, unit));
+   }
+
+   @Override
+   public ListenableScheduledFuture<?> scheduleWithFixedDelay(Runnable command, long initialDelay, long delay,
+         TimeUnit unit) {
+      checkNotShutdown();
+      return track(delegate.scheduleWithFixedDelay(command, initialDelay, delay, unit));
+   }
+
+   private <V> ListenableScheduledFuture<V> track(final ListenableScheduledFuture<V> future) {
+      scheduled.add(future);
+      future.addListener(new Runnable() {
+         @Override
+         public void run() {
+            scheduled.remove(future);
+         }
+      }, directExecutor());
+      // lost a race with shutdown, which may have missed this future
+      if (shutdown)
+         future.cancel(false);
+      return future;
+   }
+
+   private void checkNotShutdown() {
+      if (shutdown)
+         throw new RejectedExecutionException(this + " has been shut down");
+   }
+
+   @Override
+   public void shutdown() {
+      shutdown = true;
+      for (Future<?> future : scheduled)
+         future.cancel(false);
+   }
+
+   @Override
+   public List<Runnable> shutdownNow() {
+      shutdown = true;
+      for (Future<?> future : scheduled)
+         future.cancel(true);
+      return ImmutableList.of();
+   }
+
+   @Override
+   public boolean isShutdown() {
+      return shutdown;
+   }
+
+   @Override
+   public boolean isTerminated() {
+      return shutdown && scheduled.isEmpty();
+   }
+
+   @Override
+   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      // cancelled tasks complete immediately, and tasks passed to execute are not tracked
+      return isTerminated();
+   }
+
+   @Override
+   public String toString() {
+      return "ContextScheduledExecutorService(" + delegate + ")";
+   }
+}
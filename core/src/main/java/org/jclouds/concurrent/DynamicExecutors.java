@@ -17,10 +17,14 @@
 package org.jclouds.concurrent;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 
+import com.google.common.base.Optional;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
 /**
  * Factory and utility methods for handling {@link DynamicThreadPoolExecutor}.
  */
@@ -50,6 +54,35 @@ public class DynamicExecutors {
       return executor;
    }
 
+   /**
+    * Creates an executor that starts a new virtual thread for each task, allowing at most {@code maxConcurrentTasks}
+    * of them to run at a time. Tasks over the limit block on their own virtual thread, which costs no platform
+    * thread.
+    * 
+    * @param maxConcurrentTasks
+    *           the maximum number of tasks running at a time, or 0 for no limit.
+    * @param namePrefix
+    *           prefix of the thread names, followed by a counter.
+    * @return the executor, or absent if the running JVM does not support virtual threads.
+    */
+   public static Optional<ListeningExecutorService> newVirtualThreadPerTaskExecutor(int maxConcurrentTasks,
+         String namePrefix) {
+      // looked up reflectively, as jclouds is compiled for Java 11
+      ExecutorService executor;
+      try {
+         Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+         Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+         builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+         ThreadFactory factory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+         executor = (ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+               .invoke(null, factory);
+      } catch (ReflectiveOperationException e) {
+         // before Java 21, the methods are missing or, on Java 19 and 20, throw as a disabled preview feature
+         return Optional.absent();
+      }
+      return Optional.<ListeningExecutorService> of(new PermitLimitedExecutorService(executor, maxConcurrentTasks));
+   }
+
    /**
     * Cannot instantiate.
     */
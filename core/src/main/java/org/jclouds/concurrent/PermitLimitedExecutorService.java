@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.util.concurrent.AbstractListeningExecutorService;
+
+/**
+ * Limits how many tasks run at a time on an executor that starts a thread per task. Each task waits for a permit on
+ * its own thread, which is only cheap when those threads are virtual.
+ */
+final class PermitLimitedExecutorService extends AbstractListeningExecutorService {
+
+   private final ExecutorService delegate;
+   private final Semaphore permits;
+
+   /**
+    * @param maxConcurrentTasks
+    *           0 for no limit
+    */
+   PermitLimitedExecutorService(ExecutorService delegate, int maxConcurrentTasks) {
+      this.delegate = checkNotNull(delegate, "delegate");
+      this.permits = maxConcurrentTasks > 0 ? new Semaphore(maxConcurrentTasks) : null;
+   }
+
+   @Override
+   public void execute(final Runnable command) {
+      checkNotNull(command, "command");
+      if (permits == null) {
+         delegate.execute(command);
+         return;
+      }
+      delegate.execute(new Runnable() {
+         @Override
+         public void run() {
+            try {
+               permits.acquire();
+            } catch (InterruptedException e) {
+               // shutdownNow while waiting for a permit
+               if (command instanceof Future)
+                  Future.class.cast(command).cancel(false);
+               Thread.currentThread().interrupt();
+               return;
+            }
+            try {
+               command.run();
+            } finally {
+               permits.release();
+            }
+         }
+
+         @Override
+         public String toString() {
+            return command.toString();
+         }
+      });
+   }
+
+   @Override
+   public void shutdown() {
+      delegate.shutdown();
+   }
+
+   @Override
+   public List<Runnable> shutdownNow() {
+      return delegate.shutdownNow();
+   }
+
+   @Override
+   public boolean isShutdown() {
+      return delegate.isShutdown();
+   }
+
+   @Override
+   public boolean isTerminated() {
+      return delegate.isTerminated();
+   }
+
+   @Override
+   public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+      return delegate.awaitTermination(timeout, unit);
+   }
+
+   @Override
+   public String toString() {
+      return "PermitLimitedExecutorService(" + delegate + ", permits=" + permits + ")";
+   }
+}
@@ -0,0 +1,238 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
+import static java.util.concurrent.Executors.defaultThreadFactory;
+import static java.util.concurrent.Executors.newScheduledThreadPool;
+import static java.util.concurrent.Executors.newSingleThreadScheduledExecutor;
+import static org.jclouds.concurrent.DynamicExecutors.newScalingThreadPool;
+import static org.jclouds.concurrent.DynamicExecutors.newVirtualThreadPerTaskExecutor;
+
+import java.io.Closeable;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.MoreObjects;
+import com.google.common.base.Optional;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+/**
+ * Threads and other heavyweight resources shared by many contexts, so that a process holding a context per account
+ * does not run a thread pool and connection pool per account.
+ * <p>
+ * Contexts join the runtime by installing {@code SharedRuntimeModule}. Each context then gets its own view of the
+ * shared user executor, which runs at most {@code jclouds.user-threads} of its tasks at a time so that one busy
+ * context cannot take every thread, and its own view of the shared scheduler. Closing a context shuts down its views
+ * only. Other singletons, such as an {@code OkHttpClientSupplier} returning a client whose connection pool should be
+ * shared, can be registered with {@link Builder#share}.
+ * <p>
+ * The runtime is reference counted: its threads are stopped once {@link #close()} has been called and every context
+ * using it has been closed.
+ * 
+ * <pre>
+ * SharedRuntime runtime = SharedRuntime.builder().userThreads(200).build();
+ * for (Account account : accounts)
+ *    contexts.add(ContextBuilder.newBuilder("aws-ec2").credentials(account.getKey(), account.getSecret())
+ *          .modules(ImmutableSet.of(new SharedRuntimeModule(runtime))).buildView(ComputeServiceContext.class));
+ * </pre>
+ */
+@Beta
+public final class SharedRuntime implements Closeable {
+
+   public static Builder builder() {
+      return new Builder();
+   }
+
+   public static final class Builder {
+      private int userThreads = 50;
+      private int schedulerThreads = 1;
+      private boolean virtualThreads;
+      private final ImmutableMap.Builder<Class<?>, Object> shared = ImmutableMap.builder();
+
+      /**
+       * maximum threads of the shared user executor, or 0 for an unbounded pool. Defaults to 50.
+       */
+      public Builder userThreads(int userThreads) {
+         checkArgument(userThreads >= 0, "userThreads must not be negative");
+         this.userThreads = userThreads;
+         return this;
+      }
+
+      /**
+       * runs each task of the shared user executor on its own virtual thread, and ignores {@link #userThreads}, when
+       * the JVM supports virtual threads. Defaults to false.
+       * 
+       * @see org.jclouds.Constants#PROPERTY_VIRTUAL_THREADS
+       */
+      public Builder virtualThreads(boolean virtualThreads) {
+         this.virtualThreads = virtualThreads;
+         return this;
+      }
+
+      /**
+       * threads of the shared scheduler. Defaults to 1.
+       */
+      public Builder schedulerThreads(int schedulerThreads) {
+         checkArgument(schedulerThreads >= 0, "schedulerThreads must not be negative");
+         this.schedulerThreads = schedulerThreads;
+         return this;
+      }
+
+      /**
+       * binds {@code instance} as {@code type} in every context using the runtime. The contexts must not bind
+       * {@code type} themselves.
+       */
+      public <T> Builder share(Class<T> type, T instance) {
+         shared.put(checkNotNull(type, "type"), checkNotNull(instance, "instance of %s", type));
+         return this;
+      }
+
+      public SharedRuntime build() {
+         Optional<ListeningExecutorService> virtual = virtualThreads ? newVirtualThreadPerTaskExecutor(0,
+               "shared user virtual thread ") : Optional.<ListeningExecutorService> absent();
+         return new SharedRuntime(virtual.isPresent() ? virtual.get() : threadPoolNamed("shared user thread %d",
+               userThreads),
+               scheduledThreadPoolNamed("shared scheduler thread %d", schedulerThreads), shared.build());
+      }
+   }
+
+   private final ListeningExecutorService userExecutor;
+   private final ListeningScheduledExecutorService scheduler;
+   private final Map<Class<?>, Object> shared;
+   // one for the owner, plus one per context still using the runtime
+   private final AtomicInteger references = new AtomicInteger(1);
+   private final AtomicBoolean closed = new AtomicBoolean();
+
+   SharedRuntime(ListeningExecutorService userExecutor, ListeningScheduledExecutorService scheduler,
+         Map<Class<?>, Object> shared) {
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+      this.scheduler = checkNotNull(scheduler, "scheduler");
+      this.shared = ImmutableMap.copyOf(checkNotNull(shared, "shared"));
+   }
+
+   /**
+    * the instances to bind in each context, keyed by the type they are bound as.
+    */
+   public Map<Class<?>, Object> getSharedInstances() {
+      return shared;
+   }
+
+   /**
+    * registers a context with the runtime.
+    * 
+    * @param maxConcurrentTasks
+    *           how many tasks of the context may run on the shared user executor at a time, or 0 for no limit
+    * @throws IllegalStateException
+    *            if the runtime has been shut down
+    */
+   public Lease acquire(int maxConcurrentTasks) {
+      checkArgument(maxConcurrentTasks >= 0, "maxConcurrentTasks must not be negative");
+      while (true) {
+         int current = references.get();
+         checkState(current > 0, "%s has been shut down", this);
+         if (references.compareAndSet(current, current + 1))
+            return new Lease(maxConcurrentTasks);
+      }
+   }
+
+   /**
+    * releases the owner's reference. Threads are stopped once all contexts using the runtime are closed, too.
+    */
+   @Override
+   public void close() {
+      if (closed.compareAndSet(false, true))
+         release();
+   }
+
+   /**
+    * true once the runtime has been closed and no context is using it anymore.
+    */
+   public boolean isShutdown() {
+      return references.get() == 0;
+   }
+
+   private void release() {
+      if (references.decrementAndGet() == 0) {
+         userExecutor.shutdownNow();
+         scheduler.shutdownNow();
+      }
+   }
+
+   @Override
+   public String toString() {
+      return MoreObjects.toStringHelper(this).add("references", references.get()).add("shared", shared.keySet())
+            .toString();
+   }
+
+   /**
+    * The executors of a single context. Closing the lease shuts them down and releases the context's reference on
+    * the runtime.
+    */
+   public final class Lease implements Closeable {
+      private final ContextExecutorService userExecutorView;
+      private final ContextScheduledExecutorService schedulerView;
+      private final AtomicBoolean released = new AtomicBoolean();
+
+      private Lease(int maxConcurrentTasks) {
+         this.userExecutorView = new ContextExecutorService(userExecutor, maxConcurrentTasks);
+         this.schedulerView = new ContextScheduledExecutorService(scheduler);
+      }
+
+      public ListeningExecutorService getUserExecutor() {
+         return userExecutorView;
+      }
+
+      public ListeningScheduledExecutorService getScheduler() {
+         return schedulerView;
+      }
+
+      @Override
+      public void close() {
+         if (released.compareAndSet(false, true)) {
+            userExecutorView.shutdownNow();
+            schedulerView.shutdownNow();
+            release();
+         }
+      }
+   }
+
+   private static ListeningExecutorService threadPoolNamed(String name, int maxCount) {
+      return listeningDecorator(maxCount == 0 ? Executors.newCachedThreadPool(namedThreadFactory(name))
+            : newScalingThreadPool(1, maxCount, 60L * 1000, namedThreadFactory(name)));
+   }
+
+   private static ListeningScheduledExecutorService scheduledThreadPoolNamed(String name, int maxCount) {
+      ThreadFactory factory = namedThreadFactory(name);
+      return listeningDecorator(maxCount == 0 ? newSingleThreadScheduledExecutor(factory) : newScheduledThreadPool(
+            maxCount, factory));
+   }
+
+   private static ThreadFactory namedThreadFactory(String name) {
+      return new ThreadFactoryBuilder().setNameFormat(name).setThreadFactory(defaultThreadFactory()).build();
+   }
+}
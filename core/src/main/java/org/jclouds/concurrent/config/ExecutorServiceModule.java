@@ -18,7 +18,9 @@ package org.jclouds.concurrent.config;
 
 import static com.google.common.util.concurrent.MoreExecutors.listeningDecorator;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_VIRTUAL_THREADS;
 import static org.jclouds.concurrent.DynamicExecutors.newScalingThreadPool;
+import static org.jclouds.concurrent.DynamicExecutors.newVirtualThreadPerTaskExecutor;
 
 import java.io.Closeable;
 import java.io.IOException;
@@ -34,6 +36,7 @@ import jakarta.inject.Singleton;
 import org.jclouds.lifecycle.Closer;
 import org.jclouds.logging.Logger;
 
+import com.google.common.base.Optional;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.SimpleTimeLimiter;
 import com.google.common.util.concurrent.ThreadFactoryBuilder;
@@ -72,6 +75,29 @@ public class ExecutorServiceModule extends AbstractModule {
       }
    }
 
+   /**
+    * Holds {@link org.jclouds.Constants#PROPERTY_VIRTUAL_THREADS}, which is optional so that this module keeps working
+    * in injectors that do not bind the jclouds properties.
+    */
+   static final class VirtualThreads {
+      @Resource
+      private Logger logger = Logger.NULL;
+
+      @com.google.inject.Inject(optional = true)
+      @Named(PROPERTY_VIRTUAL_THREADS)
+      private boolean enabled = false;
+
+      Optional<ListeningExecutorService> newExecutor(String namePrefix, int maxConcurrentTasks) {
+         if (!enabled)
+            return Optional.absent();
+         Optional<ListeningExecutorService> executor = newVirtualThreadPerTaskExecutor(maxConcurrentTasks, namePrefix);
+         if (!executor.isPresent())
+            logger.warn("%s is set, but virtual threads need Java 21; using a thread pool instead",
+                  PROPERTY_VIRTUAL_THREADS);
+         return executor;
+      }
+   }
+
    final ListeningExecutorService userExecutorFromConstructor;
 
    public ExecutorServiceModule() {
@@ -119,10 +145,13 @@ public class ExecutorServiceModule extends AbstractModule {
    @Provides
    @Singleton
    @Named(PROPERTY_USER_THREADS)
-   final ListeningExecutorService provideListeningUserExecutorService(@Named(PROPERTY_USER_THREADS) int count, Closer closer) { // NO_UCD
+   final ListeningExecutorService provideListeningUserExecutorService(@Named(PROPERTY_USER_THREADS) int count, // NO_UCD
+         Closer closer, VirtualThreads virtualThreads) {
       if (userExecutorFromConstructor != null)
          return userExecutorFromConstructor;
-      return shutdownOnClose(WithSubmissionTrace.wrap(newThreadPoolNamed("user thread %d", count)), closer);
+      Optional<ListeningExecutorService> virtual = virtualThreads.newExecutor("user virtual thread ", count);
+      return shutdownOnClose(WithSubmissionTrace.wrap(virtual.isPresent() ? virtual.get()
+            : newThreadPoolNamed("user thread %d", count)), closer);
    }
 
    @Provides
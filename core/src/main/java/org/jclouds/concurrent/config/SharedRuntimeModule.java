@@ -0,0 +1,109 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent.config;
+
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.concurrent.SharedRuntime;
+import org.jclouds.lifecycle.Closer;
+
+import com.google.common.annotations.Beta;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.common.util.concurrent.SimpleTimeLimiter;
+import com.google.common.util.concurrent.TimeLimiter;
+import com.google.inject.AbstractModule;
+import com.google.inject.Provides;
+
+/**
+ * Runs the context on the threads of a {@link SharedRuntime} instead of its own, in place of
+ * {@link ExecutorServiceModule} and {@link ScheduledExecutorServiceModule}.
+ * <p>
+ * {@code jclouds.user-threads} limits how many tasks of this context run on the shared user executor at a time.
+ * Closing the context releases it from the runtime.
+ */
+@Beta
+@ConfiguresExecutorService
+public class SharedRuntimeModule extends AbstractModule {
+
+   private final SharedRuntime runtime;
+
+   public SharedRuntimeModule(SharedRuntime runtime) {
+      this.runtime = runtime;
+   }
+
+   @Override
+   protected void configure() {
+      for (Map.Entry<Class<?>, Object> entry : runtime.getSharedInstances().entrySet())
+         bindShared(entry.getKey(), entry.getValue());
+   }
+
+   private <T> void bindShared(Class<T> type, Object instance) {
+      bind(type).toInstance(type.cast(instance));
+   }
+
+   @Provides
+   @Singleton
+   final SharedRuntime.Lease provideLease(@Named(PROPERTY_USER_THREADS) int count, Closer closer) {
+      SharedRuntime.Lease lease = runtime.acquire(count);
+      closer.addToClose(lease);
+      return lease;
+   }
+
+   @Provides
+   @Singleton
+   final TimeLimiter timeLimiter(@Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      return SimpleTimeLimiter.create(userExecutor);
+   }
+
+   @Provides
+   @Singleton
+   @Named(PROPERTY_USER_THREADS)
+   final ListeningExecutorService provideListeningUserExecutorService(SharedRuntime.Lease lease) {
+      return WithSubmissionTrace.wrap(lease.getUserExecutor());
+   }
+
+   @Provides
+   @Singleton
+   @Named(PROPERTY_USER_THREADS)
+   final ExecutorService provideUserExecutorService(@Named(PROPERTY_USER_THREADS) ListeningExecutorService in) {
+      return in;
+   }
+
+   @Provides
+   @Singleton
+   @Named(PROPERTY_SCHEDULER_THREADS)
+   final ListeningScheduledExecutorService provideListeningScheduledExecutorService(SharedRuntime.Lease lease) {
+      return WithSubmissionTrace.wrap(lease.getScheduler());
+   }
+
+   @Provides
+   @Singleton
+   @Named(PROPERTY_SCHEDULER_THREADS)
+   final ScheduledExecutorService provideScheduledExecutor(
+         @Named(PROPERTY_SCHEDULER_THREADS) ListeningScheduledExecutorService in) {
+      return in;
+   }
+}
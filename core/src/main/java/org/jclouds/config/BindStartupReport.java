@@ -0,0 +1,79 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.config;
+
+import static com.google.inject.matcher.Matchers.any;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import com.google.inject.AbstractModule;
+import com.google.inject.Binding;
+import com.google.inject.spi.ElementSource;
+import com.google.inject.spi.ProvisionListener;
+
+/**
+ * Binds the {@link StartupReport} of a context, and records in it how long instantiating each binding takes.
+ */
+public class BindStartupReport extends AbstractModule {
+
+   private final StartupReport report;
+
+   public BindStartupReport(StartupReport report) {
+      this.report = report;
+   }
+
+   @Override
+   protected void configure() {
+      bind(StartupReport.class).toInstance(report);
+      bindListener(any(), new ProvisionListener() {
+         // time spent on dependencies of each instance being provisioned on this thread
+         private final ThreadLocal<Deque<long[]>> dependencyNanos = new ThreadLocal<Deque<long[]>>() {
+            @Override
+            protected Deque<long[]> initialValue() {
+               return new ArrayDeque<long[]>();
+            }
+         };
+
+         @Override
+         public <T> void onProvision(ProvisionInvocation<T> provision) {
+            Deque<long[]> stack = dependencyNanos.get();
+            stack.push(new long[1]);
+            long start = System.nanoTime();
+            try {
+               provision.provision();
+            } finally {
+               long elapsed = System.nanoTime() - start;
+               long dependencies = stack.pop()[0];
+               if (!stack.isEmpty()) {
+                  stack.peek()[0] += elapsed;
+               }
+               report.recordInstantiation(module(provision.getBinding()), elapsed - dependencies);
+            }
+         }
+      });
+   }
+
+   private static String module(Binding<?> binding) {
+      Object source = binding.getSource();
+      if (source instanceof ElementSource && !((ElementSource) source).getModuleClassNames().isEmpty()) {
+         return ((ElementSource) source).getModuleClassNames().get(0);
+      }
+      // just-in-time bindings are not declared by any module
+      return "just-in-time";
+   }
+}
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.config;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.annotation.Resource;
+
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Functions;
+import com.google.common.base.Joiner;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Ordering;
+import com.google.inject.Stage;
+
+/**
+ * Time spent building a context: creating the injector, running {@link jakarta.annotation.PostConstruct} hooks, and,
+ * within those phases, instantiating what each module binds. Instantiation time is attributed to the module that
+ * declared the binding, excluding the time spent on its dependencies.
+ * <p/>
+ * Bound in the injector and logged at debug level when {@link org.jclouds.Constants#PROPERTY_STARTUP_REPORT} is set.
+ */
+@Beta
+public final class StartupReport {
+
+   @Resource
+   private Logger logger = Logger.NULL;
+
+   private final String name;
+   private final Stage stage;
+   private final ConcurrentMap<String, AtomicLong> nanosByModule = new ConcurrentHashMap<String, AtomicLong>();
+   private volatile boolean recording = true;
+   private volatile long injectorNanos;
+   private volatile long postConstructNanos;
+
+   public StartupReport(String name, Stage stage) {
+      this.name = checkNotNull(name, "name");
+      this.stage = checkNotNull(stage, "stage");
+   }
+
+   void recordInstantiation(String module, long nanos) {
+      if (!recording) {
+         return;
+      }
+      AtomicLong total = nanosByModule.get(module);
+      if (total == null) {
+         AtomicLong created = new AtomicLong();
+         total = nanosByModule.putIfAbsent(module, created);
+         if (total == null) {
+            total = created;
+         }
+      }
+      total.addAndGet(nanos);
+   }
+
+   public void injectorCreated(long nanos) {
+      injectorNanos = nanos;
+   }
+
+   /**
+    * ends the report; instances created later, for example lazily, are not accounted for.
+    */
+   public void postConstructExecuted(long nanos) {
+      postConstructNanos = nanos;
+      recording = false;
+      logger.debug("%s", this);
+   }
+
+   public Stage getStage() {
+      return stage;
+   }
+
+   public long getInjectorCreationMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(injectorNanos);
+   }
+
+   public long getPostConstructMillis() {
+      return TimeUnit.NANOSECONDS.toMillis(postConstructNanos);
+   }
+
+   /**
+    * instantiation time by module class name, slowest first.
+    */
+   public Map<String, Long> getInstantiationMillisByModule() {
+      Map<String, Long> millis = Maps.newHashMap();
+      for (Map.Entry<String, AtomicLong> entry : nanosByModule.entrySet()) {
+         millis.put(entry.getKey(), TimeUnit.NANOSECONDS.toMillis(entry.getValue().get()));
+      }
+      ImmutableMap.Builder<String, Long> sorted = ImmutableMap.builder();
+      for (String module : Ordering.natural().reverse().onResultOf(Functions.forMap(millis))
+            .compound(Ordering.natural()).sortedCopy(millis.keySet())) {
+         sorted.put(module, millis.get(module));
+      }
+      return sorted.build();
+   }
+
+   @Override
+   public String toString() {
+      return String.format("context %s started in %s stage: injector %sms, post-construct %sms, by module {%s}", name,
+            stage, getInjectorCreationMillis(), getPostConstructMillis(),
+            Joiner.on(", ").withKeyValueSeparator("=").join(getInstantiationMillisByModule()));
+   }
+}
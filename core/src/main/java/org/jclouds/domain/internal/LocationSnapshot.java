@@ -0,0 +1,92 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.domain.internal;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.base.Function;
+import com.google.common.collect.FluentIterable;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSet;
+
+/**
+ * The persisted form of a {@link Location}, as it has no concrete type json can be parsed into.
+ */
+public final class LocationSnapshot {
+
+   public static final Function<Set<? extends Location>, List<LocationSnapshot>> FROM_LOCATIONS = new Function<Set<? extends Location>, List<LocationSnapshot>>() {
+      @Override
+      public List<LocationSnapshot> apply(Set<? extends Location> locations) {
+         return FluentIterable.from(locations).transform(FROM_LOCATION).toList();
+      }
+   };
+
+   public static final Function<List<LocationSnapshot>, Set<? extends Location>> TO_LOCATIONS = new Function<List<LocationSnapshot>, Set<? extends Location>>() {
+      @Override
+      public Set<? extends Location> apply(List<LocationSnapshot> snapshots) {
+         ImmutableSet.Builder<Location> locations = ImmutableSet.builder();
+         for (LocationSnapshot snapshot : snapshots) {
+            locations.add(snapshot.toLocation());
+         }
+         return locations.build();
+      }
+   };
+
+   private static final Function<Location, LocationSnapshot> FROM_LOCATION = new Function<Location, LocationSnapshot>() {
+      @Override
+      public LocationSnapshot apply(Location location) {
+         return from(location);
+      }
+   };
+
+   private LocationScope scope;
+   private String id;
+   private String description;
+   private LocationSnapshot parent;
+   private Set<String> iso3166Codes;
+   private Map<String, Object> metadata;
+
+   // for deserialization
+   LocationSnapshot() {
+   }
+
+   public static LocationSnapshot from(@Nullable Location location) {
+      if (location == null) {
+         return null;
+      }
+      LocationSnapshot snapshot = new LocationSnapshot();
+      snapshot.scope = location.getScope();
+      snapshot.id = location.getId();
+      snapshot.description = location.getDescription();
+      snapshot.parent = from(location.getParent());
+      snapshot.iso3166Codes = location.getIso3166Codes();
+      snapshot.metadata = location.getMetadata();
+      return snapshot;
+   }
+
+   public Location toLocation() {
+      return new LocationImpl(scope, id, description, parent != null ? parent.toLocation() : null,
+            iso3166Codes != null ? iso3166Codes : ImmutableSet.<String> of(),
+            metadata != null ? metadata : ImmutableMap.<String, Object> of());
+   }
+}
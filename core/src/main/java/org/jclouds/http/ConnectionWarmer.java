@@ -0,0 +1,118 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.transform;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.http.HttpUtils.releasePayload;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.Callable;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.http.internal.BaseHttpCommandExecutorService;
+import org.jclouds.logging.Logger;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Function;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Opens keep-alive connections to a host ahead of use, so that a burst of requests does not start by paying for DNS
+ * lookups, connects and TLS handshakes. This is most useful for hosts other than the provider endpoint, such as
+ * the per-bucket hosts of virtual host style blob stores; the provider endpoint itself is warmed while the context is
+ * built when {@link org.jclouds.Constants#PROPERTY_WARM_CONNECTIONS} is set.
+ * <p/>
+ * Connections are opened with unauthenticated {@code HEAD} requests, whose responses are discarded whatever their
+ * status. How many of them remain open afterwards depends on the http driver and its connection limits.
+ */
+@Beta
+@Singleton
+public class ConnectionWarmer {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   private final HttpCommandExecutorService http;
+   private final ListeningExecutorService userExecutor;
+
+   @Inject
+   ConnectionWarmer(HttpCommandExecutorService http,
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+      this.http = checkNotNull(http, "http");
+      this.userExecutor = checkNotNull(userExecutor, "userExecutor");
+   }
+
+   /**
+    * opens up to {@code connections} connections to the host of {@code endpoint} concurrently.
+    *
+    * @return a future holding the number of requests that got a response
+    */
+   public ListenableFuture<Integer> warm(URI endpoint, int connections) {
+      checkNotNull(endpoint, "endpoint");
+      checkArgument(connections > 0, "connections must be positive");
+      final HttpRequest request = HttpRequest.builder().method("HEAD").endpoint(endpoint).build();
+      List<ListenableFuture<Boolean>> attempts = Lists.newArrayListWithCapacity(connections);
+      for (int i = 0; i < connections; i++) {
+         attempts.add(userExecutor.submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+               return open(request);
+            }
+         }));
+      }
+      return transform(allAsList(attempts), new Function<List<Boolean>, Integer>() {
+         @Override
+         public Integer apply(List<Boolean> opened) {
+            int count = 0;
+            for (Boolean ok : opened) {
+               if (ok)
+                  count++;
+            }
+            return count;
+         }
+      }, directExecutor());
+   }
+
+   private boolean open(HttpRequest request) {
+      try {
+         if (http instanceof BaseHttpCommandExecutorService) {
+            ((BaseHttpCommandExecutorService<?>) http).warm(request);
+         } else {
+            releasePayload(http.invoke(new HttpCommand(request)));
+         }
+         return true;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         return false;
+      } catch (Exception e) {
+         logger.debug("could not warm a connection to %s: %s", request.getEndpoint().getHost(), e.getMessage());
+         return false;
+      }
+   }
+}
@@ -20,8 +20,6 @@ import static com.google.common.base.Preconditions.checkNotNull;
 
 import java.util.Map;
 
-import com.google.common.collect.Lists;
-
 public class UriTemplates {
 
    /**
@@ -43,46 +41,25 @@ public class UriTemplates {
          return template;
       }
 
-      boolean inVar = false;
-      StringBuilder var = new StringBuilder();
-      StringBuilder builder = new StringBuilder();
-      for (char c : Lists.charactersOf(template)) {
-         switch (c) {
-         case '{':
-            if (inVar) {
-                builder.append('{');
-                builder.append(var);
-                var.setLength(0);
-            }
-            inVar = true;
-            break;
-         case '}':
-            String key = var.toString();
-            Object value = variables.get(var.toString());
-            if (inVar) {
-               if (value != null)
-                  builder.append(value);
-               else
-                  builder.append('{').append(key).append('}');
-            } else {
-               builder.append('}');
-            }
-            var.setLength(0);
-            inVar = false;
-            break;
-         default:
-            if (inVar)
-               var.append(c);
-            else
-               builder.append(c);
-         }
-      }
-
-      // if variables provided but, curve bracket is not closed - append remaining to the result
-      if (inVar) {
-         builder.append('{').append(var);
+      StringBuilder builder = null;
+      int literalStart = 0;
+      int close;
+      for (int open = template.indexOf('{'); open != -1; open = template.indexOf('{', close + 1)) {
+         close = template.indexOf('}', open + 1);
+         if (close == -1)
+            break; // an unclosed curve bracket stays literal
+         // the variable starts after the last curve bracket opened before it closes, ex. {a{b}
+         open = template.lastIndexOf('{', close);
+         Object value = variables.get(template.substring(open + 1, close));
+         if (value == null)
+            continue; // unresolved variables stay literal
+         if (builder == null)
+            builder = new StringBuilder(template.length() + 16);
+         builder.append(template, literalStart, open).append(value);
+         literalStart = close + 1;
       }
-
-      return builder.toString();
+      if (builder == null)
+         return template;
+      return builder.append(template, literalStart, template.length()).toString();
    }
 }
@@ -0,0 +1,65 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.config;
+
+import static org.jclouds.Constants.PROPERTY_WARM_CONNECTIONS;
+
+import java.net.URI;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jclouds.http.ConnectionWarmer;
+import org.jclouds.location.Provider;
+
+import com.google.common.base.Supplier;
+import com.google.inject.AbstractModule;
+
+/**
+ * Opens {@link org.jclouds.Constants#PROPERTY_WARM_CONNECTIONS} connections to the provider endpoint once the
+ * context is built. The connections are opened in the background, so building the context does not wait for them.
+ */
+public class WarmConnectionsModule extends AbstractModule {
+
+   @Override
+   protected void configure() {
+      bind(WarmProviderEndpoint.class).asEagerSingleton();
+   }
+
+   public static final class WarmProviderEndpoint {
+      private final ConnectionWarmer warmer;
+      private final Supplier<URI> endpoint;
+      private final int connections;
+
+      @Inject
+      WarmProviderEndpoint(ConnectionWarmer warmer, @Provider Supplier<URI> endpoint,
+            @Named(PROPERTY_WARM_CONNECTIONS) int connections) {
+         this.warmer = warmer;
+         this.endpoint = endpoint;
+         this.connections = connections;
+      }
+
+      @PostConstruct
+      public void warm() {
+         URI uri = endpoint.get();
+         // apis such as the filesystem blob store have no http endpoint
+         if (connections > 0 && uri != null && uri.getScheme() != null && uri.getScheme().startsWith("http"))
+            warmer.warm(uri, connections);
+      }
+   }
+}
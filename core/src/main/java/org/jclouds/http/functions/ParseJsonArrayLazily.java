@@ -0,0 +1,219 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.json.internal.GsonWrapper;
+import org.jclouds.util.Closeables2;
+
+import com.google.common.base.Function;
+import com.google.common.collect.AbstractIterator;
+import com.google.common.collect.ImmutableSet;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.TypeAdapter;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.inject.TypeLiteral;
+
+/**
+ * Parses the elements of a json array one at a time, as the caller advances the returned iterator, instead of
+ * materializing the whole array into a collection. Use this for listings that can be very large, such as thousands
+ * of ports or servers, where only one element needs to be on the heap at a time.
+ * <p/>
+ * The array is located as in {@link ParseFirstJsonValueNamed}: the value of the first of the {@code nameChoices}
+ * found in the document. Without names, the document itself must be the array, or an object whose first value is,
+ * as in {@link UnwrapOnlyJsonValue}. A missing or null array yields no elements.
+ * <p/>
+ * The returned iterator also implements {@link Closeable}. The payload is released once the iterator is exhausted
+ * or fails; callers that stop early should close it.
+ */
+public class ParseJsonArrayLazily<T> implements Function<HttpResponse, Iterator<T>> {
+
+   private final GsonWrapper json;
+   private final TypeLiteral<T> elementType;
+   private final ImmutableSet<String> nameChoices;
+   private final ImmutableSet<String> fields;
+
+   /**
+    * @param nameChoices
+    *           tried in order, first match wins
+    */
+   public ParseJsonArrayLazily(GsonWrapper json, TypeLiteral<T> elementType, String... nameChoices) {
+      this(json, elementType, ImmutableSet.copyOf(checkNotNull(nameChoices, "nameChoices")),
+            ImmutableSet.<String> of());
+   }
+
+   private ParseJsonArrayLazily(GsonWrapper json, TypeLiteral<T> elementType, ImmutableSet<String> nameChoices,
+         ImmutableSet<String> fields) {
+      this.json = checkNotNull(json, "json");
+      this.elementType = checkNotNull(elementType, "elementType");
+      this.nameChoices = nameChoices;
+      this.fields = fields;
+   }
+
+   /**
+    * returns a parser that only reads the given top-level fields of each element, skipping the others without
+    * building them. Elements that are not json objects are parsed in full.
+    */
+   public ParseJsonArrayLazily<T> selectFields(String... fields) {
+      return new ParseJsonArrayLazily<T>(json, elementType, nameChoices,
+            ImmutableSet.copyOf(checkNotNull(fields, "fields")));
+   }
+
+   @Override
+   public Iterator<T> apply(HttpResponse from) {
+      if (from.getPayload() == null)
+         return new ElementIterator(from, null);
+      JsonReader reader = null;
+      try {
+         reader = new JsonReader(new InputStreamReader(from.getPayload().openStream(), StandardCharsets.UTF_8));
+         // in case keys are not in quotes
+         reader.setLenient(true);
+         if (!nameChoices.isEmpty() ? advanceToName(reader) : advanceToFirstValue(reader)) {
+            if (reader.peek() == JsonToken.BEGIN_ARRAY) {
+               reader.beginArray();
+               return new ElementIterator(from, reader);
+            } else if (reader.peek() != JsonToken.NULL) {
+               throw new IllegalStateException("expected a json array, but found " + reader.peek() + " at "
+                     + reader.getPath());
+            }
+         }
+         Closeables2.closeQuietly(reader);
+         from.getPayload().release();
+         return new ElementIterator(from, null);
+      } catch (IOException e) {
+         Closeables2.closeQuietly(reader);
+         from.getPayload().release();
+         throw new RuntimeException(String.format(
+               "error reading from stream, parsing array named %s from http response %s", nameChoices, from), e);
+      } catch (RuntimeException e) {
+         Closeables2.closeQuietly(reader);
+         from.getPayload().release();
+         throw e;
+      }
+   }
+
+   /**
+    * walks the document until the first name in {@link #nameChoices}, leaving the reader at its value.
+    */
+   private boolean advanceToName(JsonReader reader) throws IOException {
+      for (JsonToken token = reader.peek(); token != JsonToken.END_DOCUMENT; token = reader.peek()) {
+         switch (token) {
+         case BEGIN_ARRAY:
+            reader.beginArray();
+            break;
+         case END_ARRAY:
+            reader.endArray();
+            break;
+         case BEGIN_OBJECT:
+            reader.beginObject();
+            break;
+         case END_OBJECT:
+            reader.endObject();
+            break;
+         case NAME:
+            if (nameChoices.contains(reader.nextName()))
+               return true;
+            break;
+         default:
+            reader.skipValue();
+         }
+      }
+      return false;
+   }
+
+   private static boolean advanceToFirstValue(JsonReader reader) throws IOException {
+      if (reader.peek() == JsonToken.BEGIN_OBJECT) {
+         reader.beginObject();
+         if (!reader.hasNext())
+            return false;
+         reader.nextName();
+      }
+      return true;
+   }
+
+   private final class ElementIterator extends AbstractIterator<T> implements Closeable {
+      private final HttpResponse from;
+      private final JsonReader reader;
+      private final TypeAdapter<T> adapter;
+      private final TypeAdapter<JsonElement> elementAdapter;
+      private boolean closed;
+
+      @SuppressWarnings("unchecked")
+      private ElementIterator(HttpResponse from, JsonReader reader) {
+         this.from = from;
+         this.reader = reader;
+         this.adapter = json.delegate().getAdapter((TypeToken<T>) TypeToken.get(elementType.getType())).nullSafe();
+         this.elementAdapter = json.delegate().getAdapter(JsonElement.class);
+      }
+
+      @Override
+      protected T computeNext() {
+         if (reader == null)
+            return endOfData();
+         try {
+            if (!reader.hasNext()) {
+               close();
+               return endOfData();
+            }
+            if (fields.isEmpty() || reader.peek() != JsonToken.BEGIN_OBJECT)
+               return adapter.read(reader);
+            return adapter.fromJsonTree(readSelectedFields());
+         } catch (IOException e) {
+            close();
+            throw new RuntimeException(String.format(
+                  "error reading from stream, parsing array named %s from http response %s", nameChoices, from), e);
+         } catch (RuntimeException e) {
+            close();
+            throw e;
+         }
+      }
+
+      private JsonObject readSelectedFields() throws IOException {
+         JsonObject selected = new JsonObject();
+         reader.beginObject();
+         while (reader.hasNext()) {
+            String name = reader.nextName();
+            if (fields.contains(name))
+               selected.add(name, elementAdapter.read(reader));
+            else
+               reader.skipValue();
+         }
+         reader.endObject();
+         return selected;
+      }
+
+      @Override
+      public void close() {
+         if (reader != null && !closed) {
+            closed = true;
+            Closeables2.closeQuietly(reader);
+            from.getPayload().release();
+         }
+      }
+   }
+}
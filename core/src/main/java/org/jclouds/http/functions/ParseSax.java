@@ -27,12 +27,9 @@ import java.io.InputStream;
 import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 
-import jakarta.annotation.Resource;
-
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.javax.annotation.Nullable;
-import org.jclouds.logging.Logger;
 import org.jclouds.rest.InvocationContext;
 import org.jclouds.rest.internal.GeneratedHttpRequest;
 import org.xml.sax.InputSource;
@@ -51,9 +48,6 @@ import org.jclouds.util.Closeables2;
  */
 public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext<ParseSax<T>> {
 
-   @Resource
-   private Logger logger = Logger.NULL;
-
    private final XMLReader parser;
    private final HandlerWithResult<T> handler;
    private HttpRequest request;
@@ -76,9 +70,9 @@ public class ParseSax<T> implements Function<HttpResponse, T>, InvocationContext
       }
       InputStream is = null;
       try {
-         // debug is more normally set, so trace is more appropriate for
-         // something heavy like this
-         if (from.getStatusCode() >= 300 || logger.isTraceEnabled())
+         // error bodies are small and worth quoting in the exception; others are streamed, as the wire log
+         // already shows them when needed
+         if (from.getStatusCode() >= 300)
             return convertStreamToStringAndParse(from);
          is = from.getPayload().getInput();
          return parse(new InputSource(is));
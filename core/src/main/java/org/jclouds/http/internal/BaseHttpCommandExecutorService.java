@@ -129,6 +129,26 @@ public abstract class BaseHttpCommandExecutorService<Q> implements HttpCommandEx
       return response;
    }
 
+   /**
+    * Sends the request once, without filters, retries or error handling, and releases the response so that the
+    * connection stays open for reuse by later requests to the same host.
+    *
+    * @return the status code of the response
+    */
+   public int warm(HttpRequest request) throws IOException, InterruptedException {
+      Q nativeRequest = convert(request);
+      HttpResponse response = null;
+      try {
+         response = invoke(nativeRequest);
+      } finally {
+         // as in invoke(HttpCommand), the response owns the connection once received
+         if (response == null)
+            cleanup(nativeRequest);
+      }
+      releasePayload(response);
+      return response.getStatusCode();
+   }
+
    @VisibleForTesting
    boolean shouldContinue(HttpCommand command, HttpResponse response) {
       boolean shouldContinue = false;
@@ -36,6 +36,11 @@ public class HttpWire extends Wire {
    @Named(Constants.PROPERTY_LOGGER_WIRE_LOG_SENSITIVE_INFO)
    boolean logSensitiveInformation = false;
 
+   @VisibleForTesting
+   @Inject(optional = true)
+   @Named(Constants.PROPERTY_LOGGER_WIRE_LOG_MAX_BYTES)
+   int maxLoggedBytes = 0;
+
    public Logger getWireLog() {
       return wireLog;
    }
@@ -44,4 +49,9 @@ public class HttpWire extends Wire {
    protected boolean isLogSensitiveInformation() {
       return logSensitiveInformation;
    }
+
+   @Override
+   protected int getMaxLoggedBytes() {
+      return maxLoggedBytes;
+   }
 }
@@ -44,6 +44,7 @@ import jakarta.inject.Singleton;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.HttpsURLConnection;
 import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocketFactory;
 
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
@@ -72,6 +73,9 @@ public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorSe
    protected Supplier<SSLContext> sslContextSupplier;
    protected final int outputSocketBufferSize;
    protected final String userAgent;
+   // HttpURLConnection only reuses keep-alive connections opened with the same socket factory instance, and
+   // SSLContext.getSocketFactory() returns a new one on each call
+   private volatile SocketFactoryOfContext lastSocketFactory;
 
    @Inject
    public JavaUrlHttpCommandExecutorService(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
@@ -207,14 +211,37 @@ public class JavaUrlHttpCommandExecutorService extends BaseHttpCommandExecutorSe
          if (sslContextSupplier != null) {
              // used for providers which e.g. use certs for authentication (like FGCP)
              // Provider provides SSLContext impl (which inits context with key manager)
-             sslCon.setSSLSocketFactory(sslContextSupplier.get().getSocketFactory());
+             sslCon.setSSLSocketFactory(socketFactory(sslContextSupplier.get()));
          } else if (utils.trustAllCerts()) {
-             sslCon.setSSLSocketFactory(untrustedSSLContextProvider.get().getSocketFactory());
+             sslCon.setSSLSocketFactory(socketFactory(untrustedSSLContextProvider.get()));
          }
       }
       return connection;
    }
 
+   /**
+    * Returns the same socket factory for as long as the supplier returns the same context, so that connections and
+    * TLS sessions are reused across requests.
+    */
+   private SSLSocketFactory socketFactory(SSLContext context) {
+      SocketFactoryOfContext last = lastSocketFactory;
+      if (last == null || last.context != context) {
+         last = new SocketFactoryOfContext(context);
+         lastSocketFactory = last;
+      }
+      return last.factory;
+   }
+
+   private static final class SocketFactoryOfContext {
+      private final SSLContext context;
+      private final SSLSocketFactory factory;
+
+      private SocketFactoryOfContext(SSLContext context) {
+         this.context = context;
+         this.factory = context.getSocketFactory();
+      }
+   }
+
    /**
     * Configure the HTTP request headers in the connection.
     */
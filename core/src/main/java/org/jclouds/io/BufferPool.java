@@ -0,0 +1,191 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.util.Deque;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+
+/**
+ * Recycles the byte arrays that back large, short lived payloads such as multipart upload parts, so that a steady
+ * stream of parts does not allocate a new array for each of them.
+ * <p/>
+ * Arrays are handed out in size classes: four evenly spaced sizes between consecutive powers of two, so that a
+ * buffer is at most a quarter larger than requested. Returned arrays are kept until the pool holds
+ * {@code maxRetainedBytes}; beyond that, and for requests larger than {@link #MAX_POOLED_SIZE}, arrays are left to
+ * the garbage collector. Arrays not reused for {@link #DEFAULT_MAX_IDLE_SECONDS} are dropped on the next acquire or
+ * release, so that a burst of uploads does not pin memory for the life of the context.
+ */
+@Beta
+@Singleton
+public final class BufferPool {
+
+   /**
+    * the smallest buffer handed out.
+    */
+   public static final int MIN_POOLED_SIZE = 4096;
+
+   /**
+    * larger buffers are allocated with the exact size requested and never retained.
+    */
+   public static final int MAX_POOLED_SIZE = 1 << 30;
+
+   /**
+    * bytes retained by the pool each context gets, enough for a few multipart upload parts.
+    */
+   public static final long DEFAULT_MAX_RETAINED_BYTES = 64L << 20;
+
+   /**
+    * how long a returned array is kept without being reused.
+    */
+   public static final long DEFAULT_MAX_IDLE_SECONDS = 60;
+
+   private static final long TRIM_INTERVAL_NANOS = SECONDS.toNanos(1);
+
+   private final long maxRetainedBytes;
+   private final long maxIdleNanos;
+   private final Ticker ticker;
+   private final AtomicLong retainedBytes = new AtomicLong();
+   private final AtomicLong lastTrimNanos;
+   private final ConcurrentMap<Integer, Deque<Released>> free = new ConcurrentHashMap<Integer, Deque<Released>>();
+
+   /**
+    * creates a pool that retains up to {@link #DEFAULT_MAX_RETAINED_BYTES}.
+    */
+   @Inject
+   public BufferPool() {
+      this(DEFAULT_MAX_RETAINED_BYTES);
+   }
+
+   /**
+    * @param maxRetainedBytes
+    *           the most bytes kept in the pool while not in use; {@code 0} disables reuse
+    */
+   public BufferPool(long maxRetainedBytes) {
+      this(maxRetainedBytes, SECONDS.toNanos(DEFAULT_MAX_IDLE_SECONDS), Ticker.systemTicker());
+   }
+
+   @VisibleForTesting
+   BufferPool(long maxRetainedBytes, long maxIdleNanos, Ticker ticker) {
+      checkArgument(maxRetainedBytes >= 0, "maxRetainedBytes must be non-negative but was: %s", maxRetainedBytes);
+      checkArgument(maxIdleNanos >= 0, "maxIdleNanos must be non-negative but was: %s", maxIdleNanos);
+      this.maxRetainedBytes = maxRetainedBytes;
+      this.maxIdleNanos = maxIdleNanos;
+      this.ticker = checkNotNull(ticker, "ticker");
+      this.lastTrimNanos = new AtomicLong(ticker.read());
+   }
+
+   /**
+    * returns an array of at least {@code size} bytes. Its contents are undefined.
+    */
+   public byte[] acquire(int size) {
+      checkArgument(size >= 0, "size must be non-negative but was: %s", size);
+      if (size > MAX_POOLED_SIZE)
+         return new byte[size];
+      trimIdle();
+      int sizeClass = sizeClass(size);
+      Deque<Released> buffers = free.get(sizeClass);
+      // the most recently released array is the one most likely still in cache
+      Released released = buffers != null ? buffers.pollFirst() : null;
+      if (released == null)
+         return new byte[sizeClass];
+      retainedBytes.addAndGet(-released.buffer.length);
+      return released.buffer;
+   }
+
+   /**
+    * hands {@code buffer} back to the pool. The caller must not use it afterwards.
+    */
+   public void release(byte[] buffer) {
+      checkNotNull(buffer, "buffer");
+      int length = buffer.length;
+      if (length > MAX_POOLED_SIZE || sizeClass(length) != length)
+         return;
+      long retained;
+      do {
+         retained = retainedBytes.get();
+         if (retained + length > maxRetainedBytes)
+            return;
+      } while (!retainedBytes.compareAndSet(retained, retained + length));
+      Deque<Released> buffers = free.get(length);
+      if (buffers == null) {
+         Deque<Released> created = new ConcurrentLinkedDeque<Released>();
+         buffers = free.putIfAbsent(length, created);
+         if (buffers == null)
+            buffers = created;
+      }
+      buffers.offerFirst(new Released(buffer, ticker.read()));
+      trimIdle();
+   }
+
+   /**
+    * returns the bytes currently held for reuse.
+    */
+   public long retainedBytes() {
+      return retainedBytes.get();
+   }
+
+   /**
+    * drops arrays released more than {@code maxIdleNanos} ago. Reuse takes the most recently released arrays, so
+    * idle ones are found at the tail of each size class.
+    */
+   private void trimIdle() {
+      long now = ticker.read();
+      long lastTrim = lastTrimNanos.get();
+      if (now - lastTrim < TRIM_INTERVAL_NANOS || !lastTrimNanos.compareAndSet(lastTrim, now))
+         return;
+      for (Deque<Released> buffers : free.values()) {
+         Released oldest;
+         while ((oldest = buffers.peekLast()) != null && now - oldest.releasedNanos > maxIdleNanos) {
+            if (buffers.removeLastOccurrence(oldest))
+               retainedBytes.addAndGet(-oldest.buffer.length);
+         }
+      }
+   }
+
+   private static final class Released {
+      private final byte[] buffer;
+      private final long releasedNanos;
+
+      Released(byte[] buffer, long releasedNanos) {
+         this.buffer = buffer;
+         this.releasedNanos = releasedNanos;
+      }
+   }
+
+   @VisibleForTesting
+   static int sizeClass(int size) {
+      if (size <= MIN_POOLED_SIZE)
+         return MIN_POOLED_SIZE;
+      int step = Integer.highestOneBit(size - 1) >> 2;
+      return (size + step - 1) / step * step;
+   }
+}
@@ -22,18 +22,20 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 
+import org.jclouds.io.BufferPool;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.Payload;
 import org.jclouds.io.Payloads;
 import org.jclouds.io.PayloadSlicer;
 import org.jclouds.io.payloads.BaseMutableContentMetadata;
 import org.jclouds.io.payloads.ByteSourcePayload;
+import org.jclouds.io.payloads.PooledPayload;
 
 import com.google.common.base.Charsets;
 import com.google.common.base.Throwables;
@@ -45,30 +47,48 @@ import com.google.common.io.Files;
 @Singleton
 public class BasePayloadSlicer implements PayloadSlicer {
 
+   private final BufferPool bufferPool;
+
+   /**
+    * creates a slicer that does not reuse the buffers of parts read from streams.
+    */
+   public BasePayloadSlicer() {
+      this(new BufferPool(0));
+   }
+
+   @Inject
+   public BasePayloadSlicer(BufferPool bufferPool) {
+      this.bufferPool = checkNotNull(bufferPool, "bufferPool");
+   }
+
    private static final class InputStreamPayloadIterable implements Iterable<Payload> {
       private final InputStream input;
       private final ContentMetadata metaData;
+      private final BufferPool bufferPool;
 
-      InputStreamPayloadIterable(InputStream input, ContentMetadata metaData) {
+      InputStreamPayloadIterable(InputStream input, ContentMetadata metaData, BufferPool bufferPool) {
          this.input = checkNotNull(input, "input");
          this.metaData = checkNotNull(metaData, "metaData");
+         this.bufferPool = checkNotNull(bufferPool, "bufferPool");
       }
 
       @Override
       public Iterator<Payload> iterator() {
-         return new InputStreamPayloadIterator(input, metaData);
+         return new InputStreamPayloadIterator(input, metaData, bufferPool);
       }
    }
 
    private static final class InputStreamPayloadIterator implements Iterator<Payload> {
       private final InputStream input;
       private final ContentMetadata metaData;
+      private final BufferPool bufferPool;
       private Payload nextPayload;
       private final int readLen;
 
-      InputStreamPayloadIterator(InputStream input, ContentMetadata metaData) {
+      InputStreamPayloadIterator(InputStream input, ContentMetadata metaData, BufferPool bufferPool) {
          this.input = checkNotNull(input, "input");
          this.metaData = checkNotNull(metaData, "metaData");
+         this.bufferPool = bufferPool;
          this.readLen = checkNotNull(this.metaData.getContentLength(), "content-length").intValue();
 
          this.nextPayload = getNextPayload();
@@ -97,38 +117,34 @@ public class BasePayloadSlicer implements PayloadSlicer {
          throw new UnsupportedOperationException("Payload iterator does not support removal");
       }
 
+      /**
+       * reads the next part into a pooled buffer. Releasing the returned payload once it has been sent lets the
+       * next part reuse its buffer.
+       */
       private Payload getNextPayload() {
-         byte[] content = new byte[readLen];
+         byte[] content = bufferPool.acquire(readLen);
          int offset = 0;
 
          try {
-            while (true) {
+            while (offset < readLen) {
                int read = input.read(content, offset, readLen - offset);
                if (read <= 0) {
-                  if (offset == 0) {
-                     return null;
-                  } else {
-                     break;
-                  }
+                  break;
                }
                offset += read;
             }
          } catch (IOException e) {
+            bufferPool.release(content);
             throw Throwables.propagate(e);
          }
 
-         return createPayload((content.length == offset) ? content : Arrays.copyOf(content, offset));
-      }
-
-      private Payload createPayload(byte[] content) {
-         Payload payload = null;
-
-         if (content.length > 0) {
-            payload = Payloads.newByteArrayPayload(content);
-            ContentMetadata cm = metaData.toBuilder().contentLength((long)content.length).contentMD5((HashCode) null).build();
-            payload.setContentMetadata(BaseMutableContentMetadata.fromContentMetadata(cm));
+         if (offset == 0) {
+            bufferPool.release(content);
+            return null;
          }
-
+         Payload payload = new PooledPayload(bufferPool, content, offset);
+         ContentMetadata cm = metaData.toBuilder().contentLength((long) offset).contentMD5((HashCode) null).build();
+         payload.setContentMetadata(BaseMutableContentMetadata.fromContentMetadata(cm));
          return payload;
       }
 
@@ -316,7 +332,7 @@ public class BasePayloadSlicer implements PayloadSlicer {
    }
 
    protected Iterable<Payload> doSlice(InputStream rawContent, ContentMetadata meta) {
-      return new InputStreamPayloadIterable(rawContent, meta);
+      return new InputStreamPayloadIterable(rawContent, meta, bufferPool);
    }
 
    protected Iterable<Payload> doSlice(ByteSource rawContent, ContentMetadata meta) {
@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io.payloads;
+
+import static com.google.common.base.Preconditions.checkArgument;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static com.google.common.base.Preconditions.checkState;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.io.BufferPool;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.io.ByteSource;
+
+/**
+ * A payload over the first {@code length} bytes of an array borrowed from a {@link BufferPool}. The array goes back
+ * to the pool once every holder has called {@link #release()}: the creator holds one reference, and each
+ * {@link #retain()} or open stream adds another. Reading the payload after that fails with
+ * {@link IllegalStateException}, including through slices of its {@link #getRawContent() raw content}.
+ */
+@Beta
+public class PooledPayload extends BasePayload<ByteSource> {
+
+   private final BufferPool pool;
+   private final byte[] buffer;
+   private final AtomicInteger references = new AtomicInteger(1);
+
+   public PooledPayload(BufferPool pool, byte[] buffer, int length) {
+      super(new Content(buffer, length));
+      this.pool = checkNotNull(pool, "pool");
+      this.buffer = buffer;
+      ((Content) content).owner = this;
+      getContentMetadata().setContentLength((long) length);
+   }
+
+   /**
+    * adds a reference, which the caller must balance with a call to {@link #release()}.
+    */
+   public PooledPayload retain() {
+      int count;
+      do {
+         count = references.get();
+         checkState(count > 0, "payload was already released");
+      } while (!references.compareAndSet(count, count + 1));
+      return this;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public InputStream openStream() throws IOException {
+      return content.openStream();
+   }
+
+   /**
+    * drops a reference, returning the buffer to the pool when it was the last one. Calls after that are ignored.
+    */
+   @Override
+   public void release() {
+      for (int count = references.get(); count > 0; count = references.get()) {
+         if (references.compareAndSet(count, count - 1)) {
+            if (count == 1)
+               pool.release(buffer);
+            return;
+         }
+      }
+   }
+
+   private static final class Content extends ByteSource {
+      private final byte[] buffer;
+      private final int length;
+      private PooledPayload owner;
+
+      private Content(byte[] buffer, int length) {
+         this.buffer = checkNotNull(buffer, "buffer");
+         checkArgument(length >= 0 && length <= buffer.length, "length %s out of bounds for buffer of %s bytes",
+               length, buffer.length);
+         this.length = length;
+      }
+
+      /**
+       * the stream holds its own reference until closed, as the payload may be released while it is being sent.
+       */
+      @Override
+      public InputStream openStream() {
+         owner.retain();
+         return new ByteArrayInputStream(buffer, 0, length) {
+            private boolean closed;
+
+            @Override
+            public void close() {
+               if (!closed) {
+                  closed = true;
+                  owner.release();
+               }
+            }
+         };
+      }
+
+      @Override
+      public Optional<Long> sizeIfKnown() {
+         return Optional.of((long) length);
+      }
+
+      @Override
+      public long size() {
+         return length;
+      }
+   }
+}
@@ -20,6 +20,7 @@ import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.Constants.PROPERTY_SESSION_INTERVAL;
 
 import java.net.URI;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
@@ -30,6 +31,7 @@ import jakarta.inject.Singleton;
 
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
+import org.jclouds.domain.internal.LocationSnapshot;
 import org.jclouds.location.Iso3166;
 import org.jclouds.location.Provider;
 import org.jclouds.location.Region;
@@ -50,6 +52,7 @@ import org.jclouds.reflect.InvocationSuccess;
 import org.jclouds.rest.AuthorizationException;
 import org.jclouds.rest.functions.ImplicitOptionalConverter;
 import org.jclouds.rest.suppliers.MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier;
+import org.jclouds.rest.suppliers.SnapshotStore;
 
 import com.google.common.base.Function;
 import com.google.common.base.Optional;
@@ -57,6 +60,7 @@ import com.google.common.base.Predicate;
 import com.google.common.base.Supplier;
 import com.google.common.base.Suppliers;
 import com.google.common.collect.Sets;
+import com.google.common.reflect.TypeToken;
 import com.google.inject.AbstractModule;
 import com.google.inject.Provides;
 import com.google.inject.TypeLiteral;
@@ -105,8 +109,14 @@ public class LocationModule extends AbstractModule {
    @Memoized
    protected final Supplier<Set<? extends Location>> memoizedLocationsSupplier(
             AtomicReference<AuthorizationException> authException, @Named(PROPERTY_SESSION_INTERVAL) long seconds,
-            LocationsSupplier uncached) {
-      return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException, uncached, seconds,
+            LocationsSupplier uncached, SnapshotStore snapshots) {
+      Supplier<Set<? extends Location>> locations = uncached;
+      if (snapshots.isEnabled()) {
+         locations = snapshots.warmStart("locations", authException, locations,
+               new TypeToken<List<LocationSnapshot>>() {
+               }.getType(), LocationSnapshot.FROM_LOCATIONS, LocationSnapshot.TO_LOCATIONS);
+      }
+      return MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier.create(authException, locations, seconds,
                TimeUnit.SECONDS);
    }
 
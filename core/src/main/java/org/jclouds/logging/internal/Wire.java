@@ -16,8 +16,6 @@
  */
 package org.jclouds.logging.internal;
 
-import com.google.common.io.ByteStreams;
-import com.google.common.io.FileBackedOutputStream;
 import org.jclouds.Constants;
 import org.jclouds.io.MutableContentMetadata;
 import org.jclouds.io.Payload;
@@ -51,35 +49,25 @@ public abstract class Wire {
       return false;
    }
 
-   private void wire(String header, InputStream instream) {
-      StringBuilder buffer = new StringBuilder();
-      int ch;
+   /**
+    * @see Constants#PROPERTY_LOGGER_WIRE_LOG_MAX_BYTES
+    */
+   protected int getMaxLoggedBytes() {
+      return 0;
+   }
+
+   /**
+    * Logs the head and tail of {@code instream}, like {@link #copy} does. When {@code length} is known, the bytes
+    * that would not be logged are skipped rather than read.
+    */
+   private void wire(String header, InputStream instream, long length) {
+      WireTap tap = new WireTap(header, instream, getMaxLoggedBytes());
       try {
-         while ((ch = instream.read()) != -1) {
-            if (ch == 13) {
-               buffer.append("[\\r]");
-            } else if (ch == 10) {
-               buffer.append("[\\n]\"");
-               buffer.insert(0, "\"");
-               buffer.insert(0, header);
-               getWireLog().debug(buffer.toString());
-               buffer.setLength(0);
-            } else if ((ch < 32) || (ch > 127)) {
-               buffer.append("[0x");
-               buffer.append(Integer.toHexString(ch));
-               buffer.append("]");
-            } else {
-               buffer.append((char) ch);
-            }
-         }
-         if (buffer.length() > 0) {
-            buffer.append('\"');
-            buffer.insert(0, '\"');
-            buffer.insert(0, header);
-            getWireLog().debug(buffer.toString());
-         }
+         tap.drain(length);
       } catch (IOException e) {
          logger.error(e, "Error tapping line");
+      } finally {
+         tap.finish();
       }
    }
 
@@ -87,33 +75,13 @@ public abstract class Wire {
       return getWireLog().isDebugEnabled();
    }
 
+   /**
+    * Returns a stream that logs the bytes of {@code instream} as they are read, instead of reading it ahead. Once
+    * more than half of {@link #getMaxLoggedBytes} were read, only the last half is kept, to be logged when the
+    * stream ends or is closed.
+    */
    public InputStream copy(final String header, InputStream instream) {
-      int limit = 256 * 1024;
-      final FileBackedOutputStream out = new FileBackedOutputStream(limit);
-      try {
-         long bytesRead = ByteStreams.copy(instream, out);
-         if (bytesRead >= limit)
-            logger.debug("over limit %d/%d: wrote temp file", bytesRead, limit);
-         InputStream is = out.asByteSource().openStream();
-         try {
-            wire(header, is);
-         } finally {
-            is.close();
-         }
-         // we must call FileBackedOutputStream.reset to remove temporary file
-         return new FilterInputStream(out.asByteSource().openStream()) {
-            @Override
-            public void close() throws IOException {
-               super.close();
-               out.reset();
-            }
-         };
-      } catch (IOException e) {
-         throw new RuntimeException("Error tapping line", e);
-      } finally {
-         closeQuietly(out);
-         closeQuietly(instream);
-      }
+      return new WireTap(header, checkNotNull(instream, "instream"), getMaxLoggedBytes());
    }
 
    public InputStream input(InputStream instream) {
@@ -192,7 +160,7 @@ public abstract class Wire {
       InputStream in = null;
       try {
          in = new FileInputStream(out);
-         wire(">> ", in);
+         wire(">> ", in, out.length());
       } catch (FileNotFoundException e) {
          logger.error(e, "Error tapping file: %s", out);
       } finally {
@@ -201,11 +169,169 @@ public abstract class Wire {
    }
 
    private void output(byte[] b) {
-      wire(">> ", new ByteArrayInputStream(checkNotNull(b, "output")));
+      wire(">> ", new ByteArrayInputStream(checkNotNull(b, "output")), b.length);
    }
 
    private void output(final String s) {
       output(checkNotNull(s, "output").getBytes());
    }
 
+   /**
+    * Writes a line to the wire log per line of the message, escaping control and non-ascii characters.
+    */
+   private final class WireLine {
+      private final String header;
+      private final StringBuilder buffer = new StringBuilder();
+
+      private WireLine(String header) {
+         this.header = header;
+      }
+
+      void append(int ch) {
+         if (ch == 13) {
+            buffer.append("[\\r]");
+         } else if (ch == 10) {
+            buffer.append("[\\n]\"");
+            buffer.insert(0, "\"");
+            buffer.insert(0, header);
+            getWireLog().debug(buffer.toString());
+            buffer.setLength(0);
+         } else if ((ch < 32) || (ch > 127)) {
+            buffer.append("[0x");
+            buffer.append(Integer.toHexString(ch));
+            buffer.append("]");
+         } else {
+            buffer.append((char) ch);
+         }
+      }
+
+      void append(String text) {
+         buffer.append(text);
+      }
+
+      void flush() {
+         if (buffer.length() > 0) {
+            buffer.append('\"');
+            buffer.insert(0, '\"');
+            buffer.insert(0, header);
+            getWireLog().debug(buffer.toString());
+            buffer.setLength(0);
+         }
+      }
+   }
+
+   /**
+    * Logs bytes as the consumer reads them. Past the head of the message, the last bytes are kept in a ring buffer
+    * and logged when the message ends, so that the log holds the head and tail of large messages.
+    */
+   private final class WireTap extends FilterInputStream {
+      private final WireLine line;
+      private final long head;
+      private final byte[] tail;
+      private int tailStart;
+      private int tailLength;
+      private long count;
+      private boolean finished;
+
+      private WireTap(String header, InputStream in, int maxLoggedBytes) {
+         super(in);
+         this.line = new WireLine(header);
+         this.head = maxLoggedBytes > 0 ? maxLoggedBytes - maxLoggedBytes / 2 : Long.MAX_VALUE;
+         this.tail = new byte[maxLoggedBytes > 0 ? maxLoggedBytes / 2 : 0];
+      }
+
+      @Override
+      public int read() throws IOException {
+         int ch = in.read();
+         if (ch == -1)
+            finish();
+         else
+            tap(ch);
+         return ch;
+      }
+
+      @Override
+      public int read(byte[] b, int off, int len) throws IOException {
+         int read = in.read(b, off, len);
+         if (read == -1) {
+            finish();
+         } else {
+            for (int i = off; i < off + read; i++)
+               tap(b[i] & 0xff);
+         }
+         return read;
+      }
+
+      @Override
+      public long skip(long n) throws IOException {
+         // skipped bytes are not logged, but still counted
+         long skipped = in.skip(n);
+         count += skipped;
+         return skipped;
+      }
+
+      @Override
+      public boolean markSupported() {
+         return false;
+      }
+
+      @Override
+      public void close() throws IOException {
+         try {
+            super.close();
+         } finally {
+            finish();
+         }
+      }
+
+      /**
+       * reads the stream to its end, skipping the bytes between the head and the tail when {@code length} is known.
+       */
+      private void drain(long length) throws IOException {
+         byte[] buffer = new byte[8192];
+         while (count < head) {
+            if (read(buffer, 0, (int) Math.min(buffer.length, head - count)) == -1)
+               return;
+         }
+         for (long toSkip = length - count - tail.length; toSkip > 0; ) {
+            long skipped = skip(toSkip);
+            if (skipped <= 0)
+               break;
+            toSkip -= skipped;
+         }
+         int read;
+         do {
+            read = read(buffer);
+         } while (read != -1);
+      }
+
+      private void tap(int ch) {
+         if (count++ < head) {
+            line.append(ch);
+         } else if (tail.length > 0) {
+            tail[(tailStart + tailLength) % tail.length] = (byte) ch;
+            if (tailLength < tail.length)
+               tailLength++;
+            else
+               tailStart = (tailStart + 1) % tail.length;
+         }
+      }
+
+      private void finish() {
+         if (finished)
+            return;
+         finished = true;
+         if (count > head) {
+            long omitted = count - head - tailLength;
+            if (omitted > 0) {
+               line.flush();
+               line.append("[... " + omitted + " bytes not logged ...]");
+               line.flush();
+            }
+            for (int i = 0; i < tailLength; i++)
+               line.append(tail[(tailStart + i) % tail.length] & 0xff);
+         }
+         line.flush();
+      }
+   }
 }
@@ -26,6 +26,9 @@ import java.lang.annotation.Target;
  * Selects a name in a json structure as opposed to parsing from root.
  * 
  * ex. for "foo" { "foo" :"bar" } becomes "bar"
+ * <p/>
+ * When the method returns an {@link java.util.Iterator}, the selected array is parsed lazily, one element at a time,
+ * as the iterator is advanced.
  */
 @Target(METHOD)
 @Retention(RUNTIME)
@@ -52,26 +52,43 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
    private final TimeLimiter timeLimiter;
    private final Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest;
    private final InvocationConfig config;
+   private final SingleFlightInvocations singleFlight;
 
    @Inject
    @VisibleForTesting
    InvokeHttpMethod(Function<Invocation, HttpRequest> annotationProcessor,
          HttpCommandExecutorService http, Function<HttpRequest, Function<HttpResponse, ?>> transformerForRequest,
-         TimeLimiter timeLimiter, InvocationConfig config) {
+         TimeLimiter timeLimiter, InvocationConfig config, SingleFlightInvocations singleFlight) {
       this.annotationProcessor = annotationProcessor;
       this.http = http;
       this.timeLimiter = timeLimiter;
       this.transformerForRequest = transformerForRequest;
       this.config = config;
+      this.singleFlight = singleFlight;
    }
 
    @Override
-   public Object apply(Invocation in) {
-      Optional<Long> timeoutNanos = config.getTimeoutNanos(in);
+   public Object apply(final Invocation in) {
+      final Optional<Long> timeoutNanos = config.getTimeoutNanos(in);
+      final String commandName = config.getCommandName(in);
+      final HttpCommand command = toCommand(commandName, in);
+      HttpRequest request = command.getCurrentRequest();
+      if (singleFlight.appliesTo(in, commandName, request)) {
+         return singleFlight.invoke(in, request, new Callable<Object>() {
+            @Override
+            public Object call() {
+               return invoke(in, commandName, command, timeoutNanos);
+            }
+         });
+      }
+      return invoke(in, commandName, command, timeoutNanos);
+   }
+
+   private Object invoke(Invocation in, String commandName, HttpCommand command, Optional<Long> timeoutNanos) {
       if (timeoutNanos.isPresent()) {
-         return invokeWithTimeout(in, timeoutNanos.get());
+         return invokeWithTimeout(in, commandName, command, timeoutNanos.get());
       }
-      return invoke(in);
+      return invoke(in, commandName, command);
    }
 
    /**
@@ -82,7 +99,10 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
     */
    public Object invoke(Invocation invocation) {
       String commandName = config.getCommandName(invocation);
-      HttpCommand command = toCommand(commandName, invocation);
+      return invoke(invocation, commandName, toCommand(commandName, invocation));
+   }
+
+   private Object invoke(Invocation invocation, String commandName, HttpCommand command) {
       Function<HttpResponse, ?> transformer = getTransformer(commandName, command);
       org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
 
@@ -119,7 +139,11 @@ public class InvokeHttpMethod implements Function<Invocation, Object> {
     */
    public Object invokeWithTimeout(final Invocation invocation, final long limitNanos) {
       String commandName = config.getCommandName(invocation);
-      HttpCommand command = toCommand(commandName, invocation);
+      return invokeWithTimeout(invocation, commandName, toCommand(commandName, invocation), limitNanos);
+   }
+
+   private Object invokeWithTimeout(Invocation invocation, String commandName, HttpCommand command,
+         long limitNanos) {
       org.jclouds.Fallback<?> fallback = getFallback(commandName, invocation, command);
 
       logger.debug(">> blocking on %s for %s", invocation, limitNanos);
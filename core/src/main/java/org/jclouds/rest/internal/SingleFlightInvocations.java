@@ -0,0 +1,145 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static com.google.common.base.Throwables.propagate;
+import static org.jclouds.Constants.PROPERTY_SINGLE_FLIGHT;
+
+import java.io.InputStream;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.http.HttpResponseException;
+import org.jclouds.io.Payload;
+import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.annotations.SingleFlight;
+
+import com.google.common.annotations.Beta;
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Splitter;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.Invokable;
+import com.google.common.util.concurrent.Uninterruptibles;
+import com.google.inject.Inject;
+
+/**
+ * Shares the result of an idempotent request among all callers that issue an identical request while it is in
+ * flight, so that fan-in of the same lookup results in a single round-trip. Every caller receives the same result
+ * instance, so this must only be enabled for methods whose results are immutable.
+ * 
+ * @see org.jclouds.Constants#PROPERTY_SINGLE_FLIGHT
+ */
+@Beta
+@Singleton
+public class SingleFlightInvocations {
+
+   private final ConcurrentMap<Object, FutureTask<Object>> inFlight = new ConcurrentHashMap<Object, FutureTask<Object>>();
+
+   private boolean annotated = false;
+   private Set<String> commandNames = ImmutableSet.of();
+
+   @Inject(optional = true)
+   void enableFor(@Named(PROPERTY_SINGLE_FLIGHT) String value) {
+      String trimmed = value.trim();
+      if ("true".equalsIgnoreCase(trimmed)) {
+         annotated = true;
+         commandNames = ImmutableSet.of();
+      } else if ("false".equalsIgnoreCase(trimmed)) {
+         annotated = false;
+         commandNames = ImmutableSet.of();
+      } else {
+         annotated = false;
+         commandNames = ImmutableSet.copyOf(Splitter.on(',').trimResults().omitEmptyStrings().split(trimmed));
+      }
+   }
+
+   /**
+    * returns true if concurrent identical {@code request}s made for {@code invocation} should share one response.
+    */
+   public boolean appliesTo(Invocation invocation, String commandName, HttpRequest request) {
+      if (!annotated && commandNames.isEmpty())
+         return false;
+      Invokable<?, ?> invoked = invocation.getInvokable();
+      if (!(annotated && invoked.isAnnotationPresent(SingleFlight.class)) && !commandNames.contains(commandName))
+         return false;
+      if (!"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod()))
+         return false;
+      // streams can only be consumed by one caller
+      Class<?> returnType = invoked.getReturnType().getRawType();
+      return !HttpResponse.class.isAssignableFrom(returnType) && !InputStream.class.isAssignableFrom(returnType)
+            && !Payload.class.isAssignableFrom(returnType) && !PayloadEnclosing.class.isAssignableFrom(returnType);
+   }
+
+   /**
+    * calls {@code call} unless an identical request is already in flight, in which case its outcome is returned
+    * instead. Requests are identical when issued by the same method with the same method, endpoint and headers.
+    */
+   public Object invoke(Invocation invocation, HttpRequest request, Callable<Object> call) {
+      Object key = ImmutableList.of(invocation.getInvokable(), request.getMethod(), request.getEndpoint(),
+            request.getHeaders());
+      FutureTask<Object> task = new FutureTask<Object>(call);
+      FutureTask<Object> existing = inFlight.putIfAbsent(key, task);
+      if (existing == null) {
+         try {
+            task.run();
+         } finally {
+            inFlight.remove(key, task);
+         }
+         try {
+            return Uninterruptibles.getUninterruptibly(task);
+         } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+         }
+      }
+      try {
+         return Uninterruptibles.getUninterruptibly(existing);
+      } catch (ExecutionException e) {
+         throw propagate(forWaiter(e.getCause()));
+      }
+   }
+
+   /**
+    * returns a new exception of the same type caused by {@code shared}, so that each waiter gets a stack trace of
+    * where it was waiting and no two threads throw the same instance. Exceptions whose type cannot be recreated are
+    * returned as is, as changing their type would break callers that catch them.
+    */
+   @VisibleForTesting
+   static Throwable forWaiter(Throwable shared) {
+      if (shared.getClass() == HttpResponseException.class) {
+         HttpResponseException hre = (HttpResponseException) shared;
+         return new HttpResponseException(hre.getMessage(), hre.getCommand(), hre.getResponse(), hre.getContent(),
+               hre);
+      }
+      try {
+         return shared.getClass().getConstructor(String.class, Throwable.class).newInstance(shared.getMessage(),
+               shared);
+      } catch (ReflectiveOperationException e) {
+         return shared;
+      }
+   }
+}
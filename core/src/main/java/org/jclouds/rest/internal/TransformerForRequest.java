@@ -17,6 +17,8 @@
 package org.jclouds.rest.internal;
 
 import static com.google.inject.util.Types.newParameterizedType;
+import static org.jclouds.Constants.PROPERTY_PREFETCH_PAGES;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_JSON;
 import static jakarta.ws.rs.core.MediaType.APPLICATION_XML;
 
@@ -24,17 +26,22 @@ import java.io.InputStream;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.net.URI;
+import java.util.Iterator;
 import java.util.Set;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import javax.lang.model.type.NullType;
 
+import org.jclouds.collect.PagedIterable;
+import org.jclouds.collect.PagedIterables;
 import org.jclouds.functions.IdentityFunction;
 import org.jclouds.functions.OnlyElementOrNull;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.http.functions.ParseFirstJsonValueNamed;
 import org.jclouds.http.functions.ParseJson;
+import org.jclouds.http.functions.ParseJsonArrayLazily;
 import org.jclouds.http.functions.ParseSax;
 import org.jclouds.http.functions.ParseSax.Factory;
 import org.jclouds.http.functions.ParseSax.HandlerWithResult;
@@ -62,15 +69,21 @@ import com.google.common.base.Functions;
 import com.google.common.base.Optional;
 import com.google.common.reflect.Invokable;
 import com.google.common.reflect.TypeToken;
+import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
 
 public class TransformerForRequest implements Function<HttpRequest, Function<HttpResponse, ?>> {
    private final ParseSax.Factory parserFactory;
    private final Injector injector;
    private final GetAcceptHeaders getAcceptHeaders;
 
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_PREFETCH_PAGES)
+   private int prefetchPages = 0;
+
    @Inject TransformerForRequest(Injector injector, Factory parserFactory, GetAcceptHeaders getAcceptHeaders) {
       this.injector = injector;
       this.parserFactory = parserFactory;
@@ -101,9 +114,31 @@ public class TransformerForRequest implements Function<HttpRequest, Function<Htt
          }
          transformer = Functions.compose(Function.class.cast(wrappingTransformer), transformer);
       }
+      if (prefetchPages > 0
+            && PagedIterable.class.isAssignableFrom(request.getInvocation().getInvokable().getReturnType().getRawType())) {
+         transformer = Functions.compose(new PrefetchPages(injector.getInstance(Key.get(
+               ListeningExecutorService.class, Names.named(PROPERTY_USER_THREADS))), prefetchPages), transformer);
+      }
       return transformer;
    }
 
+   private static final class PrefetchPages implements Function<Object, Object> {
+      private final ListeningExecutorService executor;
+      private final int depth;
+
+      private PrefetchPages(ListeningExecutorService executor, int depth) {
+         this.executor = executor;
+         this.depth = depth;
+      }
+
+      @SuppressWarnings({ "rawtypes", "unchecked" })
+      @Override
+      public Object apply(Object pages) {
+         return pages instanceof PagedIterable ? PagedIterables.prefetch((PagedIterable) pages, executor, depth)
+               : pages;
+      }
+   }
+
    @SuppressWarnings("unchecked")
    @VisibleForTesting
    Key<? extends Function<HttpResponse, ?>> getParserOrThrowException(Invocation invocation) {
@@ -179,7 +214,11 @@ public class TransformerForRequest implements Function<HttpRequest, Function<Htt
    public Function<HttpResponse, ?> getTransformerForMethod(Invocation invocation, Injector injector) {
       Invokable<?, ?> invoked = invocation.getInvokable();
       Function<HttpResponse, ?> transformer;
-      if (invoked.isAnnotationPresent(SelectJson.class)) {
+      if (invoked.isAnnotationPresent(SelectJson.class) && invoked.getReturnType().getRawType() == Iterator.class) {
+         Type elementType = invoked.getReturnType().resolveType(Iterator.class.getTypeParameters()[0]).getType();
+         transformer = new ParseJsonArrayLazily(injector.getInstance(GsonWrapper.class), TypeLiteral.get(elementType),
+               invoked.getAnnotation(SelectJson.class).value());
+      } else if (invoked.isAnnotationPresent(SelectJson.class)) {
          Type returnVal = getReturnTypeFor(invoked.getReturnType());
          if (invoked.isAnnotationPresent(OnlyElement.class))
             returnVal = newParameterizedType(Set.class, returnVal);
@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static com.google.common.base.Charsets.UTF_8;
+import static com.google.common.base.Preconditions.checkNotNull;
+import static org.jclouds.Constants.PROPERTY_CACHE_SNAPSHOT_DIR;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.annotation.Resource;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+
+import org.jclouds.domain.Credentials;
+import org.jclouds.json.Json;
+import org.jclouds.location.Provider;
+import org.jclouds.logging.Logger;
+import org.jclouds.providers.ProviderMetadata;
+import org.jclouds.rest.AuthorizationException;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Function;
+import com.google.common.base.Optional;
+import com.google.common.base.Strings;
+import com.google.common.base.Supplier;
+import com.google.common.base.Suppliers;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ListeningExecutorService;
+
+/**
+ * Persists values that are slow to list and change rarely, such as locations and images, under
+ * {@link org.jclouds.Constants#PROPERTY_CACHE_SNAPSHOT_DIR}, so that the next context for the same provider,
+ * endpoint and identity can start from them. Snapshots are json files, readable by the owner only where the file
+ * system supports it. Secrets such as login credentials must never be part of a snapshot.
+ */
+@Beta
+@Singleton
+public class SnapshotStore {
+
+   @Resource
+   protected Logger logger = Logger.NULL;
+
+   @com.google.inject.Inject(optional = true)
+   @Named(PROPERTY_CACHE_SNAPSHOT_DIR)
+   private String directory;
+
+   private final Json json;
+   private final ListeningExecutorService userExecutor;
+   private final Supplier<String> prefix;
+
+   @Inject
+   SnapshotStore(Json json, @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         final ProviderMetadata providerMetadata, @Provider final Supplier<Credentials> creds) {
+      this.json = json;
+      this.userExecutor = userExecutor;
+      this.prefix = Suppliers.memoize(new Supplier<String>() {
+         @Override
+         public String get() {
+            // identities are not written in clear text
+            return Hashing.sha256().newHasher()
+                  .putString(providerMetadata.getId(), UTF_8).putChar('\n')
+                  .putString(Strings.nullToEmpty(providerMetadata.getEndpoint()), UTF_8).putChar('\n')
+                  .putString(Strings.nullToEmpty(creds.get().identity), UTF_8)
+                  .hash().toString();
+         }
+      });
+   }
+
+   public boolean isEnabled() {
+      return !Strings.isNullOrEmpty(directory);
+   }
+
+   /**
+    * Wraps {@code live} so that it first serves the snapshot named {@code name}, if one is present and readable, and
+    * persists every value it loads under that name. Loads, including the background refresh, go through the same
+    * {@code authException} short-circuit as {@link MemoizedRetryOnTimeOutButNotOnAuthorizationExceptionSupplier}.
+    *
+    * @param snapshotType
+    *           type {@code toSnapshot} returns, used to parse the persisted json
+    * @param toSnapshot
+    *           may return null for values that cannot be persisted faithfully, in which case any existing snapshot
+    *           is deleted
+    */
+   public <T, S> WarmStartSupplier<T> warmStart(final String name,
+         AtomicReference<AuthorizationException> authException, Supplier<T> live, Type snapshotType, final Function<? super T, S> toSnapshot,
+         Function<? super S, ? extends T> fromSnapshot) {
+      checkNotNull(name, "name");
+      live = new SetAndThrowAuthorizationExceptionSupplier<T>(live, authException);
+      Optional<S> persisted = read(name, snapshotType);
+      Optional<T> snapshot = Optional.absent();
+      if (persisted.isPresent()) {
+         try {
+            snapshot = Optional.<T> fromNullable(fromSnapshot.apply(persisted.get()));
+         } catch (RuntimeException e) {
+            logger.warn(e, "ignoring snapshot %s that could not be restored", name);
+         }
+      }
+      return new WarmStartSupplier<T>(live, snapshot, userExecutor, new ValueLoadedCallback<T>() {
+         @Override
+         public void valueLoaded(Optional<T> value) {
+            if (value.isPresent()) {
+               final S toWrite = toSnapshot.apply(value.get());
+               userExecutor.execute(new Runnable() {
+                  @Override
+                  public void run() {
+                     if (toWrite != null) {
+                        write(name, toWrite);
+                     } else {
+                        delete(name);
+                     }
+                  }
+               });
+            }
+         }
+      });
+   }
+
+   /**
+    * reads the snapshot named {@code name}, or returns absent if there is none or it cannot be parsed.
+    */
+   public <S> Optional<S> read(String name, Type type) {
+      if (!isEnabled()) {
+         return Optional.absent();
+      }
+      File file = file(name);
+      if (!file.isFile()) {
+         return Optional.absent();
+      }
+      try {
+         String content = new String(Files.readAllBytes(file.toPath()), UTF_8);
+         return Optional.fromNullable(json.<S> fromJson(content, type));
+      } catch (IOException e) {
+         logger.warn(e, "could not read snapshot %s", file);
+      } catch (RuntimeException e) {
+         logger.warn(e, "ignoring unparsable snapshot %s", file);
+      }
+      return Optional.absent();
+   }
+
+   /**
+    * atomically replaces the snapshot named {@code name}. Failures are logged, as snapshots are only an
+    * optimization.
+    */
+   public void write(String name, Object value) {
+      if (!isEnabled()) {
+         return;
+      }
+      File file = file(name);
+      Path tmp = null;
+      try {
+         Path dir = Files.createDirectories(file.getParentFile().toPath());
+         try {
+            tmp = Files.createTempFile(dir, file.getName(), ".tmp",
+                  PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+         } catch (UnsupportedOperationException e) {
+            tmp = Files.createTempFile(dir, file.getName(), ".tmp");
+         }
+         Files.write(tmp, json.toJson(value).getBytes(UTF_8));
+         Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+         tmp = null;
+      } catch (IOException e) {
+         logger.warn(e, "could not write snapshot %s", file);
+      } finally {
+         if (tmp != null) {
+            try {
+               Files.deleteIfExists(tmp);
+            } catch (IOException e) {
+               logger.debug("could not delete %s: %s", tmp, e);
+            }
+         }
+      }
+   }
+
+   /**
+    * deletes the snapshot named {@code name}, if there is one.
+    */
+   public void delete(String name) {
+      if (!isEnabled()) {
+         return;
+      }
+      try {
+         Files.deleteIfExists(file(name).toPath());
+      } catch (IOException e) {
+         logger.warn(e, "could not delete snapshot %s", file(name));
+      }
+   }
+
+   private File file(String name) {
+      return new File(directory, prefix.get() + "-" + name + ".json");
+   }
+}
@@ -0,0 +1,111 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static com.google.common.base.Preconditions.checkNotNull;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.javax.annotation.Nullable;
+
+import com.google.common.annotations.Beta;
+import com.google.common.base.Optional;
+import com.google.common.base.Supplier;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.SettableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * Supplier that answers its first call with a value persisted by a previous run, and revalidates it by calling the
+ * delegate in the background. The next call returns the revalidated value, and later calls go to the delegate.
+ * <p>
+ * Every value loaded from the delegate is passed to the callback, typically to persist it for the next run. Wrap
+ * this supplier in a memoizing one, as it does not cache anything itself.
+ */
+@Beta
+public class WarmStartSupplier<T> implements Supplier<T> {
+
+   private final Supplier<T> delegate;
+   private final Optional<T> snapshot;
+   private final ListeningExecutorService executor;
+   private final ValueLoadedCallback<T> onLoaded;
+   private final AtomicBoolean snapshotServed = new AtomicBoolean();
+   private final AtomicBoolean refreshConsumed = new AtomicBoolean();
+   private final SettableFuture<T> refresh = SettableFuture.create();
+
+   public WarmStartSupplier(Supplier<T> delegate, Optional<T> snapshot, ListeningExecutorService executor,
+         ValueLoadedCallback<T> onLoaded) {
+      this.delegate = checkNotNull(delegate, "delegate");
+      this.snapshot = checkNotNull(snapshot, "snapshot");
+      this.executor = checkNotNull(executor, "executor");
+      this.onLoaded = checkNotNull(onLoaded, "onLoaded");
+   }
+
+   @Override
+   public T get() {
+      if (snapshot.isPresent() && snapshotServed.compareAndSet(false, true)) {
+         executor.execute(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  refresh.set(load());
+               } catch (Throwable t) {
+                  refresh.setException(t);
+               }
+            }
+         });
+         return snapshot.get();
+      }
+      if (snapshotServed.get() && refreshConsumed.compareAndSet(false, true)) {
+         try {
+            return Uninterruptibles.getUninterruptibly(refresh);
+         } catch (ExecutionException e) {
+            // load again on the caller's thread, so that the failure reaches it
+         }
+      }
+      return load();
+   }
+
+   /**
+    * the persisted value served on the first call, if there was one.
+    */
+   public Optional<T> getSnapshot() {
+      return snapshot;
+   }
+
+   /**
+    * completes with the value that replaces the snapshot once the background refresh finishes. Never completes if
+    * there is no snapshot, as nothing is refreshed in the background then.
+    */
+   public ListenableFuture<T> backgroundRefresh() {
+      return refresh;
+   }
+
+   @Nullable
+   private T load() {
+      T value = delegate.get();
+      onLoaded.valueLoaded(Optional.fromNullable(value));
+      return value;
+   }
+
+   @Override
+   public String toString() {
+      return "warmStart(" + delegate + ")";
+   }
+}
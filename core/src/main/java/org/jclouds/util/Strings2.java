@@ -18,7 +18,6 @@ package org.jclouds.util;
 
 import static com.google.common.base.Preconditions.checkNotNull;
 import static org.jclouds.util.Closeables2.closeQuietly;
-import static org.jclouds.util.Patterns.TOKEN_TO_PATTERN;
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -27,22 +26,24 @@ import java.io.InputStreamReader;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.util.Collection;
 import java.util.Map;
-import java.util.Map.Entry;
-import java.util.concurrent.ExecutionException;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.jclouds.javax.annotation.Nullable;
 
+import com.google.common.base.Ascii;
 import com.google.common.base.Charsets;
+import com.google.common.base.Optional;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
 import com.google.common.collect.Multimap;
+import com.google.common.escape.Escaper;
 import com.google.common.io.CharStreams;
 import com.google.common.net.InetAddresses;
-import com.google.common.primitives.Chars;
+import com.google.common.net.PercentEscaper;
 
 public class Strings2 {
 
@@ -50,37 +51,77 @@ public class Strings2 {
     * Web browsers do not always handle '+' characters well, use the well-supported '%20' instead.
     */
    public static String urlEncode(String in, char... skipEncode) {
-      return urlEncode(in, Chars.asList(skipEncode));
+      return urlEncode(in, new String(skipEncode));
    }
 
    public static String urlEncode(String in, Iterable<Character> skipEncode) {
+      StringBuilder skip = new StringBuilder();
+      for (char c : skipEncode) {
+         skip.append(c);
+      }
+      return urlEncode(in, skip.toString());
+   }
+
+   private static String urlEncode(String in, String skipEncode) {
+      Escaper escaper = urlEscaper(skipEncode);
+      if (escaper != null) {
+         try {
+            return escaper.escape(in);
+         } catch (IllegalArgumentException e) {
+            // unpaired surrogates, which URLEncoder replaces with '?'
+         }
+      }
+      return legacyUrlEncode(in, skipEncode);
+   }
+
+   /**
+    * Encodes as {@link URLEncoder} does, except for spaces, encoded as {@code %20}, and {@code *}, encoded as
+    * {@code %2A}. Escapers are table driven and encode in a single pass, returning their input as is when nothing
+    * needs encoding.
+    */
+   private static final Escaper URL_ESCAPER = new PercentEscaper("-_.", false);
+
+   private static final LoadingCache<String, Optional<Escaper>> SKIP_TO_ESCAPER = CacheBuilder.newBuilder()
+         .<String, Optional<Escaper>> build(new CacheLoader<String, Optional<Escaper>>() {
+            @Override
+            public Optional<Escaper> load(String skipEncode) {
+               StringBuilder safeChars = new StringBuilder("-_.");
+               for (char c : skipEncode.toCharArray()) {
+                  // skipping these is order dependent in the replace chain ("a+b" becomes "a b" when ' ' follows
+                  // '+'), '%' cannot be a safe char of an escaper, and other non ascii chars are multi byte
+                  if (c == ' ' || c == '%' || c > 0x7f)
+                     return Optional.absent();
+                  // letters and digits are always safe; '*' was never left unencoded
+                  if (!Ascii.isLowerCase(c) && !Ascii.isUpperCase(c) && !(c >= '0' && c <= '9') && c != '*'
+                        && safeChars.indexOf(String.valueOf(c)) == -1)
+                     safeChars.append(c);
+               }
+               return Optional.<Escaper> of(new PercentEscaper(safeChars.toString(), false));
+            }
+         });
+
+   /**
+    * returns null when {@code skipEncode} needs the replace chain of {@link #legacyUrlEncode} to keep its output.
+    */
+   @Nullable
+   private static Escaper urlEscaper(String skipEncode) {
+      return skipEncode.isEmpty() ? URL_ESCAPER : SKIP_TO_ESCAPER.getUnchecked(skipEncode).orNull();
+   }
+
+   private static String legacyUrlEncode(String in, String skipEncode) {
       try {
          String returnVal = URLEncoder.encode(in, "UTF-8");
          returnVal = returnVal.replace("+", "%20");
          returnVal = returnVal.replace("*", "%2A");
-         for (char c : skipEncode) {
-            returnVal = returnVal.replace(CHAR_TO_ENCODED.get(c), c + "");
+         for (char c : skipEncode.toCharArray()) {
+            returnVal = returnVal.replace(URLEncoder.encode(String.valueOf(c), "UTF-8"), String.valueOf(c));
          }
          return returnVal;
       } catch (UnsupportedEncodingException e) {
          throw new IllegalStateException("Bad encoding on input: " + in, e);
-      } catch (ExecutionException e) {
-         throw new IllegalStateException("error creating pattern: " + in, e);
       }
    }
 
-   private static final LoadingCache<Character, String> CHAR_TO_ENCODED = CacheBuilder.newBuilder()
-         .<Character, String> build(new CacheLoader<Character, String>() {
-            @Override
-            public String load(Character plain) throws ExecutionException {
-               try {
-                  return URLEncoder.encode(plain + "", "UTF-8");
-               } catch (UnsupportedEncodingException e) {
-                  throw new ExecutionException("Bad encoding on input: " + plain, e);
-               }
-            }
-         });
-
    private static final String IP_ADDRESS = "(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})\\.(\\d{1,3})";
    private static final String SLASH_FORMAT = IP_ADDRESS + "/(\\d{1,3})";
    private static final Pattern CIDR_PATTERN = Pattern.compile(SLASH_FORMAT);
@@ -178,11 +219,35 @@ public class Strings2 {
 
    private static final Pattern TOKEN_PATTERN = Pattern.compile("\\{(.+?)\\}");
 
+   /**
+    * replaces tokens that are expressed as <code>{token}</code> with the first value of the token, in one pass
+    * over the input.
+    */
    public static String replaceTokens(String input, Multimap<String, ?> tokenValues) {
-      for (Entry<String, ?> tokenValue : tokenValues.entries()) {
-         Pattern pattern = TOKEN_TO_PATTERN.getUnchecked(tokenValue.getKey());
-         input = pattern.matcher(input).replaceAll(tokenValue.getValue().toString().replace("\\", "\\\\").replace("$", "\\$"));
+      int open = input.indexOf('{');
+      if (open == -1 || tokenValues.isEmpty())
+         return input;
+      StringBuilder builder = new StringBuilder(input.length() + 16);
+      int i = 0;
+      while (open != -1) {
+         int close = input.indexOf('}', open + 1);
+         if (close == -1)
+            break;
+         int nextOpen = input.indexOf('{', open + 1);
+         if (nextOpen != -1 && nextOpen < close) {
+            // the innermost braces form the token, as in {a{b}
+            open = nextOpen;
+            continue;
+         }
+         Collection<?> values = tokenValues.get(input.substring(open + 1, close));
+         if (!values.isEmpty()) {
+            builder.append(input, i, open).append(values.iterator().next());
+            i = close + 1;
+         }
+         open = input.indexOf('{', close + 1);
       }
-      return input;
+      if (i == 0)
+         return input;
+      return builder.append(input, i, input.length()).toString();
    }
 }
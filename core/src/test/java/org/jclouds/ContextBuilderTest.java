@@ -19,14 +19,21 @@ package org.jclouds;
 import static com.google.common.base.Suppliers.ofInstance;
 import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
 
 import java.net.URI;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
 
 import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.config.StartupReport;
 import org.jclouds.domain.Credentials;
 import org.jclouds.events.config.EventBusModule;
 import org.jclouds.http.IntegrationTestClient;
@@ -45,9 +52,13 @@ import com.google.common.base.Supplier;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Lists;
 import com.google.inject.AbstractModule;
+import com.google.inject.Injector;
 import com.google.inject.Key;
 import com.google.inject.Module;
+import com.google.inject.Provides;
+import com.google.inject.Stage;
 import com.google.inject.TypeLiteral;
+import com.google.inject.name.Names;
 
 /**
  * Tests behavior of modules configured in ContextBuilder
@@ -249,4 +260,55 @@ public class ContextBuilderTest {
       builder.modules(Arrays.asList(module1, module2));
 
    }
+
+   static class CountingModule extends AbstractModule {
+      private final AtomicInteger created = new AtomicInteger();
+
+      @Override
+      protected void configure() {
+      }
+
+      @Provides
+      @Singleton
+      @Named("counted")
+      String counted() {
+         created.incrementAndGet();
+         return "counted";
+      }
+   }
+
+   @Test
+   public void testSingletonsCreatedAtStartupByDefault() {
+      CountingModule module = new CountingModule();
+      testContextBuilder().modules(ImmutableSet.of(module)).buildInjector();
+      assertEquals(module.created.get(), 1);
+   }
+
+   @Test
+   public void testLazyStartupCreatesSingletonsOnFirstUse() {
+      CountingModule module = new CountingModule();
+      Properties overrides = new Properties();
+      overrides.setProperty(Constants.PROPERTY_LAZY_STARTUP, "true");
+      Injector injector = testContextBuilder().modules(ImmutableSet.of(module)).overrides(overrides).buildInjector();
+      assertEquals(module.created.get(), 0);
+      assertEquals(injector.getInstance(Key.get(String.class, Names.named("counted"))), "counted");
+      assertEquals(module.created.get(), 1);
+   }
+
+   @Test
+   public void testStartupReport() {
+      Properties overrides = new Properties();
+      overrides.setProperty(Constants.PROPERTY_STARTUP_REPORT, "true");
+      Injector injector = testContextBuilder().modules(ImmutableSet.of(new CountingModule())).overrides(overrides)
+            .buildInjector();
+      StartupReport report = injector.getInstance(StartupReport.class);
+      assertEquals(report.getStage(), Stage.PRODUCTION);
+      assertTrue(report.getInstantiationMillisByModule().containsKey(CountingModule.class.getName()),
+            report.toString());
+   }
+
+   @Test
+   public void testNoStartupReportByDefault() {
+      assertNull(testContextBuilder().buildInjector().getExistingBinding(Key.get(StartupReport.class)));
+   }
 }
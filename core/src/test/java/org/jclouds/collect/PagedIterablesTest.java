@@ -19,12 +19,23 @@ package org.jclouds.collect;
 import static org.easymock.EasyMock.createMock;
 import static org.easymock.EasyMock.expect;
 
+import java.util.Iterator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.easymock.EasyMock;
 import org.testng.Assert;
+import org.testng.annotations.AfterClass;
 import org.testng.annotations.Test;
 
 import com.google.common.base.Function;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 /**
  * Tests behavior of {@code IterableWithMarkers}.
@@ -70,4 +81,96 @@ public class PagedIterablesTest {
       EasyMock.verify(markerToNext);
 
    }
+
+   private final ListeningExecutorService executor = MoreExecutors.listeningDecorator(Executors.newCachedThreadPool());
+
+   @AfterClass(alwaysRun = true)
+   public void shutdownExecutor() {
+      executor.shutdownNow();
+   }
+
+   @Test
+   public void testPrefetchKeepsOrder() {
+      PagedIterable<String> iterable = PagedIterables.prefetch(PagedIterables.advance(
+            IterableWithMarkers.from(ImmutableList.of("0"), 1), new CountingPages(10, null)), executor, 3);
+
+      Assert.assertEquals(iterable.concat().toList(), ImmutableList.of("0", "1", "2", "3", "4", "5", "6", "7", "8",
+            "9"));
+      // each iterator starts from the first page again
+      Assert.assertEquals(iterable.concat().size(), 10);
+   }
+
+   @Test
+   public void testPrefetchStaysWithinDepth() {
+      CountDownLatch release = new CountDownLatch(1);
+      CountingPages pages = new CountingPages(100, release);
+      Iterator<IterableWithMarker<String>> iterator = PagedIterables.prefetch(PagedIterables.advance(
+            IterableWithMarkers.from(ImmutableList.of("0"), 1), pages), executor, 2).iterator();
+
+      Assert.assertEquals(iterator.next().get(0), "0");
+      release.countDown();
+      // nothing is fetched ahead until the consumer asks for the second page
+      Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+      Assert.assertEquals(pages.fetched.get(), 0);
+
+      Assert.assertEquals(iterator.next().get(0), "1");
+      // the consumer stops here, so only two pages are fetched ahead
+      awaitFetched(pages, 3);
+      Assert.assertEquals(pages.fetched.get(), 3);
+
+      Assert.assertEquals(iterator.next().get(0), "2");
+      awaitFetched(pages, 4);
+      Assert.assertEquals(pages.fetched.get(), 4);
+   }
+
+   private static void awaitFetched(CountingPages pages, int count) {
+      long deadline = System.currentTimeMillis() + 5000;
+      while (pages.fetched.get() < count && System.currentTimeMillis() < deadline)
+         Uninterruptibles.sleepUninterruptibly(10, TimeUnit.MILLISECONDS);
+      Uninterruptibles.sleepUninterruptibly(200, TimeUnit.MILLISECONDS);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class, expectedExceptionsMessageRegExp = "page 3 failed")
+   public void testPrefetchThrowsWhenFailedPageIsReached() {
+      CountingPages pages = new CountingPages(10, null);
+      pages.failAt = 3;
+      Iterator<IterableWithMarker<String>> iterator = PagedIterables.prefetch(PagedIterables.advance(
+            IterableWithMarkers.from(ImmutableList.of("0"), 1), pages), executor, 5).iterator();
+      for (int i = 0; i < 3; i++)
+         Assert.assertEquals(iterator.next().get(0), Integer.toString(i));
+      iterator.next();
+   }
+
+   @Test
+   public void testPrefetchSinglePage() {
+      PagedIterable<String> iterable = PagedIterables.prefetch(
+            PagedIterables.onlyPage(IterableWithMarkers.from(ImmutableList.of("foo"))), executor, 2);
+      Assert.assertEquals(iterable.concat().toList(), ImmutableList.of("foo"));
+   }
+
+   /**
+    * returns page {@code marker}, whose marker is that of the next page, until {@code count} pages were returned.
+    */
+   private static final class CountingPages implements Function<Object, IterableWithMarker<String>> {
+      private final int count;
+      private final CountDownLatch release;
+      private final AtomicInteger fetched = new AtomicInteger();
+      private int failAt = -1;
+
+      private CountingPages(int count, CountDownLatch release) {
+         this.count = count;
+         this.release = release;
+      }
+
+      @Override
+      public IterableWithMarker<String> apply(Object marker) {
+         if (release != null)
+            Uninterruptibles.awaitUninterruptibly(release);
+         int page = (Integer) marker;
+         if (page == failAt)
+            throw new IllegalStateException("page " + page + " failed");
+         fetched.incrementAndGet();
+         return IterableWithMarkers.from(ImmutableList.of(Integer.toString(page)), page + 1 < count ? page + 1 : null);
+      }
+   }
 }
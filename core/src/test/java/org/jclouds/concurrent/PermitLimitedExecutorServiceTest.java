@@ -0,0 +1,89 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.testng.annotations.Test;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+@Test(groups = "unit", testName = "PermitLimitedExecutorServiceTest")
+public class PermitLimitedExecutorServiceTest {
+
+   public void testLimitsConcurrentTasks() throws Exception {
+      PermitLimitedExecutorService executor = new PermitLimitedExecutorService(Executors.newCachedThreadPool(), 3);
+      try {
+         final AtomicInteger running = new AtomicInteger();
+         final AtomicInteger maxRunning = new AtomicInteger();
+         List<ListenableFuture<Void>> futures = Lists.newArrayList();
+         for (int i = 0; i < 12; i++) {
+            futures.add(executor.submit(new Callable<Void>() {
+               @Override
+               public Void call() throws Exception {
+                  int now = running.incrementAndGet();
+                  synchronized (maxRunning) {
+                     maxRunning.set(Math.max(maxRunning.get(), now));
+                  }
+                  Thread.sleep(20);
+                  running.decrementAndGet();
+                  return null;
+               }
+            }));
+         }
+         Futures.allAsList(futures).get(10, TimeUnit.SECONDS);
+         assertEquals(maxRunning.get(), 3);
+      } finally {
+         executor.shutdownNow();
+      }
+   }
+
+   public void testShutdownNowCancelsTasksWaitingForAPermit() throws Exception {
+      PermitLimitedExecutorService executor = new PermitLimitedExecutorService(Executors.newCachedThreadPool(), 1);
+      final CountDownLatch started = new CountDownLatch(1);
+      executor.submit(new Callable<Void>() {
+         @Override
+         public Void call() throws Exception {
+            started.countDown();
+            Thread.sleep(10000);
+            return null;
+         }
+      });
+      started.await();
+      ListenableFuture<String> waiting = executor.submit(new Callable<String>() {
+         @Override
+         public String call() {
+            return "ran";
+         }
+      });
+
+      executor.shutdownNow();
+
+      assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+      assertTrue(waiting.isCancelled());
+   }
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.concurrent;
+
+import static com.google.inject.name.Names.named;
+import static org.jclouds.Constants.PROPERTY_SCHEDULER_THREADS;
+import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.concurrent.config.SharedRuntimeModule;
+import org.jclouds.http.IntegrationTestClient;
+import org.jclouds.lifecycle.Closer;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ListeningExecutorService;
+import com.google.common.util.concurrent.ListeningScheduledExecutorService;
+import com.google.inject.Injector;
+import com.google.inject.Key;
+
+@Test(groups = "unit", testName = "SharedRuntimeTest")
+public class SharedRuntimeTest {
+
+   public void testLimitsConcurrentTasksPerContext() throws Exception {
+      SharedRuntime runtime = SharedRuntime.builder().userThreads(4).build();
+      try {
+         SharedRuntime.Lease lease = runtime.acquire(2);
+         final AtomicInteger running = new AtomicInteger();
+         final AtomicInteger maxRunning = new AtomicInteger();
+         List<ListenableFuture<Integer>> futures = Lists.newArrayList();
+         for (int i = 0; i < 10; i++) {
+            futures.add(lease.getUserExecutor().submit(new Callable<Integer>() {
+               @Override
+               public Integer call() throws Exception {
+                  int now = running.incrementAndGet();
+                  synchronized (maxRunning) {
+                     maxRunning.set(Math.max(maxRunning.get(), now));
+                  }
+                  Thread.sleep(20);
+                  running.decrementAndGet();
+                  return now;
+               }
+            }));
+         }
+         assertEquals(Futures.allAsList(futures).get(10, TimeUnit.SECONDS).size(), 10);
+         assertEquals(maxRunning.get(), 2);
+         lease.close();
+      } finally {
+         runtime.close();
+      }
+   }
+
+   public void testShutdownNowDropsQueuedTasksOnly() throws Exception {
+      SharedRuntime runtime = SharedRuntime.builder().userThreads(4).build();
+      try {
+         SharedRuntime.Lease lease = runtime.acquire(1);
+         final CountDownLatch release = new CountDownLatch(1);
+         ListenableFuture<?> blocking = lease.getUserExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+               try {
+                  release.await();
+               } catch (InterruptedException e) {
+                  Thread.currentThread().interrupt();
+               }
+            }
+         });
+         lease.getUserExecutor().submit(new Runnable() {
+            @Override
+            public void run() {
+            }
+         });
+
+         assertEquals(lease.getUserExecutor().shutdownNow().size(), 1);
+         assertTrue(lease.getUserExecutor().isShutdown());
+         assertFalse(lease.getUserExecutor().isTerminated());
+         release.countDown();
+         blocking.get(10, TimeUnit.SECONDS);
+         assertTrue(lease.getUserExecutor().awaitTermination(10, TimeUnit.SECONDS));
+
+         // other contexts are unaffected
+         String threadName = runtime.acquire(1).getUserExecutor().submit(new Callable<String>() {
+            @Override
+            public String call() {
+               return Thread.currentThread().getName();
+            }
+         }).get(10, TimeUnit.SECONDS);
+         assertTrue(threadName.startsWith("shared user thread"), threadName);
+      } finally {
+         runtime.close();
+      }
+   }
+
+   public void testThreadsStopWhenOwnerAndAllContextsAreClosed() throws IOException {
+      SharedRuntime runtime = SharedRuntime.builder().share(StringBuilder.class, new StringBuilder()).build();
+      Injector first = buildInjector(runtime);
+      Injector second = buildInjector(runtime);
+      ListeningExecutorService firstExecutor = first.getInstance(Key.get(ListeningExecutorService.class,
+            named(PROPERTY_USER_THREADS)));
+      ListeningExecutorService secondExecutor = second.getInstance(Key.get(ListeningExecutorService.class,
+            named(PROPERTY_USER_THREADS)));
+      assertSame(first.getInstance(StringBuilder.class), second.getInstance(StringBuilder.class));
+
+      first.getInstance(Closer.class).close();
+      assertTrue(firstExecutor.isShutdown());
+      assertFalse(secondExecutor.isShutdown());
+
+      runtime.close();
+      assertFalse(runtime.isShutdown());
+
+      second.getInstance(Closer.class).close();
+      assertTrue(secondExecutor.isShutdown());
+      assertTrue(runtime.isShutdown());
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testAcquireAfterShutdownFails() {
+      SharedRuntime runtime = SharedRuntime.builder().build();
+      runtime.close();
+      runtime.acquire(1);
+   }
+
+   public void testClosingContextCancelsItsScheduledTasksOnly() throws Exception {
+      SharedRuntime runtime = SharedRuntime.builder().build();
+      try {
+         Injector first = buildInjector(runtime);
+         Injector second = buildInjector(runtime);
+         ListeningScheduledExecutorService firstScheduler = first.getInstance(Key.get(
+               ListeningScheduledExecutorService.class, named(PROPERTY_SCHEDULER_THREADS)));
+         ListeningScheduledExecutorService secondScheduler = second.getInstance(Key.get(
+               ListeningScheduledExecutorService.class, named(PROPERTY_SCHEDULER_THREADS)));
+         ListenableFuture<?> periodic = firstScheduler.scheduleWithFixedDelay(new Runnable() {
+            @Override
+            public void run() {
+            }
+         }, 1, 1, TimeUnit.HOURS);
+
+         first.getInstance(Closer.class).close();
+
+         assertTrue(periodic.isCancelled());
+         assertTrue(firstScheduler.isTerminated());
+         assertEquals(secondScheduler.schedule(new Callable<String>() {
+            @Override
+            public String call() {
+               return "done";
+            }
+         }, 1, TimeUnit.MILLISECONDS).get(10, TimeUnit.SECONDS), "done");
+         second.getInstance(Closer.class).close();
+      } finally {
+         runtime.close();
+      }
+   }
+
+   private static Injector buildInjector(SharedRuntime runtime) {
+      Properties overrides = new Properties();
+      overrides.setProperty(PROPERTY_USER_THREADS, "2");
+      return ContextBuilder.newBuilder(forApiOnEndpoint(IntegrationTestClient.class, "http://localhost")).overrides(overrides)
+            .modules(ImmutableSet.of(new SharedRuntimeModule(runtime))).buildInjector();
+   }
+}
@@ -24,14 +24,17 @@ import static org.easymock.EasyMock.expect;
 import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.jclouds.Constants.PROPERTY_USER_THREADS;
+import static org.jclouds.Constants.PROPERTY_VIRTUAL_THREADS;
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
 import static org.testng.Assert.assertNull;
 import static org.testng.Assert.assertTrue;
 
 import java.io.IOException;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutionException;
 
+import org.jclouds.concurrent.DynamicExecutors;
 import org.jclouds.lifecycle.Closer;
 import org.testng.annotations.AfterClass;
 import org.testng.annotations.BeforeClass;
@@ -87,6 +90,34 @@ public class ExecutorServiceModuleTest {
       verify(executor);
    }
 
+   @Test(timeOut = 5000)
+   public void testVirtualThreadsRunUserTasks() throws Exception {
+      Injector virtual = Guice.createInjector(new ExecutorServiceModule() {
+         @Override
+         protected void configure() {
+            bindConstant().annotatedWith(named(PROPERTY_USER_THREADS)).to(1);
+            bindConstant().annotatedWith(named(PROPERTY_VIRTUAL_THREADS)).to(true);
+            super.configure();
+         }
+      });
+      ListeningExecutorService exec = virtual.getInstance(Key.get(ListeningExecutorService.class,
+            named(PROPERTY_USER_THREADS)));
+      try {
+         String threadName = exec.submit(new Callable<String>() {
+            @Override
+            public String call() {
+               return Thread.currentThread().getName();
+            }
+         }).get();
+         // falls back to the thread pool before Java 21
+         boolean supported = DynamicExecutors.newVirtualThreadPerTaskExecutor(0, "probe").isPresent();
+         assertTrue(threadName.startsWith(supported ? "user virtual thread " : "user thread "), threadName);
+      } finally {
+         virtual.getInstance(Closer.class).close();
+      }
+      assertTrue(exec.isShutdown());
+   }
+
    @Test(timeOut = 5000)
    public void testExceptionInSubmitRunnableIncludesSubmissionTrace() throws Exception {
       ListeningExecutorService exec = injector.getInstance(Key.get(ListeningExecutorService.class,
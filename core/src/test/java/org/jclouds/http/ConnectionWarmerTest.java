@@ -0,0 +1,83 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http;
+
+import static org.jclouds.Constants.PROPERTY_WARM_CONNECTIONS;
+import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+import java.net.URI;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import org.jclouds.ContextBuilder;
+import org.testng.annotations.Test;
+
+import com.google.inject.Injector;
+
+@Test(groups = "unit", testName = "ConnectionWarmerTest")
+public class ConnectionWarmerTest {
+
+   public void testWarmsProviderEndpointWhenContextIsBuilt() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse());
+      server.enqueue(new MockResponse());
+      server.start();
+      try {
+         Properties overrides = new Properties();
+         overrides.setProperty(PROPERTY_WARM_CONNECTIONS, "2");
+         ContextBuilder.newBuilder(forApiOnEndpoint(IntegrationTestClient.class, server.url("/").toString()))
+               .overrides(overrides).buildInjector();
+
+         for (int i = 0; i < 2; i++) {
+            RecordedRequest request = server.takeRequest(10, TimeUnit.SECONDS);
+            assertNotNull(request, "expected a warm-up request");
+            assertEquals(request.getMethod(), "HEAD");
+         }
+      } finally {
+         server.shutdown();
+      }
+   }
+
+   public void testCountsErrorResponsesAsWarmedAndKeepsConnectionOpen() throws Exception {
+      MockWebServer server = new MockWebServer();
+      server.enqueue(new MockResponse().setResponseCode(403));
+      server.enqueue(new MockResponse().setBody("ok"));
+      server.start();
+      try {
+         Injector injector = ContextBuilder
+               .newBuilder(forApiOnEndpoint(IntegrationTestClient.class, server.url("/").toString()))
+               .buildInjector();
+         URI endpoint = server.url("/").uri();
+
+         assertEquals(injector.getInstance(ConnectionWarmer.class).warm(endpoint, 1).get(10, TimeUnit.SECONDS),
+               Integer.valueOf(1));
+         injector.getInstance(IntegrationTestClient.class).download("");
+
+         assertEquals(server.takeRequest().getSequenceNumber(), 0);
+         // the api request was sent on the connection the warmer opened
+         assertEquals(server.takeRequest().getSequenceNumber(), 1);
+      } finally {
+         server.shutdown();
+      }
+   }
+}
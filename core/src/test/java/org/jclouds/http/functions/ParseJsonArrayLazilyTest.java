@@ -0,0 +1,130 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.http.functions;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jclouds.http.HttpResponse;
+import org.jclouds.io.Payloads;
+import org.jclouds.json.config.GsonModule;
+import org.jclouds.json.internal.GsonWrapper;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.inject.Guice;
+import com.google.inject.TypeLiteral;
+
+@Test(groups = "unit", testName = "ParseJsonArrayLazilyTest")
+public class ParseJsonArrayLazilyTest {
+
+   GsonWrapper json = Guice.createInjector(new GsonModule()).getInstance(GsonWrapper.class);
+
+   static class Event {
+      private String name;
+      private String source;
+
+      @Override
+      public String toString() {
+         return String.format("(name=%s, source=%s)", name, source);
+      }
+   }
+
+   private final TypeLiteral<Event> event = new TypeLiteral<Event>() {
+   };
+
+   public void testParseNamedArray() {
+      String nested = "{ \"count\":2 ,\"event\" : [ {name:'GREETINGS',source:'guest'}, {name:'BYE',source:'host'} ] }";
+      Iterator<Event> events = new ParseJsonArrayLazily<Event>(json, event, "_event", "event").apply(response(nested));
+      assertEquals(ImmutableList.copyOf(events).toString(), "[(name=GREETINGS, source=guest), (name=BYE, source=host)]");
+   }
+
+   public void testParseRootArrayAndOnlyValue() {
+      String array = "[ {name:'GREETINGS',source:'guest'} ]";
+      assertEquals(ImmutableList.copyOf(new ParseJsonArrayLazily<Event>(json, event).apply(response(array)))
+            .toString(), "[(name=GREETINGS, source=guest)]");
+      assertEquals(ImmutableList.copyOf(new ParseJsonArrayLazily<Event>(json, event).apply(response("{ \"events\" : "
+            + array + " }"))).toString(), "[(name=GREETINGS, source=guest)]");
+   }
+
+   public void testMissingOrNullArrayIsEmpty() {
+      assertFalse(new ParseJsonArrayLazily<Event>(json, event, "event").apply(response("{ \"count\":0 }")).hasNext());
+      assertFalse(new ParseJsonArrayLazily<Event>(json, event, "event").apply(response("{ \"event\":null }"))
+            .hasNext());
+      assertFalse(new ParseJsonArrayLazily<Event>(json, event, "event").apply(response("{}")).hasNext());
+   }
+
+   public void testSelectFieldsSkipsOthers() {
+      String nested = "{ \"event\" : [ {name:'GREETINGS',source:'guest',details:{nested:[1,2,{deep:true}]}} ] }";
+      Iterator<Event> events = new ParseJsonArrayLazily<Event>(json, event, "event").selectFields("name")
+            .apply(response(nested));
+      assertEquals(ImmutableList.copyOf(events).toString(), "[(name=GREETINGS, source=null)]");
+   }
+
+   public void testReadsOnlyAsIteratorAdvances() {
+      AtomicBoolean closed = new AtomicBoolean();
+      Iterator<Event> events = new ParseJsonArrayLazily<Event>(json, event, "event").apply(response(
+            "{ \"event\" : [ {name:'GREETINGS'}, this is not json", closed));
+      assertEquals(events.next().toString(), "(name=GREETINGS, source=null)");
+      assertFalse(closed.get());
+      try {
+         events.next();
+         throw new AssertionError("expected the malformed element to fail");
+      } catch (RuntimeException e) {
+         assertTrue(closed.get());
+      }
+   }
+
+   public void testReleasesPayloadWhenExhaustedOrClosed() throws IOException {
+      AtomicBoolean closed = new AtomicBoolean();
+      Iterator<Event> events = new ParseJsonArrayLazily<Event>(json, event, "event").apply(response(
+            "{ \"event\" : [ {name:'GREETINGS'} ] }", closed));
+      ImmutableList.copyOf(events);
+      assertTrue(closed.get());
+
+      closed.set(false);
+      events = new ParseJsonArrayLazily<Event>(json, event, "event").apply(response(
+            "{ \"event\" : [ {name:'GREETINGS'}, {name:'BYE'} ] }", closed));
+      events.next();
+      assertFalse(closed.get());
+      ((Closeable) events).close();
+      assertTrue(closed.get());
+   }
+
+   private static HttpResponse response(String json) {
+      return response(json, new AtomicBoolean());
+   }
+
+   private static HttpResponse response(String json, final AtomicBoolean closed) {
+      return HttpResponse.builder().statusCode(200).message("ok")
+            .payload(Payloads.newInputStreamPayload(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)) {
+               @Override
+               public void close() throws IOException {
+                  closed.set(true);
+                  super.close();
+               }
+            })).build();
+   }
+}
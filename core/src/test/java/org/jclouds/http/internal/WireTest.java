@@ -16,15 +16,20 @@
  */
 package org.jclouds.http.internal;
 
+import com.google.common.base.Strings;
+import com.google.common.io.Files;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.io.PayloadEnclosing;
+import org.jclouds.io.Payloads;
 import org.jclouds.io.payloads.StringPayload;
 import org.jclouds.logging.Logger;
 import org.jclouds.util.Strings2;
 import org.testng.annotations.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
 
 import static org.testng.Assert.assertEquals;
 import static org.testng.Assert.assertNotEquals;
@@ -114,6 +119,26 @@ public class WireTest {
       assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), "<< \"foo\"");
    }
 
+   public void testInputInputStreamIsLoggedAsItIsRead() throws Exception {
+      HttpWire wire = setUp();
+      InputStream in = wire.input(new ByteArrayInputStream("foo\nbar".getBytes()));
+      BufferLogger wireLog = (BufferLogger) wire.getWireLog();
+      assertEquals(wireLog.buff.toString(), "", "Expected nothing to be read ahead");
+      assertEquals(in.read(new byte[4]), 4);
+      assertEquals(wireLog.buff.toString(), "<< \"foo[\\n]\"");
+      assertEquals(Strings2.toStringAndClose(in), "bar");
+      assertEquals(wireLog.buff.toString(), "<< \"foo[\\n]\"<< \"bar\"");
+   }
+
+   public void testInputInputStreamLogsHeadAndTail() throws Exception {
+      HttpWire wire = setUp();
+      wire.maxLoggedBytes = 4;
+      InputStream in = wire.input(new ByteArrayInputStream("abcdefghij".getBytes()));
+      assertEquals(Strings2.toStringAndClose(in), "abcdefghij");
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(),
+            "<< \"ab\"<< \"[... 6 bytes not logged ...]\"<< \"ij\"");
+   }
+
    public void testOutputInputStream() throws Exception {
       HttpWire wire = setUp();
       InputStream in = wire.output(new ByteArrayInputStream("foo".getBytes()));
@@ -129,6 +154,31 @@ public class WireTest {
       assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(), ">> \"foo\"");
    }
 
+   public void testOutputBytesLogsHeadAndTail() throws Exception {
+      HttpWire wire = setUp();
+      wire.maxLoggedBytes = 4;
+      wire.output("abcdefghij".getBytes());
+      assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(),
+            ">> \"ab\">> \"[... 6 bytes not logged ...]\">> \"ij\"");
+   }
+
+   public void testOutputFileLogsHeadAndTail() throws Exception {
+      File file = File.createTempFile("wire", ".txt");
+      try {
+         Files.asCharSink(file, StandardCharsets.US_ASCII).write(Strings.repeat("x", 100000) + "end");
+         HttpWire wire = setUp();
+         wire.maxLoggedBytes = 6;
+         PayloadEnclosing request = HttpRequest.builder().method("PUT").endpoint("http://foo")
+               .payload(Payloads.newFilePayload(file)).build();
+         wire.output(request);
+         assertEquals(((BufferLogger) wire.getWireLog()).buff.toString(),
+               ">> \"xxx\">> \"[... 99997 bytes not logged ...]\">> \"end\"");
+         assertEquals(request.getPayload().getRawContent(), file);
+      } finally {
+         file.delete();
+      }
+   }
+
    public void testOutputString() throws Exception {
       HttpWire wire = setUp();
       wire.output("foo");
@@ -141,6 +191,7 @@ public class WireTest {
       StringPayload payload = new StringPayload("foo");
       PayloadEnclosing request = HttpRequest.builder().method("foo").endpoint("http://foo").payload(payload).build();
       wire.input(request);
+      Strings2.toStringAndClose(request.getPayload().openStream());
       BufferLogger wireLog = (BufferLogger) wire.getWireLog();
       assertEquals(wireLog.buff.toString(), "<< \"foo\"", "Expected payload to be printed in logs");
       wireLog.buff.setLength(0);
@@ -148,12 +199,14 @@ public class WireTest {
       payload.setSensitive(true);
       request = HttpRequest.builder().method("foo").endpoint("http://foo").payload(payload).build();
       wire.input(request);
+      Strings2.toStringAndClose(request.getPayload().openStream());
       assertNotEquals(wireLog.buff.toString(), "<< \"foo\"", "Expected payload to NOT be printed in logs");
       wireLog.buff.setLength(0);
 
       wire.logSensitiveInformation = true;
       request = HttpRequest.builder().method("foo").endpoint("http://foo").payload(payload).build();
       wire.input(request);
+      Strings2.toStringAndClose(request.getPayload().openStream());
       assertEquals(wireLog.buff.toString(), "<< \"foo\"", "Expected payload to be printed in logs");
    }
 
@@ -0,0 +1,103 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.testng.annotations.Test;
+
+import com.google.common.base.Ticker;
+
+@Test(groups = "unit", testName = "BufferPoolTest")
+public class BufferPoolTest {
+
+   public void testSizeClassesWasteAtMostAQuarter() {
+      assertEquals(BufferPool.sizeClass(0), BufferPool.MIN_POOLED_SIZE);
+      assertEquals(BufferPool.sizeClass(4097), 5120);
+      assertEquals(BufferPool.sizeClass(8192), 8192);
+      assertEquals(BufferPool.sizeClass(5 * 1024 * 1024), 5 * 1024 * 1024);
+      assertEquals(BufferPool.sizeClass(32 * 1024 * 1024 + 1), 40 * 1024 * 1024);
+      for (int size = 1; size < 1 << 20; size = size * 3 / 2 + 1) {
+         int sizeClass = BufferPool.sizeClass(size);
+         assertEquals(BufferPool.sizeClass(sizeClass), sizeClass);
+         assert sizeClass >= size && (size <= BufferPool.MIN_POOLED_SIZE || sizeClass <= size + size / 4) : size;
+      }
+   }
+
+   public void testReusesReleasedBuffers() {
+      BufferPool pool = new BufferPool(1 << 20);
+      byte[] buffer = pool.acquire(10000);
+      assertEquals(buffer.length, 10240);
+      pool.release(buffer);
+      assertEquals(pool.retainedBytes(), 10240);
+
+      assertSame(pool.acquire(9000), buffer);
+      assertEquals(pool.retainedBytes(), 0);
+      assertNotSame(pool.acquire(9000), buffer);
+   }
+
+   public void testRetainsAtMostMaxRetainedBytes() {
+      BufferPool pool = new BufferPool(8192);
+      byte[] first = pool.acquire(8192);
+      byte[] second = pool.acquire(8192);
+      pool.release(first);
+      pool.release(second);
+      assertEquals(pool.retainedBytes(), 8192);
+
+      // arrays that were not handed out by a pool are never retained
+      pool.release(pool.acquire(8192));
+      pool.release(new byte[5000]);
+      assertEquals(pool.retainedBytes(), 8192);
+   }
+
+   public void testDisabledPoolNeverRetains() {
+      BufferPool pool = new BufferPool(0);
+      byte[] buffer = pool.acquire(4096);
+      pool.release(buffer);
+      assertEquals(pool.retainedBytes(), 0);
+      assertNotSame(pool.acquire(4096), buffer);
+   }
+
+   public void testDropsBuffersIdleForTooLong() {
+      final AtomicLong nanos = new AtomicLong();
+      BufferPool pool = new BufferPool(1 << 20, TimeUnit.SECONDS.toNanos(60), new Ticker() {
+         @Override
+         public long read() {
+            return nanos.get();
+         }
+      });
+      byte[] idle = pool.acquire(8192);
+      byte[] reused = pool.acquire(4096);
+      pool.release(idle);
+      pool.release(reused);
+      assertEquals(pool.retainedBytes(), 8192 + 4096);
+
+      nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+      assertSame(pool.acquire(4096), reused);
+      pool.release(reused);
+
+      nanos.addAndGet(TimeUnit.SECONDS.toNanos(31));
+      assertSame(pool.acquire(4096), reused);
+      assertEquals(pool.retainedBytes(), 0);
+      assertNotSame(pool.acquire(8192), idle);
+   }
+}
@@ -24,6 +24,7 @@ import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.util.Iterator;
 
+import org.jclouds.io.BufferPool;
 import org.jclouds.io.Payload;
 import org.jclouds.io.PayloadSlicer;
 import org.jclouds.io.payloads.ByteSourcePayload;
@@ -111,4 +112,25 @@ public class BasePayloadSlicerTest {
 
       assertFalse(iter.hasNext());
    }
+
+   @Test
+   public void testIterableSliceFromStreamReusesReleasedBuffers() throws IOException {
+      BufferPool pool = new BufferPool(1 << 20);
+      PayloadSlicer slicer = new BasePayloadSlicer(pool);
+      byte[] contents = new byte[3 * 5000 + 10];
+      Payload payload = new InputStreamPayload(new ByteArrayInputStream(contents));
+
+      Iterator<Payload> iter = slicer.slice(payload, 5000).iterator();
+      Payload first = iter.next();
+      assertEquals(Strings2.toStringAndClose(first.openStream()).length(), 5000);
+      first.release();
+      Payload second = iter.next();
+      second.release();
+      iter.next().release();
+      Payload last = iter.next();
+      assertEquals(Strings2.toStringAndClose(last.openStream()).length(), 10);
+      assertEquals(last.getContentMetadata().getContentLength(), Long.valueOf(10));
+      assertFalse(iter.hasNext());
+      assertEquals(pool.retainedBytes(), 5120);
+   }
 }
@@ -0,0 +1,76 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.io.payloads;
+
+import static org.testng.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.jclouds.io.BufferPool;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.Test;
+
+import com.google.common.io.ByteStreams;
+
+@Test(groups = "unit", testName = "PooledPayloadTest")
+public class PooledPayloadTest {
+
+   public void testReadsOnlyLength() throws IOException {
+      BufferPool pool = new BufferPool(1 << 20);
+      byte[] buffer = pool.acquire(4096);
+      System.arraycopy("hello world".getBytes(StandardCharsets.UTF_8), 0, buffer, 0, 11);
+      PooledPayload payload = new PooledPayload(pool, buffer, 5);
+      assertEquals(payload.getContentMetadata().getContentLength(), Long.valueOf(5));
+      assertEquals(Strings2.toStringAndClose(payload.openStream()), "hello");
+      assertEquals(payload.getRawContent().size(), 5);
+      payload.release();
+   }
+
+   public void testReturnsBufferAfterLastReference() {
+      BufferPool pool = new BufferPool(1 << 20);
+      PooledPayload payload = new PooledPayload(pool, pool.acquire(4096), 4096).retain();
+      payload.release();
+      assertEquals(pool.retainedBytes(), 0);
+      payload.release();
+      assertEquals(pool.retainedBytes(), 4096);
+      // extra releases are ignored
+      payload.release();
+      assertEquals(pool.retainedBytes(), 4096);
+   }
+
+   public void testOpenStreamKeepsBufferUntilClosed() throws IOException {
+      BufferPool pool = new BufferPool(1 << 20);
+      PooledPayload payload = new PooledPayload(pool, pool.acquire(4096), 4096);
+      InputStream in = payload.openStream();
+      payload.release();
+      assertEquals(pool.retainedBytes(), 0);
+      assertEquals(ByteStreams.toByteArray(in).length, 4096);
+      in.close();
+      in.close();
+      assertEquals(pool.retainedBytes(), 4096);
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testReadAfterReleaseFails() throws IOException {
+      BufferPool pool = new BufferPool(1 << 20);
+      PooledPayload payload = new PooledPayload(pool, pool.acquire(4096), 10);
+      payload.release();
+      payload.getRawContent().slice(0, 5).read();
+   }
+}
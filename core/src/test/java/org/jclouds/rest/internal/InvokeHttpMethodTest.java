@@ -22,8 +22,18 @@ import static org.easymock.EasyMock.replay;
 import static org.easymock.EasyMock.verify;
 import static org.jclouds.reflect.Reflection2.method;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotSame;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
 
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import jakarta.inject.Named;
 
@@ -32,6 +42,7 @@ import org.jclouds.http.HttpCommandExecutorService;
 import org.jclouds.http.HttpRequest;
 import org.jclouds.http.HttpResponse;
 import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.annotations.SingleFlight;
 import org.jclouds.rest.config.InvocationConfig;
 import org.jclouds.rest.internal.InvokeHttpMethod.InvokeAndTransform;
 import org.testng.annotations.AfterMethod;
@@ -45,6 +56,7 @@ import com.google.common.base.Optional;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.util.concurrent.TimeLimiter;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 @Test(groups = "unit", singleThreaded = true)
 public class InvokeHttpMethodTest {
@@ -52,17 +64,24 @@ public class InvokeHttpMethodTest {
    public interface ThingApi {
       @Named("ns:get")
       HttpResponse get();
+
+      @Named("ns:list")
+      @SingleFlight
+      String list();
    }
 
    private Invocation get;
    private HttpRequest getRequest = HttpRequest.builder().method("GET").endpoint("http://get").build();
    private HttpCommand getCommand = new HttpCommand(getRequest);
+   private Invocation list;
+   private HttpRequest listRequest = HttpRequest.builder().method("GET").endpoint("http://list").build();
    private Function<Invocation, HttpRequest> toRequest;
 
    @BeforeClass
    void setupInvocations() throws SecurityException, NoSuchMethodException {
       get = Invocation.create(method(ThingApi.class, "get"), ImmutableList.of());
-      toRequest = Functions.forMap(ImmutableMap.of(get, getRequest));
+      list = Invocation.create(method(ThingApi.class, "list"), ImmutableList.of());
+      toRequest = Functions.forMap(ImmutableMap.of(get, getRequest, list, listRequest));
    }
 
    @SuppressWarnings("unchecked")
@@ -85,7 +104,11 @@ public class InvokeHttpMethodTest {
       timeLimiter = createMock(TimeLimiter.class);
       fallback = createMock(org.jclouds.Fallback.class);
       config = createMock(InvocationConfig.class);
-      invokeHttpMethod = new InvokeHttpMethod(toRequest, http, transformerForRequest, timeLimiter, config);
+      invokeHttpMethod = new InvokeHttpMethod(toRequest, http, transformerForRequest, timeLimiter, config,
+            new SingleFlightInvocations());
+   }
+
+   private void expectGet() {
       expect(config.getCommandName(get)).andReturn("ns:get");
       expect(config.getFallback(get)).andReturn(fallback);
    }
@@ -96,6 +119,7 @@ public class InvokeHttpMethodTest {
    }
 
    public void testMethodWithTimeoutRunsTimeLimiter() throws Exception {
+      expectGet();
       expect(config.getTimeoutNanos(get)).andReturn(Optional.of(250000000L));
       InvokeAndTransform invoke = invokeHttpMethod.new InvokeAndTransform("ns:get", getCommand);
       expect(timeLimiter.callWithTimeout(invoke, 250000000, TimeUnit.NANOSECONDS)).andReturn(response);
@@ -104,6 +128,7 @@ public class InvokeHttpMethodTest {
    }
 
    public void testMethodWithNoTimeoutCallGetDirectly() throws Exception {
+      expectGet();
       expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
       expect(http.invoke(new HttpCommand(getRequest))).andReturn(response);
       replay(http, timeLimiter, fallback, config);
@@ -113,6 +138,7 @@ public class InvokeHttpMethodTest {
    private HttpResponse fallbackResponse = HttpResponse.builder().statusCode(200).payload("bar").build();
 
    public void testDirectCallRunsFallbackCreateOrPropagate() throws Exception {
+      expectGet();
       IllegalStateException exception = new IllegalStateException();
       expect(config.getTimeoutNanos(get)).andReturn(Optional.<Long> absent());
       expect(http.invoke(new HttpCommand(getRequest))).andThrow(exception);
@@ -122,6 +148,7 @@ public class InvokeHttpMethodTest {
    }
 
    public void testTimeLimitedRunsFallbackCreateOrPropagate() throws Exception {
+      expectGet();
       IllegalStateException exception = new IllegalStateException();
       expect(config.getTimeoutNanos(get)).andReturn(Optional.of(250000000L));
       InvokeAndTransform invoke = invokeHttpMethod.new InvokeAndTransform("ns:get", getCommand);
@@ -130,4 +157,123 @@ public class InvokeHttpMethodTest {
       replay(http, timeLimiter, fallback, config);
       assertEquals(invokeHttpMethod.apply(get), fallbackResponse);
    }
+
+   public void testSingleFlightSharesOneHttpCallAmongConcurrentCallers() throws Exception {
+      expectList();
+      replay(http, timeLimiter, fallback, config);
+      BlockingHttp blockingHttp = new BlockingHttp(response, null);
+      InvokeHttpMethod invoker = singleFlightInvoker(blockingHttp);
+
+      FutureTask<Object> leader = start(invoker);
+      blockingHttp.awaitCall();
+      FutureTask<Object> waiter = startWaiter(invoker);
+      blockingHttp.release.countDown();
+
+      assertSame(leader.get(), response);
+      assertSame(waiter.get(), response);
+      assertEquals(blockingHttp.calls.get(), 1);
+   }
+
+   public void testSingleFlightFailureReachesEveryCaller() throws Exception {
+      IllegalStateException exception = new IllegalStateException("boom");
+      expectList();
+      expect(fallback.createOrPropagate(exception)).andThrow(exception);
+      replay(http, timeLimiter, fallback, config);
+      BlockingHttp blockingHttp = new BlockingHttp(null, exception);
+      InvokeHttpMethod invoker = singleFlightInvoker(blockingHttp);
+
+      FutureTask<Object> leader = start(invoker);
+      blockingHttp.awaitCall();
+      FutureTask<Object> waiter = startWaiter(invoker);
+      blockingHttp.release.countDown();
+
+      assertSame(failure(leader), exception);
+      Throwable waiterFailure = failure(waiter);
+      assertTrue(waiterFailure instanceof IllegalStateException, waiterFailure.toString());
+      // each waiter throws its own instance, caused by the shared one
+      assertNotSame(waiterFailure, exception);
+      assertSame(waiterFailure.getCause(), exception);
+      assertEquals(blockingHttp.calls.get(), 1);
+   }
+
+   private void expectList() {
+      expect(config.getCommandName(list)).andReturn("ns:list").times(2);
+      expect(config.getTimeoutNanos(list)).andReturn(Optional.<Long> absent()).times(2);
+      expect(config.getFallback(list)).andReturn(fallback);
+   }
+
+   private InvokeHttpMethod singleFlightInvoker(HttpCommandExecutorService http) {
+      SingleFlightInvocations singleFlight = new SingleFlightInvocations();
+      singleFlight.enableFor("true");
+      return new InvokeHttpMethod(toRequest, http, transformerForRequest, timeLimiter, config, singleFlight);
+   }
+
+   private FutureTask<Object> start(final InvokeHttpMethod invoker) {
+      FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>() {
+         @Override
+         public Object call() {
+            return invoker.apply(list);
+         }
+      });
+      new Thread(task).start();
+      return task;
+   }
+
+   /**
+    * starts another invocation, and returns once it is blocked on the one in flight.
+    */
+   private FutureTask<Object> startWaiter(final InvokeHttpMethod invoker) throws InterruptedException {
+      final AtomicReference<Thread> thread = new AtomicReference<Thread>();
+      FutureTask<Object> task = new FutureTask<Object>(new Callable<Object>() {
+         @Override
+         public Object call() {
+            thread.set(Thread.currentThread());
+            return invoker.apply(list);
+         }
+      });
+      new Thread(task).start();
+      while (!task.isDone() && (thread.get() == null || thread.get().getState() != Thread.State.WAITING))
+         Thread.sleep(10);
+      return task;
+   }
+
+   private static Throwable failure(FutureTask<Object> task) throws InterruptedException {
+      try {
+         task.get();
+         fail("expected " + task + " to fail");
+         return null;
+      } catch (ExecutionException e) {
+         return e.getCause();
+      }
+   }
+
+   /**
+    * counts requests, and holds them until released, so that other callers can join the one in flight.
+    */
+   private static class BlockingHttp implements HttpCommandExecutorService {
+      private final AtomicInteger calls = new AtomicInteger();
+      private final CountDownLatch called = new CountDownLatch(1);
+      private final CountDownLatch release = new CountDownLatch(1);
+      private final HttpResponse response;
+      private final RuntimeException exception;
+
+      BlockingHttp(HttpResponse response, RuntimeException exception) {
+         this.response = response;
+         this.exception = exception;
+      }
+
+      @Override
+      public HttpResponse invoke(HttpCommand command) {
+         calls.incrementAndGet();
+         called.countDown();
+         Uninterruptibles.awaitUninterruptibly(release);
+         if (exception != null)
+            throw exception;
+         return response;
+      }
+
+      void awaitCall() throws InterruptedException {
+         assertTrue(called.await(10, TimeUnit.SECONDS), "no request was sent");
+      }
+   }
 }
@@ -48,6 +48,7 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -86,6 +87,7 @@ import org.jclouds.http.filters.ConnectionCloseHeader;
 import org.jclouds.http.filters.StripExpectHeader;
 import org.jclouds.http.functions.ParseFirstJsonValueNamed;
 import org.jclouds.http.functions.ParseJson;
+import org.jclouds.http.functions.ParseJsonArrayLazily;
 import org.jclouds.http.functions.ParseSax;
 import org.jclouds.http.functions.ParseURIFromListOrLocationHeaderIf20x;
 import org.jclouds.http.functions.ReturnInputStream;
@@ -1198,6 +1200,12 @@ public class RestAnnotationProcessorTest extends BaseRestApiTest {
       @Consumes(APPLICATION_JSON)
       String selectOnlyElement();
 
+      @GET
+      @Path("/")
+      @SelectJson("events")
+      @Consumes(APPLICATION_JSON)
+      Iterator<String> selectIterator();
+
       @Target({ ElementType.METHOD })
       @Retention(RetentionPolicy.RUNTIME)
       @HttpMethod("ROWDY")
@@ -1386,6 +1394,18 @@ public class RestAnnotationProcessorTest extends BaseRestApiTest {
                   .payload("{ \"destroyvirtualmachineresponse\" : {\"jobid\":4} }").build()), Long.valueOf(4));
    }
 
+   public void selectIterator() throws Exception {
+      Invokable<?, ?> method = method(TestPut.class, "selectIterator");
+      GeneratedHttpRequest request = processor.apply(Invocation.create(method));
+
+      assertResponseParserClassEquals(method, request, ParseJsonArrayLazily.class);
+      Function<HttpResponse, ?> parser = transformer.apply(request);
+
+      assertEquals(ImmutableList.copyOf((Iterator<?>) parser.apply(HttpResponse.builder().statusCode(200)
+            .message("ok").payload("{ \"count\":2, \"events\" : [\"start\", \"stop\"] }").build())),
+            ImmutableList.of("start", "stop"));
+   }
+
    public void selectLongAddOne() throws Exception {
       Invokable<?, ?> method = method(TestPut.class, "selectLongAddOne");
       GeneratedHttpRequest request = processor.apply(Invocation.create(method));
@@ -0,0 +1,126 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.internal;
+
+import static org.jclouds.reflect.Reflection2.method;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertTrue;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.inject.Named;
+
+import org.jclouds.http.HttpRequest;
+import org.jclouds.http.HttpResponse;
+import org.jclouds.reflect.Invocation;
+import org.jclouds.rest.annotations.SingleFlight;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+
+@Test(groups = "unit", testName = "SingleFlightInvocationsTest")
+public class SingleFlightInvocationsTest {
+
+   public interface ThingApi {
+      @Named("ns:get")
+      @SingleFlight
+      String get();
+
+      @Named("ns:list")
+      String list();
+
+      @Named("ns:response")
+      @SingleFlight
+      HttpResponse response();
+   }
+
+   private final Invocation get = Invocation.create(method(ThingApi.class, "get"), ImmutableList.of());
+   private final Invocation list = Invocation.create(method(ThingApi.class, "list"), ImmutableList.of());
+   private final Invocation response = Invocation.create(method(ThingApi.class, "response"), ImmutableList.of());
+   private final HttpRequest getRequest = HttpRequest.builder().method("GET").endpoint("http://get").build();
+   private final HttpRequest postRequest = HttpRequest.builder().method("POST").endpoint("http://get").build();
+
+   public void testDisabledByDefault() {
+      assertFalse(new SingleFlightInvocations().appliesTo(get, "ns:get", getRequest));
+   }
+
+   public void testTrueEnablesAnnotatedMethods() {
+      SingleFlightInvocations singleFlight = new SingleFlightInvocations();
+      singleFlight.enableFor("true");
+      assertTrue(singleFlight.appliesTo(get, "ns:get", getRequest));
+      assertFalse(singleFlight.appliesTo(list, "ns:list", getRequest));
+      assertFalse(singleFlight.appliesTo(get, "ns:get", postRequest));
+      assertFalse(singleFlight.appliesTo(response, "ns:response", getRequest));
+   }
+
+   public void testCommandNamesEnableOnlyThoseMethods() {
+      SingleFlightInvocations singleFlight = new SingleFlightInvocations();
+      singleFlight.enableFor("ns:list, ns:other");
+      assertFalse(singleFlight.appliesTo(get, "ns:get", getRequest));
+      assertTrue(singleFlight.appliesTo(list, "ns:list", getRequest));
+   }
+
+   public void testConcurrentIdenticalRequestsShareResult() throws Exception {
+      final SingleFlightInvocations singleFlight = new SingleFlightInvocations();
+      final AtomicInteger calls = new AtomicInteger();
+      final AtomicReference<Object> joined = new AtomicReference<Object>();
+      final Callable<Object> follower = new Callable<Object>() {
+         @Override
+         public Object call() {
+            return "follower-" + calls.incrementAndGet();
+         }
+      };
+      Object result = singleFlight.invoke(get, getRequest, new Callable<Object>() {
+         @Override
+         public Object call() throws Exception {
+            Thread thread = new Thread() {
+               @Override
+               public void run() {
+                  joined.set(singleFlight.invoke(get, getRequest, follower));
+               }
+            };
+            thread.start();
+            // wait until the follower blocks on the in-flight request
+            while (thread.getState() != Thread.State.WAITING && thread.isAlive())
+               Thread.sleep(10);
+            calls.incrementAndGet();
+            return "leader";
+         }
+      });
+      assertEquals(result, "leader");
+      while (joined.get() == null)
+         Thread.sleep(10);
+      assertEquals(joined.get(), "leader");
+      assertEquals(calls.get(), 1);
+
+      // once completed, the next request is sent again
+      assertEquals(singleFlight.invoke(get, getRequest, follower), "follower-2");
+   }
+
+   @Test(expectedExceptions = IllegalStateException.class)
+   public void testExceptionsArePropagated() {
+      new SingleFlightInvocations().invoke(get, getRequest, new Callable<Object>() {
+         @Override
+         public Object call() {
+            throw new IllegalStateException();
+         }
+      });
+   }
+}
@@ -0,0 +1,206 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.rest.suppliers;
+
+import static com.google.common.util.concurrent.MoreExecutors.newDirectExecutorService;
+import static org.jclouds.providers.AnonymousProviderMetadata.forApiOnEndpoint;
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertTrue;
+import static org.testng.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.jclouds.Constants;
+import org.jclouds.ContextBuilder;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.domain.Location;
+import org.jclouds.domain.LocationBuilder;
+import org.jclouds.domain.LocationScope;
+import org.jclouds.domain.internal.LocationSnapshot;
+import org.jclouds.http.IntegrationTestClient;
+import org.jclouds.rest.AuthorizationException;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.base.Functions;
+import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.reflect.TypeToken;
+import com.google.common.io.MoreFiles;
+import com.google.common.io.RecursiveDeleteOption;
+import com.google.common.util.concurrent.Atomics;
+import com.google.inject.Injector;
+
+@Test(groups = "unit", testName = "SnapshotStoreTest", singleThreaded = true)
+public class SnapshotStoreTest {
+
+   private static final Location PROVIDER = new LocationBuilder().scope(LocationScope.PROVIDER).id("provider")
+         .description("provider").build();
+   private static final Location REGION = new LocationBuilder().scope(LocationScope.REGION).id("region")
+         .description("region").parent(PROVIDER).iso3166Codes(ImmutableSet.of("US-CA")).build();
+
+   private File directory;
+
+   @BeforeMethod
+   public void createDirectory() throws IOException {
+      directory = Files.createTempDirectory("snapshots").toFile();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void deleteDirectory() throws IOException {
+      MoreFiles.deleteRecursively(directory.toPath(), RecursiveDeleteOption.ALLOW_INSECURE);
+   }
+
+   public void testDisabledWithoutDirectory() {
+      SnapshotStore snapshots = store(null, "identity");
+      assertFalse(snapshots.isEnabled());
+      assertFalse(snapshots.read("locations", List.class).isPresent());
+   }
+
+   public void testServesSnapshotOfPreviousRunAndRefreshesInBackground() throws Exception {
+      CountingSupplier first = new CountingSupplier(ImmutableSet.of(REGION));
+      WarmStartSupplier<Set<? extends Location>> firstRun = warmStart(store(directory, "identity"), first);
+      assertFalse(firstRun.getSnapshot().isPresent());
+      assertEquals(firstRun.get(), ImmutableSet.of(REGION));
+      assertEquals(first.calls.get(), 1);
+      assertSnapshotWritten();
+
+      CountingSupplier second = new CountingSupplier(ImmutableSet.of(PROVIDER));
+      WarmStartSupplier<Set<? extends Location>> secondRun = warmStart(store(directory, "identity"), second);
+      Set<? extends Location> restored = secondRun.get();
+      assertEquals(restored, ImmutableSet.of(REGION));
+      Location region = restored.iterator().next();
+      assertEquals(region.getParent(), PROVIDER);
+      assertEquals(region.getIso3166Codes(), ImmutableSet.of("US-CA"));
+
+      assertEquals(secondRun.backgroundRefresh().get(), ImmutableSet.of(PROVIDER));
+      assertEquals(secondRun.get(), ImmutableSet.of(PROVIDER));
+      assertEquals(second.calls.get(), 1);
+      assertEquals(secondRun.get(), ImmutableSet.of(PROVIDER));
+      assertEquals(second.calls.get(), 2);
+   }
+
+   public void testSnapshotsAreKeyedByIdentity() throws Exception {
+      warmStart(store(directory, "identity"), new CountingSupplier(ImmutableSet.of(REGION))).get();
+      assertSnapshotWritten();
+
+      WarmStartSupplier<Set<? extends Location>> otherIdentity = warmStart(store(directory, "other"),
+            new CountingSupplier(ImmutableSet.of(PROVIDER)));
+      assertFalse(otherIdentity.getSnapshot().isPresent());
+   }
+
+   public void testIgnoresUnparsableSnapshot() throws Exception {
+      warmStart(store(directory, "identity"), new CountingSupplier(ImmutableSet.of(REGION))).get();
+      assertSnapshotWritten();
+      File[] files = directory.listFiles();
+      Files.write(files[0].toPath(), "not json".getBytes());
+
+      assertFalse(warmStart(store(directory, "identity"), new CountingSupplier(ImmutableSet.of(REGION)))
+            .getSnapshot().isPresent());
+   }
+
+   public void testBackgroundRefreshSharesAuthorizationFailure() throws Exception {
+      warmStart(store(directory, "identity"), new CountingSupplier(ImmutableSet.of(REGION))).get();
+      assertSnapshotWritten();
+
+      AtomicReference<AuthorizationException> authException = Atomics.newReference();
+      CountingSupplier unauthorized = new CountingSupplier(ImmutableSet.of(REGION)) {
+         @Override
+         public Set<? extends Location> get() {
+            super.get();
+            throw new AuthorizationException("bad credential");
+         }
+      };
+      WarmStartSupplier<Set<? extends Location>> secondRun = warmStart(store(directory, "identity"), authException,
+            unauthorized);
+      assertEquals(secondRun.get(), ImmutableSet.of(REGION));
+      assertTrue(secondRun.backgroundRefresh().isDone());
+      assertNotNull(authException.get());
+
+      // later loads are short-circuited instead of hitting the provider again
+      try {
+         secondRun.get();
+         fail("expected AuthorizationException");
+      } catch (AuthorizationException expected) {
+      }
+      assertEquals(unauthorized.calls.get(), 1);
+   }
+
+   public void testDeletesSnapshotThatCannotBePersisted() throws Exception {
+      warmStart(store(directory, "identity"), new CountingSupplier(ImmutableSet.of(REGION))).get();
+      assertSnapshotWritten();
+
+      store(directory, "identity").warmStart("locations", Atomics.<AuthorizationException> newReference(),
+            new CountingSupplier(ImmutableSet.of(PROVIDER)), new TypeToken<List<LocationSnapshot>>() {
+            }.getType(), Functions.<List<LocationSnapshot>> constant(null), LocationSnapshot.TO_LOCATIONS).get();
+      assertEquals(directory.listFiles().length, 0);
+   }
+
+   private void assertSnapshotWritten() {
+      File[] files = directory.listFiles();
+      assertEquals(files.length, 1);
+      assertTrue(files[0].getName().endsWith("-locations.json"), files[0].getName());
+   }
+
+   private static WarmStartSupplier<Set<? extends Location>> warmStart(SnapshotStore snapshots,
+         Supplier<Set<? extends Location>> live) {
+      return warmStart(snapshots, Atomics.<AuthorizationException> newReference(), live);
+   }
+
+   private static WarmStartSupplier<Set<? extends Location>> warmStart(SnapshotStore snapshots,
+         AtomicReference<AuthorizationException> authException, Supplier<Set<? extends Location>> live) {
+      return snapshots.warmStart("locations", authException, live, new TypeToken<List<LocationSnapshot>>() {
+      }.getType(), LocationSnapshot.FROM_LOCATIONS, LocationSnapshot.TO_LOCATIONS);
+   }
+
+   private static SnapshotStore store(File directory, String identity) {
+      Properties overrides = new Properties();
+      if (directory != null) {
+         overrides.setProperty(Constants.PROPERTY_CACHE_SNAPSHOT_DIR, directory.getAbsolutePath());
+      }
+      // runs refreshes and writes on the calling thread
+      Injector injector = ContextBuilder.newBuilder(forApiOnEndpoint(IntegrationTestClient.class, "http://localhost"))
+            .credentials(identity, "credential").overrides(overrides)
+            .modules(ImmutableSet.of(new ExecutorServiceModule(newDirectExecutorService()))).buildInjector();
+      return injector.getInstance(SnapshotStore.class);
+   }
+
+   private static class CountingSupplier implements Supplier<Set<? extends Location>> {
+      private final AtomicInteger calls = new AtomicInteger();
+      private final Set<? extends Location> value;
+
+      CountingSupplier(Set<? extends Location> value) {
+         this.value = value;
+      }
+
+      @Override
+      public Set<? extends Location> get() {
+         calls.incrementAndGet();
+         return value;
+      }
+   }
+}
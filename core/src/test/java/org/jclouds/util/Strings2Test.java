@@ -19,9 +19,13 @@ package org.jclouds.util;
 import static org.jclouds.util.Strings2.urlDecode;
 import static org.jclouds.util.Strings2.urlEncode;
 import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+
+import java.net.URLEncoder;
 
 import org.testng.annotations.Test;
 
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableMultimap;
 
@@ -34,6 +38,44 @@ public class Strings2Test {
       assertEquals(Strings2.replaceTokens("hello {where}", ImmutableMultimap.of("where", "$1,000,000 \\o/!")), "hello $1,000,000 \\o/!");
    }
 
+   public void testReplaceTokensMultimap() {
+      assertEquals(Strings2.replaceTokens("{a}/{b}/{a}/{c}", ImmutableMultimap.of("a", "1", "b", "2", "a", "3")),
+            "1/2/1/{c}");
+      assertEquals(Strings2.replaceTokens("{x{a}}", ImmutableMultimap.of("a", "1")), "{x1}");
+      assertEquals(Strings2.replaceTokens("{a", ImmutableMultimap.of("a", "1")), "{a");
+   }
+
+   public void testUrlEncodeMatchesUrlEncoder() throws Exception {
+      String in = "a b*c+d/e,f~g.h-i_j!k'l(m)n%o\u00e9p\u4e2d\ud83d\ude00q";
+      String expected = URLEncoder.encode(in, "UTF-8").replace("+", "%20").replace("*", "%2A");
+      assertEquals(urlEncode(in), expected);
+      assertEquals(urlEncode(in, '/', ','), expected.replace("%2F", "/").replace("%2C", ","));
+      assertEquals(urlEncode(in, ImmutableList.of('/')), expected.replace("%2F", "/"));
+      // spaces and '*' have always been encoded, even when asked not to
+      assertEquals(urlEncode(in, ' ', '*'), expected);
+   }
+
+   public void testUrlEncodeKeepsReplaceChainOutput() {
+      // the skip set of ChefApi: '+' is decoded first, then the '+' it produced becomes a space
+      char[] chef = { '+', ' ', '/', '=', ':', ';' };
+      assertEquals(urlEncode("a+b", chef), "a b");
+      assertEquals(urlEncode("tag:a+b c", chef), "tag:a b%20c");
+      assertEquals(urlEncode("a+b", ' ', '+'), "a+b");
+      assertEquals(urlEncode("100% a", '%'), "100% a".replace(" ", "%20"));
+      assertEquals(urlEncode("caf\u00e9", '\u00e9'), "caf\u00e9");
+   }
+
+   public void testUrlEncodeReplacesUnpairedSurrogates() throws Exception {
+      String in = "a\ud800b";
+      assertEquals(urlEncode(in), URLEncoder.encode(in, "UTF-8"));
+      assertEquals(urlEncode(in, '/'), URLEncoder.encode(in, "UTF-8"));
+   }
+
+   public void testUrlEncodeReturnsSafeInputAsIs() {
+      String in = "abc-123_DEF.txt";
+      assertSame(urlEncode(in), in);
+   }
+
    public void testUrlEncodeDecodeShouldGiveTheSameString() {
       String actual = "ssh-rsa AAAAB3NzaC1yc2EAAAADAQABAAABAQCc903twxU2zcQnIJdXv61RwZNZW94uId9qz08fgsBJsCOnHNIC4+L9k" +
          "DOA2IHV9cUfEDBm1Be5TbpadWwSbS/05E+FARH2/MCO932UgcKUq5PGymS0249fLCBPci5zoLiG5vIym+1ij1hL/nHvkK99NIwe7io+Lmp" +
@@ -31,6 +31,11 @@ import com.google.inject.ImplementedBy;
  * <p>
  * Note that it should configured it in the Guice module designated as
  * <code>@ConfiguresHttpApi</code>.
+ * <p>
+ * Each context derives its client from the supplied one, so an implementation
+ * returning the same client every time shares its connection pool and
+ * dispatcher across contexts, for example through
+ * {@link org.jclouds.concurrent.SharedRuntime.Builder#share}.
  */
 @Beta
 @ImplementedBy(NewOkHttpClient.class)
@@ -16,13 +16,20 @@
  */
 package org.jclouds.http.okhttp.config;
 
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import jakarta.inject.Named;
 import javax.net.ssl.HostnameVerifier;
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.X509TrustManager;
 
+import okhttp3.Dns;
 import okhttp3.OkHttpClient;
 
 import org.jclouds.http.HttpCommandExecutorService;
@@ -75,7 +82,8 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
 
       @Override
       public OkHttpClient get() {
-         OkHttpClient.Builder clientBuilder = clientSupplier.get().newBuilder()
+         OkHttpClient client = clientSupplier.get();
+         OkHttpClient.Builder clientBuilder = client.newBuilder()
             .connectTimeout(utils.getConnectionTimeout(), TimeUnit.MILLISECONDS)
             .readTimeout(utils.getSocketOpenTimeout(), TimeUnit.MILLISECONDS)
             // do not follow redirects since https redirects don't work properly
@@ -83,6 +91,9 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
             // <adriancole.s3int0.s3-external-3.amazonaws.com>
             .followRedirects(false);
 
+         if (client.dns() == Dns.SYSTEM) {
+            clientBuilder.dns(new RoundRobinDns());
+         }
          if (utils.relaxHostname()) {
             clientBuilder.hostnameVerifier(verifier);
          }
@@ -94,4 +105,25 @@ public class OkHttpCommandExecutorServiceModule extends AbstractModule {
       }
    }
 
+   /**
+    * OkHttp connects to the first address of a host that accepts connections, so with the system resolver every
+    * connection to a host with several addresses goes to the same one. Rotating the addresses spreads new pooled
+    * connections across them, while the remaining addresses are still tried on failure.
+    */
+   private static final class RoundRobinDns implements Dns {
+      private final AtomicInteger next = new AtomicInteger();
+
+      @Override
+      public List<InetAddress> lookup(String hostname) throws UnknownHostException {
+         // the jvm caches lookups according to networkaddress.cache.ttl
+         List<InetAddress> addresses = Dns.SYSTEM.lookup(hostname);
+         if (addresses.size() < 2) {
+            return addresses;
+         }
+         List<InetAddress> rotated = new ArrayList<InetAddress>(addresses);
+         Collections.rotate(rotated, -((next.getAndIncrement() & Integer.MAX_VALUE) % rotated.size()));
+         return rotated;
+      }
+   }
+
 }
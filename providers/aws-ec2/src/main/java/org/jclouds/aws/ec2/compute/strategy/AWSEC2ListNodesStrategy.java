@@ -23,6 +23,7 @@ import static com.google.common.collect.Iterables.filter;
 import static com.google.common.collect.Iterables.toArray;
 import static com.google.common.collect.Iterables.transform;
 
+import java.util.List;
 import java.util.Set;
 
 import jakarta.inject.Named;
@@ -34,12 +35,14 @@ import org.jclouds.aws.ec2.domain.AWSRunningInstance;
 import org.jclouds.aws.ec2.domain.SpotInstanceRequest;
 import org.jclouds.aws.ec2.functions.SpotInstanceRequestToAWSRunningInstance;
 import org.jclouds.compute.domain.NodeMetadata;
+import org.jclouds.compute.functions.GroupNamingConvention;
 import org.jclouds.ec2.compute.strategy.EC2ListNodesStrategy;
 import org.jclouds.ec2.domain.RunningInstance;
 import org.jclouds.location.Region;
 
 import com.google.common.base.Function;
 import com.google.common.base.Supplier;
+import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.Multimap;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.inject.Inject;
@@ -54,8 +57,8 @@ public class AWSEC2ListNodesStrategy extends EC2ListNodesStrategy {
    protected AWSEC2ListNodesStrategy(AWSEC2Api client, @Region Supplier<Set<String>> regions,
             Function<RunningInstance, NodeMetadata> runningInstanceToNodeMetadata,
             @Named(Constants.PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
-            SpotInstanceRequestToAWSRunningInstance spotConverter) {
-      super(client, regions, runningInstanceToNodeMetadata, userExecutor);
+            GroupNamingConvention.Factory namingConvention, SpotInstanceRequestToAWSRunningInstance spotConverter) {
+      super(client, regions, runningInstanceToNodeMetadata, userExecutor, namingConvention);
       this.client = checkNotNull(client, "client");
       this.spotConverter = checkNotNull(spotConverter, "spotConverter");
    }
@@ -69,6 +72,15 @@ public class AWSEC2ListNodesStrategy extends EC2ListNodesStrategy {
       return concat(super.pollRunningInstances(), spots);
    }
 
+   @Override
+   protected Iterable<? extends RunningInstance> pollRunningInstancesInRegion(String region,
+         List<Multimap<String, String>> filters) {
+      Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(ImmutableSet.of(region),
+                                                                                       allSpotInstancesInRegion())),
+                                                                      spotConverter), notNull());
+      return concat(super.pollRunningInstancesInRegion(region, filters), spots);
+   }
+
    @Override
    protected Iterable<? extends RunningInstance> pollRunningInstancesByRegionsAndIds(final Multimap<String, String> idsByRegions) {
       Iterable<? extends AWSRunningInstance> spots = filter(transform(concat(transform(idsByRegions.keySet(),
@@ -35,8 +35,10 @@ import jakarta.inject.Named;
 
 import org.jclouds.aws.ec2.compute.config.ClusterCompute;
 import org.jclouds.aws.ec2.compute.config.ImageQuery;
+import org.jclouds.collect.Memoized;
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.domain.Location;
 import org.jclouds.ec2.compute.domain.RegionAndName;
 import org.jclouds.ec2.compute.functions.ImagesToRegionAndIdMap;
 import org.jclouds.location.Region;
@@ -66,6 +68,7 @@ public final class AWSEC2ImageSupplier implements Supplier<Set<? extends Image>>
    private final ListeningExecutorService userExecutor;
 
    private final Supplier<Set<String>> regions;
+   private final Supplier<Set<? extends Location>> locations;
    private final Map<String, String> queries;
    private final Iterable<String> clusterRegions;
    private final Supplier<LoadingCache<RegionAndName, ? extends Image>> cache;
@@ -74,9 +77,11 @@ public final class AWSEC2ImageSupplier implements Supplier<Set<? extends Image>>
          @Named(PROPERTY_EC2_CC_REGIONS) String clusterRegions,
          Supplier<LoadingCache<RegionAndName, ? extends Image>> cache, CallForImages.Factory factory,
          @ClusterCompute Set<String> clusterComputeIds,
-         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor) {
+         @Named(PROPERTY_USER_THREADS) ListeningExecutorService userExecutor,
+         @Memoized Supplier<Set<? extends Location>> locations) {
       this.factory = factory;
       this.regions = regions;
+      this.locations = locations;
       this.queries = queries;
       this.clusterRegions = Splitter.on(',').split(clusterRegions);
       this.cache = cache;
@@ -91,6 +96,8 @@ public final class AWSEC2ImageSupplier implements Supplier<Set<? extends Image>>
       String ccAmiQuery = queries.get(PROPERTY_EC2_CC_AMI_QUERY);
 
       Set<String> regionIds = regions.get();
+      // images are parsed as soon as their region is described, and parsing them needs the locations
+      locations.get();
 
       ListenableFuture<Iterable<Image>> normalImages = images(regionIds, amiQuery, PROPERTY_EC2_AMI_QUERY);
       ImmutableSet<Image> clusterImages;
@@ -119,7 +126,8 @@ public final class AWSEC2ImageSupplier implements Supplier<Set<? extends Image>>
       }
 
       Map<RegionAndName, ? extends Image> imageMap = ImagesToRegionAndIdMap.imagesToMap(parsedImages);
-      cache.get().invalidateAll();
+      // rather than invalidating first, which would leave the cache empty until all images are put back
+      cache.get().asMap().keySet().retainAll(imageMap.keySet());
       cache.get().putAll(Map.class.cast(imageMap));
       logger.debug("<< images(%d)", imageMap.size());
 
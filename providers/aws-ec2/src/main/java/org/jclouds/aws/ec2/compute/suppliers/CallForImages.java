@@ -16,11 +16,18 @@
  */
 package org.jclouds.aws.ec2.compute.suppliers;
 
-import static com.google.common.collect.Iterables.filter;
-import static com.google.common.collect.Iterables.transform;
+import static com.google.common.collect.Iterables.concat;
+import static com.google.common.util.concurrent.Futures.addCallback;
+import static com.google.common.util.concurrent.Futures.allAsList;
+import static com.google.common.util.concurrent.Futures.getUnchecked;
+import static com.google.common.util.concurrent.MoreExecutors.directExecutor;
 import static org.jclouds.aws.ec2.options.AWSDescribeImagesOptions.Builder.filters;
+import static org.jclouds.ec2.compute.functions.ImagesToRegionAndIdMap.putInto;
 
+import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
 import java.util.concurrent.Callable;
 
 import jakarta.annotation.Resource;
@@ -29,16 +36,19 @@ import jakarta.inject.Named;
 
 import org.jclouds.compute.domain.Image;
 import org.jclouds.compute.reference.ComputeServiceConstants;
+import org.jclouds.ec2.compute.domain.RegionAndName;
 import org.jclouds.ec2.compute.functions.EC2ImageParser;
 import org.jclouds.ec2.compute.strategy.DescribeImagesParallel;
 import org.jclouds.ec2.options.DescribeImagesOptions;
 import org.jclouds.logging.Logger;
 
-import com.google.common.base.Predicates;
+import com.google.common.base.Supplier;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ImmutableMap;
-import com.google.common.collect.Iterables;
-import com.google.common.collect.Multimap;
 import com.google.common.collect.ImmutableMap.Builder;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.inject.assistedinject.Assisted;
 
 public class CallForImages implements Callable<Iterable<Image>> {
@@ -54,16 +64,20 @@ public class CallForImages implements Callable<Iterable<Image>> {
    private final DescribeImagesParallel describer;
    private final EC2ImageParser parser;
    private final Multimap<String, String> filter;
+   private final Supplier<LoadingCache<RegionAndName, ? extends Image>> cache;
 
    @Inject
-   protected CallForImages(DescribeImagesParallel describer, EC2ImageParser parser, @Assisted Iterable<String> regions,
+   protected CallForImages(DescribeImagesParallel describer, EC2ImageParser parser,
+            Supplier<LoadingCache<RegionAndName, ? extends Image>> cache, @Assisted Iterable<String> regions,
             @Assisted Multimap<String, String> filter) {
       this.regions = regions;
       this.describer = describer;
       this.filter = filter;
       this.parser = parser;
+      this.cache = cache;
    }
 
+   @SuppressWarnings({ "unchecked", "rawtypes" })
    public Iterable<Image> call() {
 
       logger.debug(">> providing images");
@@ -74,9 +88,14 @@ public class CallForImages implements Callable<Iterable<Image>> {
 
       Iterable<Entry<String, DescribeImagesOptions>> queries = builder.build().entrySet();
 
-      Iterable<Image> returnVal = filter(transform(describer.apply(queries), parser), Predicates.notNull());
-      if (logger.isDebugEnabled())
-         logger.debug("<< images(%s)", Iterables.size(returnVal));
+      // images of each region become available for lookup as soon as that region is parsed
+      Map<RegionAndName, Image> cacheMap = (Map) cache.get().asMap();
+      List<ListenableFuture<Set<Image>>> regionImages = describer.describeAndConvert(queries, parser);
+      for (ListenableFuture<Set<Image>> images : regionImages)
+         addCallback(images, putInto(cacheMap), directExecutor());
+
+      Set<Image> returnVal = ImmutableSet.copyOf(concat(getUnchecked(allAsList(regionImages))));
+      logger.debug("<< images(%s)", returnVal.size());
       return returnVal;
    }
 
@@ -23,9 +23,17 @@ import java.util.Date;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
 
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
+
+import org.jclouds.Constants;
 
 import org.jclouds.b2.B2Api;
 import org.jclouds.b2.B2ResponseException;
@@ -70,6 +78,7 @@ import org.jclouds.blobstore.options.PutOptions;
 import org.jclouds.blobstore.util.BlobUtils;
 import org.jclouds.collect.Memoized;
 import org.jclouds.domain.Location;
+import org.jclouds.http.HttpResponseException;
 import org.jclouds.io.ContentMetadata;
 import org.jclouds.io.ContentMetadataBuilder;
 import org.jclouds.io.MutableContentMetadata;
@@ -80,6 +89,7 @@ import org.jclouds.io.payloads.BaseMutableContentMetadata;
 import com.google.common.base.Preconditions;
 import com.google.common.base.Strings;
 import com.google.common.base.Supplier;
+import com.google.common.base.Throwables;
 import com.google.common.cache.CacheBuilder;
 import com.google.common.cache.CacheLoader;
 import com.google.common.cache.LoadingCache;
@@ -89,19 +99,35 @@ import com.google.common.net.HttpHeaders;
 import com.google.common.util.concurrent.UncheckedExecutionException;
 
 public final class B2BlobStore extends BaseBlobStore {
+   /** Upload authorization tokens are valid for 24 hours; stop handing out pooled URLs well before that. */
+   private static final long MAX_POOLED_URL_AGE_NANOS = TimeUnit.HOURS.toNanos(23);
+
    private final B2Api api;
    private final BlobToHttpGetOptions blob2ObjectGetOptions;
    private final LoadingCache<String, Bucket> bucketNameToBucket;
    private final Supplier<Authorization> auth;
+   /**
+    * B2 upload URLs and their tokens may only be used by one uploader at a time.  Pool them per bucket id and per
+    * large file id so that concurrent uploads each lease their own instead of requesting a new one for every call.
+    * A URL that fails with 401, 408 or 503 is dropped, as B2 requires, and entries expire by age.
+    */
+   private final ConcurrentMap<String, BlockingQueue<PooledUrl<UploadUrlResponse>>> uploadUrls =
+         new ConcurrentHashMap<String, BlockingQueue<PooledUrl<UploadUrlResponse>>>();
+   private final ConcurrentMap<String, BlockingQueue<PooledUrl<GetUploadPartResponse>>> uploadPartUrls =
+         new ConcurrentHashMap<String, BlockingQueue<PooledUrl<GetUploadPartResponse>>>();
+   private final int maxPooledUploadUrls;
 
    @Inject
    B2BlobStore(BlobStoreContext context, BlobUtils blobUtils, Supplier<Location> defaultLocation,
             @Memoized Supplier<Set<? extends Location>> locations, PayloadSlicer slicer, final B2Api api,
-            BlobToHttpGetOptions blob2ObjectGetOptions, @Memoized Supplier<Authorization> auth) {
+            BlobToHttpGetOptions blob2ObjectGetOptions, @Memoized Supplier<Authorization> auth,
+            @Named(Constants.PROPERTY_USER_THREADS) int userThreads) {
       super(context, blobUtils, defaultLocation, locations, slicer);
       this.api = api;
       this.blob2ObjectGetOptions = blob2ObjectGetOptions;
       this.auth = auth;
+      // a user thread count of zero means unbounded; cap the pool at a sane size instead
+      this.maxPooledUploadUrls = userThreads > 0 ? userThreads : 50;
       this.bucketNameToBucket = CacheBuilder.newBuilder()
             .expireAfterWrite(5, TimeUnit.MINUTES)
             .build(new CacheLoader<String, Bucket>() {
@@ -240,8 +266,25 @@ public final class B2BlobStore extends BaseBlobStore {
          String oldFileId = getFileId(container, name);
 
          Bucket bucket = getBucket(container);
-         UploadUrlResponse uploadUrl = api.getObjectApi().getUploadUrl(bucket.bucketId());
-         UploadFileResponse uploadFile = api.getObjectApi().uploadFile(uploadUrl, name, null, blob.getMetadata().getUserMetadata(), blob.getPayload());
+         PooledUrl<UploadUrlResponse> uploadUrl = lease(uploadUrls, bucket.bucketId());
+         if (uploadUrl == null) {
+            uploadUrl = new PooledUrl<UploadUrlResponse>(api.getObjectApi().getUploadUrl(bucket.bucketId()));
+         }
+         UploadFileResponse uploadFile;
+         try {
+            uploadFile = api.getObjectApi().uploadFile(uploadUrl.url, name, null,
+                  blob.getMetadata().getUserMetadata(), blob.getPayload());
+         } catch (HttpResponseException hre) {
+            if (!requiresNewUploadUrl(hre) || !blob.getPayload().isRepeatable()) {
+               throw hre;
+            }
+            // drop the failed URL and retry once with a fresh one
+            uploadUrl = new PooledUrl<UploadUrlResponse>(api.getObjectApi().getUploadUrl(bucket.bucketId()));
+            uploadFile = api.getObjectApi().uploadFile(uploadUrl.url, name, null,
+                  blob.getMetadata().getUserMetadata(), blob.getPayload());
+         }
+         // only return the URL to the pool after success
+         release(uploadUrls, bucket.bucketId(), uploadUrl);
 
          if (oldFileId != null) {
             api.getObjectApi().deleteFileVersion(name, oldFileId);
@@ -334,6 +377,7 @@ public final class B2BlobStore extends BaseBlobStore {
          }
          throw bre;
       }
+      uploadUrls.remove(bucket.bucketId());
       return true;
    }
 
@@ -346,6 +390,7 @@ public final class B2BlobStore extends BaseBlobStore {
 
    @Override
    public void abortMultipartUpload(MultipartUpload mpu) {
+      uploadPartUrls.remove(mpu.id());
       api.getMultipartApi().cancelLargeFile(mpu.id());
    }
 
@@ -355,14 +400,29 @@ public final class B2BlobStore extends BaseBlobStore {
       for (MultipartPart part : parts) {
          sha1.add(part.partETag());
       }
+      uploadPartUrls.remove(mpu.id());
       B2Object b2Object = api.getMultipartApi().finishLargeFile(mpu.id(), sha1.build());
       return b2Object.contentSha1();  // this is always "none"
    }
 
    @Override
    public MultipartPart uploadMultipartPart(MultipartUpload mpu, int partNumber, Payload payload) {
-      GetUploadPartResponse getUploadPart = api.getMultipartApi().getUploadPartUrl(mpu.id());
-      UploadPartResponse uploadPart = api.getMultipartApi().uploadPart(getUploadPart, partNumber, null, payload);
+      PooledUrl<GetUploadPartResponse> getUploadPart = lease(uploadPartUrls, mpu.id());
+      if (getUploadPart == null) {
+         getUploadPart = new PooledUrl<GetUploadPartResponse>(api.getMultipartApi().getUploadPartUrl(mpu.id()));
+      }
+      UploadPartResponse uploadPart;
+      try {
+         uploadPart = api.getMultipartApi().uploadPart(getUploadPart.url, partNumber, null, payload);
+      } catch (HttpResponseException hre) {
+         if (!requiresNewUploadUrl(hre) || !payload.isRepeatable()) {
+            throw hre;
+         }
+         // drop the failed URL and retry once with a fresh one
+         getUploadPart = new PooledUrl<GetUploadPartResponse>(api.getMultipartApi().getUploadPartUrl(mpu.id()));
+         uploadPart = api.getMultipartApi().uploadPart(getUploadPart.url, partNumber, null, payload);
+      }
+      release(uploadPartUrls, mpu.id(), getUploadPart);
 
       Date lastModified = null;  // B2 does not return Last-Modified
       String contentSha1 = uploadPart.contentSha1();
@@ -430,6 +490,62 @@ public final class B2BlobStore extends BaseBlobStore {
       return bucket;
    }
 
+   /** B2 requires a new upload URL after these responses instead of retrying the same one. */
+   private static boolean requiresNewUploadUrl(HttpResponseException hre) {
+      // the response may only be attached to a cause, e.g. when the error body could not be parsed
+      for (Throwable t : Throwables.getCausalChain(hre)) {
+         if (t instanceof HttpResponseException && ((HttpResponseException) t).getResponse() != null) {
+            int status = ((HttpResponseException) t).getResponse().getStatusCode();
+            return status == 401 || status == 408 || status == 503;
+         }
+      }
+      return false;
+   }
+
+   private <T> PooledUrl<T> lease(ConcurrentMap<String, BlockingQueue<PooledUrl<T>>> pool, String id) {
+      BlockingQueue<PooledUrl<T>> queue = pool.get(id);
+      if (queue == null) {
+         BlockingQueue<PooledUrl<T>> newQueue = new ArrayBlockingQueue<PooledUrl<T>>(maxPooledUploadUrls);
+         queue = pool.putIfAbsent(id, newQueue);
+         if (queue == null) {
+            return null;
+         }
+      }
+      long now = System.nanoTime();
+      PooledUrl<T> pooled;
+      while ((pooled = queue.poll()) != null) {
+         if (now - pooled.createdNanos < MAX_POOLED_URL_AGE_NANOS) {
+            return pooled;
+         }
+      }
+      return null;
+   }
+
+   /**
+    * Returns a URL to its pool.  The pool is only ever created by {@link #lease}, so a URL released after the
+    * container was deleted or the large file was completed or aborted is simply discarded.
+    */
+   private static <T> void release(ConcurrentMap<String, BlockingQueue<PooledUrl<T>>> pool, String id,
+         final PooledUrl<T> uploadUrl) {
+      pool.computeIfPresent(id, new BiFunction<String, BlockingQueue<PooledUrl<T>>, BlockingQueue<PooledUrl<T>>>() {
+         @Override
+         public BlockingQueue<PooledUrl<T>> apply(String key, BlockingQueue<PooledUrl<T>> queue) {
+            // discard the URL when the pool is full
+            queue.offer(uploadUrl);
+            return queue;
+         }
+      });
+   }
+
+   private static final class PooledUrl<T> {
+      private final T url;
+      private final long createdNanos = System.nanoTime();
+
+      private PooledUrl(T url) {
+         this.url = url;
+      }
+   }
+
    private String getFileId(String container, String name) {
       Bucket bucket = getBucket(container);
       B2ObjectList list = api.getObjectApi().listFileNames(bucket.bucketId(), name, 1);
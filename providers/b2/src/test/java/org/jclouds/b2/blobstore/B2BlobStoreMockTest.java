@@ -0,0 +1,215 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.b2.blobstore;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.util.List;
+
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import org.jclouds.ContextBuilder;
+import org.jclouds.blobstore.BlobStore;
+import org.jclouds.blobstore.BlobStoreContext;
+import org.jclouds.blobstore.domain.Blob;
+import org.jclouds.blobstore.domain.MultipartPart;
+import org.jclouds.blobstore.domain.MultipartUpload;
+import org.jclouds.blobstore.options.PutOptions;
+import org.jclouds.concurrent.config.ExecutorServiceModule;
+import org.jclouds.io.Payloads;
+import org.jclouds.util.Strings2;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.inject.Module;
+
+@Test(groups = "unit", testName = "B2BlobStoreMockTest", singleThreaded = true)
+public final class B2BlobStoreMockTest {
+   private static final String BUCKET_NAME = "Kitten Videos";
+   private static final String BUCKET_ID = "4a48fe8875c6214145260818";
+   private static final String FILE_ID = "4_za71f544e781e6891531b001a_f200ec353a2184825_d20160409_m004829_c000_v0001016_t0028";
+   private static final String UPLOAD_PART_PATH = "/b2api/v2/b2_upload_part/" + FILE_ID;
+   private static final String UPLOAD_FILE_PATH = "/b2api/v2/b2_upload_file/" + BUCKET_ID;
+
+   private MockWebServer server;
+   private BlobStore blobStore;
+
+   @BeforeMethod
+   public void start() throws IOException {
+      server = new MockWebServer();
+      server.start();
+      blobStore = ContextBuilder.newBuilder("b2")
+            .credentials("ACCOUNT_ID", "APPLICATION_KEY")
+            .endpoint(server.url("/").toString())
+            .modules(ImmutableSet.<Module> of(new ExecutorServiceModule(MoreExecutors.newDirectExecutorService())))
+            .buildView(BlobStoreContext.class)
+            .getBlobStore();
+   }
+
+   @AfterMethod(alwaysRun = true)
+   public void stop() throws IOException {
+      blobStore.getContext().close();
+      server.shutdown();
+   }
+
+   public void testPutBlobReusesUploadUrl() throws Exception {
+      server.enqueue(resource("/authorize_account_response.json"));
+      server.enqueue(resource("/list_buckets_response.json"));
+      server.enqueue(noFiles());
+      server.enqueue(uploadUrl(UPLOAD_FILE_PATH + "/1"));
+      server.enqueue(resource("/upload_file_response.json"));
+      server.enqueue(noFiles());
+      server.enqueue(resource("/upload_file_response.json"));
+
+      blobStore.putBlob(BUCKET_NAME, blob("first"));
+      blobStore.putBlob(BUCKET_NAME, blob("second"));
+
+      assertThat(requestPaths()).containsExactly(
+            "/b2api/v2/b2_authorize_account",
+            "/b2api/v2/b2_list_buckets",
+            "/b2api/v2/b2_list_file_names",
+            "/b2api/v2/b2_get_upload_url",
+            UPLOAD_FILE_PATH + "/1",
+            "/b2api/v2/b2_list_file_names",
+            UPLOAD_FILE_PATH + "/1");
+   }
+
+   public void testPutBlobDropsUploadUrlAfterFailure() throws Exception {
+      server.enqueue(resource("/authorize_account_response.json"));
+      server.enqueue(resource("/list_buckets_response.json"));
+      server.enqueue(noFiles());
+      server.enqueue(uploadUrl(UPLOAD_FILE_PATH + "/1"));
+      server.enqueue(expiredToken());
+      server.enqueue(uploadUrl(UPLOAD_FILE_PATH + "/2"));
+      server.enqueue(resource("/upload_file_response.json"));
+      server.enqueue(noFiles());
+      server.enqueue(resource("/upload_file_response.json"));
+
+      blobStore.putBlob(BUCKET_NAME, blob("first"));
+      blobStore.putBlob(BUCKET_NAME, blob("second"));
+
+      assertThat(requestPaths()).containsExactly(
+            "/b2api/v2/b2_authorize_account",
+            "/b2api/v2/b2_list_buckets",
+            "/b2api/v2/b2_list_file_names",
+            "/b2api/v2/b2_get_upload_url",
+            UPLOAD_FILE_PATH + "/1",
+            "/b2api/v2/b2_get_upload_url",
+            UPLOAD_FILE_PATH + "/2",
+            "/b2api/v2/b2_list_file_names",
+            UPLOAD_FILE_PATH + "/2");
+   }
+
+   public void testUploadPartUrlReusedAndDiscardedAfterCompletion() throws Exception {
+      server.enqueue(resource("/authorize_account_response.json"));
+      server.enqueue(resource("/list_buckets_response.json"));
+      server.enqueue(resource("/start_large_file_response.json"));
+      server.enqueue(uploadPartUrl(UPLOAD_PART_PATH + "/1"));
+      server.enqueue(resource("/upload_part_response.json"));
+      server.enqueue(resource("/upload_part_response.json"));
+      server.enqueue(resource("/finish_large_file_response.json"));
+      server.enqueue(uploadPartUrl(UPLOAD_PART_PATH + "/2"));
+      server.enqueue(resource("/upload_part_response.json"));
+
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(BUCKET_NAME, blob("large").getMetadata(),
+            PutOptions.NONE);
+      MultipartPart part1 = blobStore.uploadMultipartPart(mpu, 1, Payloads.newStringPayload("part1"));
+      MultipartPart part2 = blobStore.uploadMultipartPart(mpu, 2, Payloads.newStringPayload("part2"));
+      blobStore.completeMultipartUpload(mpu, ImmutableList.of(part1, part2));
+      // the URLs of a completed large file must not be handed out again
+      blobStore.uploadMultipartPart(mpu, 3, Payloads.newStringPayload("part3"));
+
+      assertThat(requestPaths()).containsExactly(
+            "/b2api/v2/b2_authorize_account",
+            "/b2api/v2/b2_list_buckets",
+            "/b2api/v2/b2_start_large_file",
+            "/b2api/v2/b2_get_upload_part_url",
+            UPLOAD_PART_PATH + "/1",
+            UPLOAD_PART_PATH + "/1",
+            "/b2api/v2/b2_finish_large_file",
+            "/b2api/v2/b2_get_upload_part_url",
+            UPLOAD_PART_PATH + "/2");
+   }
+
+   public void testUploadPartDropsUrlAfterFailure() throws Exception {
+      server.enqueue(resource("/authorize_account_response.json"));
+      server.enqueue(resource("/list_buckets_response.json"));
+      server.enqueue(resource("/start_large_file_response.json"));
+      server.enqueue(uploadPartUrl(UPLOAD_PART_PATH + "/1"));
+      server.enqueue(expiredToken());
+      server.enqueue(uploadPartUrl(UPLOAD_PART_PATH + "/2"));
+      server.enqueue(resource("/upload_part_response.json"));
+      server.enqueue(resource("/upload_part_response.json"));
+
+      MultipartUpload mpu = blobStore.initiateMultipartUpload(BUCKET_NAME, blob("large").getMetadata(),
+            PutOptions.NONE);
+      blobStore.uploadMultipartPart(mpu, 1, Payloads.newStringPayload("part1"));
+      blobStore.uploadMultipartPart(mpu, 2, Payloads.newStringPayload("part2"));
+
+      assertThat(requestPaths()).containsExactly(
+            "/b2api/v2/b2_authorize_account",
+            "/b2api/v2/b2_list_buckets",
+            "/b2api/v2/b2_start_large_file",
+            "/b2api/v2/b2_get_upload_part_url",
+            UPLOAD_PART_PATH + "/1",
+            "/b2api/v2/b2_get_upload_part_url",
+            UPLOAD_PART_PATH + "/2",
+            UPLOAD_PART_PATH + "/2");
+   }
+
+   private Blob blob(String content) {
+      return blobStore.blobBuilder("bigfile.dat").payload(content).build();
+   }
+
+   private List<String> requestPaths() throws InterruptedException {
+      ImmutableList.Builder<String> paths = ImmutableList.builder();
+      for (int i = server.getRequestCount(); i > 0; i--) {
+         paths.add(server.takeRequest().getPath());
+      }
+      return paths.build();
+   }
+
+   private MockResponse uploadUrl(String path) {
+      return new MockResponse().setBody("{\"bucketId\":\"" + BUCKET_ID + "\",\"uploadUrl\":\"" + server.url(path)
+            + "\",\"authorizationToken\":\"UPLOAD_TOKEN\"}");
+   }
+
+   private MockResponse uploadPartUrl(String path) {
+      return new MockResponse().setBody("{\"fileId\":\"" + FILE_ID + "\",\"uploadUrl\":\"" + server.url(path)
+            + "\",\"authorizationToken\":\"UPLOAD_TOKEN\"}");
+   }
+
+   private static MockResponse noFiles() {
+      return new MockResponse().setBody("{\"files\":[],\"nextFileName\":null}");
+   }
+
+   private static MockResponse expiredToken() {
+      return new MockResponse().setResponseCode(401)
+            .setBody("{\"code\":\"expired_auth_token\",\"message\":\"Authorization token has expired\",\"status\":401}");
+   }
+
+   private static MockResponse resource(String resourceName) throws IOException {
+      return new MockResponse().setBody(Strings2.toStringAndClose(
+            B2BlobStoreMockTest.class.getResourceAsStream(resourceName)));
+   }
+}
@@ -26,6 +26,8 @@ import java.io.IOException;
 import java.net.HttpURLConnection;
 import java.net.Proxy;
 import java.net.URI;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import jakarta.inject.Inject;
 import jakarta.inject.Named;
@@ -101,6 +103,9 @@ public class DynECTHttpApiModule extends HttpApiModule<DynECTApi> {
    @Singleton
    private static class SillyRabbit200sAreForSuccess extends JavaUrlHttpCommandExecutorService {
 
+      // serializes requests on the session
+      private final Lock sessionLock = new ReentrantLock();
+
       @Inject
       private SillyRabbit200sAreForSuccess(HttpUtils utils, ContentMetadataCodec contentMetadataCodec,
             DelegatingRetryHandler retryHandler, IOExceptionRetryHandler ioRetryHandler,
@@ -115,19 +120,24 @@ public class DynECTHttpApiModule extends HttpApiModule<DynECTApi> {
       }
 
       /**
-       * synchronized to prevent multiple callers from overlapping requests on the same session
+       * locked to prevent multiple callers from overlapping requests on the same session
        */
       @Override
-      protected synchronized HttpResponse invoke(HttpURLConnection connection) throws IOException, InterruptedException {
-         HttpResponse response = super.invoke(connection);
-         if (response.getStatusCode() == 200) {
-            byte[] data = closeClientButKeepContentStream(response);
-            String message = data != null ? new String(data, Charsets.UTF_8) : null;
-            if (message != null && !message.startsWith("{\"status\": \"success\"")) {
-               response = response.toBuilder().statusCode(400).build();
+      protected HttpResponse invoke(HttpURLConnection connection) throws IOException, InterruptedException {
+         sessionLock.lock();
+         try {
+            HttpResponse response = super.invoke(connection);
+            if (response.getStatusCode() == 200) {
+               byte[] data = closeClientButKeepContentStream(response);
+               String message = data != null ? new String(data, Charsets.UTF_8) : null;
+               if (message != null && !message.startsWith("{\"status\": \"success\"")) {
+                  response = response.toBuilder().statusCode(400).build();
+               }
             }
+            return response;
+         } finally {
+            sessionLock.unlock();
          }
-         return response;
       }
    }
 }
@@ -16,8 +16,11 @@
  */
 package org.jclouds.scriptbuilder.functionloader;
 
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicReference;
 
+import org.jclouds.scriptbuilder.domain.OsFamily;
 import org.jclouds.scriptbuilder.functionloader.filters.LicenseHeaderFilter;
 
 import com.google.common.util.concurrent.Atomics;
@@ -30,9 +33,16 @@ public class CurrentFunctionLoader {
    private static final AtomicReference<FunctionLoader> ref = Atomics.<FunctionLoader>newReference(
             BasicFunctionLoader.INSTANCE);
 
+   // functions on the classpath cannot change, so they are read and filtered once per function and family
+   private static final FunctionLoader CLASSPATH = new CachingFunctionLoader(new LicenseHeaderFilter(
+            BasicFunctionLoader.INSTANCE));
+
    public static FunctionLoader get() {
+      FunctionLoader loader = ref.get();
+      if (loader == BasicFunctionLoader.INSTANCE)
+         return CLASSPATH;
       // Filter out license headers in function scripts
-      return new LicenseHeaderFilter(ref.get());
+      return new LicenseHeaderFilter(loader);
    }
 
    public static FunctionLoader set(FunctionLoader loader) {
@@ -43,4 +53,23 @@ public class CurrentFunctionLoader {
       return ref.getAndSet(BasicFunctionLoader.INSTANCE);
    }
 
+   private static final class CachingFunctionLoader implements FunctionLoader {
+      private final FunctionLoader delegate;
+      private final ConcurrentMap<String, String> functions = new ConcurrentHashMap<String, String>();
+
+      private CachingFunctionLoader(FunctionLoader delegate) {
+         this.delegate = delegate;
+      }
+
+      @Override
+      public String loadFunction(String function, OsFamily family) throws FunctionNotFoundException {
+         String key = function + "." + family;
+         String loaded = functions.get(key);
+         if (loaded == null) {
+            loaded = delegate.loadFunction(function, family);
+            functions.putIfAbsent(key, loaded);
+         }
+         return loaded;
+      }
+   }
 }
@@ -0,0 +1,54 @@
+/*
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.jclouds.scriptbuilder.functionloader;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertSame;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.jclouds.scriptbuilder.domain.OsFamily;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.Test;
+
+@Test(groups = "unit", singleThreaded = true, testName = "CurrentFunctionLoaderTest")
+public class CurrentFunctionLoaderTest {
+
+   @AfterMethod(alwaysRun = true)
+   public void resetLoader() {
+      CurrentFunctionLoader.reset();
+   }
+
+   public void testClasspathFunctionsAreLoadedOnce() {
+      String abort = CurrentFunctionLoader.get().loadFunction("abort", OsFamily.UNIX);
+      assertFalse(abort.contains("Licensed to the Apache Software Foundation"), abort);
+      assertSame(CurrentFunctionLoader.get().loadFunction("abort", OsFamily.UNIX), abort);
+   }
+
+   public void testCustomLoaderIsNotCached() {
+      final AtomicInteger loads = new AtomicInteger();
+      CurrentFunctionLoader.set(new FunctionLoader() {
+         @Override
+         public String loadFunction(String function, OsFamily family) {
+            return "function " + function + " " + loads.incrementAndGet() + "\n";
+         }
+      });
+      assertEquals(CurrentFunctionLoader.get().loadFunction("foo", OsFamily.UNIX), "function foo 1\n");
+      assertEquals(CurrentFunctionLoader.get().loadFunction("foo", OsFamily.UNIX), "function foo 2\n");
+   }
+}